@@ -0,0 +1,142 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exposes the matrices calculated by {@link AlignedQueryService} as CSV, with a header row of sensor IDs, a row per instant and an empty
+ * field where a sensor has no value. The rows are streamed as they are calculated, e.g.:
+ * <pre>
+ * curl 'http://localhost:8080/measurements/aligned?sensorId=a&amp;sensorId=b&amp;from=2025-01-01T00:00:00Z&amp;to=2025-01-02T00:00:00Z&amp;step=PT1M&amp;fill=PREVIOUS'
+ * curl 'http://localhost:8080/measurements/as-of?sensorId=a&amp;sensorId=b&amp;at=2025-01-01T12:00:00Z&amp;at=2025-01-02T12:00:00Z'
+ * </pre>
+ */
+@RestController
+class AlignedQueryController {
+
+    static final String ALIGNED_PATH = "/measurements/aligned";
+
+    static final String AS_OF_PATH = "/measurements/as-of";
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final int MAX_ROWS = 1_000_000;
+
+    private final AlignedQueryService alignedQueryService;
+
+    AlignedQueryController(AlignedQueryService alignedQueryService) {
+
+        this.alignedQueryService = Objects.requireNonNull(alignedQueryService);
+    }
+
+    /**
+     * Returns the values of the sensors on a grid of instants from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    @GetMapping(ALIGNED_PATH)
+    public ResponseEntity<StreamingResponseBody> aligned(
+            @RequestParam("sensorId") List<String> sensorIds,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            @RequestParam(name = "step", defaultValue = "PT1M") Duration step,
+            @RequestParam(name = "fill", defaultValue = "PREVIOUS") FillPolicy fillPolicy) {
+
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        if (step.isNegative() || step.isZero()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "step must be positive");
+        }
+
+        if (Duration.between(from, to).dividedBy(step) >= MAX_ROWS) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "The grid must have less than " + MAX_ROWS + " rows");
+        }
+
+        List<Instant> instants = new ArrayList<>();
+
+        for (Instant instant = from; instant.isBefore(to); instant = instant.plus(step)) {
+            instants.add(instant);
+        }
+
+        return stream(sensorIds, instants, fillPolicy);
+    }
+
+    /**
+     * Returns the values of the sensors as of (i.e. at or before) each of the instants.
+     */
+    @GetMapping(AS_OF_PATH)
+    public ResponseEntity<StreamingResponseBody> asOf(
+            @RequestParam("sensorId") List<String> sensorIds, @RequestParam("at") List<Instant> instants) {
+
+        if (instants.size() > MAX_ROWS) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "There must be less than " + MAX_ROWS + " instants");
+        }
+
+        return stream(sensorIds, instants.stream().sorted().distinct().toList(), FillPolicy.PREVIOUS);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(
+            List<String> sensorIds, List<Instant> instants, FillPolicy fillPolicy) {
+
+        if (sensorIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one sensorId is required");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+            writer.write("timestamp");
+            for (String sensorId : sensorIds) {
+                writer.write(',');
+                writeCsvValue(writer, sensorId);
+            }
+            writer.write('\n');
+
+            alignedQueryService.query(sensorIds, instants, fillPolicy, (instant, values) -> {
+                writer.write(instant.toString());
+                for (double value : values) {
+                    writer.write(',');
+                    if (!Double.isNaN(value)) {
+                        writer.write(Double.toString(value));
+                    }
+                }
+                writer.write('\n');
+            });
+
+            writer.flush();
+        };
+
+        return ResponseEntity.ok().contentType(TEXT_CSV).body(body);
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,201 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.MeasurementRepository.NumericValueCursor;
+import generated.dto.Measurement;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Calculates the values of many sensors at the same instants (e.g. on a common grid), as a matrix with a row per instant and a column per
+ * sensor.
+ * <p>
+ * Instead of querying each sensor for each instant, a cursor is opened per sensor over the whole time range, read in the order of the
+ * primary key, and the cursors are merged by timestamp (a k-way merge using a heap) in a single pass. Rows are passed to the callback as
+ * soon as they are calculated, so the matrix does not need to fit in memory. The measurement at or before the first instant (and, for
+ * {@link FillPolicy#LINEAR}, after the last instant) is looked up separately for each sensor.
+ */
+@Service
+class AlignedQueryService {
+
+    /**
+     * Receives the rows of the matrix in the order of the instants.
+     */
+    @FunctionalInterface
+    interface RowCallback {
+
+        /**
+         * @param values the value of each sensor (in the order of the sensor IDs), or {@link Double#NaN} if a sensor has no value. The array
+         *     is reused for the next row.
+         */
+        void accept(Instant instant, double[] values) throws IOException;
+    }
+
+    private final MeasurementRepository measurementRepository;
+
+    AlignedQueryService(MeasurementRepository measurementRepository) {
+
+        this.measurementRepository = Objects.requireNonNull(measurementRepository);
+    }
+
+    /**
+     * Calculates the values of the sensors at each of the instants, which must be in ascending order.
+     */
+    @Transactional(readOnly = true)
+    public void query(List<String> sensorIds, List<Instant> instants, FillPolicy fillPolicy, RowCallback callback)
+            throws IOException {
+
+        if (instants.isEmpty()) {
+            return;
+        }
+
+        int sensorCount = sensorIds.size();
+        Instant firstInstant = instants.get(0);
+        Instant lastInstant = instants.get(instants.size() - 1);
+
+        // The latest measurement of each sensor at or before the instant of the current row.
+        Instant[] previousTimestamps = new Instant[sensorCount];
+        double[] previousValues = new double[sensorCount];
+
+        // The next measurement of each sensor, which is the current measurement of its cursor (or the measurement after the last instant
+        // once the cursor is exhausted).
+        Instant[] nextTimestamps = new Instant[sensorCount];
+        double[] nextValues = new double[sensorCount];
+
+        List<NumericValueCursor> cursors = new ArrayList<>(sensorCount);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(
+                Math.max(1, sensorCount), (a, b) -> nextTimestamps[a].compareTo(nextTimestamps[b]));
+
+        try {
+            for (int i = 0; i < sensorCount; i++) {
+
+                String sensorId = sensorIds.get(i);
+
+                Measurement previous = measurementRepository.findLatestNumericAtOrBefore(sensorId, firstInstant);
+                if (previous != null) {
+                    previousTimestamps[i] = previous.getTimestamp().toInstant();
+                    previousValues[i] = previous.getNumericValue();
+                }
+
+                NumericValueCursor cursor =
+                        measurementRepository.openNumericValueCursor(sensorId, firstInstant, lastInstant);
+                cursors.add(cursor);
+
+                if (cursor.next()) {
+                    nextTimestamps[i] = cursor.getTimestamp();
+                    nextValues[i] = cursor.getNumericValue();
+                    heap.add(i);
+                } else {
+                    setMeasurementAfterLastInstant(sensorId, lastInstant, fillPolicy, i, nextTimestamps, nextValues);
+                }
+            }
+
+            double[] values = new double[sensorCount];
+
+            for (Instant instant : instants) {
+
+                // Advances the cursors past the instant.
+                while (!heap.isEmpty() && !nextTimestamps[heap.peek()].isAfter(instant)) {
+
+                    int i = heap.poll();
+                    previousTimestamps[i] = nextTimestamps[i];
+                    previousValues[i] = nextValues[i];
+
+                    NumericValueCursor cursor = cursors.get(i);
+
+                    if (cursor.next()) {
+                        nextTimestamps[i] = cursor.getTimestamp();
+                        nextValues[i] = cursor.getNumericValue();
+                        heap.add(i);
+                    } else {
+                        setMeasurementAfterLastInstant(
+                                sensorIds.get(i), lastInstant, fillPolicy, i, nextTimestamps, nextValues);
+                    }
+                }
+
+                Arrays.fill(values, Double.NaN);
+
+                for (int i = 0; i < sensorCount; i++) {
+
+                    Instant previousTimestamp = previousTimestamps[i];
+
+                    if (previousTimestamp == null) {
+                        continue;
+                    }
+
+                    switch (fillPolicy) {
+                        case NONE:
+                            if (previousTimestamp.equals(instant)) {
+                                values[i] = previousValues[i];
+                            }
+                            break;
+                        case PREVIOUS:
+                            values[i] = previousValues[i];
+                            break;
+                        case LINEAR:
+                            values[i] = interpolate(
+                                    instant, previousTimestamp, previousValues[i], nextTimestamps[i], nextValues[i]);
+                            break;
+                    }
+                }
+
+                callback.accept(instant, values);
+            }
+        } finally {
+            for (NumericValueCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private void setMeasurementAfterLastInstant(
+            String sensorId,
+            Instant lastInstant,
+            FillPolicy fillPolicy,
+            int index,
+            Instant[] nextTimestamps,
+            double[] nextValues) {
+
+        nextTimestamps[index] = null;
+
+        if (fillPolicy != FillPolicy.LINEAR) {
+            return;
+        }
+
+        Measurement next = measurementRepository.findEarliestNumericAfter(sensorId, lastInstant);
+
+        if (next != null) {
+            nextTimestamps[index] = next.getTimestamp().toInstant();
+            nextValues[index] = next.getNumericValue();
+        }
+    }
+
+    private static double interpolate(
+            Instant instant, Instant previousTimestamp, double previousValue, Instant nextTimestamp, double nextValue) {
+
+        if (previousTimestamp.equals(instant)) {
+            return previousValue;
+        }
+
+        if (nextTimestamp == null) {
+            return Double.NaN;
+        }
+
+        double elapsed = toMicros(instant) - toMicros(previousTimestamp);
+        double interval = toMicros(nextTimestamp) - toMicros(previousTimestamp);
+
+        return previousValue + (nextValue - previousValue) * (elapsed / interval);
+    }
+
+    private static long toMicros(Instant instant) {
+
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+}
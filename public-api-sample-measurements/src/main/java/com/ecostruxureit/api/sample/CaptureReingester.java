@@ -0,0 +1,93 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.client.StreamCapture;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-ingests the streams recorded in the {@code captureDirectory} (see {@link StreamCapture}) through {@link FetchEngine}, as fast as
+ * possible and without connecting to the API. This can be used to reproduce a production load (e.g. for profiling), or to rebuild the
+ * database after a schema change.
+ * <p>
+ * This class is only used when the "reingest" profile is active, e.g. {@code --spring.profiles.active=reingest}, in which case
+ * {@link FetchTimer} is not used. The application keeps running after re-ingesting, so the database can be inspected.
+ */
+@Service
+@Profile(Profiles.REINGEST)
+class CaptureReingester {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaptureReingester.class);
+
+    private final FetchEngine fetchEngine;
+
+    private final TaskExecutor taskExecutor;
+
+    private final Consumer<Throwable> fatalExceptionConsumer;
+
+    private final String captureDirectory;
+
+    CaptureReingester(
+            Configuration configuration,
+            FetchEngine fetchEngine,
+            TaskExecutor taskExecutor,
+            Consumer<Throwable> fatalExceptionConsumer) {
+
+        this.fetchEngine = Objects.requireNonNull(fetchEngine);
+        this.taskExecutor = Objects.requireNonNull(taskExecutor);
+        this.fatalExceptionConsumer = Objects.requireNonNull(fatalExceptionConsumer);
+        this.captureDirectory = configuration.getCaptureDirectory();
+
+        if (Strings.isEmpty(captureDirectory)) {
+            throw new RuntimeException("Configuration parameter captureDirectory must be set to re-ingest recorded streams");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReadyEvent() {
+
+        taskExecutor.execute(() -> {
+            try {
+                reingest();
+            } catch (Throwable ex) {
+                LOGGER.error("Caught exception while re-ingesting, shutting down", ex);
+                fatalExceptionConsumer.accept(ex);
+            }
+        });
+    }
+
+    private void reingest() throws Exception {
+
+        List<StreamCapture> streamCaptures = StreamCapture.findAll(Path.of(captureDirectory));
+
+        LOGGER.info("Re-ingesting {} recorded streams from {}", streamCaptures.size(), captureDirectory);
+
+        long startedAtNanos = System.nanoTime();
+        long totalMeasurementCount = 0;
+
+        for (StreamCapture streamCapture : streamCaptures) {
+            long measurementCount = fetchEngine.reingest(streamCapture);
+            totalMeasurementCount += measurementCount;
+            LOGGER.info("Re-ingested {} measurements from {}", measurementCount, streamCapture);
+        }
+
+        long elapsedInMilliseconds = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos));
+
+        LOGGER.info(
+                "Re-ingested {} measurements in {} ms ({} measurements/s)",
+                totalMeasurementCount,
+                elapsedInMilliseconds,
+                totalMeasurementCount * 1_000 / elapsedInMilliseconds);
+    }
+}
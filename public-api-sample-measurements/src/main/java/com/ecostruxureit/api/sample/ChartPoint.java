@@ -0,0 +1,37 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A point of a downsampled series, as returned by {@link SensorChartController}.
+ */
+public final class ChartPoint {
+
+    private final Instant timestamp;
+
+    private final double value;
+
+    ChartPoint(Instant timestamp, double value) {
+
+        this.timestamp = Objects.requireNonNull(timestamp);
+        this.value = value;
+    }
+
+    public Instant getTimestamp() {
+
+        return timestamp;
+    }
+
+    public double getValue() {
+
+        return value;
+    }
+
+    @Override
+    public String toString() {
+
+        return timestamp + "=" + value;
+    }
+}
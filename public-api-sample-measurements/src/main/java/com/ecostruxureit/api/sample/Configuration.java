@@ -4,6 +4,8 @@ package com.ecostruxureit.api.sample;
 import jakarta.annotation.PostConstruct;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -38,6 +40,62 @@ public class Configuration {
 
     private int batchSize = 100;
 
+    private int statisticsBucketSizeInMinutes = 60;
+
+    private int stagingMergeChunkSize = 10_000;
+
+    private int stagingMergeQuietMeasurementsPerSecond = 100;
+
+    private int writerShards = 1;
+
+    private MeasurementWriteStrategy measurementWriteStrategy = MeasurementWriteStrategy.BATCHED_MERGE;
+
+    private String measurementQueueFile;
+
+    private int measurementQueueSizeInMegabytes = 64;
+
+    private SensorFilterMode sensorFilterMode = SensorFilterMode.NONE;
+
+    private String sensorFilterFile;
+
+    private int parseWorkers = 1;
+
+    private String captureDirectory;
+
+    private int captureFileSizeInMegabytes = 256;
+
+    private int hotTierMaxAgeInMinutes = 240;
+
+    private int hotTierSizeInMegabytes = 64;
+
+    private boolean livenessEnabled = true;
+
+    private int livenessSilenceFactor = 3;
+
+    private int livenessMinimumSilenceInSeconds = 60;
+
+    private boolean leaseEnabled;
+
+    private int leaseDurationInSeconds = 15;
+
+    private String nodeId;
+
+    private int measurementRetentionInDays;
+
+    private int statisticsRetentionInDays;
+
+    private int livenessRetentionInDays;
+
+    private int replayRetentionInDays;
+
+    private int retentionIntervalInMinutes = 60;
+
+    private int retentionChunkSize = 1_000;
+
+    private int retentionMaxWriteLatencyInMilliseconds = 250;
+
+    private int compactionHourOfDay = -1;
+
     public String getApiKey() {
 
         return apiKey;
@@ -63,6 +121,146 @@ public class Configuration {
         return batchSize;
     }
 
+    public int getStatisticsBucketSizeInMinutes() {
+
+        return statisticsBucketSizeInMinutes;
+    }
+
+    public int getStagingMergeChunkSize() {
+
+        return stagingMergeChunkSize;
+    }
+
+    public int getStagingMergeQuietMeasurementsPerSecond() {
+
+        return stagingMergeQuietMeasurementsPerSecond;
+    }
+
+    public int getWriterShards() {
+
+        return writerShards;
+    }
+
+    public MeasurementWriteStrategy getMeasurementWriteStrategy() {
+
+        return measurementWriteStrategy;
+    }
+
+    public String getMeasurementQueueFile() {
+
+        return measurementQueueFile;
+    }
+
+    public int getMeasurementQueueSizeInMegabytes() {
+
+        return measurementQueueSizeInMegabytes;
+    }
+
+    public SensorFilterMode getSensorFilterMode() {
+
+        return sensorFilterMode;
+    }
+
+    public String getSensorFilterFile() {
+
+        return sensorFilterFile;
+    }
+
+    public int getParseWorkers() {
+
+        return parseWorkers;
+    }
+
+    public String getCaptureDirectory() {
+
+        return captureDirectory;
+    }
+
+    public int getCaptureFileSizeInMegabytes() {
+
+        return captureFileSizeInMegabytes;
+    }
+
+    public int getHotTierMaxAgeInMinutes() {
+
+        return hotTierMaxAgeInMinutes;
+    }
+
+    public int getHotTierSizeInMegabytes() {
+
+        return hotTierSizeInMegabytes;
+    }
+
+    public boolean isLivenessEnabled() {
+
+        return livenessEnabled;
+    }
+
+    public int getLivenessSilenceFactor() {
+
+        return livenessSilenceFactor;
+    }
+
+    public int getLivenessMinimumSilenceInSeconds() {
+
+        return livenessMinimumSilenceInSeconds;
+    }
+
+    public boolean isLeaseEnabled() {
+
+        return leaseEnabled;
+    }
+
+    public int getLeaseDurationInSeconds() {
+
+        return leaseDurationInSeconds;
+    }
+
+    public String getNodeId() {
+
+        return nodeId;
+    }
+
+    public int getMeasurementRetentionInDays() {
+
+        return measurementRetentionInDays;
+    }
+
+    public int getStatisticsRetentionInDays() {
+
+        return statisticsRetentionInDays;
+    }
+
+    public int getLivenessRetentionInDays() {
+
+        return livenessRetentionInDays;
+    }
+
+    public int getReplayRetentionInDays() {
+
+        return replayRetentionInDays;
+    }
+
+    public int getRetentionIntervalInMinutes() {
+
+        return retentionIntervalInMinutes;
+    }
+
+    public int getRetentionChunkSize() {
+
+        return retentionChunkSize;
+    }
+
+    public int getRetentionMaxWriteLatencyInMilliseconds() {
+
+        return retentionMaxWriteLatencyInMilliseconds;
+    }
+
+    public int getCompactionHourOfDay() {
+
+        return compactionHourOfDay;
+    }
+
     void setApiKey(String apiKey) {
 
         this.apiKey = apiKey;
@@ -88,6 +286,146 @@ public class Configuration {
         this.batchSize = batchSize;
     }
 
+    void setStatisticsBucketSizeInMinutes(int statisticsBucketSizeInMinutes) {
+
+        this.statisticsBucketSizeInMinutes = statisticsBucketSizeInMinutes;
+    }
+
+    void setStagingMergeChunkSize(int stagingMergeChunkSize) {
+
+        this.stagingMergeChunkSize = stagingMergeChunkSize;
+    }
+
+    void setStagingMergeQuietMeasurementsPerSecond(int stagingMergeQuietMeasurementsPerSecond) {
+
+        this.stagingMergeQuietMeasurementsPerSecond = stagingMergeQuietMeasurementsPerSecond;
+    }
+
+    void setWriterShards(int writerShards) {
+
+        this.writerShards = writerShards;
+    }
+
+    void setMeasurementWriteStrategy(MeasurementWriteStrategy measurementWriteStrategy) {
+
+        this.measurementWriteStrategy = measurementWriteStrategy;
+    }
+
+    void setMeasurementQueueFile(String measurementQueueFile) {
+
+        this.measurementQueueFile = measurementQueueFile;
+    }
+
+    void setMeasurementQueueSizeInMegabytes(int measurementQueueSizeInMegabytes) {
+
+        this.measurementQueueSizeInMegabytes = measurementQueueSizeInMegabytes;
+    }
+
+    void setSensorFilterMode(SensorFilterMode sensorFilterMode) {
+
+        this.sensorFilterMode = sensorFilterMode;
+    }
+
+    void setSensorFilterFile(String sensorFilterFile) {
+
+        this.sensorFilterFile = sensorFilterFile;
+    }
+
+    void setParseWorkers(int parseWorkers) {
+
+        this.parseWorkers = parseWorkers;
+    }
+
+    void setCaptureDirectory(String captureDirectory) {
+
+        this.captureDirectory = captureDirectory;
+    }
+
+    void setCaptureFileSizeInMegabytes(int captureFileSizeInMegabytes) {
+
+        this.captureFileSizeInMegabytes = captureFileSizeInMegabytes;
+    }
+
+    void setHotTierMaxAgeInMinutes(int hotTierMaxAgeInMinutes) {
+
+        this.hotTierMaxAgeInMinutes = hotTierMaxAgeInMinutes;
+    }
+
+    void setHotTierSizeInMegabytes(int hotTierSizeInMegabytes) {
+
+        this.hotTierSizeInMegabytes = hotTierSizeInMegabytes;
+    }
+
+    void setLivenessEnabled(boolean livenessEnabled) {
+
+        this.livenessEnabled = livenessEnabled;
+    }
+
+    void setLivenessSilenceFactor(int livenessSilenceFactor) {
+
+        this.livenessSilenceFactor = livenessSilenceFactor;
+    }
+
+    void setLivenessMinimumSilenceInSeconds(int livenessMinimumSilenceInSeconds) {
+
+        this.livenessMinimumSilenceInSeconds = livenessMinimumSilenceInSeconds;
+    }
+
+    void setLeaseEnabled(boolean leaseEnabled) {
+
+        this.leaseEnabled = leaseEnabled;
+    }
+
+    void setLeaseDurationInSeconds(int leaseDurationInSeconds) {
+
+        this.leaseDurationInSeconds = leaseDurationInSeconds;
+    }
+
+    void setNodeId(String nodeId) {
+
+        this.nodeId = nodeId;
+    }
+
+    void setMeasurementRetentionInDays(int measurementRetentionInDays) {
+
+        this.measurementRetentionInDays = measurementRetentionInDays;
+    }
+
+    void setStatisticsRetentionInDays(int statisticsRetentionInDays) {
+
+        this.statisticsRetentionInDays = statisticsRetentionInDays;
+    }
+
+    void setLivenessRetentionInDays(int livenessRetentionInDays) {
+
+        this.livenessRetentionInDays = livenessRetentionInDays;
+    }
+
+    void setReplayRetentionInDays(int replayRetentionInDays) {
+
+        this.replayRetentionInDays = replayRetentionInDays;
+    }
+
+    void setRetentionIntervalInMinutes(int retentionIntervalInMinutes) {
+
+        this.retentionIntervalInMinutes = retentionIntervalInMinutes;
+    }
+
+    void setRetentionChunkSize(int retentionChunkSize) {
+
+        this.retentionChunkSize = retentionChunkSize;
+    }
+
+    void setRetentionMaxWriteLatencyInMilliseconds(int retentionMaxWriteLatencyInMilliseconds) {
+
+        this.retentionMaxWriteLatencyInMilliseconds = retentionMaxWriteLatencyInMilliseconds;
+    }
+
+    void setCompactionHourOfDay(int compactionHourOfDay) {
+
+        this.compactionHourOfDay = compactionHourOfDay;
+    }
+
     @PostConstruct
     private void onPostConstruct() {
 
@@ -112,6 +450,108 @@ public class Configuration {
             missingConfigurationProperties.add("organizationId");
         }
 
+        if (statisticsBucketSizeInMinutes <= 0) {
+            String errorMessage = "Configuration parameter statisticsBucketSizeInMinutes must be positive: "
+                    + statisticsBucketSizeInMinutes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (writerShards <= 0) {
+            String errorMessage = "Configuration parameter writerShards must be positive: " + writerShards;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (measurementWriteStrategy == null) {
+            missingConfigurationProperties.add("measurementWriteStrategy");
+        }
+
+        if (sensorFilterMode == null) {
+            missingConfigurationProperties.add("sensorFilterMode");
+        }
+
+        if (parseWorkers <= 0) {
+            String errorMessage = "Configuration parameter parseWorkers must be positive: " + parseWorkers;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (captureFileSizeInMegabytes <= 0) {
+            String errorMessage = "Configuration parameter captureFileSizeInMegabytes must be positive: "
+                    + captureFileSizeInMegabytes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (hotTierMaxAgeInMinutes < 0) {
+            String errorMessage = "Configuration parameter hotTierMaxAgeInMinutes must not be negative: "
+                    + hotTierMaxAgeInMinutes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (hotTierSizeInMegabytes <= 0) {
+            String errorMessage = "Configuration parameter hotTierSizeInMegabytes must be positive: " + hotTierSizeInMegabytes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (livenessSilenceFactor <= 0) {
+            String errorMessage =
+                    "Configuration parameter livenessSilenceFactor must be positive: " + livenessSilenceFactor;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (livenessMinimumSilenceInSeconds <= 0) {
+            String errorMessage = "Configuration parameter livenessMinimumSilenceInSeconds must be positive: "
+                    + livenessMinimumSilenceInSeconds;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (leaseDurationInSeconds < 3) {
+            String errorMessage =
+                    "Configuration parameter leaseDurationInSeconds must be at least 3: " + leaseDurationInSeconds;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (measurementRetentionInDays < 0
+                || statisticsRetentionInDays < 0
+                || livenessRetentionInDays < 0
+                || replayRetentionInDays < 0) {
+            String errorMessage = "Configuration parameters measurementRetentionInDays, statisticsRetentionInDays,"
+                    + " livenessRetentionInDays and replayRetentionInDays must not be negative";
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (retentionIntervalInMinutes <= 0) {
+            String errorMessage = "Configuration parameter retentionIntervalInMinutes must be positive: "
+                    + retentionIntervalInMinutes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (retentionChunkSize <= 0) {
+            String errorMessage = "Configuration parameter retentionChunkSize must be positive: " + retentionChunkSize;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (retentionMaxWriteLatencyInMilliseconds <= 0) {
+            String errorMessage = "Configuration parameter retentionMaxWriteLatencyInMilliseconds must be positive: "
+                    + retentionMaxWriteLatencyInMilliseconds;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (compactionHourOfDay < -1 || compactionHourOfDay > 23) {
+            String errorMessage =
+                    "Configuration parameter compactionHourOfDay must be between -1 and 23: " + compactionHourOfDay;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (measurementQueueSizeInMegabytes <= 0 || measurementQueueSizeInMegabytes > 1024) {
+            String errorMessage = "Configuration parameter measurementQueueSizeInMegabytes must be between 1 and 1024: "
+                    + measurementQueueSizeInMegabytes;
+            throw new RuntimeException(errorMessage);
+        }
+
+        if (!Strings.isEmpty(sensorFilterFile) && !Files.isReadable(Path.of(sensorFilterFile))) {
+            String errorMessage = "Configuration parameter sensorFilterFile is not a readable file: " + sensorFilterFile;
+            throw new RuntimeException(errorMessage);
+        }
+
         if (!missingConfigurationProperties.isEmpty()) {
             String errorMessage = "Invalid configuration:\n\n";
             errorMessage += "Missing configuration properties:\n";
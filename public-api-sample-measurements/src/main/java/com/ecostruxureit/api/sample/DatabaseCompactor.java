@@ -0,0 +1,160 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Compacts the database file once a day, within the hour (UTC) given by the {@code compactionHourOfDay} configuration property (-1, the
+ * default, disables it).
+ * <p>
+ * H2 reuses the space freed by deleted rows (see {@link RetentionService}), but the file itself only shrinks, and the remaining rows are
+ * only stored next to each other again, when the database is closed using {@code SHUTDOWN COMPACT}. Since that closes the database,
+ * {@link FetchEngine} is paused first (the measurements missed meanwhile are replayed afterwards, if replay is enabled), and the
+ * connections of the pool are replaced afterwards, which opens the database again. Other users of the database, such as REST requests, may
+ * fail while the database is closed.
+ * <p>
+ * Only an embedded database stored in a file is compacted. An in-memory database would be lost, and a database shared with other
+ * processes (using the H2 server) must not be closed by one of them.
+ */
+@Service
+class DatabaseCompactor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseCompactor.class);
+
+    /**
+     * How long to wait for the live and replay tasks to stop before giving up until the next window.
+     */
+    private static final Duration PAUSE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final FetchEngine fetchEngine;
+
+    private final Clock clock;
+
+    private final int compactionHourOfDay;
+
+    private Boolean embeddedFileDatabase;
+
+    private LocalDate lastCompactionDate;
+
+    @Autowired
+    DatabaseCompactor(
+            Configuration configuration, DataSource dataSource, JdbcTemplate jdbcTemplate, FetchEngine fetchEngine) {
+
+        this(configuration.getCompactionHourOfDay(), dataSource, jdbcTemplate, fetchEngine, Clock.systemUTC());
+    }
+
+    DatabaseCompactor(
+            int compactionHourOfDay,
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            FetchEngine fetchEngine,
+            Clock clock) {
+
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+        this.fetchEngine = Objects.requireNonNull(fetchEngine);
+        this.clock = Objects.requireNonNull(clock);
+        this.compactionHourOfDay = compactionHourOfDay;
+    }
+
+    /**
+     * Compacts the database if the window has been reached and the database has not been compacted today.
+     *
+     * @return whether the database was compacted
+     */
+    boolean maybeCompact() throws InterruptedException {
+
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+
+        if (compactionHourOfDay < 0
+                || now.getHour() != compactionHourOfDay
+                || now.toLocalDate().equals(lastCompactionDate)
+                || !isEmbeddedFileDatabase()) {
+            return false;
+        }
+
+        lastCompactionDate = now.toLocalDate();
+
+        LOGGER.info("Pausing the retrieval of measurements to compact the database");
+
+        try {
+            if (!fetchEngine.pause(PAUSE_TIMEOUT)) {
+                LOGGER.warn(
+                        "Measurements were still being retrieved after {}, not compacting the database today",
+                        PAUSE_TIMEOUT);
+                return false;
+            }
+
+            long startedAtNanos = System.nanoTime();
+
+            jdbcTemplate.execute("SHUTDOWN COMPACT");
+            evictConnections();
+
+            LOGGER.info(
+                    "Compacted the database in {} ms",
+                    Duration.ofNanos(System.nanoTime() - startedAtNanos).toMillis());
+
+            return true;
+        } finally {
+            fetchEngine.resume();
+        }
+    }
+
+    private boolean isEmbeddedFileDatabase() {
+
+        if (embeddedFileDatabase == null) {
+            try {
+                String url = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getURL)
+                        .toLowerCase(Locale.ROOT);
+                embeddedFileDatabase = url.startsWith("jdbc:h2:")
+                        && !url.startsWith("jdbc:h2:mem:")
+                        && !url.startsWith("jdbc:h2:tcp:")
+                        && !url.startsWith("jdbc:h2:ssl:")
+                        && !url.contains(";auto_server=true");
+            } catch (MetaDataAccessException ex) {
+                LOGGER.warn("Failed to get the URL of the database, not compacting it", ex);
+                embeddedFileDatabase = false;
+            }
+
+            if (!embeddedFileDatabase) {
+                LOGGER.info("The database is not an embedded database stored in a file, so it is not compacted");
+            }
+        }
+
+        return embeddedFileDatabase;
+    }
+
+    /**
+     * Replaces the connections of the pool, which were all closed with the database.
+     */
+    private void evictConnections() {
+
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                pool.softEvictConnections();
+            }
+        }
+    }
+}
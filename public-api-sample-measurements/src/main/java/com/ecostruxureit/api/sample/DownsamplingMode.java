@@ -0,0 +1,19 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * How {@link SensorChartService} chooses the measurements to keep when a time range has more measurements than can be charted.
+ */
+public enum DownsamplingMode {
+
+    /**
+     * The Largest-Triangle-Three-Buckets algorithm, which keeps one measurement per bucket: the one forming the largest triangle with the
+     * measurement kept in the previous bucket and the average of the next bucket. This preserves the visual shape of the series well.
+     */
+    LTTB,
+
+    /**
+     * The minimum and the maximum measurement of each bucket (e.g. per pixel column) are kept, so that no peak is lost.
+     */
+    MIN_MAX
+}
@@ -4,70 +4,234 @@ package com.ecostruxureit.api.sample;
 import com.ecostruxureit.api.sample.client.ApiClient;
 import com.ecostruxureit.api.sample.client.ApiException;
 import com.ecostruxureit.api.sample.client.InvalidRequestException;
+import com.ecostruxureit.api.sample.client.MeasurementConsumer;
+import com.ecostruxureit.api.sample.client.RateLimitRetriableApiException;
+import com.ecostruxureit.api.sample.client.RetriableApiException;
+import com.ecostruxureit.api.sample.client.StreamCapture;
 import generated.dto.Measurement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.support.TransactionTemplate;
-
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Retrieves live measurements and, if enabled, replays measurements that were missed while being disconnected from the live measurements
+ * stream.
+ * <p>
+ * The live and replay tasks are supervised through completion callbacks instead of waiting for the next call of {@link #fetch()}: when a
+ * task ends with a {@link RetriableApiException} it is restarted immediately, and only repeated failures (or rate limiting) cause a
+ * jittered, exponentially increasing delay. Similarly, when a replay completes, the next pending replay is started right away. Other
+ * exceptions are rethrown by the next call of {@link #fetch()}.
+ * <p>
+ * Live measurements are saved by {@link MeasurementWriter}, possibly in parallel, published to local consumers by
+ * {@link MeasurementQueuePublisher}, and tracked by {@link SensorLivenessMonitor}. Replayed measurements are staged by
+ * {@link MeasurementReplayService} and merged into the {@code measurement} table by {@link MeasurementStagingMerger} on each call of
+ * {@link #fetch()}.
+ * <p>
+ * The live measurements are only retrieved while this node holds the {@link LeaseManager#LIVE_LEASE}, and replays are only performed while
+ * it holds the {@link LeaseManager#REPLAY_LEASE}. A task stops when its lease is lost, and is started again by {@link #fetch()} (or by
+ * {@link #onLeaseAcquired(String)}) once the lease is held again.
+ * <p>
+ * Fetching can be paused (see {@link #pause(Duration)}) while the database is taken offline for maintenance. The measurements missed while
+ * paused are replayed afterwards (if replay is enabled), like after a disconnect.
+ */
 @Service
 class FetchEngine {
 
+    static final String LIVE_RECONNECT_LATENCY_METRIC = "measurements.live.reconnect.latency";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(FetchEngine.class);
 
+    private static final long INITIAL_RESTART_BACK_OFF_IN_MILLISECONDS = 1_000;
+
+    private static final long MAX_RESTART_BACK_OFF_IN_MILLISECONDS = TimeUnit.MINUTES.toMillis(5);
+
     private final ApiClient apiClient;
 
     private final ExecutorService executorService;
 
-    private final MeasurementLiveService measurementLiveService;
+    private final MeasurementWriter measurementWriter;
+
+    private final MeasurementQueuePublisher measurementQueuePublisher;
 
     private final MeasurementReplayService measurementReplayService;
 
-    private final TransactionTemplate transactionTemplate;
+    private final MeasurementStagingMerger measurementStagingMerger;
+
+    private final SensorLivenessMonitor sensorLivenessMonitor;
+
+    private final LeaseManager leaseManager;
 
     private final boolean replayEnabled;
 
     private final int batchSize;
 
-    private Future<Void> liveFuture;
+    private final Timer liveReconnectLatencyTimer;
 
-    private Future<Void> replayFuture;
+    private final RestartPolicy liveRestartPolicy = new RestartPolicy();
+
+    private final RestartPolicy replayRestartPolicy = new RestartPolicy();
+
+    /**
+     * Held while {@link #fetch()} runs, so that {@link #pause(Duration)} can wait for it.
+     */
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    private volatile boolean paused;
+
+    private CompletableFuture<Void> liveFuture;
+
+    private CompletableFuture<Boolean> replayFuture;
+
+    /**
+     * The value of {@link System#nanoTime()} when the live measurements stream was lost, or {@code 0} if it is connected.
+     */
+    private long liveDisconnectedAtNanos;
 
     FetchEngine(
             Configuration configuration,
             ApiClient apiClient,
             ExecutorService executorService,
-            MeasurementLiveService measurementLiveService,
+            MeasurementWriter measurementWriter,
+            MeasurementQueuePublisher measurementQueuePublisher,
             MeasurementReplayService measurementReplayService,
-            TransactionTemplate transactionTemplate) {
+            MeasurementStagingMerger measurementStagingMerger,
+            SensorLivenessMonitor sensorLivenessMonitor,
+            LeaseManager leaseManager,
+            MeterRegistry meterRegistry) {
 
         this.apiClient = Objects.requireNonNull(apiClient);
         this.executorService = Objects.requireNonNull(executorService);
-        this.measurementLiveService = Objects.requireNonNull(measurementLiveService);
+        this.measurementWriter = Objects.requireNonNull(measurementWriter);
+        this.measurementQueuePublisher = Objects.requireNonNull(measurementQueuePublisher);
         this.measurementReplayService = Objects.requireNonNull(measurementReplayService);
-        this.transactionTemplate = Objects.requireNonNull(transactionTemplate);
+        this.measurementStagingMerger = Objects.requireNonNull(measurementStagingMerger);
+        this.sensorLivenessMonitor = Objects.requireNonNull(sensorLivenessMonitor);
+        this.leaseManager = Objects.requireNonNull(leaseManager);
 
         this.batchSize = configuration.getBatchSize();
         this.replayEnabled = configuration.isReplayEnabled();
+
+        this.liveReconnectLatencyTimer = Timer.builder(LIVE_RECONNECT_LATENCY_METRIC)
+                .description("Time from losing the live measurements stream until live measurements are received again")
+                .register(meterRegistry);
     }
 
     void fetch() throws ApiException {
 
-        maybeRetrieveLiveMeasurements();
+        fetchLock.lock();
 
-        if (replayEnabled) {
-            maybeReplayMeasurements();
+        try {
+            if (paused) {
+                return;
+            }
+
+            maybeRetrieveLiveMeasurements();
+
+            if (replayEnabled) {
+                maybeReplayMeasurements();
+                maybeMergeStagedMeasurements();
+            }
+        } finally {
+            fetchLock.unlock();
         }
     }
 
-    private void maybeRetrieveLiveMeasurements() throws ApiException {
+    /**
+     * Stops the live and replay tasks and waits until they have ended and everything they have received has been written, so that the
+     * database can be taken offline. Since the live measurements stream is only stopped when the next batch is received, this may time out
+     * if the stream is quiet. Fetching remains paused until {@link #resume()} is called, also if this times out.
+     *
+     * @return whether everything has stopped within the timeout
+     */
+    boolean pause(Duration timeout) throws InterruptedException {
+
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        List<CompletableFuture<?>> futures = new ArrayList<>(2);
+
+        synchronized (this) {
+            paused = true;
+
+            if (liveFuture != null) {
+                futures.add(liveFuture);
+            }
+            if (replayFuture != null) {
+                futures.add(replayFuture);
+            }
+        }
+
+        // A call of fetch() may be merging staged measurements.
+        if (!fetchLock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        fetchLock.unlock();
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .handle((ignored, throwable) -> null)
+                    .get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            return false;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        try {
+            measurementWriter.awaitPendingWrites();
+        } catch (RuntimeException ex) {
+            // The offset was not updated, so the measurements are replayed later (if replay is enabled).
+            LOGGER.warn("Failed to save live measurements before pausing", ex);
+        }
+
+        return true;
+    }
+
+    /**
+     * Lets the next call of {@link #fetch()} start the tasks stopped by {@link #pause(Duration)} again.
+     */
+    synchronized void resume() {
+
+        paused = false;
+    }
+
+    /**
+     * Starts the task protected by the lease right away (unless it is running already), instead of waiting for the next call of
+     * {@link #fetch()}. Called when this node has acquired the lease.
+     */
+    synchronized void onLeaseAcquired(String lease) {
+
+        if (paused) {
+            return;
+        }
+
+        // A task that ended with an exception is left for fetch() to rethrow.
+        if (LeaseManager.LIVE_LEASE.equals(lease) && isStoppedNormally(liveFuture)) {
+            startLiveMeasurements(executorService);
+        }
+
+        if (LeaseManager.REPLAY_LEASE.equals(lease) && replayEnabled && isStoppedNormally(replayFuture)) {
+            startReplayMeasurements(executorService);
+        }
+    }
+
+    private synchronized void maybeRetrieveLiveMeasurements() throws ApiException {
 
         if (liveFuture != null) {
             if (!liveFuture.isDone()) {
@@ -80,15 +244,91 @@ class FetchEngine {
             }
         }
 
+        if (!leaseManager.isHeld(LeaseManager.LIVE_LEASE)) {
+            LOGGER.debug("Not retrieving live measurements, since another node holds the lease");
+            return;
+        }
+
+        startLiveMeasurements(executorService);
+    }
+
+    private synchronized void startLiveMeasurements(Executor executor) {
+
         LOGGER.info("Starting to retrieve live measurements");
 
-        liveFuture = executorService.submit(() -> {
-            apiClient.retrieveLiveMeasurements(new LiveConsumer());
+        CompletableFuture<Void> future = supervise(executor, () -> {
+            // The lease may have been lost (or fetching paused) while waiting to reconnect.
+            if (paused || !leaseManager.isHeld(LeaseManager.LIVE_LEASE)) {
+                return null;
+            }
+            try {
+                apiClient.retrieveLiveMeasurements(new LiveConsumer(false));
+            } catch (LeaseLostException | PausedException ex) {
+                LOGGER.info("Stopped retrieving live measurements: {}", ex.getMessage());
+            } finally {
+                // However the stream ended, sensors must not be considered silent until it is connected again.
+                sensorLivenessMonitor.onLiveStreamDisconnected();
+            }
             return null;
         });
+
+        liveFuture = future;
+
+        future.whenComplete((ignored, throwable) -> onLiveMeasurementsEnded(future, throwable));
+    }
+
+    private synchronized void onLiveMeasurementsEnded(CompletableFuture<Void> future, Throwable throwable) {
+
+        // Unrecoverable errors (and the unexpected case of the stream ending normally) are handled by the next call to fetch().
+        if (liveFuture != future || !(unwrap(throwable) instanceof RetriableApiException exception)) {
+            return;
+        }
+
+        if (liveDisconnectedAtNanos == 0) {
+            liveDisconnectedAtNanos = System.nanoTime();
+        }
+
+        long delayInMilliseconds = liveRestartPolicy.nextDelayInMilliseconds(exception);
+
+        LOGGER.warn(
+                "Live measurements stream ended ({}), reconnecting in {} ms",
+                exception.getMessage(),
+                delayInMilliseconds);
+
+        startLiveMeasurements(delayedExecutor(delayInMilliseconds));
+    }
+
+    private synchronized void onLiveMeasurementsReceived() {
+
+        liveRestartPolicy.reset();
+
+        if (liveDisconnectedAtNanos != 0) {
+            liveReconnectLatencyTimer.record(System.nanoTime() - liveDisconnectedAtNanos, TimeUnit.NANOSECONDS);
+            liveDisconnectedAtNanos = 0;
+            sensorLivenessMonitor.onLiveStreamConnected();
+        }
     }
 
-    private void maybeReplayMeasurements() throws ApiException {
+    /**
+     * Passes the measurements of a recorded stream through the same path as live measurements, as fast as possible, and waits until they
+     * have been saved. Recorded replays are treated like live streams, and offsets are not used to update replays, since the recorded
+     * offsets are not related to the current state of the replays.
+     *
+     * @return the number of measurements saved
+     */
+    long reingest(StreamCapture streamCapture) throws ApiException {
+
+        LiveConsumer consumer = new LiveConsumer(true);
+
+        apiClient.reingest(streamCapture, consumer);
+
+        consumer.flush();
+        measurementWriter.awaitPendingWrites();
+
+        return consumer.measurementCount;
+    }
+
+    private synchronized void maybeReplayMeasurements() throws ApiException {
 
         if (replayFuture != null) {
             if (!replayFuture.isDone()) {
@@ -101,13 +341,62 @@ class FetchEngine {
             }
         }
 
+        if (!leaseManager.isHeld(LeaseManager.REPLAY_LEASE)) {
+            LOGGER.debug("Not replaying measurements, since another node holds the lease");
+            return;
+        }
+
+        startReplayMeasurements(executorService);
+    }
+
+    private void maybeMergeStagedMeasurements() {
+
+        if (!leaseManager.isHeld(LeaseManager.REPLAY_LEASE)) {
+            return;
+        }
+
+        try {
+            measurementStagingMerger.mergeStagedMeasurements();
+        } catch (LeaseLostException ex) {
+            LOGGER.info("Stopped merging staged measurements: {}", ex.getMessage());
+        }
+    }
+
+    private synchronized void startReplayMeasurements(Executor executor) {
+
+        // The pending replay is looked up when the task runs (and not now), since a restarted replay may have made progress before it
+        // failed.
+        CompletableFuture<Boolean> future = supervise(executor, () -> {
+            if (paused || !leaseManager.isHeld(LeaseManager.REPLAY_LEASE)) {
+                return false;
+            }
+            try {
+                return replayMeasurements();
+            } catch (LeaseLostException | PausedException ex) {
+                LOGGER.info("Stopped replaying measurements: {}", ex.getMessage());
+                return false;
+            }
+        });
+
+        replayFuture = future;
+
+        future.whenComplete((replayed, throwable) -> onReplayMeasurementsEnded(future, replayed, throwable));
+    }
+
+    /**
+     * Performs the first pending replay, if any.
+     *
+     * @return whether a replay was performed
+     */
+    private boolean replayMeasurements() throws ApiException {
+
         LOGGER.debug("Checking for pending replays");
 
         List<Replay> replays = measurementReplayService.findPendingReplays();
 
         if (replays.isEmpty()) {
             LOGGER.debug("No pending replays found");
-            return;
+            return false;
         }
 
         // We are only replaying one interval at a time to minimize the risk of being rate limited.
@@ -117,23 +406,99 @@ class FetchEngine {
 
         LOGGER.info("Starting to replay measurements from {} to {}", fromOffset, toOffset);
 
-        replayFuture = executorService.submit(() -> {
-            ReplayConsumer replayConsumer = new ReplayConsumer(replay);
+        ReplayConsumer replayConsumer = new ReplayConsumer(replay);
 
-            try {
-                apiClient.replayMeasurements(fromOffset, toOffset, replayConsumer);
-            } catch (InvalidRequestException ex) {
-                LOGGER.error("Failed to replay from {} to {}", fromOffset, toOffset, ex);
-                measurementReplayService.delete(replay);
-                return null;
+        try {
+            apiClient.replayMeasurements(fromOffset, toOffset, replayConsumer);
+        } catch (InvalidRequestException ex) {
+            LOGGER.error("Failed to replay from {} to {}", fromOffset, toOffset, ex);
+            measurementReplayService.delete(replay);
+            return true;
+        }
+
+        replayConsumer.complete();
+
+        LOGGER.info("Completed replay from {} to {}", fromOffset, toOffset);
+
+        return true;
+    }
+
+    private synchronized void onReplayMeasurementsEnded(
+            CompletableFuture<Boolean> future, Boolean replayed, Throwable throwable) {
+
+        if (replayFuture != future) {
+            return;
+        }
+
+        if (throwable == null) {
+            if (Boolean.TRUE.equals(replayed)) {
+                replayRestartPolicy.reset();
+                startReplayMeasurements(executorService);
             }
+            return;
+        }
+
+        // Unrecoverable errors are handled by the next call to fetch().
+        if (!(unwrap(throwable) instanceof RetriableApiException exception)) {
+            return;
+        }
 
-            replayConsumer.complete();
+        long delayInMilliseconds = replayRestartPolicy.nextDelayInMilliseconds(exception);
 
-            LOGGER.info("Completed replay from {} to {}", fromOffset, toOffset);
+        LOGGER.warn("Replay ended ({}), restarting in {} ms", exception.getMessage(), delayInMilliseconds);
 
-            return null;
+        startReplayMeasurements(delayedExecutor(delayInMilliseconds));
+    }
+
+    private synchronized void onReplayedMeasurementsReceived() {
+
+        replayRestartPolicy.reset();
+    }
+
+    private Executor delayedExecutor(long delayInMilliseconds) {
+
+        if (delayInMilliseconds <= 0) {
+            return executorService;
+        }
+
+        return CompletableFuture.delayedExecutor(delayInMilliseconds, TimeUnit.MILLISECONDS, executorService);
+    }
+
+    /**
+     * Runs the callable using the executor and returns a future that is completed with its result. Unlike
+     * {@link CompletableFuture#supplyAsync}, the future is completed with the exception thrown by the callable (and not a
+     * {@link CompletionException} wrapping it).
+     */
+    private static <T> CompletableFuture<T> supervise(Executor executor, Callable<T> callable) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        executor.execute(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
         });
+
+        return future;
+    }
+
+    private void checkNotPaused() {
+
+        if (paused) {
+            throw new PausedException();
+        }
+    }
+
+    private static boolean isStoppedNormally(CompletableFuture<?> future) {
+
+        return future == null || (future.isDone() && !future.isCompletedExceptionally());
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+
+        return throwable instanceof CompletionException ? throwable.getCause() : throwable;
     }
 
     private static void maybeRethrowExceptionForDoneFuture(Future<?> future) throws ApiException {
@@ -161,10 +526,57 @@ class FetchEngine {
         }
     }
 
-    private final class LiveConsumer implements Consumer<Measurement> {
+    /**
+     * Thrown by the consumers to stop the live and replay tasks when fetching has been paused.
+     */
+    private static final class PausedException extends RuntimeException {
+
+        PausedException() {
+
+            super("Fetching has been paused");
+        }
+    }
+
+    /**
+     * Decides how long to wait before restarting a task that ended with a {@link RetriableApiException}. The first restart happens
+     * immediately (unless rate limited), while repeated failures without any measurements being received in between are backed off.
+     */
+    private static final class RestartPolicy {
+
+        private final BackOff backOff = new JitteredExponentialBackOff(
+                INITIAL_RESTART_BACK_OFF_IN_MILLISECONDS, MAX_RESTART_BACK_OFF_IN_MILLISECONDS);
+
+        private BackOffExecution backOffExecution;
+
+        long nextDelayInMilliseconds(RetriableApiException exception) {
+
+            boolean repeatedFailure = backOffExecution != null;
+
+            if (!repeatedFailure) {
+                backOffExecution = backOff.start();
+            }
+
+            if (!repeatedFailure && !(exception instanceof RateLimitRetriableApiException)) {
+                return 0;
+            }
+
+            return backOffExecution.nextBackOff();
+        }
+
+        void reset() {
+
+            backOffExecution = null;
+        }
+    }
+
+    private final class LiveConsumer implements MeasurementConsumer {
 
         private final List<Measurement> measurements = new ArrayList<>(batchSize);
 
+        private final boolean reingesting;
+
+        private long measurementCount;
+
         /**
          * Since both a "from offset" and a "to offset" are required to perform a replay, after a disconnect we need to start to retrieve
          * live measurements - and first time we receive an offset we got the "to offset". The "from offset" is known from before the
@@ -172,9 +584,22 @@ class FetchEngine {
          */
         private boolean offsetHasBeenReceivedPreviously;
 
+        private boolean measurementHasBeenReceivedPreviously;
+
+        /**
+         * @param reingesting whether the measurements come from a recorded stream instead of the live stream from the API, in which case
+         *     the offsets are not used to update replays and the restart policy is not affected
+         */
+        LiveConsumer(boolean reingesting) {
+
+            this.reingesting = reingesting;
+        }
+
         @Override
         public void accept(Measurement measurement) {
 
+            onReceived();
+
             measurements.add(measurement);
 
             String offset = measurement.getOffset();
@@ -183,14 +608,63 @@ class FetchEngine {
                 return;
             }
 
-            transactionTemplate.executeWithoutResult(transactionStatus -> {
-                measurementLiveService.saveMeasurements(measurements);
+            write(offset, null);
+        }
+
+        @Override
+        public void acceptOffset(String offset) {
+
+            onReceived();
+            write(offset, offset);
+        }
+
+        /**
+         * Writes the measurements received since the last batch was written.
+         */
+        void flush() {
 
-                if (replayEnabled && offset != null) {
-                    measurementReplayService.updateReplays(offset, offsetHasBeenReceivedPreviously);
-                }
-            });
+            if (!measurements.isEmpty()) {
+                write(null, null);
+            }
+        }
+
+        private void onReceived() {
 
+            if (!reingesting && !measurementHasBeenReceivedPreviously) {
+                measurementHasBeenReceivedPreviously = true;
+                onLiveMeasurementsReceived();
+            }
+        }
+
+        /**
+         * @param offset the latest offset received, or {@code null}
+         * @param offsetWithoutMeasurement the offset if it was received without a measurement, and must therefore be published on its own
+         */
+        private void write(String offset, String offsetWithoutMeasurement) {
+
+            Runnable checkpoint = null;
+
+            if (!reingesting && replayEnabled && offset != null) {
+                boolean offsetHasBeenReceivedBeforeThisOne = offsetHasBeenReceivedPreviously;
+                checkpoint = () -> measurementReplayService.updateReplays(offset, offsetHasBeenReceivedBeforeThisOne);
+            }
+
+            if (!reingesting) {
+                checkNotPaused();
+                leaseManager.checkHeld(LeaseManager.LIVE_LEASE);
+                sensorLivenessMonitor.recordLiveMeasurements(measurements);
+            }
+
+            Runnable afterCommit = null;
+
+            if (measurementQueuePublisher.isEnabled()) {
+                List<Measurement> measurementsToPublish = List.copyOf(measurements);
+                afterCommit = () -> measurementQueuePublisher.publish(measurementsToPublish, offsetWithoutMeasurement);
+            }
+
+            measurementWriter.write(measurements, checkpoint, afterCommit);
+
+            measurementCount += measurements.size();
             measurements.clear();
 
             if (offset != null) {
@@ -199,12 +673,14 @@ class FetchEngine {
         }
     }
 
-    private final class ReplayConsumer implements Consumer<Measurement> {
+    private final class ReplayConsumer implements MeasurementConsumer {
 
         private final List<Measurement> measurements = new ArrayList<>(batchSize);
 
         private Replay replay;
 
+        private boolean measurementHasBeenReceivedPreviously;
+
         ReplayConsumer(Replay replay) {
 
             this.replay = Objects.requireNonNull(replay);
@@ -213,6 +689,8 @@ class FetchEngine {
         @Override
         public void accept(Measurement measurement) {
 
+            onReceived();
+
             measurements.add(measurement);
 
             String offset = measurement.getOffset();
@@ -221,6 +699,28 @@ class FetchEngine {
                 return;
             }
 
+            write(offset);
+        }
+
+        @Override
+        public void acceptOffset(String offset) {
+
+            onReceived();
+            write(offset);
+        }
+
+        private void onReceived() {
+
+            if (!measurementHasBeenReceivedPreviously) {
+                measurementHasBeenReceivedPreviously = true;
+                onReplayedMeasurementsReceived();
+            }
+        }
+
+        private void write(String offset) {
+
+            checkNotPaused();
+            leaseManager.checkHeld(LeaseManager.REPLAY_LEASE);
             replay = measurementReplayService.saveMeasurementsAndMaybeUpdateReplay(measurements, replay, offset);
 
             measurements.clear();
@@ -21,10 +21,10 @@ import org.springframework.util.backoff.ExponentialBackOff;
  * Continuously asks {@link FetchEngine} to retrieve measurements from the REST API.
  * <p>
  * Note that we don't create an instance of this class when running tests as it would interfere with our tests if it starts a thread that
- * fetches data on its own. See {@link Profiles} for more info.
+ * fetches data on its own (or when re-ingesting recorded streams). See {@link Profiles} for more info.
  */
 @Service
-@Profile(Profiles.NOT_TEST)
+@Profile(Profiles.NOT_TEST_AND_NOT_REINGEST)
 public class FetchTimer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FetchTimer.class);
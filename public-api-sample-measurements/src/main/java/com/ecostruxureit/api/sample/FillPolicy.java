@@ -0,0 +1,25 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * How {@link AlignedQueryService} calculates the value of a sensor at an instant where the sensor may not have a measurement.
+ */
+public enum FillPolicy {
+
+    /**
+     * Only a measurement at exactly the instant is used.
+     */
+    NONE,
+
+    /**
+     * The latest measurement at or before the instant is used ("last observation carried forward"), which is the value "as of" the
+     * instant.
+     */
+    PREVIOUS,
+
+    /**
+     * The value is interpolated linearly between the latest measurement at or before the instant and the earliest measurement after it. If
+     * either is missing, there is no value.
+     */
+    LINEAR
+}
@@ -0,0 +1,428 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.MeasurementRepository.NumericValueCallback;
+import generated.dto.Measurement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the recent numeric measurements of each sensor in memory, so that queries of recent time ranges do not need to read the
+ * {@code measurement} table (the "cold" tier).
+ * <p>
+ * The measurements of each sensor are stored in a sliding window of primitive arrays (timestamps and values), ordered by timestamp. The
+ * windows are filled after the live measurements (and merged replayed measurements) have been committed to the database, with the same
+ * semantics as the statements writing them: live measurements replace existing values, while replayed measurements only add missing ones.
+ * <p>
+ * The hot tier contains every numeric measurement with a timestamp from the "watermark" and on. The watermark starts at the time the
+ * application was started and is advanced to keep the measurements within the configured age ({@code hotTierMaxAgeInMinutes}) and memory
+ * ({@code hotTierSizeInMegabytes}). Queries of ranges starting at or after the watermark are served from memory, queries of ranges ending
+ * before it are served from the database, and the remaining queries are split between the two.
+ * <p>
+ * The windows of sensors that stop sending measurements are only trimmed when the memory limit is reached. Note that measurements written
+ * to the {@code measurement} table by other means than this application are not seen by the hot tier.
+ */
+@Service
+class HotMeasurementTier {
+
+    static final String QUERIES_METRIC = "measurements.hot.tier.queries";
+
+    static final String BYTES_METRIC = "measurements.hot.tier.bytes";
+
+    static final String VALUES_METRIC = "measurements.hot.tier.values";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HotMeasurementTier.class);
+
+    private static final int BYTES_PER_VALUE = Long.BYTES + Double.BYTES;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int MAX_EVICTION_ROUNDS = 64;
+
+    private final MeasurementRepository measurementRepository;
+
+    private final Clock clock;
+
+    private final long maxAgeInNanos;
+
+    private final long maxBytes;
+
+    private final Map<String, SensorWindow> windows = new ConcurrentHashMap<>();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicLong valueCount = new AtomicLong();
+
+    private final Counter hitCounter;
+
+    private final Counter partialHitCounter;
+
+    private final Counter missCounter;
+
+    /**
+     * Epoch nanoseconds before which measurements are not (necessarily) in the hot tier.
+     */
+    private volatile long watermark;
+
+    @Autowired
+    HotMeasurementTier(
+            Configuration configuration, MeasurementRepository measurementRepository, MeterRegistry meterRegistry) {
+
+        this(
+                Duration.ofMinutes(configuration.getHotTierMaxAgeInMinutes()),
+                configuration.getHotTierSizeInMegabytes() * 1024L * 1024L,
+                measurementRepository,
+                meterRegistry,
+                Clock.systemUTC());
+    }
+
+    HotMeasurementTier(
+            Duration maxAge,
+            long maxBytes,
+            MeasurementRepository measurementRepository,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+
+        this.measurementRepository = Objects.requireNonNull(measurementRepository);
+        this.clock = Objects.requireNonNull(clock);
+        this.maxAgeInNanos = maxAge.toNanos();
+        this.maxBytes = maxBytes;
+        this.watermark = toNanos(clock.instant());
+
+        this.hitCounter = createQueriesCounter(meterRegistry, "hit");
+        this.partialHitCounter = createQueriesCounter(meterRegistry, "partial");
+        this.missCounter = createQueriesCounter(meterRegistry, "miss");
+
+        Gauge.builder(BYTES_METRIC, bytes, AtomicLong::get)
+                .description("Memory allocated for the measurements in the hot tier")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder(VALUES_METRIC, valueCount, AtomicLong::get)
+                .description("Number of measurements in the hot tier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the measurements to the hot tier once the current transaction (which writes them to the database) has been committed.
+     *
+     * @param replaceExisting whether the measurements replace existing values (like live measurements), or are only added if missing (like
+     *     merged replayed measurements)
+     */
+    void putAfterCommit(List<Measurement> measurements, boolean replaceExisting) {
+
+        if (!isEnabled() || measurements.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(measurements, replaceExisting);
+            return;
+        }
+
+        List<Measurement> committedMeasurements = List.copyOf(measurements);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+
+                put(committedMeasurements, replaceExisting);
+            }
+        });
+    }
+
+    void put(List<Measurement> measurements, boolean replaceExisting) {
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        long cutoff = getCutoff();
+
+        for (Measurement measurement : measurements) {
+
+            SensorWindow window = windows.computeIfAbsent(measurement.getSensorId(), sensorId -> new SensorWindow());
+            long timestamp = toNanos(measurement.getTimestamp().toInstant());
+            Double numericValue = measurement.getNumericValue();
+
+            synchronized (window) {
+                window.trim(cutoff);
+                if (numericValue != null) {
+                    window.put(timestamp, numericValue, replaceExisting);
+                } else if (replaceExisting) {
+                    // A live measurement with a string value replaces a numeric value with the same timestamp.
+                    window.remove(timestamp);
+                }
+            }
+        }
+
+        if (bytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Calls the callback for each numeric measurement of the given sensor within {@code [fromInclusive, toExclusive)}, ordered by timestamp.
+     * Must be called within a transaction, since the database may be queried.
+     */
+    void forEachNumericValue(String sensorId, Instant fromInclusive, Instant toExclusive, NumericValueCallback callback) {
+
+        if (!isEnabled()) {
+            measurementRepository.forEachNumericValue(sensorId, fromInclusive, toExclusive, callback);
+            return;
+        }
+
+        long cutoff = getCutoff();
+        long from = toNanos(fromInclusive);
+        long to = toNanos(toExclusive);
+
+        if (to <= cutoff) {
+            missCounter.increment();
+            measurementRepository.forEachNumericValue(sensorId, fromInclusive, toExclusive, callback);
+            return;
+        }
+
+        long hotFrom = Math.max(from, cutoff);
+        SensorWindow window = windows.get(sensorId);
+        long[] timestamps = new long[0];
+        double[] values = new double[0];
+
+        if (window != null) {
+            synchronized (window) {
+                if (window.validFrom > hotFrom) {
+                    // The window was trimmed after the cutoff was read, so the database must be used for the whole range.
+                    missCounter.increment();
+                    measurementRepository.forEachNumericValue(sensorId, fromInclusive, toExclusive, callback);
+                    return;
+                }
+                int fromIndex = window.indexOf(hotFrom);
+                int toIndex = window.indexOf(to);
+                timestamps = Arrays.copyOfRange(window.timestamps, fromIndex, toIndex);
+                values = Arrays.copyOfRange(window.values, fromIndex, toIndex);
+            }
+        }
+
+        if (from < hotFrom) {
+            partialHitCounter.increment();
+            measurementRepository.forEachNumericValue(sensorId, fromInclusive, toInstant(hotFrom), callback);
+        } else {
+            hitCounter.increment();
+        }
+
+        for (int i = 0; i < timestamps.length; i++) {
+            callback.accept(sensorId, toInstant(timestamps[i]), values[i]);
+        }
+    }
+
+    /**
+     * Removes all measurements from the hot tier, which is needed if the {@code measurement} table is truncated.
+     */
+    synchronized void clear() {
+
+        watermark = toNanos(clock.instant());
+        windows.clear();
+        bytes.set(0);
+        valueCount.set(0);
+    }
+
+    private boolean isEnabled() {
+
+        return maxAgeInNanos > 0;
+    }
+
+    private long getCutoff() {
+
+        return Math.max(watermark, toNanos(clock.instant()) - maxAgeInNanos);
+    }
+
+    /**
+     * Advances the watermark until the measurements in the hot tier fit within the memory limit again.
+     */
+    private synchronized void evict() {
+
+        long targetBytes = maxBytes - maxBytes / 10;
+
+        for (int round = 0; round < MAX_EVICTION_ROUNDS && bytes.get() > targetBytes; round++) {
+
+            long now = toNanos(clock.instant());
+            watermark = Math.max(getCutoff() + 1, watermark + (now - watermark) / 4);
+
+            long cutoff = getCutoff();
+
+            for (SensorWindow window : windows.values()) {
+                synchronized (window) {
+                    window.trim(cutoff);
+                }
+            }
+        }
+
+        LOGGER.debug("Evicted measurements from the hot tier until {}", toInstant(watermark));
+    }
+
+    private static Counter createQueriesCounter(MeterRegistry meterRegistry, String result) {
+
+        return Counter.builder(QUERIES_METRIC)
+                .description("Number of range queries, by whether they were served from the hot tier")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the instant as epoch nanoseconds, truncated to microseconds like the timestamps stored in the database.
+     */
+    private static long toNanos(Instant instant) {
+
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano() / 1_000 * 1_000;
+    }
+
+    private static Instant toInstant(long nanos) {
+
+        return Instant.ofEpochSecond(0, nanos);
+    }
+
+    /**
+     * The measurements of a sensor with timestamps from {@link #validFrom}, stored at the indexes {@code [start, end)} of the arrays. Must
+     * be accessed while synchronized on the instance.
+     */
+    private final class SensorWindow {
+
+        private long[] timestamps = new long[0];
+
+        private double[] values = new double[0];
+
+        private int start;
+
+        private int end;
+
+        private long validFrom = Long.MIN_VALUE;
+
+        void put(long timestamp, double value, boolean replaceExisting) {
+
+            if (timestamp < validFrom) {
+                return;
+            }
+
+            if (start == end || timestamp > timestamps[end - 1]) {
+                ensureCapacity();
+                timestamps[end] = timestamp;
+                values[end] = value;
+                end++;
+                valueCount.incrementAndGet();
+                return;
+            }
+
+            int index = Arrays.binarySearch(timestamps, start, end, timestamp);
+
+            if (index >= 0) {
+                if (replaceExisting) {
+                    values[index] = value;
+                }
+                return;
+            }
+
+            // Measurements received out of order are rare, so shifting the later measurements is acceptable.
+            int insertionIndex = -index - 1 - start;
+            ensureCapacity();
+            insertionIndex += start;
+            System.arraycopy(timestamps, insertionIndex, timestamps, insertionIndex + 1, end - insertionIndex);
+            System.arraycopy(values, insertionIndex, values, insertionIndex + 1, end - insertionIndex);
+            timestamps[insertionIndex] = timestamp;
+            values[insertionIndex] = value;
+            end++;
+            valueCount.incrementAndGet();
+        }
+
+        void remove(long timestamp) {
+
+            int index = start == end ? -1 : Arrays.binarySearch(timestamps, start, end, timestamp);
+
+            if (index < 0) {
+                return;
+            }
+
+            System.arraycopy(timestamps, index + 1, timestamps, index, end - index - 1);
+            System.arraycopy(values, index + 1, values, index, end - index - 1);
+            end--;
+            valueCount.decrementAndGet();
+        }
+
+        /**
+         * Removes the measurements before the cutoff, and releases memory if most of the arrays are unused.
+         */
+        void trim(long cutoff) {
+
+            if (cutoff <= validFrom) {
+                return;
+            }
+
+            validFrom = cutoff;
+
+            int newStart = indexOf(cutoff);
+            valueCount.addAndGet(start - newStart);
+            start = newStart;
+
+            int size = end - start;
+
+            if (size <= timestamps.length / 4) {
+                resize(size == 0 ? 0 : Math.max(MIN_CAPACITY, size * 2));
+            }
+        }
+
+        /**
+         * Returns the index of the first measurement with a timestamp at or after the given one.
+         */
+        int indexOf(long timestamp) {
+
+            int index = start == end ? start : Arrays.binarySearch(timestamps, start, end, timestamp);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private void ensureCapacity() {
+
+            if (end < timestamps.length) {
+                return;
+            }
+
+            int size = end - start;
+
+            resize(size < timestamps.length / 2 ? timestamps.length : Math.max(MIN_CAPACITY, timestamps.length * 2));
+        }
+
+        /**
+         * Moves the measurements to the beginning of new arrays with the given capacity.
+         */
+        private void resize(int capacity) {
+
+            int size = end - start;
+            long[] newTimestamps = new long[capacity];
+            double[] newValues = new double[capacity];
+
+            System.arraycopy(timestamps, start, newTimestamps, 0, size);
+            System.arraycopy(values, start, newValues, 0, size);
+
+            bytes.addAndGet((long) (capacity - timestamps.length) * BYTES_PER_VALUE);
+
+            timestamps = newTimestamps;
+            values = newValues;
+            start = 0;
+            end = size;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * An {@link ExponentialBackOff} where each interval is randomly chosen between half of and the full exponential interval.
+ * <p>
+ * The randomness avoids that several clients which were disconnected at the same time (e.g. because the API was restarted) all reconnect
+ * at the same time again and again.
+ */
+final class JitteredExponentialBackOff implements BackOff {
+
+    private final ExponentialBackOff exponentialBackOff;
+
+    JitteredExponentialBackOff(long initialIntervalInMilliseconds, long maxIntervalInMilliseconds) {
+
+        this.exponentialBackOff = new ExponentialBackOff(initialIntervalInMilliseconds, 2);
+        this.exponentialBackOff.setMaxInterval(maxIntervalInMilliseconds);
+    }
+
+    @Override
+    public BackOffExecution start() {
+
+        BackOffExecution backOffExecution = exponentialBackOff.start();
+
+        return () -> {
+            long interval = backOffExecution.nextBackOff();
+
+            if (interval == BackOffExecution.STOP || interval <= 1) {
+                return interval;
+            }
+
+            return interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
+        };
+    }
+}
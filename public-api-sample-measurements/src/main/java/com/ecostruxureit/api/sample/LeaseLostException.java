@@ -0,0 +1,14 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * Thrown when this node no longer holds a lease it needs, i.e. when another node may have taken over the work protected by the lease. The
+ * work must be stopped, and the transaction it was done in (if any) is rolled back.
+ */
+class LeaseLostException extends RuntimeException {
+
+    LeaseLostException(String message) {
+
+        super(message);
+    }
+}
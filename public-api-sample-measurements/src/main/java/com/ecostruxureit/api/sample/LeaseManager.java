@@ -0,0 +1,257 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides which instance of the application (node) retrieves the live measurements and which performs the replays, when several instances
+ * for the same organization share a database.
+ * <p>
+ * Each kind of work is protected by a lease in the {@code lease} table. The owner of a lease extends it on every {@link #heartbeat()}, and
+ * another node can only acquire it once it has expired, so a standby node takes over within {@code leaseDurationInSeconds} (plus a
+ * heartbeat) when the owner dies. Every node also registers itself in the {@code lease_node} table, and the leases are distributed among
+ * the nodes that are alive in the order of their IDs, so when a node joins, the owner of a lease assigned to the new node releases it, and
+ * the live measurements and the replays end up being handled by different nodes.
+ * <p>
+ * Every time a lease changes owner, its fencing token is incremented. The transactions that update the replays call
+ * {@link #checkFencingToken(String)}, which locks the lease and fails if the token has changed, so a node that has lost its lease without
+ * noticing (e.g. because it was paused for longer than the lease duration) cannot overwrite the progress of the new owner. The live
+ * measurements themselves are not fenced, since saving the same measurement twice has no effect. A node also considers its leases lost once
+ * the duration has passed since they were last extended, so the clocks of the nodes should be synchronized to well within the duration.
+ * <p>
+ * If {@code leaseEnabled} is {@code false} (the default), every lease is considered held and nothing is written to the database.
+ */
+@Service
+class LeaseManager {
+
+    static final String LIVE_LEASE = "live";
+
+    static final String REPLAY_LEASE = "replay";
+
+    /**
+     * The leases in the order they are distributed among the nodes.
+     */
+    private static final List<String> LEASES = List.of(LIVE_LEASE, REPLAY_LEASE);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaseManager.class);
+
+    private final LeaseRepository leaseRepository;
+
+    private final Clock clock;
+
+    private final boolean enabled;
+
+    private final String organizationId;
+
+    private final String nodeId;
+
+    private final Duration duration;
+
+    private final Map<String, HeldLease> heldLeases = new ConcurrentHashMap<>();
+
+    @Autowired
+    LeaseManager(Configuration configuration, LeaseRepository leaseRepository) {
+
+        this(
+                configuration.isLeaseEnabled(),
+                configuration.getOrganizationId(),
+                Strings.isEmpty(configuration.getNodeId())
+                        ? UUID.randomUUID().toString()
+                        : configuration.getNodeId(),
+                Duration.ofSeconds(configuration.getLeaseDurationInSeconds()),
+                leaseRepository,
+                Clock.systemUTC());
+    }
+
+    LeaseManager(
+            boolean enabled,
+            String organizationId,
+            String nodeId,
+            Duration duration,
+            LeaseRepository leaseRepository,
+            Clock clock) {
+
+        this.leaseRepository = Objects.requireNonNull(leaseRepository);
+        this.clock = Objects.requireNonNull(clock);
+        this.enabled = enabled;
+        this.organizationId = organizationId;
+        this.nodeId = Objects.requireNonNull(nodeId);
+        this.duration = Objects.requireNonNull(duration);
+
+        if (enabled) {
+            LOGGER.info("Using leases as node {}", nodeId);
+        }
+    }
+
+    boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Returns how often {@link #heartbeat()} must be called for the leases not to expire.
+     */
+    Duration getHeartbeatInterval() {
+
+        return duration.dividedBy(3);
+    }
+
+    /**
+     * Returns whether this node holds the lease, and its duration has not passed since it was last extended.
+     */
+    boolean isHeld(String lease) {
+
+        if (!enabled) {
+            return true;
+        }
+
+        HeldLease heldLease = heldLeases.get(lease);
+
+        return heldLease != null && clock.instant().isBefore(heldLease.expiresAt());
+    }
+
+    /**
+     * @throws LeaseLostException if this node does not hold the lease
+     */
+    void checkHeld(String lease) {
+
+        if (!isHeld(lease)) {
+            throw new LeaseLostException("Node " + nodeId + " does not hold the " + lease + " lease");
+        }
+    }
+
+    /**
+     * Checks that this node still holds the lease with the fencing token it was acquired with, and locks the lease until the end of the
+     * current transaction, so that no other node can acquire it before the transaction has been committed.
+     *
+     * @throws LeaseLostException if this node does not hold the lease
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkFencingToken(String lease) {
+
+        if (!enabled) {
+            return;
+        }
+
+        HeldLease heldLease = heldLeases.get(lease);
+
+        if (heldLease == null
+                || !leaseRepository.lockIfHeld(organizationId, lease, nodeId, heldLease.fencingToken())) {
+            throw new LeaseLostException("Node " + nodeId + " no longer holds the " + lease + " lease");
+        }
+    }
+
+    /**
+     * Registers this node as alive, and acquires, extends or releases each lease depending on which node it is assigned to.
+     * <p>
+     * The leases acquired or extended are only considered held once the transaction has been committed, since another node may acquire a
+     * lease whose extension was rolled back. The leases released or lost are no longer considered held right away.
+     *
+     * @return the leases acquired by this call
+     */
+    @Transactional
+    public List<String> heartbeat() {
+
+        if (!enabled) {
+            return List.of();
+        }
+
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(duration);
+
+        leaseRepository.insertOrUpdateNode(organizationId, nodeId, expiresAt);
+
+        List<String> nodeIds = leaseRepository.findLiveNodes(organizationId, now);
+        List<String> acquiredLeases = new ArrayList<>();
+        Map<String, HeldLease> leasesToHold = new HashMap<>();
+
+        for (int index = 0; index < LEASES.size(); index++) {
+
+            String lease = LEASES.get(index);
+            boolean assignedToThisNode = nodeIds.get(index % nodeIds.size()).equals(nodeId);
+            HeldLease heldLease = heldLeases.get(lease);
+
+            if (heldLease != null && !assignedToThisNode) {
+                LOGGER.info("Releasing the {} lease, which is now assigned to another node", lease);
+                heldLeases.remove(lease);
+                leaseRepository.release(organizationId, lease, nodeId, heldLease.fencingToken(), now);
+            } else if (heldLease != null) {
+                if (leaseRepository.renew(organizationId, lease, nodeId, heldLease.fencingToken(), expiresAt)) {
+                    leasesToHold.put(lease, new HeldLease(heldLease.fencingToken(), expiresAt));
+                } else {
+                    LOGGER.warn("Lost the {} lease to another node", lease);
+                    heldLeases.remove(lease);
+                }
+            } else if (assignedToThisNode) {
+                Long fencingToken = leaseRepository.tryAcquire(organizationId, lease, nodeId, now, expiresAt);
+                if (fencingToken != null) {
+                    LOGGER.info("Acquired the {} lease with fencing token {}", lease, fencingToken);
+                    leasesToHold.put(lease, new HeldLease(fencingToken, expiresAt));
+                    acquiredLeases.add(lease);
+                }
+            }
+        }
+
+        holdAfterCommit(leasesToHold);
+
+        return acquiredLeases;
+    }
+
+    /**
+     * Releases the leases held by this node and unregisters it, so that the other nodes can take over without waiting for the leases to
+     * expire.
+     */
+    @Transactional
+    public void releaseAll() {
+
+        if (!enabled) {
+            return;
+        }
+
+        Instant now = clock.instant();
+
+        for (Map.Entry<String, HeldLease> entry : heldLeases.entrySet()) {
+            leaseRepository.release(organizationId, entry.getKey(), nodeId, entry.getValue().fencingToken(), now);
+        }
+
+        heldLeases.clear();
+        leaseRepository.deleteNode(organizationId, nodeId);
+    }
+
+    private void holdAfterCommit(Map<String, HeldLease> leasesToHold) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            heldLeases.putAll(leasesToHold);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+
+                heldLeases.putAll(leasesToHold);
+            }
+        });
+    }
+
+    private record HeldLease(long fencingToken, Instant expiresAt) {}
+}
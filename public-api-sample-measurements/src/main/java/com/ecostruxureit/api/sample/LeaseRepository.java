@@ -0,0 +1,149 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handles the {@code lease} and {@code lease_node} tables, which are used by {@link LeaseManager}.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class LeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LeaseRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    public void insertOrUpdateNode(String organizationId, String nodeId, Instant expiresAt) {
+
+        jdbcTemplate.update(
+                "MERGE INTO lease_node (organization_id, node_id, expires_at) VALUES (?, ?, ?)",
+                organizationId,
+                nodeId,
+                Timestamp.from(expiresAt));
+    }
+
+    public void deleteNode(String organizationId, String nodeId) {
+
+        jdbcTemplate.update("DELETE FROM lease_node WHERE organization_id = ? AND node_id = ?", organizationId, nodeId);
+    }
+
+    /**
+     * Deletes the nodes that have expired, and returns the IDs of the nodes that are alive, ordered by ID.
+     */
+    public List<String> findLiveNodes(String organizationId, Instant now) {
+
+        jdbcTemplate.update(
+                "DELETE FROM lease_node WHERE organization_id = ? AND expires_at <= ?",
+                organizationId,
+                Timestamp.from(now));
+
+        return jdbcTemplate.queryForList(
+                "SELECT node_id FROM lease_node WHERE organization_id = ? ORDER BY node_id",
+                String.class,
+                organizationId);
+    }
+
+    /**
+     * Makes the node the owner of the lease if the lease has expired (or does not exist yet), and increments its fencing token.
+     *
+     * @return the new fencing token, or {@code null} if the lease is held by another node
+     */
+    public Long tryAcquire(String organizationId, String name, String nodeId, Instant now, Instant expiresAt) {
+
+        int updatedRows = jdbcTemplate.update(
+                "UPDATE lease SET owner_id = ?, fencing_token = fencing_token + 1, expires_at = ?"
+                        + " WHERE organization_id = ? AND name = ? AND expires_at <= ?",
+                nodeId,
+                Timestamp.from(expiresAt),
+                organizationId,
+                name,
+                Timestamp.from(now));
+
+        if (updatedRows == 0) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO lease (organization_id, name, owner_id, fencing_token, expires_at)"
+                                + " VALUES (?, ?, ?, 1, ?)",
+                        organizationId,
+                        name,
+                        nodeId,
+                        Timestamp.from(expiresAt));
+            } catch (DuplicateKeyException ex) {
+                // The lease exists and is held by another node
+                return null;
+            }
+        }
+
+        return jdbcTemplate.queryForObject(
+                "SELECT fencing_token FROM lease WHERE organization_id = ? AND name = ?",
+                Long.class,
+                organizationId,
+                name);
+    }
+
+    /**
+     * Extends the lease if it is still held by the node with the given fencing token.
+     *
+     * @return whether the lease was extended
+     */
+    public boolean renew(String organizationId, String name, String nodeId, long fencingToken, Instant expiresAt) {
+
+        return jdbcTemplate.update(
+                        "UPDATE lease SET expires_at = ?"
+                                + " WHERE organization_id = ? AND name = ? AND owner_id = ? AND fencing_token = ?",
+                        Timestamp.from(expiresAt),
+                        organizationId,
+                        name,
+                        nodeId,
+                        fencingToken)
+                > 0;
+    }
+
+    /**
+     * Lets the lease expire now, so that another node can acquire it without waiting. The fencing token is kept, so that the next owner
+     * gets a higher one.
+     */
+    public void release(String organizationId, String name, String nodeId, long fencingToken, Instant now) {
+
+        jdbcTemplate.update(
+                "UPDATE lease SET expires_at = ?"
+                        + " WHERE organization_id = ? AND name = ? AND owner_id = ? AND fencing_token = ?",
+                Timestamp.from(now),
+                organizationId,
+                name,
+                nodeId,
+                fencingToken);
+    }
+
+    /**
+     * Checks that the lease still has the given owner and fencing token, and locks it until the end of the transaction, so that another
+     * node cannot acquire it before the transaction has been committed.
+     *
+     * @return whether the lease is still held by the node with the given fencing token
+     */
+    public boolean lockIfHeld(String organizationId, String name, String nodeId, long fencingToken) {
+
+        return !jdbcTemplate
+                .queryForList(
+                        "SELECT fencing_token FROM lease WHERE organization_id = ? AND name = ? AND owner_id = ?"
+                                + " AND fencing_token = ? FOR UPDATE",
+                        Long.class,
+                        organizationId,
+                        name,
+                        nodeId,
+                        fencingToken)
+                .isEmpty();
+    }
+}
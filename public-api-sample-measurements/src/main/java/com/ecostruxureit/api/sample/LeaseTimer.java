@@ -0,0 +1,88 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calls {@link LeaseManager#heartbeat()} on a thread of its own (if leases are enabled), so that the leases are extended even while the
+ * threads of {@link FetchEngine} are busy, and tells {@link FetchEngine} when a lease has been acquired. The leases are released when the
+ * application is stopped.
+ * <p>
+ * Like {@link FetchTimer}, an instance of this class is not created when running tests (or when re-ingesting recorded streams). See
+ * {@link Profiles} for more info.
+ */
+@Service
+@Profile(Profiles.NOT_TEST_AND_NOT_REINGEST)
+class LeaseTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaseTimer.class);
+
+    private final LeaseManager leaseManager;
+
+    private final FetchEngine fetchEngine;
+
+    private final ScheduledExecutorService scheduledExecutorService =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("lease-heartbeat-"));
+
+    LeaseTimer(LeaseManager leaseManager, FetchEngine fetchEngine) {
+
+        this.leaseManager = Objects.requireNonNull(leaseManager);
+        this.fetchEngine = Objects.requireNonNull(fetchEngine);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReadyEvent() {
+
+        if (!leaseManager.isEnabled()) {
+            return;
+        }
+
+        long intervalInMilliseconds = leaseManager.getHeartbeatInterval().toMillis();
+
+        scheduledExecutorService.scheduleWithFixedDelay(
+                this::heartbeat, 0, intervalInMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+
+        scheduledExecutorService.shutdownNow();
+
+        if (!leaseManager.isEnabled()) {
+            return;
+        }
+
+        // Waits for a running heartbeat, which could otherwise extend the leases after they have been released.
+        scheduledExecutorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        try {
+            leaseManager.releaseAll();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Failed to release the leases, they will expire instead", ex);
+        }
+    }
+
+    private void heartbeat() {
+
+        // An exception would cancel the scheduled task, so the heartbeat is tried again later instead. The leases expire if this keeps
+        // failing.
+        try {
+            for (String lease : leaseManager.heartbeat()) {
+                fetchEngine.onLeaseAcquired(lease);
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Failed to renew the leases", ex);
+        }
+    }
+}
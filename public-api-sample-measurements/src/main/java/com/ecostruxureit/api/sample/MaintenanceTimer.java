@@ -0,0 +1,87 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calls {@link RetentionService#enforceRetention()} every {@code retentionIntervalInMinutes} minutes, and checks every minute whether
+ * {@link DatabaseCompactor} should compact the database. Both run on the same thread of their own, so they never run at the same time.
+ * <p>
+ * Like {@link FetchTimer}, an instance of this class is not created when running tests (or when re-ingesting recorded streams). See
+ * {@link Profiles} for more info.
+ */
+@Service
+@Profile(Profiles.NOT_TEST_AND_NOT_REINGEST)
+class MaintenanceTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaintenanceTimer.class);
+
+    private final RetentionService retentionService;
+
+    private final DatabaseCompactor databaseCompactor;
+
+    private final long retentionIntervalInMinutes;
+
+    private final ScheduledExecutorService scheduledExecutorService =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("maintenance-"));
+
+    MaintenanceTimer(
+            Configuration configuration, RetentionService retentionService, DatabaseCompactor databaseCompactor) {
+
+        this.retentionService = Objects.requireNonNull(retentionService);
+        this.databaseCompactor = Objects.requireNonNull(databaseCompactor);
+        this.retentionIntervalInMinutes = configuration.getRetentionIntervalInMinutes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReadyEvent() {
+
+        if (retentionService.isEnabled()) {
+            scheduledExecutorService.scheduleWithFixedDelay(
+                    this::enforceRetention, 1, retentionIntervalInMinutes, TimeUnit.MINUTES);
+        }
+
+        scheduledExecutorService.scheduleWithFixedDelay(this::maybeCompact, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+
+        scheduledExecutorService.shutdownNow();
+    }
+
+    // An exception would cancel the scheduled task, so the tasks below log it and are run again next time instead.
+
+    private void enforceRetention() {
+
+        try {
+            retentionService.enforceRetention();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            LOGGER.error("Failed to delete expired rows", ex);
+        }
+    }
+
+    private void maybeCompact() {
+
+        try {
+            databaseCompactor.maybeCompact();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            LOGGER.error("Failed to compact the database", ex);
+        }
+    }
+}
@@ -4,6 +4,7 @@ package com.ecostruxureit.api.sample;
 import generated.dto.Measurement;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -16,9 +17,20 @@ class MeasurementLiveService {
 
     private final MeasurementRepository measurementRepository;
 
-    MeasurementLiveService(MeasurementRepository measurementRepository) {
+    private final SensorStatisticsService sensorStatisticsService;
+
+    private final HotMeasurementTier hotMeasurementTier;
+
+    private final AtomicLong savedMeasurementCount = new AtomicLong();
+
+    MeasurementLiveService(
+            MeasurementRepository measurementRepository,
+            SensorStatisticsService sensorStatisticsService,
+            HotMeasurementTier hotMeasurementTier) {
 
         this.measurementRepository = Objects.requireNonNull(measurementRepository);
+        this.sensorStatisticsService = Objects.requireNonNull(sensorStatisticsService);
+        this.hotMeasurementTier = Objects.requireNonNull(hotMeasurementTier);
     }
 
     @Transactional
@@ -26,6 +38,18 @@ class MeasurementLiveService {
 
         LOGGER.debug("Adding {} measurement(s)", measurements.size());
 
+        sensorStatisticsService.recordMeasurements(measurements, true);
         measurementRepository.batchInsertOrUpdate(measurements);
+        hotMeasurementTier.putAfterCommit(measurements, true);
+
+        savedMeasurementCount.addAndGet(measurements.size());
+    }
+
+    /**
+     * Returns the number of live measurements saved since the application was started, which can be used to measure the ingest rate.
+     */
+    long getSavedMeasurementCount() {
+
+        return savedMeasurementCount.get();
     }
 }
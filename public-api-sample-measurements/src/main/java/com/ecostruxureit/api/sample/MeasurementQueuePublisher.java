@@ -0,0 +1,90 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.queue.MeasurementQueueReader;
+import com.ecostruxureit.api.sample.queue.MeasurementQueueWriter;
+import generated.dto.Measurement;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes the live measurements (including their offsets) to a memory-mapped queue file, so that other processes on the same machine can
+ * consume the live measurements using {@link MeasurementQueueReader} instead of each opening their own stream from the API.
+ * <p>
+ * Publishing is enabled by setting the {@code measurementQueueFile} configuration property. Replayed measurements are not published,
+ * since they are older than the live measurements that have already been published.
+ * <p>
+ * The measurements are only published once they have been committed to the database (see {@link MeasurementWriter}), so readers never see
+ * measurements that are later rolled back. Offsets received without a measurement are published as entries of their own.
+ */
+@Service
+class MeasurementQueuePublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementQueuePublisher.class);
+
+    private final MeasurementQueueWriter measurementQueueWriter;
+
+    MeasurementQueuePublisher(Configuration configuration) throws IOException {
+
+        String measurementQueueFile = configuration.getMeasurementQueueFile();
+
+        if (Strings.isEmpty(measurementQueueFile)) {
+            this.measurementQueueWriter = null;
+            return;
+        }
+
+        this.measurementQueueWriter = MeasurementQueueWriter.open(
+                Path.of(measurementQueueFile), configuration.getMeasurementQueueSizeInMegabytes() * 1024 * 1024);
+    }
+
+    boolean isEnabled() {
+
+        return measurementQueueWriter != null;
+    }
+
+    /**
+     * Appends the measurements to the queue, followed by the offset (if not {@code null}) received after them, and makes them visible to
+     * the readers at once.
+     */
+    synchronized void publish(List<Measurement> measurements, String offset) {
+
+        if (measurementQueueWriter == null) {
+            return;
+        }
+
+        for (Measurement measurement : measurements) {
+            measurementQueueWriter.append(
+                    measurement.getSensorId(),
+                    measurement.getTimestamp().toInstant(),
+                    measurement.getNumericValue(),
+                    measurement.getStringValue(),
+                    measurement.getOffset());
+        }
+
+        if (offset != null) {
+            measurementQueueWriter.appendOffset(offset);
+        }
+
+        measurementQueueWriter.commit();
+    }
+
+    @PreDestroy
+    synchronized void close() {
+
+        if (measurementQueueWriter == null) {
+            return;
+        }
+
+        try {
+            measurementQueueWriter.close();
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to close measurement queue", ex);
+        }
+    }
+}
@@ -15,14 +15,28 @@ class MeasurementReplayService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementReplayService.class);
 
-    private final MeasurementRepository measurementRepository;
+    private final MeasurementStagingRepository measurementStagingRepository;
 
     private final ReplayRepository replayRepository;
 
-    MeasurementReplayService(MeasurementRepository measurementRepository, ReplayRepository replayRepository) {
+    private final SensorStatisticsService sensorStatisticsService;
 
-        this.measurementRepository = Objects.requireNonNull(measurementRepository);
+    private final HotMeasurementTier hotMeasurementTier;
+
+    private final LeaseManager leaseManager;
+
+    MeasurementReplayService(
+            MeasurementStagingRepository measurementStagingRepository,
+            ReplayRepository replayRepository,
+            SensorStatisticsService sensorStatisticsService,
+            HotMeasurementTier hotMeasurementTier,
+            LeaseManager leaseManager) {
+
+        this.measurementStagingRepository = Objects.requireNonNull(measurementStagingRepository);
         this.replayRepository = Objects.requireNonNull(replayRepository);
+        this.sensorStatisticsService = Objects.requireNonNull(sensorStatisticsService);
+        this.hotMeasurementTier = Objects.requireNonNull(hotMeasurementTier);
+        this.leaseManager = Objects.requireNonNull(leaseManager);
     }
 
     @Transactional
@@ -46,6 +60,8 @@ class MeasurementReplayService {
     @Transactional
     public void updateReplays(String offset, boolean offsetHasBeenReceivedPreviously) {
 
+        leaseManager.checkFencingToken(LeaseManager.LIVE_LEASE);
+
         Replay potentialReplay = replayRepository.findWhereToOffsetIsEmpty();
 
         if (potentialReplay == null) {
@@ -74,17 +90,19 @@ class MeasurementReplayService {
     @Transactional
     public Replay saveMeasurementsAndMaybeUpdateReplay(List<Measurement> measurements, Replay replay, String offset) {
 
-        LOGGER.debug("Adding {} measurement(s)", measurements.size());
+        leaseManager.checkFencingToken(LeaseManager.REPLAY_LEASE);
+
+        LOGGER.debug("Staging {} measurement(s)", measurements.size());
 
-        measurementRepository.batchInsertOrUpdate(measurements);
+        measurementStagingRepository.batchInsert(measurements);
 
         if (offset == null) {
             return replay;
         }
 
-        // Since a new offset has been received, we can create a new (smaller) pending replay and remove the previous
-        // (larger) one. This
-        // means that progress is not lost if a replay has been aborted.
+        // Since a new offset has been received (and the measurements up to and including it are staged in this transaction), we can create
+        // a new (smaller) pending replay and remove the previous (larger) one. This means that progress is not lost if a replay has been
+        // aborted.
 
         Replay updatedReplay = new Replay(offset, replay.getToOffset());
 
@@ -99,18 +117,56 @@ class MeasurementReplayService {
     @Transactional
     public void saveMeasurementsAndDeleteReplay(List<Measurement> measurements, Replay replay) {
 
-        LOGGER.debug("Adding {} measurement(s)", measurements.size());
+        leaseManager.checkFencingToken(LeaseManager.REPLAY_LEASE);
 
-        measurementRepository.batchInsertOrUpdate(measurements);
+        LOGGER.debug("Staging {} measurement(s)", measurements.size());
+
+        measurementStagingRepository.batchInsert(measurements);
 
         LOGGER.debug("Removing pending replay {}", replay);
 
         replayRepository.delete(replay);
     }
 
+    /**
+     * Merges the oldest staged measurements (at most {@code chunkSize}) into the {@code measurement} table.
+     *
+     * @return the number of staged measurements that were processed
+     */
+    @Transactional
+    public int mergeStagedMeasurements(int chunkSize) {
+
+        // Merging the same chunk twice would record the measurements in the statistics twice.
+        leaseManager.checkFencingToken(LeaseManager.REPLAY_LEASE);
+
+        Long chunkEndId = measurementStagingRepository.findChunkEndId(chunkSize);
+
+        if (chunkEndId == null) {
+            return 0;
+        }
+
+        // Only the measurements that the merge inserts are added to the statistics and the hot tier, as the merge never replaces a stored
+        // measurement. Both only add measurements that are missing, so a live measurement saved meanwhile is not replaced by them either.
+        List<Measurement> mergeableMeasurements = measurementStagingRepository.findMergeableUpTo(chunkEndId);
+
+        sensorStatisticsService.recordMeasurements(mergeableMeasurements, false);
+        int insertedMeasurements = measurementStagingRepository.mergeIntoMeasurement(chunkEndId);
+        hotMeasurementTier.putAfterCommit(mergeableMeasurements, false);
+        int stagedMeasurements = measurementStagingRepository.deleteUpTo(chunkEndId);
+
+        LOGGER.debug(
+                "Merged {} staged measurement(s), of which {} were not already stored",
+                stagedMeasurements,
+                insertedMeasurements);
+
+        return stagedMeasurements;
+    }
+
     @Transactional
     public void delete(Replay replay) {
 
+        leaseManager.checkFencingToken(LeaseManager.REPLAY_LEASE);
+
         LOGGER.debug("Removing pending replay {}", replay);
 
         replayRepository.delete(replay);
@@ -2,16 +2,35 @@
 package com.ecostruxureit.api.sample;
 
 import generated.dto.Measurement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,7 +39,44 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(propagation = Propagation.MANDATORY)
 public class MeasurementRepository {
 
-    private static final RowMapper<Measurement> ROW_MAPPER = (row, rowNumber) -> {
+    @FunctionalInterface
+    public interface NumericValueCallback {
+
+        void accept(String sensorId, Instant timestamp, double numericValue);
+    }
+
+    /**
+     * A forward-only cursor over the numeric measurements of a sensor, ordered by timestamp. Must be closed within the transaction it was
+     * opened in.
+     */
+    public interface NumericValueCursor extends AutoCloseable {
+
+        /**
+         * Moves to the next measurement.
+         *
+         * @return whether there was a next measurement
+         */
+        boolean next();
+
+        Instant getTimestamp();
+
+        double getNumericValue();
+
+        @Override
+        void close();
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementRepository.class);
+
+    /**
+     * The maximum number of rows in a single statement of {@link MeasurementWriteStrategy#MULTI_ROW_MERGE}, which keeps the number of
+     * parameters of a statement reasonable.
+     */
+    private static final int MULTI_ROW_MERGE_MAX_ROWS = 250;
+
+    private static final String MULTI_ROW_MERGE_SQL = createMultiRowMergeSql(MULTI_ROW_MERGE_MAX_ROWS);
+
+    static final RowMapper<Measurement> ROW_MAPPER = (row, rowNumber) -> {
         String sensorId = row.getString("sensor_id");
         Timestamp timestamp = row.getTimestamp("timestamp");
         Object numericValue = row.getObject("numeric_value");
@@ -41,9 +97,12 @@ public class MeasurementRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    MeasurementRepository(JdbcTemplate jdbcTemplate) {
+    private final MeasurementWriteStrategy writeStrategy;
+
+    MeasurementRepository(JdbcTemplate jdbcTemplate, Configuration configuration) {
 
         this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+        this.writeStrategy = Objects.requireNonNull(configuration.getMeasurementWriteStrategy());
     }
 
     public List<Measurement> findAll() {
@@ -52,44 +111,391 @@ public class MeasurementRepository {
                 "SELECT sensor_id, timestamp, numeric_value, string_value FROM measurement", ROW_MAPPER);
     }
 
+    /**
+     * Finds the stored measurements that have the same sensor ID and timestamp as any of the given measurements, using a single query.
+     */
+    public List<Measurement> findExisting(List<Measurement> measurements) {
+
+        String[] sensorIds = new String[measurements.size()];
+        Timestamp[] timestamps = new Timestamp[measurements.size()];
+
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement measurement = measurements.get(i);
+            sensorIds[i] = measurement.getSensorId();
+            timestamps[i] = Timestamp.from(measurement.getTimestamp().toInstant());
+        }
+
+        return jdbcTemplate.query(
+                "SELECT DISTINCT m.sensor_id, m.timestamp, m.numeric_value, m.string_value"
+                        + " FROM UNNEST(CAST(? AS VARCHAR ARRAY), CAST(? AS TIMESTAMP ARRAY)) AS k(sensor_id, timestamp)"
+                        + " JOIN measurement m ON m.sensor_id = k.sensor_id AND m.timestamp = k.timestamp",
+                ROW_MAPPER,
+                sensorIds,
+                timestamps);
+    }
+
+    /**
+     * Calls the callback for each numeric measurement of the given sensor within {@code [fromInclusive, toExclusive)}, ordered by timestamp.
+     */
+    public void forEachNumericValue(
+            String sensorId, Instant fromInclusive, Instant toExclusive, NumericValueCallback callback) {
+
+        jdbcTemplate.query(
+                "SELECT sensor_id, timestamp, numeric_value FROM measurement"
+                        + " WHERE sensor_id = ? AND timestamp >= ? AND timestamp < ? AND numeric_value IS NOT NULL"
+                        + " ORDER BY sensor_id, timestamp",
+                row -> {
+                    callback.accept(
+                            row.getString("sensor_id"),
+                            row.getTimestamp("timestamp").toInstant(),
+                            row.getDouble("numeric_value"));
+                },
+                sensorId,
+                Timestamp.from(fromInclusive),
+                Timestamp.from(toExclusive));
+    }
+
+    /**
+     * Finds the numeric measurement of the sensor with the latest timestamp at or before the given instant.
+     *
+     * @return the measurement, or {@code null} if there is none
+     */
+    public Measurement findLatestNumericAtOrBefore(String sensorId, Instant instant) {
+
+        // Ordering by the whole primary key lets H2 read the index backwards instead of sorting.
+        List<Measurement> measurements = jdbcTemplate.query(
+                "SELECT sensor_id, timestamp, numeric_value, string_value FROM measurement"
+                        + " WHERE sensor_id = ? AND timestamp <= ? AND numeric_value IS NOT NULL"
+                        + " ORDER BY sensor_id DESC, timestamp DESC LIMIT 1",
+                ROW_MAPPER,
+                sensorId,
+                Timestamp.from(instant));
+
+        return measurements.isEmpty() ? null : measurements.get(0);
+    }
+
+    /**
+     * Finds the numeric measurement of the sensor with the earliest timestamp after the given instant.
+     *
+     * @return the measurement, or {@code null} if there is none
+     */
+    public Measurement findEarliestNumericAfter(String sensorId, Instant instant) {
+
+        List<Measurement> measurements = jdbcTemplate.query(
+                "SELECT sensor_id, timestamp, numeric_value, string_value FROM measurement"
+                        + " WHERE sensor_id = ? AND timestamp > ? AND numeric_value IS NOT NULL"
+                        + " ORDER BY sensor_id, timestamp LIMIT 1",
+                ROW_MAPPER,
+                sensorId,
+                Timestamp.from(instant));
+
+        return measurements.isEmpty() ? null : measurements.get(0);
+    }
+
+    /**
+     * Opens a cursor over the numeric measurements of the sensor within {@code (fromExclusive, toInclusive]}, read in the order of the
+     * primary key, so that several cursors can be merged without sorting.
+     */
+    public NumericValueCursor openNumericValueCursor(String sensorId, Instant fromExclusive, Instant toInclusive) {
+
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = connection.prepareStatement(
+                    "SELECT timestamp, numeric_value FROM measurement"
+                            + " WHERE sensor_id = ? AND timestamp > ? AND timestamp <= ? AND numeric_value IS NOT NULL"
+                            + " ORDER BY sensor_id, timestamp");
+
+            preparedStatement.setString(1, sensorId);
+            preparedStatement.setTimestamp(2, Timestamp.from(fromExclusive));
+            preparedStatement.setTimestamp(3, Timestamp.from(toInclusive));
+
+            return new JdbcNumericValueCursor(dataSource, connection, preparedStatement, preparedStatement.executeQuery());
+
+        } catch (SQLException ex) {
+            JdbcUtils.closeStatement(preparedStatement);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw translate("openNumericValueCursor", ex);
+        }
+    }
+
+    /**
+     * Calls the callback for each numeric measurement, ordered by sensor ID and timestamp (which is the order of the primary key).
+     */
+    public void forEachNumericValueOrderedBySensorIdAndTimestamp(NumericValueCallback callback) {
+
+        jdbcTemplate.query(
+                "SELECT sensor_id, timestamp, numeric_value FROM measurement WHERE numeric_value IS NOT NULL"
+                        + " ORDER BY sensor_id, timestamp",
+                row -> {
+                    callback.accept(
+                            row.getString("sensor_id"),
+                            row.getTimestamp("timestamp").toInstant(),
+                            row.getDouble("numeric_value"));
+                });
+    }
+
+    /**
+     * Inserts the measurements, or updates them if they are already stored, using the configured {@link MeasurementWriteStrategy}.
+     */
     public void batchInsertOrUpdate(List<Measurement> measurements) {
 
-        jdbcTemplate.batchUpdate(
+        batchInsertOrUpdate(measurements, writeStrategy);
+    }
+
+    public void batchInsertOrUpdate(List<Measurement> measurements, MeasurementWriteStrategy writeStrategy) {
+
+        if (measurements.isEmpty()) {
+            return;
+        }
+
+        switch (writeStrategy) {
+            case BATCHED_MERGE -> batchedMerge(measurements);
+            case MULTI_ROW_MERGE -> multiRowMerge(measurements);
+            case INSERT_WITH_FALLBACK -> insertWithFallback(measurements);
+            case CSV_BULK_LOAD -> csvBulkLoad(measurements);
+        }
+    }
+
+    private void batchedMerge(List<Measurement> measurements) {
+
+        batchUpdate(
                 "MERGE INTO measurement (sensor_id, timestamp, numeric_value, string_value) VALUES (?, ?, ?, ?)",
-                new BatchPreparedStatementSetter() {
+                measurements);
+    }
+
+    private void multiRowMerge(List<Measurement> measurements) {
+
+        for (int fromIndex = 0; fromIndex < measurements.size(); fromIndex += MULTI_ROW_MERGE_MAX_ROWS) {
+            List<Measurement> rows =
+                    measurements.subList(fromIndex, Math.min(fromIndex + MULTI_ROW_MERGE_MAX_ROWS, measurements.size()));
+
+            String sql = rows.size() == MULTI_ROW_MERGE_MAX_ROWS
+                    ? MULTI_ROW_MERGE_SQL
+                    : createMultiRowMergeSql(rows.size());
 
-                    @Override
-                    public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+            jdbcTemplate.update(sql, preparedStatement -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    setParameters(preparedStatement, i * 4, rows.get(i));
+                }
+            });
+        }
+    }
 
-                        Measurement measurement = measurements.get(index);
+    private void insertWithFallback(List<Measurement> measurements) {
 
-                        preparedStatement.setString(1, measurement.getSensorId());
+        int[] updateCounts;
+
+        try {
+            batchUpdate(
+                    "INSERT INTO measurement (sensor_id, timestamp, numeric_value, string_value) VALUES (?, ?, ?, ?)",
+                    measurements);
+            return;
+        } catch (DuplicateKeyException ex) {
+            // H2 executes the remaining statements of a batch when one of them fails, and a failed statement does not abort the
+            // transaction. So only the measurements that were not inserted need to be merged.
+            updateCounts = ex.getCause() instanceof BatchUpdateException batchUpdateException
+                    ? batchUpdateException.getUpdateCounts()
+                    : null;
+        }
 
-                        preparedStatement.setTimestamp(
-                                2, Timestamp.from(measurement.getTimestamp().toInstant()));
+        if (updateCounts == null || updateCounts.length != measurements.size()) {
+            batchedMerge(measurements);
+            return;
+        }
 
-                        Double numericValue = measurement.getNumericValue();
+        List<Measurement> duplicates = new ArrayList<>();
 
-                        if (numericValue != null) {
-                            preparedStatement.setDouble(3, numericValue);
-                        } else {
-                            preparedStatement.setNull(3, Types.DOUBLE);
-                        }
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                duplicates.add(measurements.get(i));
+            }
+        }
 
-                        String stringValue = measurement.getStringValue();
+        // The duplicates are merged in their original order, so a later measurement for the same sensor and timestamp still wins.
+        batchedMerge(duplicates);
+    }
 
-                        if (stringValue == null) {
-                            preparedStatement.setNull(4, Types.VARCHAR);
-                        } else {
-                            preparedStatement.setString(4, stringValue);
-                        }
-                    }
+    private void csvBulkLoad(List<Measurement> measurements) {
 
-                    @Override
-                    public int getBatchSize() {
+        Path file = null;
 
-                        return measurements.size();
-                    }
-                });
+        try {
+            file = Files.createTempFile("measurements", ".csv");
+
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Measurement measurement : measurements) {
+                    writeCsvRow(writer, measurement);
+                }
+            }
+
+            // CSVREAD does not accept the file name as a parameter. The name is created by us, but quotes are escaped anyway.
+            jdbcTemplate.update("MERGE INTO measurement (sensor_id, timestamp, numeric_value, string_value)"
+                    + " KEY (sensor_id, timestamp)"
+                    + " SELECT sensor_id, CAST(timestamp AS TIMESTAMP), CAST(numeric_value AS DOUBLE), string_value"
+                    + " FROM CSVREAD('" + file.toAbsolutePath().toString().replace("'", "''") + "',"
+                    + " 'SENSOR_ID,TIMESTAMP,NUMERIC_VALUE,STRING_VALUE', 'charset=UTF-8')");
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to bulk load measurements", ex);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    LOGGER.warn("Failed to delete temporary file {}", file, ex);
+                }
+            }
+        }
+    }
+
+    private void batchUpdate(String sql, List<Measurement> measurements) {
+
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+
+                setParameters(preparedStatement, measurements.get(index));
+            }
+
+            @Override
+            public int getBatchSize() {
+
+                return measurements.size();
+            }
+        });
+    }
+
+    private RuntimeException translate(String task, SQLException ex) {
+
+        RuntimeException translated = jdbcTemplate.getExceptionTranslator().translate(task, null, ex);
+        return translated != null ? translated : new RuntimeException(ex);
+    }
+
+    private static String createMultiRowMergeSql(int rowCount) {
+
+        return "MERGE INTO measurement (sensor_id, timestamp, numeric_value, string_value) KEY (sensor_id, timestamp) VALUES "
+                + String.join(", ", Collections.nCopies(rowCount, "(?, ?, ?, ?)"));
+    }
+
+    /**
+     * Writes the measurement as a CSV row. Values are quoted (with quotes doubled), and a missing value is written as an empty unquoted
+     * field, which {@code CSVREAD} reads as {@code NULL}. The timestamp is written the same way {@link PreparedStatement#setTimestamp}
+     * converts it, i.e. in the default time zone.
+     */
+    private static void writeCsvRow(Writer writer, Measurement measurement) throws IOException {
+
+        writeCsvValue(writer, measurement.getSensorId());
+        writer.write(',');
+        writeCsvValue(writer, Timestamp.from(measurement.getTimestamp().toInstant()).toString());
+        writer.write(',');
+        writeCsvValue(writer, measurement.getNumericValue() == null ? null : measurement.getNumericValue().toString());
+        writer.write(',');
+        writeCsvValue(writer, measurement.getStringValue());
+        writer.write('\n');
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+
+        if (value == null) {
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Sets the sensor ID, timestamp, numeric value and string value of the measurement as parameter 1 to 4 of the statement.
+     */
+    static void setParameters(PreparedStatement preparedStatement, Measurement measurement) throws SQLException {
+
+        setParameters(preparedStatement, 0, measurement);
+    }
+
+    private static void setParameters(PreparedStatement preparedStatement, int offset, Measurement measurement)
+            throws SQLException {
+
+        preparedStatement.setString(offset + 1, measurement.getSensorId());
+
+        preparedStatement.setTimestamp(offset + 2, Timestamp.from(measurement.getTimestamp().toInstant()));
+
+        Double numericValue = measurement.getNumericValue();
+
+        if (numericValue != null) {
+            preparedStatement.setDouble(offset + 3, numericValue);
+        } else {
+            preparedStatement.setNull(offset + 3, Types.DOUBLE);
+        }
+
+        String stringValue = measurement.getStringValue();
+
+        if (stringValue == null) {
+            preparedStatement.setNull(offset + 4, Types.VARCHAR);
+        } else {
+            preparedStatement.setString(offset + 4, stringValue);
+        }
+    }
+
+    private final class JdbcNumericValueCursor implements NumericValueCursor {
+
+        private final DataSource dataSource;
+
+        private final Connection connection;
+
+        private final PreparedStatement preparedStatement;
+
+        private final ResultSet resultSet;
+
+        private Instant timestamp;
+
+        private double numericValue;
+
+        JdbcNumericValueCursor(
+                DataSource dataSource, Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
+
+            this.dataSource = dataSource;
+            this.connection = connection;
+            this.preparedStatement = preparedStatement;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean next() {
+
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                timestamp = resultSet.getTimestamp(1).toInstant();
+                numericValue = resultSet.getDouble(2);
+                return true;
+            } catch (SQLException ex) {
+                throw translate("NumericValueCursor.next", ex);
+            }
+        }
+
+        @Override
+        public Instant getTimestamp() {
+
+            return timestamp;
+        }
+
+        @Override
+        public double getNumericValue() {
+
+            return numericValue;
+        }
+
+        @Override
+        public void close() {
+
+            JdbcUtils.closeResultSet(resultSet);
+            JdbcUtils.closeStatement(preparedStatement);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
     }
 }
@@ -0,0 +1,66 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Service;
+
+/**
+ * Merges replayed measurements from the {@code measurement_staging} table into the {@code measurement} table in chunks.
+ * <p>
+ * To avoid competing with live measurements for the {@code measurement} table, the staged measurements are only drained completely during
+ * quiet periods, i.e. when the rate of live measurements being saved is below a configured threshold. When the live measurements are busy,
+ * a single chunk is merged per call so that the staging table does not grow forever.
+ */
+@Service
+class MeasurementStagingMerger {
+
+    private final MeasurementLiveService measurementLiveService;
+
+    private final MeasurementReplayService measurementReplayService;
+
+    private final int chunkSize;
+
+    private final int quietMeasurementsPerSecond;
+
+    private long previousSavedMeasurementCount;
+
+    private long previousCheckNanos = System.nanoTime();
+
+    MeasurementStagingMerger(
+            Configuration configuration,
+            MeasurementLiveService measurementLiveService,
+            MeasurementReplayService measurementReplayService) {
+
+        this.measurementLiveService = Objects.requireNonNull(measurementLiveService);
+        this.measurementReplayService = Objects.requireNonNull(measurementReplayService);
+
+        this.chunkSize = configuration.getStagingMergeChunkSize();
+        this.quietMeasurementsPerSecond = configuration.getStagingMergeQuietMeasurementsPerSecond();
+    }
+
+    synchronized void mergeStagedMeasurements() {
+
+        // Each chunk is merged in its own transaction, so live measurements can be saved in between chunks.
+        do {
+            if (measurementReplayService.mergeStagedMeasurements(chunkSize) < chunkSize) {
+                return;
+            }
+        } while (isLiveIngestQuiet());
+    }
+
+    private boolean isLiveIngestQuiet() {
+
+        long savedMeasurementCount = measurementLiveService.getSavedMeasurementCount();
+        long nowNanos = System.nanoTime();
+
+        long measurementsSinceLastCheck = savedMeasurementCount - previousSavedMeasurementCount;
+        long nanosSinceLastCheck = Math.max(1, nowNanos - previousCheckNanos);
+
+        previousSavedMeasurementCount = savedMeasurementCount;
+        previousCheckNanos = nowNanos;
+
+        return measurementsSinceLastCheck * TimeUnit.SECONDS.toNanos(1) / nanosSinceLastCheck
+                < quietMeasurementsPerSecond;
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Measurement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handles the {@code measurement_staging} table in which replayed measurements are staged before they are merged into the
+ * {@code measurement} table.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class MeasurementStagingRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    MeasurementStagingRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    public void batchInsert(List<Measurement> measurements) {
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO measurement_staging (sensor_id, timestamp, numeric_value, string_value) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+
+                        MeasurementRepository.setParameters(preparedStatement, measurements.get(index));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+
+                        return measurements.size();
+                    }
+                });
+    }
+
+    /**
+     * Returns the ID of the last row of the chunk consisting of the (at most) {@code chunkSize} oldest staged rows, or {@code null} if no
+     * rows are staged.
+     */
+    public Long findChunkEndId(int chunkSize) {
+
+        return DataAccessUtils.singleResult(jdbcTemplate.queryForList(
+                "SELECT MAX(id) FROM (SELECT id FROM measurement_staging ORDER BY id FETCH FIRST ? ROWS ONLY)",
+                Long.class,
+                chunkSize));
+    }
+
+    /**
+     * Finds the staged measurements with an ID up to and including {@code chunkEndId} that {@link #mergeIntoMeasurement(long)} inserts,
+     * i.e. the first staged measurement of each sensor and timestamp that the {@code measurement} table doesn't contain yet, in the order
+     * they were staged.
+     */
+    public List<Measurement> findMergeableUpTo(long chunkEndId) {
+
+        return jdbcTemplate.query(
+                "SELECT s.sensor_id, s.timestamp, s.numeric_value, s.string_value FROM measurement_staging s"
+                        + " WHERE s.id IN (SELECT MIN(id) FROM measurement_staging WHERE id <= ? GROUP BY sensor_id, timestamp)"
+                        + " AND NOT EXISTS (SELECT 1 FROM measurement m WHERE m.sensor_id = s.sensor_id AND m.timestamp = s.timestamp)"
+                        + " ORDER BY s.id",
+                MeasurementRepository.ROW_MAPPER,
+                chunkEndId);
+    }
+
+    /**
+     * Inserts the staged measurements with an ID up to and including {@code chunkEndId} into the {@code measurement} table using a single
+     * statement, unless the {@code measurement} table already contains a measurement for the same sensor and timestamp. If the same
+     * measurement has been staged more than once, the first staged one is used.
+     *
+     * @return the number of measurements inserted
+     */
+    public int mergeIntoMeasurement(long chunkEndId) {
+
+        return jdbcTemplate.update(
+                "MERGE INTO measurement m USING (SELECT sensor_id, timestamp, numeric_value, string_value"
+                        + " FROM measurement_staging WHERE id IN (SELECT MIN(id) FROM measurement_staging WHERE id <= ?"
+                        + " GROUP BY sensor_id, timestamp)) s"
+                        + " ON m.sensor_id = s.sensor_id AND m.timestamp = s.timestamp"
+                        + " WHEN NOT MATCHED THEN INSERT (sensor_id, timestamp, numeric_value, string_value)"
+                        + " VALUES (s.sensor_id, s.timestamp, s.numeric_value, s.string_value)",
+                chunkEndId);
+    }
+
+    public int deleteUpTo(long chunkEndId) {
+
+        return jdbcTemplate.update("DELETE FROM measurement_staging WHERE id <= ?", chunkEndId);
+    }
+
+    public long count() {
+
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM measurement_staging", Long.class);
+    }
+}
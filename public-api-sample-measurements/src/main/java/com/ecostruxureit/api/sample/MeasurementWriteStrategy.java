@@ -0,0 +1,36 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * The ways {@link MeasurementRepository#batchInsertOrUpdate(java.util.List)} can write measurements to the {@code measurement} table,
+ * selected using the {@code measurementWriteStrategy} configuration property.
+ * <p>
+ * All strategies have the same result: a measurement replaces a stored measurement for the same sensor and timestamp, and if the same
+ * sensor and timestamp occurs more than once in a batch, the last one wins. They only differ in performance, which can be compared using
+ * {@code MeasurementWriteStrategyBenchmarkTest}.
+ */
+public enum MeasurementWriteStrategy {
+
+    /**
+     * One {@code MERGE} statement per measurement, sent to the database as a single JDBC batch.
+     */
+    BATCHED_MERGE,
+
+    /**
+     * {@code MERGE} statements with many rows in their {@code VALUES} clause, which reduces the number of statements executed.
+     */
+    MULTI_ROW_MERGE,
+
+    /**
+     * One {@code INSERT} statement per measurement, sent to the database as a single JDBC batch. Only the measurements that could not be
+     * inserted because they already exist are then merged. This is the fastest strategy if measurements are rarely received twice.
+     */
+    INSERT_WITH_FALLBACK,
+
+    /**
+     * The measurements are written to a temporary CSV file which is loaded using a single {@code MERGE} statement reading the file with
+     * H2's {@code CSVREAD} function. This requires that the application and the database share the same file system, which is always the
+     * case for the embedded database used by this sample.
+     */
+    CSV_BULK_LOAD
+}
@@ -0,0 +1,353 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Measurement;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes batches of live measurements to the database, optionally using several writer threads ("shards") in parallel.
+ * <p>
+ * With a single shard (the default), each batch is saved on the calling thread in the same transaction as its checkpoint (i.e. the update
+ * of the latest offset received).
+ * <p>
+ * With more than one shard, each batch is partitioned by a hash of the sensor ID, and each shard saves its part of the batch in its own
+ * transaction on its own thread. Since a sensor always belongs to the same shard, and each shard saves its parts in the order they were
+ * written, the order of the measurements of a sensor is preserved. The checkpoint of a batch is only performed once every shard has saved
+ * its part of that batch and of all earlier batches, and once the checkpoint of the previous batch has been performed. If saving fails,
+ * none of the pending checkpoints are performed and the failure is rethrown by the next call to {@link #write(List, Runnable)}. Since the
+ * offset is then not updated, the measurements that may have been lost are replayed later (if replay is enabled).
+ * <p>
+ * A batch can also be given an action to run once its measurements and its checkpoint have been committed, e.g. to publish the measurements
+ * to other processes. These actions are run in the order the batches were written, and not at all if saving the batch or an earlier batch
+ * fails.
+ * <p>
+ * The number of batches waiting to be saved is bounded, so {@link #write(List, Runnable)} blocks if the shards cannot keep up.
+ * <p>
+ * The time it takes to save and commit the batches is tracked (see {@link #getRecentWriteLatency()}), so that background jobs such as
+ * {@link RetentionService} can back off while the database is struggling to keep up with the live measurements.
+ */
+@Service
+class MeasurementWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementWriter.class);
+
+    private static final int MAX_PENDING_PARTS_PER_SHARD = 4;
+
+    /**
+     * The weight of the latest write in the moving average of the write latency.
+     */
+    private static final double WRITE_LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * How long the write latency is considered recent. If nothing has been written for longer, there is no ingest to back off for.
+     */
+    private static final long WRITE_LATENCY_MAX_AGE_IN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MeasurementLiveService measurementLiveService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int shardCount;
+
+    private final ExecutorService[] shardExecutorServices;
+
+    private final ExecutorService checkpointExecutorService;
+
+    private final Semaphore pendingParts;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private CompletableFuture<Void> lastCheckpointFuture = CompletableFuture.completedFuture(null);
+
+    /**
+     * Guards the write latency, which is recorded by the shards while {@link #write(List, Runnable)} may be holding the lock of this
+     * instance and waiting for them.
+     */
+    private final Object writeLatencyLock = new Object();
+
+    private double recentWriteLatencyInNanos;
+
+    private long lastWriteEndedAtNanos;
+
+    @Autowired
+    MeasurementWriter(
+            Configuration configuration,
+            MeasurementLiveService measurementLiveService,
+            TransactionTemplate transactionTemplate) {
+
+        this(configuration.getWriterShards(), measurementLiveService, transactionTemplate);
+    }
+
+    MeasurementWriter(
+            int shardCount, MeasurementLiveService measurementLiveService, TransactionTemplate transactionTemplate) {
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("The number of writer shards must be at least 1, got " + shardCount);
+        }
+
+        this.measurementLiveService = Objects.requireNonNull(measurementLiveService);
+        this.transactionTemplate = Objects.requireNonNull(transactionTemplate);
+        this.shardCount = shardCount;
+
+        if (shardCount == 1) {
+            this.shardExecutorServices = null;
+            this.checkpointExecutorService = null;
+            this.pendingParts = null;
+            return;
+        }
+
+        this.shardExecutorServices = new ExecutorService[shardCount];
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardExecutorServices[shard] =
+                    Executors.newSingleThreadExecutor(new CustomizableThreadFactory("measurement-writer-" + shard + "-"));
+        }
+
+        this.checkpointExecutorService =
+                Executors.newSingleThreadExecutor(new CustomizableThreadFactory("measurement-checkpoint-"));
+        this.pendingParts = new Semaphore(shardCount * MAX_PENDING_PARTS_PER_SHARD);
+
+        LOGGER.info("Writing live measurements using {} shards", shardCount);
+    }
+
+    /**
+     * Saves the measurements and then runs the checkpoint (if not {@code null}) in a transaction. The list of measurements may be reused by
+     * the caller once this method returns.
+     */
+    void write(List<Measurement> measurements, Runnable checkpoint) {
+
+        write(measurements, checkpoint, null);
+    }
+
+    /**
+     * Saves the measurements and then runs the checkpoint (if not {@code null}) in a transaction. Once they have been committed, the
+     * afterCommit action (if not {@code null}) is run - possibly on another thread after this method has returned, so it must not use the
+     * list of measurements, which may be reused by the caller once this method returns.
+     */
+    synchronized void write(List<Measurement> measurements, Runnable checkpoint, Runnable afterCommit) {
+
+        if (shardExecutorServices == null) {
+            long startedAtNanos = System.nanoTime();
+            transactionTemplate.executeWithoutResult(transactionStatus -> {
+                if (!measurements.isEmpty()) {
+                    measurementLiveService.saveMeasurements(measurements);
+                }
+
+                if (checkpoint != null) {
+                    checkpoint.run();
+                }
+            });
+            recordWriteLatency(startedAtNanos);
+
+            if (afterCommit != null) {
+                afterCommit.run();
+            }
+            return;
+        }
+
+        rethrowFailure();
+
+        List<List<Measurement>> parts = partition(measurements);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(shardCount);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            List<Measurement> part = parts.get(shard);
+
+            // Shards without measurements in this batch only need to take part if the batch has a checkpoint, since the checkpoint must
+            // wait until the shard has saved its parts of the earlier batches.
+            if (!part.isEmpty() || checkpoint != null) {
+                futures.add(submit(shard, part));
+            }
+        }
+
+        if (checkpoint == null && afterCommit == null) {
+            return;
+        }
+
+        // Depending on the previous checkpoint means that a failure prevents all later checkpoints, also those of batches where every
+        // shard succeeded. The afterCommit actions are chained the same way, since they must run in order, and only once the shards
+        // with parts of this batch have committed them.
+        futures.add(lastCheckpointFuture);
+
+        lastCheckpointFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(
+                        () -> {
+                            if (checkpoint != null) {
+                                transactionTemplate.executeWithoutResult(transactionStatus -> checkpoint.run());
+                            }
+                            if (afterCommit != null) {
+                                afterCommit.run();
+                            }
+                        },
+                        checkpointExecutorService);
+
+        lastCheckpointFuture.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                failure.compareAndSet(null, throwable);
+            }
+        });
+    }
+
+    /**
+     * Returns a moving average of the time it has recently taken to save and commit a batch (or a part of it), or zero if nothing has been
+     * written recently.
+     */
+    Duration getRecentWriteLatency() {
+
+        synchronized (writeLatencyLock) {
+
+            if (lastWriteEndedAtNanos == 0
+                    || System.nanoTime() - lastWriteEndedAtNanos > WRITE_LATENCY_MAX_AGE_IN_NANOS) {
+                return Duration.ZERO;
+            }
+
+            return Duration.ofNanos((long) recentWriteLatencyInNanos);
+        }
+    }
+
+    int getShardCount() {
+
+        return shardCount;
+    }
+
+    /**
+     * Waits until all measurements and checkpoints written so far have been processed. Used when re-ingesting recorded streams, and by tests
+     * and benchmarks.
+     */
+    synchronized void awaitPendingWrites() {
+
+        if (shardExecutorServices == null) {
+            return;
+        }
+
+        awaitPendingWritesIgnoringFailures();
+        rethrowFailure();
+    }
+
+    @PreDestroy
+    void shutdown() {
+
+        if (shardExecutorServices == null) {
+            return;
+        }
+
+        for (ExecutorService shardExecutorService : shardExecutorServices) {
+            shardExecutorService.shutdown();
+        }
+
+        checkpointExecutorService.shutdown();
+    }
+
+    private List<List<Measurement>> partition(List<Measurement> measurements) {
+
+        List<List<Measurement>> parts = new ArrayList<>(shardCount);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            parts.add(new ArrayList<>(measurements.size() / shardCount + 1));
+        }
+
+        for (Measurement measurement : measurements) {
+            parts.get(Math.floorMod(measurement.getSensorId().hashCode(), shardCount))
+                    .add(measurement);
+        }
+
+        return parts;
+    }
+
+    private CompletableFuture<Void> submit(int shard, List<Measurement> part) {
+
+        pendingParts.acquireUninterruptibly();
+
+        try {
+            return CompletableFuture.runAsync(
+                            () -> {
+                                if (!part.isEmpty()) {
+                                    long startedAtNanos = System.nanoTime();
+                                    measurementLiveService.saveMeasurements(part);
+                                    recordWriteLatency(startedAtNanos);
+                                }
+                            },
+                            shardExecutorServices[shard])
+                    .whenComplete((ignored, throwable) -> {
+                        pendingParts.release();
+                        if (throwable != null) {
+                            failure.compareAndSet(null, throwable);
+                        }
+                    });
+        } catch (RuntimeException ex) {
+            pendingParts.release();
+            throw ex;
+        }
+    }
+
+    private void recordWriteLatency(long startedAtNanos) {
+
+        long endedAtNanos = System.nanoTime();
+        long latencyInNanos = endedAtNanos - startedAtNanos;
+
+        synchronized (writeLatencyLock) {
+
+            recentWriteLatencyInNanos = lastWriteEndedAtNanos == 0
+                    ? latencyInNanos
+                    : recentWriteLatencyInNanos
+                            + WRITE_LATENCY_SMOOTHING * (latencyInNanos - recentWriteLatencyInNanos);
+            lastWriteEndedAtNanos = endedAtNanos;
+        }
+    }
+
+    private void awaitPendingWritesIgnoringFailures() {
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(shardCount + 1);
+
+        for (ExecutorService shardExecutorService : shardExecutorServices) {
+            futures.add(CompletableFuture.runAsync(() -> {}, shardExecutorService));
+        }
+
+        futures.add(lastCheckpointFuture.exceptionally(throwable -> null));
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void rethrowFailure() {
+
+        if (failure.get() == null) {
+            return;
+        }
+
+        // Let the parts and checkpoints already submitted finish (the checkpoints will all fail) so that the writer can be used again
+        // from a clean state.
+        awaitPendingWritesIgnoringFailures();
+
+        Throwable throwable = failure.getAndSet(null);
+        lastCheckpointFuture = CompletableFuture.completedFuture(null);
+
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+
+        if (throwable instanceof RuntimeException exception) {
+            throw exception;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException("Failed to save live measurements", throwable);
+    }
+}
@@ -10,6 +10,8 @@ package com.ecostruxureit.api.sample;
  * this class, if running in test mode (which means it will not start a background thread).
  * <p>
  * If running in test mode, then {@code application-test.properties} is used instead of {@code application.properties}.
+ * <p>
+ * In "reingest" mode, {@link CaptureReingester} re-ingests recorded streams instead of {@link FetchTimer} retrieving data from the API.
  */
 public final class Profiles {
 
@@ -17,5 +19,9 @@ public final class Profiles {
 
     public static final String NOT_TEST = "!test";
 
+    public static final String REINGEST = "reingest";
+
+    public static final String NOT_TEST_AND_NOT_REINGEST = "!test & !reingest";
+
     private Profiles() {}
 }
@@ -0,0 +1,267 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A mergeable, approximate quantile sketch based on the KLL algorithm (Karnin, Lang and Liberty: "Optimal Quantile Approximation in
+ * Streams").
+ * <p>
+ * The sketch keeps a hierarchy of compactors. Values are added to the lowest level, and whenever a level is full, it is sorted and every
+ * other value (starting at a random position) is promoted to the next level with twice the weight. This keeps the memory usage bounded
+ * (a few kilobytes for the default {@code k}) no matter how many values are added, while quantiles can be estimated with a small rank
+ * error. Sketches for e.g. adjacent time buckets can be merged into a sketch covering the whole time range.
+ * <p>
+ * Instances are not thread safe.
+ */
+final class QuantileSketch {
+
+    static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private static final int MINIMUM_CAPACITY = 2;
+
+    private final int k;
+
+    private final List<Compactor> compactors = new ArrayList<>();
+
+    private long count;
+
+    private int retainedItems;
+
+    private int maximumRetainedItems;
+
+    QuantileSketch() {
+
+        this(DEFAULT_K);
+    }
+
+    QuantileSketch(int k) {
+
+        if (k < MINIMUM_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MINIMUM_CAPACITY + ", got " + k);
+        }
+
+        this.k = k;
+        addLevel();
+    }
+
+    void add(double value) {
+
+        compactors.get(0).add(value);
+        count++;
+        retainedItems++;
+        compressWhileFull();
+    }
+
+    void merge(QuantileSketch other) {
+
+        while (compactors.size() < other.compactors.size()) {
+            addLevel();
+        }
+
+        for (int level = 0; level < other.compactors.size(); level++) {
+            Compactor otherCompactor = other.compactors.get(level);
+            compactors.get(level).addAll(otherCompactor);
+            retainedItems += otherCompactor.size;
+        }
+
+        count += other.count;
+        compressWhileFull();
+    }
+
+    long getCount() {
+
+        return count;
+    }
+
+    /**
+     * Returns an estimate of the value at the given quantile, e.g. {@code 0.95} for the 95th percentile, or {@code NaN} if the sketch is
+     * empty.
+     */
+    double getQuantile(double quantile) {
+
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1, got " + quantile);
+        }
+
+        if (retainedItems == 0) {
+            return Double.NaN;
+        }
+
+        // The weight of a value is 2^level. Values and weights are kept in parallel arrays and sorted via an index array.
+        double[] values = new double[retainedItems];
+        long[] weights = new long[retainedItems];
+        Integer[] order = new Integer[retainedItems];
+        int index = 0;
+        long totalWeight = 0;
+
+        for (int level = 0; level < compactors.size(); level++) {
+            Compactor compactor = compactors.get(level);
+            for (int i = 0; i < compactor.size; i++) {
+                values[index] = compactor.items[i];
+                weights[index] = 1L << level;
+                order[index] = index;
+                totalWeight += weights[index];
+                index++;
+            }
+        }
+
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double targetWeight = quantile * totalWeight;
+        long cumulativeWeight = 0;
+
+        for (Integer i : order) {
+            cumulativeWeight += weights[i];
+            if (cumulativeWeight >= targetWeight) {
+                return values[i];
+            }
+        }
+
+        return values[order[order.length - 1]];
+    }
+
+    byte[] toBytes() {
+
+        ByteBuffer byteBuffer = ByteBuffer.allocate(
+                Integer.BYTES + Long.BYTES + Integer.BYTES + compactors.size() * Integer.BYTES
+                        + retainedItems * Double.BYTES);
+
+        byteBuffer.putInt(k);
+        byteBuffer.putLong(count);
+        byteBuffer.putInt(compactors.size());
+
+        for (Compactor compactor : compactors) {
+            byteBuffer.putInt(compactor.size);
+            for (int i = 0; i < compactor.size; i++) {
+                byteBuffer.putDouble(compactor.items[i]);
+            }
+        }
+
+        return byteBuffer.array();
+    }
+
+    static QuantileSketch fromBytes(byte[] bytes) {
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+
+        QuantileSketch sketch = new QuantileSketch(byteBuffer.getInt());
+        sketch.count = byteBuffer.getLong();
+
+        int levels = byteBuffer.getInt();
+
+        while (sketch.compactors.size() < levels) {
+            sketch.addLevel();
+        }
+
+        for (int level = 0; level < levels; level++) {
+            Compactor compactor = sketch.compactors.get(level);
+            int size = byteBuffer.getInt();
+            for (int i = 0; i < size; i++) {
+                compactor.add(byteBuffer.getDouble());
+            }
+            sketch.retainedItems += size;
+        }
+
+        return sketch;
+    }
+
+    private void addLevel() {
+
+        compactors.add(new Compactor());
+
+        maximumRetainedItems = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            maximumRetainedItems += capacity(level);
+        }
+    }
+
+    /**
+     * The capacity decreases geometrically with the distance from the top level, so that most of the memory is spent on the levels with
+     * the highest weights.
+     */
+    private int capacity(int level) {
+
+        int depth = compactors.size() - level - 1;
+        return Math.max(MINIMUM_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compressWhileFull() {
+
+        while (retainedItems >= maximumRetainedItems) {
+            compressOneLevel();
+        }
+    }
+
+    private void compressOneLevel() {
+
+        for (int level = 0; level < compactors.size(); level++) {
+            Compactor compactor = compactors.get(level);
+
+            if (compactor.size >= capacity(level)) {
+                if (level + 1 == compactors.size()) {
+                    addLevel();
+                }
+                int sizeBefore = compactor.size;
+                Compactor nextCompactor = compactors.get(level + 1);
+                int nextSizeBefore = nextCompactor.size;
+                compactor.compactInto(nextCompactor);
+                retainedItems += (compactor.size - sizeBefore) + (nextCompactor.size - nextSizeBefore);
+                return;
+            }
+        }
+    }
+
+    private static final class Compactor {
+
+        private double[] items = new double[8];
+
+        private int size;
+
+        void add(double value) {
+
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void addAll(Compactor other) {
+
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(size + other.size, items.length * 2));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Promotes every other item to the given compactor. If the number of items is odd, the largest item is kept in this compactor so
+         * that the total weight of the sketch is preserved exactly.
+         */
+        void compactInto(Compactor nextCompactor) {
+
+            Arrays.sort(items, 0, size);
+
+            int compactedSize = size - (size % 2);
+            int start = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+
+            for (int i = start; i < compactedSize; i += 2) {
+                nextCompactor.add(items[i]);
+            }
+
+            if (compactedSize < size) {
+                items[0] = items[size - 1];
+                size = 1;
+            } else {
+                size = 0;
+            }
+        }
+    }
+}
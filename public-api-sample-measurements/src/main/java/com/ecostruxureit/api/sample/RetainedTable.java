@@ -0,0 +1,51 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * The tables whose rows are deleted by {@link RetentionService} once they are older than the retention period configured for them.
+ * <p>
+ * The rows of the tables keyed by sensor are deleted one sensor at a time using the primary key {@code (sensor_id, <time column>)}, so no
+ * extra index (which would slow down the writes) is needed.
+ */
+enum RetainedTable {
+
+    MEASUREMENT("measurement", "timestamp", true),
+
+    SENSOR_STATISTICS("sensor_statistics", "bucket_start", true),
+
+    SENSOR_GAP("sensor_gap", "gap_start", true),
+
+    SENSOR_LIVENESS_EVENT("sensor_liveness_event", "occurred_at", false);
+
+    private final String tableName;
+
+    private final String timeColumnName;
+
+    private final boolean keyedBySensor;
+
+    RetainedTable(String tableName, String timeColumnName, boolean keyedBySensor) {
+
+        this.tableName = tableName;
+        this.timeColumnName = timeColumnName;
+        this.keyedBySensor = keyedBySensor;
+    }
+
+    String getTableName() {
+
+        return tableName;
+    }
+
+    String getTimeColumnName() {
+
+        return timeColumnName;
+    }
+
+    /**
+     * Returns whether the primary key of the table starts with {@code sensor_id} followed by the time column. Otherwise, the time column is
+     * indexed.
+     */
+    boolean isKeyedBySensor() {
+
+        return keyedBySensor;
+    }
+}
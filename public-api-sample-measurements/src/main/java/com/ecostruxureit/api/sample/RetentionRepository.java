@@ -0,0 +1,85 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Deletes expired rows for {@link RetentionService}, in chunks that follow an index so that each chunk only touches the rows it deletes.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class RetentionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    RetentionRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    /**
+     * Finds the first sensor ID in the table after the given one (or the first one if {@code null}). Each call is a single lookup in the
+     * primary key, so all the sensor IDs can be found without scanning the table.
+     */
+    public String findNextSensorId(RetainedTable table, String previousSensorId) {
+
+        List<String> sensorIds = previousSensorId == null
+                ? jdbcTemplate.queryForList(
+                        "SELECT sensor_id FROM " + table.getTableName() + " ORDER BY sensor_id FETCH FIRST ROW ONLY",
+                        String.class)
+                : jdbcTemplate.queryForList(
+                        "SELECT sensor_id FROM " + table.getTableName()
+                                + " WHERE sensor_id > ? ORDER BY sensor_id FETCH FIRST ROW ONLY",
+                        String.class,
+                        previousSensorId);
+
+        return sensorIds.isEmpty() ? null : sensorIds.get(0);
+    }
+
+    /**
+     * Deletes at most {@code chunkSize} rows of the sensor older than {@code before}.
+     *
+     * @return the number of rows deleted
+     */
+    public int deleteChunkOfSensor(RetainedTable table, String sensorId, Instant before, int chunkSize) {
+
+        return jdbcTemplate.update(
+                "DELETE FROM " + table.getTableName() + " WHERE sensor_id = ? AND " + table.getTimeColumnName()
+                        + " < ? FETCH FIRST ? ROWS ONLY",
+                sensorId,
+                Timestamp.from(before),
+                chunkSize);
+    }
+
+    /**
+     * Deletes at most {@code chunkSize} rows older than {@code before}.
+     *
+     * @return the number of rows deleted
+     */
+    public int deleteChunk(RetainedTable table, Instant before, int chunkSize) {
+
+        return jdbcTemplate.update(
+                "DELETE FROM " + table.getTableName() + " WHERE " + table.getTimeColumnName()
+                        + " < ? FETCH FIRST ? ROWS ONLY",
+                Timestamp.from(before),
+                chunkSize);
+    }
+
+    /**
+     * Deletes the pending replays (but not the latest offset received) that have not made progress since {@code before}.
+     *
+     * @return the number of replays deleted
+     */
+    public int deletePendingReplays(Instant before) {
+
+        return jdbcTemplate.update(
+                "DELETE FROM replay WHERE to_offset <> '' AND created_at < ?", Timestamp.from(before));
+    }
+}
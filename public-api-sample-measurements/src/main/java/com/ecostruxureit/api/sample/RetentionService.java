@@ -0,0 +1,232 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes the rows that are older than the retention period configured for their table ({@code measurementRetentionInDays},
+ * {@code statisticsRetentionInDays}, {@code livenessRetentionInDays} and {@code replayRetentionInDays}, where 0 means that the rows are
+ * kept forever). Keeping the raw measurements for a shorter time than the statistics buckets keeps the statistics of old time ranges available.
+ * <p>
+ * The rows are deleted in chunks of at most {@code retentionChunkSize} rows, each in its own transaction, so that the live measurements are
+ * never blocked for long. The chunks follow the primary key (one sensor at a time) or an index, so a chunk only reads the rows it deletes.
+ * After each chunk, the job sleeps for as long as the chunk took, so it uses at most half of the time of the database. Before each chunk,
+ * it waits while saving the live measurements takes longer than {@code retentionMaxWriteLatencyInMilliseconds} (see
+ * {@link MeasurementWriter#getRecentWriteLatency()}), so it yields to the ingest when the database is busy.
+ * <p>
+ * When several nodes share the database (see {@link LeaseManager}), only the node holding the replay lease enforces the retention.
+ */
+@Service
+class RetentionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetentionService.class);
+
+    private static final long MIN_YIELD_IN_MILLISECONDS = 100;
+
+    private static final long MAX_YIELD_IN_MILLISECONDS = 10_000;
+
+    private final RetentionRepository retentionRepository;
+
+    private final MeasurementWriter measurementWriter;
+
+    private final LeaseManager leaseManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock;
+
+    private final Map<RetainedTable, Duration> retentions;
+
+    private final Duration replayRetention;
+
+    private final int chunkSize;
+
+    private final Duration maxWriteLatency;
+
+    @Autowired
+    RetentionService(
+            Configuration configuration,
+            RetentionRepository retentionRepository,
+            MeasurementWriter measurementWriter,
+            LeaseManager leaseManager,
+            TransactionTemplate transactionTemplate) {
+
+        this(
+                createRetentions(configuration),
+                Duration.ofDays(configuration.getReplayRetentionInDays()),
+                configuration.getRetentionChunkSize(),
+                Duration.ofMillis(configuration.getRetentionMaxWriteLatencyInMilliseconds()),
+                retentionRepository,
+                measurementWriter,
+                leaseManager,
+                transactionTemplate,
+                Clock.systemUTC());
+    }
+
+    RetentionService(
+            Map<RetainedTable, Duration> retentions,
+            Duration replayRetention,
+            int chunkSize,
+            Duration maxWriteLatency,
+            RetentionRepository retentionRepository,
+            MeasurementWriter measurementWriter,
+            LeaseManager leaseManager,
+            TransactionTemplate transactionTemplate,
+            Clock clock) {
+
+        this.retentionRepository = Objects.requireNonNull(retentionRepository);
+        this.measurementWriter = Objects.requireNonNull(measurementWriter);
+        this.leaseManager = Objects.requireNonNull(leaseManager);
+        this.transactionTemplate = Objects.requireNonNull(transactionTemplate);
+        this.clock = Objects.requireNonNull(clock);
+        this.retentions = new EnumMap<>(RetainedTable.class);
+        this.retentions.putAll(retentions);
+        this.replayRetention = Objects.requireNonNull(replayRetention);
+        this.chunkSize = chunkSize;
+        this.maxWriteLatency = Objects.requireNonNull(maxWriteLatency);
+    }
+
+    boolean isEnabled() {
+
+        return !retentions.isEmpty() || !replayRetention.isZero();
+    }
+
+    /**
+     * Deletes the expired rows of all the tables.
+     *
+     * @return the number of rows deleted
+     */
+    long enforceRetention() throws InterruptedException {
+
+        if (!isEnabled() || !leaseManager.isHeld(LeaseManager.REPLAY_LEASE)) {
+            return 0;
+        }
+
+        Instant now = clock.instant();
+        long deletedRowCount = 0;
+
+        for (Map.Entry<RetainedTable, Duration> entry : retentions.entrySet()) {
+
+            RetainedTable table = entry.getKey();
+            Instant before = now.minus(entry.getValue());
+            long deletedRowCountOfTable = table.isKeyedBySensor()
+                    ? deleteExpiredRowsBySensor(table, before)
+                    : deleteChunks(() -> retentionRepository.deleteChunk(table, before, chunkSize));
+
+            if (deletedRowCountOfTable > 0) {
+                LOGGER.info(
+                        "Deleted {} row(s) older than {} from the {} table",
+                        deletedRowCountOfTable,
+                        before,
+                        table.getTableName());
+            }
+
+            deletedRowCount += deletedRowCountOfTable;
+        }
+
+        if (!replayRetention.isZero()) {
+            Instant before = now.minus(replayRetention);
+            Integer deletedReplayCount = transactionTemplate.execute(transactionStatus -> {
+                leaseManager.checkFencingToken(LeaseManager.REPLAY_LEASE);
+                return retentionRepository.deletePendingReplays(before);
+            });
+
+            if (deletedReplayCount > 0) {
+                LOGGER.info("Deleted {} pending replay(s) without progress since {}", deletedReplayCount, before);
+            }
+
+            deletedRowCount += deletedReplayCount;
+        }
+
+        return deletedRowCount;
+    }
+
+    private long deleteExpiredRowsBySensor(RetainedTable table, Instant before) throws InterruptedException {
+
+        long deletedRowCount = 0;
+        String sensorId = null;
+
+        while (true) {
+
+            String previousSensorId = sensorId;
+            sensorId = transactionTemplate.execute(
+                    transactionStatus -> retentionRepository.findNextSensorId(table, previousSensorId));
+
+            if (sensorId == null) {
+                return deletedRowCount;
+            }
+
+            String currentSensorId = sensorId;
+            deletedRowCount += deleteChunks(
+                    () -> retentionRepository.deleteChunkOfSensor(table, currentSensorId, before, chunkSize));
+        }
+    }
+
+    /**
+     * Deletes chunks, each in its own transaction, until a chunk is not full.
+     */
+    private long deleteChunks(IntSupplier chunkDeleter) throws InterruptedException {
+
+        long deletedRowCount = 0;
+
+        while (true) {
+
+            yieldToIngest();
+
+            long startedAtNanos = System.nanoTime();
+            Integer chunkRowCount = transactionTemplate.execute(transactionStatus -> chunkDeleter.getAsInt());
+            long chunkDurationInNanos = System.nanoTime() - startedAtNanos;
+
+            deletedRowCount += chunkRowCount;
+
+            if (chunkRowCount < chunkSize) {
+                return deletedRowCount;
+            }
+
+            // Throttles the job, so that it uses at most half of the time of the database.
+            Thread.sleep(Duration.ofNanos(chunkDurationInNanos));
+        }
+    }
+
+    private void yieldToIngest() throws InterruptedException {
+
+        long yieldInMilliseconds = MIN_YIELD_IN_MILLISECONDS;
+
+        while (measurementWriter.getRecentWriteLatency().compareTo(maxWriteLatency) > 0) {
+
+            LOGGER.debug("Saving live measurements is slow, pausing retention for {} ms", yieldInMilliseconds);
+            Thread.sleep(yieldInMilliseconds);
+            yieldInMilliseconds = Math.min(2 * yieldInMilliseconds, MAX_YIELD_IN_MILLISECONDS);
+        }
+    }
+
+    private static Map<RetainedTable, Duration> createRetentions(Configuration configuration) {
+
+        Map<RetainedTable, Duration> retentions = new EnumMap<>(RetainedTable.class);
+
+        putIfPositive(retentions, RetainedTable.MEASUREMENT, configuration.getMeasurementRetentionInDays());
+        putIfPositive(retentions, RetainedTable.SENSOR_STATISTICS, configuration.getStatisticsRetentionInDays());
+        putIfPositive(retentions, RetainedTable.SENSOR_GAP, configuration.getLivenessRetentionInDays());
+        putIfPositive(retentions, RetainedTable.SENSOR_LIVENESS_EVENT, configuration.getLivenessRetentionInDays());
+
+        return retentions;
+    }
+
+    private static void putIfPositive(Map<RetainedTable, Duration> retentions, RetainedTable table, int days) {
+
+        if (days > 0) {
+            retentions.put(table, Duration.ofDays(days));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * Keeps count, minimum, maximum, mean and variance of a stream of values without keeping the values themselves.
+ * <p>
+ * The mean and variance are maintained using Welford's online algorithm, which is numerically stable. Two instances can be merged (e.g.
+ * statistics of two adjacent time buckets) using the parallel variant of the algorithm by Chan et al.
+ */
+final class RunningStatistics {
+
+    private long count;
+
+    private double minimum = Double.NaN;
+
+    private double maximum = Double.NaN;
+
+    private double mean;
+
+    /**
+     * The sum of squared differences from the current mean.
+     */
+    private double m2;
+
+    RunningStatistics() {}
+
+    RunningStatistics(long count, double minimum, double maximum, double mean, double m2) {
+
+        this.count = count;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    void add(double value) {
+
+        if (count == 0) {
+            minimum = value;
+            maximum = value;
+        } else {
+            minimum = Math.min(minimum, value);
+            maximum = Math.max(maximum, value);
+        }
+
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    void merge(RunningStatistics other) {
+
+        if (other.count == 0) {
+            return;
+        }
+
+        if (count == 0) {
+            count = other.count;
+            minimum = other.minimum;
+            maximum = other.maximum;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+
+        long mergedCount = count + other.count;
+        double delta = other.mean - mean;
+
+        mean += delta * other.count / mergedCount;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / mergedCount);
+        count = mergedCount;
+        minimum = Math.min(minimum, other.minimum);
+        maximum = Math.max(maximum, other.maximum);
+    }
+
+    long getCount() {
+
+        return count;
+    }
+
+    double getMinimum() {
+
+        return minimum;
+    }
+
+    double getMaximum() {
+
+        return maximum;
+    }
+
+    double getMean() {
+
+        return mean;
+    }
+
+    double getM2() {
+
+        return m2;
+    }
+
+    /**
+     * Returns the population variance, or {@code NaN} if no values have been added.
+     */
+    double getVariance() {
+
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+}
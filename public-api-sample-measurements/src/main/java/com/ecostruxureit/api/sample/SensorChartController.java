@@ -0,0 +1,53 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exposes the downsampled series calculated by {@link SensorChartService}, e.g.:
+ * <pre>
+ * curl 'http://localhost:8080/sensors/{sensorId}/chart?from=2025-01-01T00:00:00Z&amp;to=2025-02-01T00:00:00Z&amp;maxPoints=1000&amp;mode=LTTB'
+ * </pre>
+ */
+@RestController
+class SensorChartController {
+
+    static final String SENSOR_CHART_PATH = "/sensors/{sensorId}/chart";
+
+    private static final int MAX_POINTS = 100_000;
+
+    private final SensorChartService sensorChartService;
+
+    SensorChartController(SensorChartService sensorChartService) {
+
+        this.sensorChartService = Objects.requireNonNull(sensorChartService);
+    }
+
+    @GetMapping(SENSOR_CHART_PATH)
+    public List<ChartPoint> chart(
+            @PathVariable("sensorId") String sensorId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            @RequestParam(name = "maxPoints", defaultValue = "1000") int maxPoints,
+            @RequestParam(name = "mode", defaultValue = "LTTB") DownsamplingMode mode) {
+
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        if (maxPoints < 3 || maxPoints > MAX_POINTS) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "maxPoints must be between 3 and " + MAX_POINTS + ": " + maxPoints);
+        }
+
+        return sensorChartService.downsample(sensorId, from, to, maxPoints, mode);
+    }
+}
@@ -0,0 +1,401 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.MeasurementRepository.NumericValueCallback;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Downsamples the numeric measurements of a sensor within a time range to at most a given number of points, so that a long time range can
+ * be charted without sending every measurement to the browser.
+ * <p>
+ * The time range is divided into buckets of equal duration, and the measurements are read in timestamp order (from
+ * {@link HotMeasurementTier} if they are recent enough) and reduced as they are read, so the memory used is proportional to the number of
+ * points rather than the number of measurements:
+ * <ul>
+ * <li>{@link DownsamplingMode#LTTB} needs the average of the next bucket when choosing the point of a bucket, so the measurements are read
+ * twice: once to calculate the averages of all buckets and once to choose the points.</li>
+ * <li>{@link DownsamplingMode#MIN_MAX} only needs a single pass. When the buckets are at least as long as the statistics buckets (see
+ * {@link SensorStatisticsService}), the minimum and maximum of the statistics buckets are used instead of the measurements, except at the
+ * edges of the time range. The timestamp of such a point is then the start of the statistics bucket.</li>
+ * </ul>
+ */
+@Service
+class SensorChartService {
+
+    private final HotMeasurementTier hotMeasurementTier;
+
+    private final SensorStatisticsRepository sensorStatisticsRepository;
+
+    private final long statisticsBucketSizeInMilliseconds;
+
+    SensorChartService(
+            Configuration configuration,
+            HotMeasurementTier hotMeasurementTier,
+            SensorStatisticsRepository sensorStatisticsRepository) {
+
+        this.hotMeasurementTier = Objects.requireNonNull(hotMeasurementTier);
+        this.sensorStatisticsRepository = Objects.requireNonNull(sensorStatisticsRepository);
+
+        this.statisticsBucketSizeInMilliseconds =
+                Duration.ofMinutes(configuration.getStatisticsBucketSizeInMinutes()).toMillis();
+    }
+
+    /**
+     * Returns at most {@code maxPoints} (at least 3) points of the numeric measurements of the sensor within
+     * {@code [fromInclusive, toExclusive)}, ordered by timestamp.
+     */
+    @Transactional(readOnly = true)
+    public List<ChartPoint> downsample(
+            String sensorId, Instant fromInclusive, Instant toExclusive, int maxPoints, DownsamplingMode mode) {
+
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("maxPoints must be at least 3: " + maxPoints);
+        }
+
+        return switch (mode) {
+            case LTTB -> downsampleLargestTriangleThreeBuckets(sensorId, fromInclusive, toExclusive, maxPoints);
+            case MIN_MAX -> downsampleMinimumAndMaximum(sensorId, fromInclusive, toExclusive, maxPoints);
+        };
+    }
+
+    private List<ChartPoint> downsampleLargestTriangleThreeBuckets(
+            String sensorId, Instant fromInclusive, Instant toExclusive, int maxPoints) {
+
+        // The first and the last measurement are always kept, and one measurement is chosen from each of the other buckets.
+        Buckets buckets = new Buckets(fromInclusive, toExclusive, maxPoints - 2);
+        BucketAverages bucketAverages = new BucketAverages(buckets);
+
+        hotMeasurementTier.forEachNumericValue(sensorId, fromInclusive, toExclusive, bucketAverages);
+
+        List<ChartPoint> points = new ArrayList<>();
+
+        if (bucketAverages.count <= maxPoints) {
+            hotMeasurementTier.forEachNumericValue(
+                    sensorId, fromInclusive, toExclusive, (ignoredSensorId, timestamp, numericValue) -> {
+                        points.add(new ChartPoint(timestamp, numericValue));
+                    });
+            return points;
+        }
+
+        TriangleSelector triangleSelector = new TriangleSelector(buckets, bucketAverages, points);
+
+        hotMeasurementTier.forEachNumericValue(sensorId, fromInclusive, toExclusive, triangleSelector);
+
+        triangleSelector.finish();
+
+        return points;
+    }
+
+    private List<ChartPoint> downsampleMinimumAndMaximum(
+            String sensorId, Instant fromInclusive, Instant toExclusive, int maxPoints) {
+
+        // Each bucket results in (at most) two points.
+        Buckets buckets = new Buckets(fromInclusive, toExclusive, maxPoints / 2);
+        MinimumAndMaximumSelector selector = new MinimumAndMaximumSelector(buckets);
+
+        Duration bucketDuration = Duration.between(fromInclusive, toExclusive).dividedBy(buckets.count);
+        Instant firstFullStatisticsBucketStart =
+                getStatisticsBucketStart(fromInclusive.plusMillis(statisticsBucketSizeInMilliseconds - 1));
+        Instant fullStatisticsBucketsEnd = getStatisticsBucketStart(toExclusive);
+
+        if (bucketDuration.toMillis() >= statisticsBucketSizeInMilliseconds
+                && firstFullStatisticsBucketStart.isBefore(fullStatisticsBucketsEnd)) {
+
+            addRawValues(selector, sensorId, fromInclusive, firstFullStatisticsBucketStart);
+            sensorStatisticsRepository.forEachMinimumAndMaximum(
+                    sensorId, firstFullStatisticsBucketStart, fullStatisticsBucketsEnd, selector::add);
+            addRawValues(selector, sensorId, fullStatisticsBucketsEnd, toExclusive);
+        } else {
+            addRawValues(selector, sensorId, fromInclusive, toExclusive);
+        }
+
+        return selector.getPoints();
+    }
+
+    private void addRawValues(
+            MinimumAndMaximumSelector selector, String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        if (!fromInclusive.isBefore(toExclusive)) {
+            return;
+        }
+
+        hotMeasurementTier.forEachNumericValue(
+                sensorId, fromInclusive, toExclusive, (ignoredSensorId, timestamp, numericValue) -> {
+                    selector.add(timestamp, numericValue, numericValue);
+                });
+    }
+
+    private Instant getStatisticsBucketStart(Instant timestamp) {
+
+        long epochMilli = timestamp.toEpochMilli();
+        return Instant.ofEpochMilli(epochMilli - Math.floorMod(epochMilli, statisticsBucketSizeInMilliseconds));
+    }
+
+    private static long toMicros(Instant instant) {
+
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    /**
+     * Divides a time range into buckets of equal duration. Timestamps are represented as microseconds since the start of the range.
+     */
+    private static final class Buckets {
+
+        private final long fromMicros;
+
+        private final double rangeMicros;
+
+        private final int count;
+
+        Buckets(Instant fromInclusive, Instant toExclusive, int count) {
+
+            this.fromMicros = toMicros(fromInclusive);
+            this.rangeMicros = toMicros(toExclusive) - fromMicros;
+            this.count = count;
+        }
+
+        long toX(Instant timestamp) {
+
+            return toMicros(timestamp) - fromMicros;
+        }
+
+        int indexOf(long x) {
+
+            return (int) Math.min(count - 1, Math.max(0, (long) (x / rangeMicros * count)));
+        }
+    }
+
+    /**
+     * The first pass of LTTB, which counts the measurements and calculates the average of each bucket.
+     */
+    private static final class BucketAverages implements NumericValueCallback {
+
+        private final Buckets buckets;
+
+        private final long[] counts;
+
+        private final double[] sumsOfX;
+
+        private final double[] sumsOfY;
+
+        private long count;
+
+        private Instant firstTimestamp;
+
+        private double firstValue;
+
+        private Instant lastTimestamp;
+
+        private double lastValue;
+
+        BucketAverages(Buckets buckets) {
+
+            this.buckets = buckets;
+            this.counts = new long[buckets.count];
+            this.sumsOfX = new double[buckets.count];
+            this.sumsOfY = new double[buckets.count];
+        }
+
+        @Override
+        public void accept(String sensorId, Instant timestamp, double numericValue) {
+
+            long x = buckets.toX(timestamp);
+            int index = buckets.indexOf(x);
+
+            counts[index]++;
+            sumsOfX[index] += x;
+            sumsOfY[index] += numericValue;
+
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                firstValue = numericValue;
+            }
+            lastTimestamp = timestamp;
+            lastValue = numericValue;
+            count++;
+        }
+    }
+
+    /**
+     * The second pass of LTTB, which chooses the measurement of each bucket forming the largest triangle with the previously chosen
+     * measurement and the average of the next non-empty bucket (or the last measurement).
+     */
+    private static final class TriangleSelector implements NumericValueCallback {
+
+        private final Buckets buckets;
+
+        private final List<ChartPoint> points;
+
+        private final Instant firstTimestamp;
+
+        private final Instant lastTimestamp;
+
+        private final ChartPoint lastPoint;
+
+        private final double[] nextXs;
+
+        private final double[] nextYs;
+
+        private double previousX;
+
+        private double previousY;
+
+        private int bucketIndex = -1;
+
+        private Instant bestTimestamp;
+
+        private long bestX;
+
+        private double bestY;
+
+        private double bestArea;
+
+        TriangleSelector(Buckets buckets, BucketAverages bucketAverages, List<ChartPoint> points) {
+
+            this.buckets = buckets;
+            this.points = points;
+            this.firstTimestamp = bucketAverages.firstTimestamp;
+            this.lastTimestamp = bucketAverages.lastTimestamp;
+            this.lastPoint = new ChartPoint(bucketAverages.lastTimestamp, bucketAverages.lastValue);
+            this.nextXs = new double[buckets.count];
+            this.nextYs = new double[buckets.count];
+
+            double nextX = buckets.toX(bucketAverages.lastTimestamp);
+            double nextY = bucketAverages.lastValue;
+
+            for (int index = buckets.count - 1; index >= 0; index--) {
+                nextXs[index] = nextX;
+                nextYs[index] = nextY;
+                if (bucketAverages.counts[index] > 0) {
+                    nextX = bucketAverages.sumsOfX[index] / bucketAverages.counts[index];
+                    nextY = bucketAverages.sumsOfY[index] / bucketAverages.counts[index];
+                }
+            }
+
+            points.add(new ChartPoint(bucketAverages.firstTimestamp, bucketAverages.firstValue));
+            previousX = buckets.toX(bucketAverages.firstTimestamp);
+            previousY = bucketAverages.firstValue;
+        }
+
+        @Override
+        public void accept(String sensorId, Instant timestamp, double numericValue) {
+
+            if (timestamp.equals(firstTimestamp) || timestamp.equals(lastTimestamp)) {
+                return;
+            }
+
+            long x = buckets.toX(timestamp);
+            int index = buckets.indexOf(x);
+
+            if (index != bucketIndex) {
+                addBest();
+                bucketIndex = index;
+            }
+
+            // Twice the area of the triangle, which is just as good for comparing.
+            double area = Math.abs((previousX - nextXs[index]) * (numericValue - previousY)
+                    - (previousX - x) * (nextYs[index] - previousY));
+
+            if (bestTimestamp == null || area > bestArea) {
+                bestTimestamp = timestamp;
+                bestX = x;
+                bestY = numericValue;
+                bestArea = area;
+            }
+        }
+
+        void finish() {
+
+            addBest();
+            points.add(lastPoint);
+        }
+
+        private void addBest() {
+
+            if (bestTimestamp == null) {
+                return;
+            }
+
+            points.add(new ChartPoint(bestTimestamp, bestY));
+            previousX = bestX;
+            previousY = bestY;
+            bestTimestamp = null;
+        }
+    }
+
+    /**
+     * Keeps the minimum and the maximum of each bucket, which are added in any order.
+     */
+    private static final class MinimumAndMaximumSelector {
+
+        private final Buckets buckets;
+
+        private final Instant[] minimumTimestamps;
+
+        private final double[] minimumValues;
+
+        private final Instant[] maximumTimestamps;
+
+        private final double[] maximumValues;
+
+        MinimumAndMaximumSelector(Buckets buckets) {
+
+            this.buckets = buckets;
+            this.minimumTimestamps = new Instant[buckets.count];
+            this.minimumValues = new double[buckets.count];
+            this.maximumTimestamps = new Instant[buckets.count];
+            this.maximumValues = new double[buckets.count];
+        }
+
+        void add(Instant timestamp, double minimumValue, double maximumValue) {
+
+            int index = buckets.indexOf(buckets.toX(timestamp));
+
+            if (minimumTimestamps[index] == null || minimumValue < minimumValues[index]) {
+                minimumTimestamps[index] = timestamp;
+                minimumValues[index] = minimumValue;
+            }
+
+            if (maximumTimestamps[index] == null || maximumValue > maximumValues[index]) {
+                maximumTimestamps[index] = timestamp;
+                maximumValues[index] = maximumValue;
+            }
+        }
+
+        List<ChartPoint> getPoints() {
+
+            List<ChartPoint> points = new ArrayList<>();
+
+            for (int index = 0; index < buckets.count; index++) {
+
+                Instant minimumTimestamp = minimumTimestamps[index];
+                Instant maximumTimestamp = maximumTimestamps[index];
+
+                if (minimumTimestamp == null) {
+                    continue;
+                }
+
+                ChartPoint minimum = new ChartPoint(minimumTimestamp, minimumValues[index]);
+                ChartPoint maximum = new ChartPoint(maximumTimestamp, maximumValues[index]);
+
+                if (minimumTimestamp.equals(maximumTimestamp) && minimumValues[index] == maximumValues[index]) {
+                    points.add(minimum);
+                } else if (maximumTimestamp.isBefore(minimumTimestamp)) {
+                    points.add(maximum);
+                    points.add(minimum);
+                } else {
+                    points.add(minimum);
+                    points.add(maximum);
+                }
+            }
+
+            return points;
+        }
+    }
+}
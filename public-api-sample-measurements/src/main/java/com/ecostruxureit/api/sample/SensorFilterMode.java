@@ -0,0 +1,24 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * How the sensor IDs listed in the {@code sensorFilterFile} file (or the {@code sensor_filter} table) are used, selected using the
+ * {@code sensorFilterMode} configuration property.
+ */
+public enum SensorFilterMode {
+
+    /**
+     * Measurements of all sensors are stored, and the sensor IDs are not used.
+     */
+    NONE,
+
+    /**
+     * Only measurements of the listed sensors are stored.
+     */
+    ALLOWLIST,
+
+    /**
+     * Measurements of all sensors except the listed ones are stored.
+     */
+    DENYLIST
+}
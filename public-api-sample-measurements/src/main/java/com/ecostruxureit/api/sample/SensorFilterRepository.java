@@ -0,0 +1,35 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handles the {@code sensor_filter} table, which contains the sensor IDs of the sensor allowlist or denylist unless they are read from a
+ * file.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class SensorFilterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SensorFilterRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    public List<String> findAllSensorIds() {
+
+        return jdbcTemplate.queryForList("SELECT sensor_id FROM sensor_filter", String.class);
+    }
+
+    public void insert(String sensorId) {
+
+        jdbcTemplate.update("INSERT INTO sensor_filter (sensor_id) VALUES (?)", sensorId);
+    }
+}
@@ -0,0 +1,73 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.ecostruxureit.api.sample.client.SensorFilter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Provides the {@link SensorFilter} used when streaming measurements, as configured by the {@code sensorFilterMode} configuration
+ * property. The sensor IDs are read from the file given by the {@code sensorFilterFile} configuration property (one sensor ID per line,
+ * ignoring empty lines and lines starting with {@code #}), or from the {@code sensor_filter} table if no file is given.
+ */
+@Service
+public class SensorFilterService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorFilterService.class);
+
+    private final SensorFilterRepository sensorFilterRepository;
+
+    private final SensorFilterMode sensorFilterMode;
+
+    private final String sensorFilterFile;
+
+    SensorFilterService(Configuration configuration, SensorFilterRepository sensorFilterRepository) {
+
+        this.sensorFilterRepository = Objects.requireNonNull(sensorFilterRepository);
+        this.sensorFilterMode = Objects.requireNonNull(configuration.getSensorFilterMode());
+        this.sensorFilterFile = configuration.getSensorFilterFile();
+    }
+
+    @Transactional
+    public SensorFilter getSensorFilter() {
+
+        if (sensorFilterMode == SensorFilterMode.NONE) {
+            return SensorFilter.ACCEPT_ALL;
+        }
+
+        Collection<String> sensorIds = Strings.isEmpty(sensorFilterFile)
+                ? sensorFilterRepository.findAllSensorIds()
+                : readSensorIds(Path.of(sensorFilterFile));
+
+        SensorFilter sensorFilter = sensorFilterMode == SensorFilterMode.ALLOWLIST
+                ? SensorFilter.allow(sensorIds)
+                : SensorFilter.deny(sensorIds);
+
+        LOGGER.debug("Using sensor filter: {}", sensorFilter);
+
+        return sensorFilter;
+    }
+
+    private static List<String> readSensorIds(Path file) {
+
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read sensor filter file " + file, ex);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A period in which a sensor was silent, as recorded by {@link SensorLivenessMonitor} in the {@code sensor_gap} table.
+ */
+public final class SensorGap {
+
+    private final String sensorId;
+
+    private final Instant from;
+
+    private final Instant to;
+
+    private final boolean liveStreamInterrupted;
+
+    SensorGap(String sensorId, Instant from, Instant to, boolean liveStreamInterrupted) {
+
+        this.sensorId = Objects.requireNonNull(sensorId);
+        this.from = Objects.requireNonNull(from);
+        this.to = Objects.requireNonNull(to);
+        this.liveStreamInterrupted = liveStreamInterrupted;
+    }
+
+    public String getSensorId() {
+
+        return sensorId;
+    }
+
+    /**
+     * Returns the timestamp of the last measurement before the gap.
+     */
+    public Instant getFrom() {
+
+        return from;
+    }
+
+    /**
+     * Returns the timestamp of the first measurement after the gap.
+     */
+    public Instant getTo() {
+
+        return to;
+    }
+
+    /**
+     * Returns whether the live measurements stream of this application was disconnected during the gap. If not, the gap was caused by the
+     * sensor or somewhere upstream.
+     */
+    public boolean isLiveStreamInterrupted() {
+
+        return liveStreamInterrupted;
+    }
+
+    @Override
+    public String toString() {
+
+        return "SensorGap{" + "sensorId='" + sensorId + '\'' + ", from=" + from + ", to=" + to
+                + ", liveStreamInterrupted=" + liveStreamInterrupted + '}';
+    }
+}
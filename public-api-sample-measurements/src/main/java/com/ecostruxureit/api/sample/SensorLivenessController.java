@@ -0,0 +1,69 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exposes the sensor liveness tracked by {@link SensorLivenessMonitor}, e.g.:
+ * <pre>
+ * curl 'http://localhost:8080/sensors/silent'
+ * curl 'http://localhost:8080/sensors/liveness-events?from=2025-01-01T00:00:00Z&amp;to=2025-01-02T00:00:00Z'
+ * curl 'http://localhost:8080/sensors/{sensorId}/gaps?from=2025-01-01T00:00:00Z&amp;to=2025-01-02T00:00:00Z'
+ * </pre>
+ */
+@RestController
+class SensorLivenessController {
+
+    static final String SILENT_SENSORS_PATH = "/sensors/silent";
+
+    static final String LIVENESS_EVENTS_PATH = "/sensors/liveness-events";
+
+    static final String SENSOR_GAPS_PATH = "/sensors/{sensorId}/gaps";
+
+    private final SensorLivenessMonitor sensorLivenessMonitor;
+
+    SensorLivenessController(SensorLivenessMonitor sensorLivenessMonitor) {
+
+        this.sensorLivenessMonitor = Objects.requireNonNull(sensorLivenessMonitor);
+    }
+
+    @GetMapping(SILENT_SENSORS_PATH)
+    public List<SensorLivenessEvent> silentSensors() {
+
+        return sensorLivenessMonitor.findSilentSensors();
+    }
+
+    @GetMapping(LIVENESS_EVENTS_PATH)
+    public List<SensorLivenessEvent> events(@RequestParam("from") Instant from, @RequestParam("to") Instant to) {
+
+        validateRange(from, to);
+
+        return sensorLivenessMonitor.findEvents(from, to);
+    }
+
+    @GetMapping(SENSOR_GAPS_PATH)
+    public List<SensorGap> gaps(
+            @PathVariable("sensorId") String sensorId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to) {
+
+        validateRange(from, to);
+
+        return sensorLivenessMonitor.findGaps(sensorId, from, to);
+    }
+
+    private static void validateRange(Instant from, Instant to) {
+
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * An event fired by {@link SensorLivenessMonitor}, as stored in the {@code sensor_liveness_event} table and returned by
+ * {@link SensorLivenessController}.
+ */
+public final class SensorLivenessEvent {
+
+    private final String sensorId;
+
+    private final SensorLivenessEventType type;
+
+    private final Instant occurredAt;
+
+    private final Instant lastSeen;
+
+    SensorLivenessEvent(String sensorId, SensorLivenessEventType type, Instant occurredAt, Instant lastSeen) {
+
+        this.sensorId = Objects.requireNonNull(sensorId);
+        this.type = Objects.requireNonNull(type);
+        this.occurredAt = Objects.requireNonNull(occurredAt);
+        this.lastSeen = Objects.requireNonNull(lastSeen);
+    }
+
+    public String getSensorId() {
+
+        return sensorId;
+    }
+
+    public SensorLivenessEventType getType() {
+
+        return type;
+    }
+
+    /**
+     * Returns when the event was detected.
+     */
+    public Instant getOccurredAt() {
+
+        return occurredAt;
+    }
+
+    /**
+     * Returns the timestamp of the latest measurement of the sensor when the event was detected.
+     */
+    public Instant getLastSeen() {
+
+        return lastSeen;
+    }
+
+    @Override
+    public String toString() {
+
+        return "SensorLivenessEvent{" + "sensorId='" + sensorId + '\'' + ", type=" + type + ", occurredAt=" + occurredAt
+                + ", lastSeen=" + lastSeen + '}';
+    }
+}
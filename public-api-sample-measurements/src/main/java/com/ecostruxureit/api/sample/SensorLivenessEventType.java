@@ -0,0 +1,18 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+/**
+ * The events fired by {@link SensorLivenessMonitor}.
+ */
+public enum SensorLivenessEventType {
+
+    /**
+     * The sensor has not sent any measurements for longer than expected from its reporting interval.
+     */
+    SILENT,
+
+    /**
+     * The sensor sent a measurement after having been silent.
+     */
+    RECOVERED
+}
@@ -0,0 +1,410 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Measurement;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Detects sensors that stop sending live measurements, and sensors that start sending them again.
+ * <p>
+ * For each sensor, the time the latest measurement was received and the reporting interval of the sensor (an exponentially weighted moving
+ * average of the time between its measurements) are tracked. A sensor is considered silent when no measurement has been received for
+ * {@code livenessSilenceFactor} times its reporting interval, but at least {@code livenessMinimumSilenceInSeconds}. Each sensor has a timer
+ * in a {@link TimingWheel} with a tick of one second. Receiving a measurement usually does not move the timer, so the cost per measurement
+ * is constant: when the timer expires, it is rescheduled if a measurement was received in the meantime, and otherwise a
+ * {@link SensorLivenessEventType#SILENT} event is fired. The next measurement of a silent sensor fires a
+ * {@link SensorLivenessEventType#RECOVERED} event and records a {@link SensorGap}.
+ * <p>
+ * While the live measurements stream of this application is disconnected, no sensor is considered silent, and the silence of every sensor
+ * is measured from the time the stream was connected again. Gaps spanning a disconnect are marked as such, since they may be caused by the
+ * disconnect (and be filled by a replay) rather than by the sensor or upstream.
+ * <p>
+ * The events and gaps are written to the database by {@link #tick()}, which is called every second by {@link SensorLivenessTimer}, and
+ * are kept for the next tick if writing them fails. The state of the sensors is only kept in memory, so sensors that stop sending
+ * measurements before having sent any since the application was started are not detected.
+ */
+@Service
+class SensorLivenessMonitor {
+
+    static final String TRACKED_SENSORS_METRIC = "sensors.liveness.tracked";
+
+    static final String SILENT_SENSORS_METRIC = "sensors.liveness.silent";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorLivenessMonitor.class);
+
+    /**
+     * The reporting interval assumed for a sensor until the time between two of its measurements is known.
+     */
+    private static final long DEFAULT_INTERVAL_IN_MILLISECONDS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The weight of the latest time between two measurements in the moving average of the reporting interval.
+     */
+    private static final double INTERVAL_SMOOTHING = 0.125;
+
+    private static final long TICK_IN_MILLISECONDS = 1_000;
+
+    private final SensorLivenessRepository sensorLivenessRepository;
+
+    private final Clock clock;
+
+    private final boolean enabled;
+
+    private final int silenceFactor;
+
+    private final long minimumSilenceInMilliseconds;
+
+    private final Map<String, SensorState> sensorStates = new HashMap<>();
+
+    private final TimingWheel<SensorState> timingWheel;
+
+    private final List<SensorLivenessEvent> pendingEvents = new ArrayList<>();
+
+    private final List<SensorGap> pendingGaps = new ArrayList<>();
+
+    private boolean liveStreamConnected = true;
+
+    private long liveStreamConnectedAtTick;
+
+    private long liveStreamDisconnectCount;
+
+    private volatile int trackedSensorCount;
+
+    private volatile int silentSensorCount;
+
+    @Autowired
+    SensorLivenessMonitor(
+            Configuration configuration,
+            SensorLivenessRepository sensorLivenessRepository,
+            MeterRegistry meterRegistry) {
+
+        this(
+                configuration.isLivenessEnabled(),
+                configuration.getLivenessSilenceFactor(),
+                Duration.ofSeconds(configuration.getLivenessMinimumSilenceInSeconds()),
+                sensorLivenessRepository,
+                meterRegistry,
+                Clock.systemUTC());
+    }
+
+    SensorLivenessMonitor(
+            boolean enabled,
+            int silenceFactor,
+            Duration minimumSilence,
+            SensorLivenessRepository sensorLivenessRepository,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+
+        this.sensorLivenessRepository = Objects.requireNonNull(sensorLivenessRepository);
+        this.clock = Objects.requireNonNull(clock);
+        this.enabled = enabled;
+        this.silenceFactor = silenceFactor;
+        this.minimumSilenceInMilliseconds = minimumSilence.toMillis();
+        this.liveStreamConnectedAtTick = getCurrentTick();
+        this.timingWheel = new TimingWheel<>(liveStreamConnectedAtTick);
+
+        Gauge.builder(TRACKED_SENSORS_METRIC, () -> trackedSensorCount)
+                .description("Number of sensors whose liveness is tracked")
+                .register(meterRegistry);
+
+        Gauge.builder(SILENT_SENSORS_METRIC, () -> silentSensorCount)
+                .description("Number of sensors that have stopped sending measurements")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that the live measurements have been received now.
+     */
+    void recordLiveMeasurements(List<Measurement> measurements) {
+
+        if (!enabled || measurements.isEmpty()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        long currentTick = toTick(now);
+
+        synchronized (this) {
+
+            for (Measurement measurement : measurements) {
+
+                String sensorId = measurement.getSensorId();
+                Instant timestamp = measurement.getTimestamp().toInstant();
+                SensorState state = sensorStates.get(sensorId);
+
+                if (state == null) {
+                    state = new SensorState(sensorId);
+                    sensorStates.put(sensorId, state);
+                    trackedSensorCount = sensorStates.size();
+                }
+
+                if (state.silentEvent != null) {
+                    recover(state, timestamp, now);
+                } else if (state.lastTimestamp != null && timestamp.isAfter(state.lastTimestamp)) {
+                    long intervalInMilliseconds = Duration.between(state.lastTimestamp, timestamp).toMillis();
+                    state.intervalInMilliseconds = state.intervalInMilliseconds == 0
+                            ? intervalInMilliseconds
+                            : state.intervalInMilliseconds
+                                    + INTERVAL_SMOOTHING * (intervalInMilliseconds - state.intervalInMilliseconds);
+                }
+
+                if (state.lastTimestamp == null || timestamp.isAfter(state.lastTimestamp)) {
+                    state.lastTimestamp = timestamp;
+                }
+
+                state.lastReceivedTick = currentTick;
+                state.liveStreamDisconnectCount = liveStreamDisconnectCount;
+
+                // The timer is usually left as it is and rescheduled when it expires, unless the deadline is now earlier (e.g. because
+                // the reporting interval has just been learned).
+                long deadline = getDeadline(state);
+
+                if (!state.isScheduled() || deadline < state.getDeadline()) {
+                    timingWheel.schedule(state, deadline);
+                }
+            }
+        }
+    }
+
+    synchronized void onLiveStreamDisconnected() {
+
+        if (liveStreamConnected) {
+            liveStreamConnected = false;
+            liveStreamDisconnectCount++;
+        }
+    }
+
+    synchronized void onLiveStreamConnected() {
+
+        if (!liveStreamConnected) {
+            liveStreamConnected = true;
+            liveStreamConnectedAtTick = getCurrentTick();
+        }
+    }
+
+    /**
+     * Fires the events of the sensors whose timers have expired, and writes the pending events and gaps to the database.
+     */
+    @Transactional
+    public void tick() {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<SensorLivenessEvent> events;
+        List<SensorGap> gaps;
+
+        synchronized (this) {
+            timingWheel.advanceTo(getCurrentTick(), this::onTimerExpired);
+
+            events = new ArrayList<>(pendingEvents);
+            gaps = new ArrayList<>(pendingGaps);
+            pendingEvents.clear();
+            pendingGaps.clear();
+        }
+
+        if (events.isEmpty() && gaps.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            requeueUnlessCommitted(events, gaps);
+            write(events, gaps);
+            return;
+        }
+
+        try {
+            write(events, gaps);
+        } catch (RuntimeException ex) {
+            requeue(events, gaps);
+            throw ex;
+        }
+    }
+
+    private void write(List<SensorLivenessEvent> events, List<SensorGap> gaps) {
+
+        if (!events.isEmpty()) {
+            LOGGER.debug("Writing {} sensor liveness event(s)", events.size());
+            sensorLivenessRepository.batchInsertEvents(events);
+        }
+
+        if (!gaps.isEmpty()) {
+            sensorLivenessRepository.batchInsertOrUpdateGaps(gaps);
+        }
+    }
+
+    private void requeueUnlessCommitted(List<SensorLivenessEvent> events, List<SensorGap> gaps) {
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+
+                if (status != STATUS_COMMITTED) {
+                    requeue(events, gaps);
+                }
+            }
+        });
+    }
+
+    /**
+     * Puts events and gaps that could not be written back in front of the pending ones, so they are written by the next tick instead of
+     * being lost. Their order is kept, since a later gap of a sensor must overwrite an earlier one.
+     */
+    private synchronized void requeue(List<SensorLivenessEvent> events, List<SensorGap> gaps) {
+
+        LOGGER.warn("Failed to write {} sensor liveness event(s) and {} gap(s), retrying on the next tick", events.size(), gaps.size());
+
+        pendingEvents.addAll(0, events);
+        pendingGaps.addAll(0, gaps);
+    }
+
+    /**
+     * Returns the {@link SensorLivenessEventType#SILENT} events of the sensors that are currently silent.
+     */
+    synchronized List<SensorLivenessEvent> findSilentSensors() {
+
+        List<SensorLivenessEvent> silentEvents = new ArrayList<>(silentSensorCount);
+
+        for (SensorState state : sensorStates.values()) {
+            if (state.silentEvent != null) {
+                silentEvents.add(state.silentEvent);
+            }
+        }
+
+        return silentEvents;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SensorLivenessEvent> findEvents(Instant fromInclusive, Instant toExclusive) {
+
+        return sensorLivenessRepository.findEvents(fromInclusive, toExclusive);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SensorGap> findGaps(String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        return sensorLivenessRepository.findGaps(sensorId, fromInclusive, toExclusive);
+    }
+
+    private void onTimerExpired(SensorState state) {
+
+        long currentTick = timingWheel.getCurrentTick();
+
+        if (!liveStreamConnected) {
+            // It cannot be known whether the sensor is silent, so it is checked again later.
+            timingWheel.schedule(state, currentTick + getTimeoutInTicks(state));
+            return;
+        }
+
+        long deadline = getDeadline(state);
+
+        if (deadline > currentTick) {
+            timingWheel.schedule(state, deadline);
+            return;
+        }
+
+        state.silentEvent = new SensorLivenessEvent(
+                state.sensorId,
+                SensorLivenessEventType.SILENT,
+                Instant.ofEpochMilli(currentTick * TICK_IN_MILLISECONDS),
+                state.lastTimestamp);
+        pendingEvents.add(state.silentEvent);
+        silentSensorCount++;
+    }
+
+    private void recover(SensorState state, Instant timestamp, Instant now) {
+
+        Instant lastTimestamp = state.lastTimestamp;
+        Instant latestTimestamp = timestamp.isAfter(lastTimestamp) ? timestamp : lastTimestamp;
+
+        pendingEvents.add(
+                new SensorLivenessEvent(state.sensorId, SensorLivenessEventType.RECOVERED, now, latestTimestamp));
+
+        // A measurement older than the latest one does not end the gap.
+        if (timestamp.isAfter(lastTimestamp)) {
+            boolean liveStreamInterrupted = state.liveStreamDisconnectCount != liveStreamDisconnectCount;
+            pendingGaps.add(new SensorGap(state.sensorId, lastTimestamp, timestamp, liveStreamInterrupted));
+        }
+
+        state.silentEvent = null;
+        silentSensorCount--;
+    }
+
+    private long getDeadline(SensorState state) {
+
+        return Math.max(state.lastReceivedTick, liveStreamConnectedAtTick) + getTimeoutInTicks(state);
+    }
+
+    private long getTimeoutInTicks(SensorState state) {
+
+        double intervalInMilliseconds =
+                state.intervalInMilliseconds == 0 ? DEFAULT_INTERVAL_IN_MILLISECONDS : state.intervalInMilliseconds;
+        double timeoutInMilliseconds = Math.max(minimumSilenceInMilliseconds, silenceFactor * intervalInMilliseconds);
+
+        return (long) Math.ceil(timeoutInMilliseconds / TICK_IN_MILLISECONDS);
+    }
+
+    private long getCurrentTick() {
+
+        return toTick(clock.instant());
+    }
+
+    private static long toTick(Instant instant) {
+
+        return Math.floorDiv(instant.toEpochMilli(), TICK_IN_MILLISECONDS);
+    }
+
+    private static final class SensorState extends TimingWheel.Timer {
+
+        private final String sensorId;
+
+        /**
+         * The latest timestamp of the measurements received.
+         */
+        private Instant lastTimestamp;
+
+        /**
+         * The tick in which the latest measurement was received.
+         */
+        private long lastReceivedTick;
+
+        /**
+         * The moving average of the time between the timestamps of the measurements, or {@code 0} if not known yet.
+         */
+        private double intervalInMilliseconds;
+
+        /**
+         * The number of times the live measurements stream had been disconnected when the latest measurement was received.
+         */
+        private long liveStreamDisconnectCount;
+
+        /**
+         * The event fired when the sensor became silent, or {@code null} if it is not silent.
+         */
+        private SensorLivenessEvent silentEvent;
+
+        SensorState(String sensorId) {
+
+            this.sensorId = sensorId;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handles the {@code sensor_liveness_event} and {@code sensor_gap} tables, which are written by {@link SensorLivenessMonitor}.
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class SensorLivenessRepository {
+
+    private static final RowMapper<SensorLivenessEvent> EVENT_ROW_MAPPER = (row, rowNumber) -> new SensorLivenessEvent(
+            row.getString("sensor_id"),
+            SensorLivenessEventType.valueOf(row.getString("event_type")),
+            row.getTimestamp("occurred_at").toInstant(),
+            row.getTimestamp("last_seen").toInstant());
+
+    private static final RowMapper<SensorGap> GAP_ROW_MAPPER = (row, rowNumber) -> new SensorGap(
+            row.getString("sensor_id"),
+            row.getTimestamp("gap_start").toInstant(),
+            row.getTimestamp("gap_end").toInstant(),
+            row.getBoolean("live_stream_interrupted"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SensorLivenessRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    public void batchInsertEvents(List<SensorLivenessEvent> events) {
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sensor_liveness_event (sensor_id, event_type, occurred_at, last_seen) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+
+                        SensorLivenessEvent event = events.get(index);
+
+                        preparedStatement.setString(1, event.getSensorId());
+                        preparedStatement.setString(2, event.getType().name());
+                        preparedStatement.setTimestamp(3, Timestamp.from(event.getOccurredAt()));
+                        preparedStatement.setTimestamp(4, Timestamp.from(event.getLastSeen()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+
+                        return events.size();
+                    }
+                });
+    }
+
+    public void batchInsertOrUpdateGaps(List<SensorGap> gaps) {
+
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO sensor_gap (sensor_id, gap_start, gap_end, live_stream_interrupted) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+
+                        SensorGap gap = gaps.get(index);
+
+                        preparedStatement.setString(1, gap.getSensorId());
+                        preparedStatement.setTimestamp(2, Timestamp.from(gap.getFrom()));
+                        preparedStatement.setTimestamp(3, Timestamp.from(gap.getTo()));
+                        preparedStatement.setBoolean(4, gap.isLiveStreamInterrupted());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+
+                        return gaps.size();
+                    }
+                });
+    }
+
+    /**
+     * Finds the events that occurred within {@code [fromInclusive, toExclusive)}, ordered by the time they occurred.
+     */
+    public List<SensorLivenessEvent> findEvents(Instant fromInclusive, Instant toExclusive) {
+
+        return jdbcTemplate.query(
+                "SELECT sensor_id, event_type, occurred_at, last_seen FROM sensor_liveness_event"
+                        + " WHERE occurred_at >= ? AND occurred_at < ? ORDER BY occurred_at, id",
+                EVENT_ROW_MAPPER,
+                Timestamp.from(fromInclusive),
+                Timestamp.from(toExclusive));
+    }
+
+    /**
+     * Finds the gaps of the given sensor overlapping {@code [fromInclusive, toExclusive)}, ordered by their start.
+     */
+    public List<SensorGap> findGaps(String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        return jdbcTemplate.query(
+                "SELECT sensor_id, gap_start, gap_end, live_stream_interrupted FROM sensor_gap"
+                        + " WHERE sensor_id = ? AND gap_start < ? AND gap_end > ? ORDER BY sensor_id, gap_start",
+                GAP_ROW_MAPPER,
+                sensorId,
+                Timestamp.from(toExclusive),
+                Timestamp.from(fromInclusive));
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calls {@link SensorLivenessMonitor#tick()} every second on a thread of its own.
+ * <p>
+ * Like {@link FetchTimer}, an instance of this class is not created when running tests (or when re-ingesting recorded streams, which are
+ * not live measurements). See {@link Profiles} for more info.
+ */
+@Service
+@Profile(Profiles.NOT_TEST_AND_NOT_REINGEST)
+class SensorLivenessTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorLivenessTimer.class);
+
+    private final SensorLivenessMonitor sensorLivenessMonitor;
+
+    private final ScheduledExecutorService scheduledExecutorService =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sensor-liveness-"));
+
+    SensorLivenessTimer(SensorLivenessMonitor sensorLivenessMonitor) {
+
+        this.sensorLivenessMonitor = Objects.requireNonNull(sensorLivenessMonitor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReadyEvent() {
+
+        scheduledExecutorService.scheduleWithFixedDelay(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+
+        scheduledExecutorService.shutdownNow();
+    }
+
+    private void tick() {
+
+        // An exception would cancel the scheduled task, so the monitor is ticked again a second later instead.
+        try {
+            sensorLivenessMonitor.tick();
+        } catch (RuntimeException ex) {
+            LOGGER.error("Failed to check the liveness of the sensors", ex);
+        }
+    }
+}
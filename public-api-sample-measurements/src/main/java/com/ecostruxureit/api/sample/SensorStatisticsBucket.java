@@ -0,0 +1,65 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The statistics of the numeric measurements of a single sensor within a single time bucket.
+ */
+final class SensorStatisticsBucket {
+
+    private final String sensorId;
+
+    private final Instant bucketStart;
+
+    private final RunningStatistics runningStatistics;
+
+    private final QuantileSketch quantileSketch;
+
+    SensorStatisticsBucket(String sensorId, Instant bucketStart) {
+
+        this(sensorId, bucketStart, new RunningStatistics(), new QuantileSketch());
+    }
+
+    SensorStatisticsBucket(
+            String sensorId, Instant bucketStart, RunningStatistics runningStatistics, QuantileSketch quantileSketch) {
+
+        this.sensorId = Objects.requireNonNull(sensorId);
+        this.bucketStart = Objects.requireNonNull(bucketStart);
+        this.runningStatistics = Objects.requireNonNull(runningStatistics);
+        this.quantileSketch = Objects.requireNonNull(quantileSketch);
+    }
+
+    void add(double value) {
+
+        runningStatistics.add(value);
+        quantileSketch.add(value);
+    }
+
+    void merge(SensorStatisticsBucket other) {
+
+        runningStatistics.merge(other.runningStatistics);
+        quantileSketch.merge(other.quantileSketch);
+    }
+
+    String getSensorId() {
+
+        return sensorId;
+    }
+
+    Instant getBucketStart() {
+
+        return bucketStart;
+    }
+
+    RunningStatistics getRunningStatistics() {
+
+        return runningStatistics;
+    }
+
+    QuantileSketch getQuantileSketch() {
+
+        return quantileSketch;
+    }
+}
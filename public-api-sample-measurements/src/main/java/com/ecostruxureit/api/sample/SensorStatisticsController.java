@@ -0,0 +1,88 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exposes the statistics maintained by {@link SensorStatisticsService}, e.g.:
+ * <pre>
+ * curl 'http://localhost:8080/sensors/{sensorId}/statistics?from=2025-01-01T00:00:00Z&amp;to=2025-01-02T00:00:00Z'
+ * </pre>
+ * <p>
+ * The statistics can be rebuilt from the {@code measurement} table with:
+ * <pre>
+ * curl -X POST 'http://localhost:8080/statistics/rebuild'
+ * </pre>
+ * The rebuild runs as a single transaction, which deletes and locks all the buckets, so {@link FetchEngine} is paused while it runs (the
+ * measurements missed meanwhile are replayed afterwards, if replay is enabled), like when the database is compacted. If the live and
+ * replay tasks don't stop within a minute, nothing is rebuilt and 503 (Service Unavailable) is returned. Only this instance is paused, so
+ * other instances sharing the database should be stopped first.
+ */
+@RestController
+class SensorStatisticsController {
+
+    static final String SENSOR_STATISTICS_PATH = "/sensors/{sensorId}/statistics";
+
+    static final String REBUILD_STATISTICS_PATH = "/statistics/rebuild";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorStatisticsController.class);
+
+    /**
+     * How long to wait for the live and replay tasks to stop before giving up the rebuild.
+     */
+    private static final Duration PAUSE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final SensorStatisticsService sensorStatisticsService;
+
+    private final FetchEngine fetchEngine;
+
+    SensorStatisticsController(SensorStatisticsService sensorStatisticsService, FetchEngine fetchEngine) {
+
+        this.sensorStatisticsService = Objects.requireNonNull(sensorStatisticsService);
+        this.fetchEngine = Objects.requireNonNull(fetchEngine);
+    }
+
+    @GetMapping(SENSOR_STATISTICS_PATH)
+    public SensorStatisticsSummary statistics(
+            @PathVariable("sensorId") String sensorId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to) {
+
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        return sensorStatisticsService.summarize(sensorId, from, to);
+    }
+
+    @PostMapping(REBUILD_STATISTICS_PATH)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuild() throws InterruptedException {
+
+        LOGGER.info("Pausing the retrieval of measurements to rebuild the sensor statistics");
+
+        try {
+            if (!fetchEngine.pause(PAUSE_TIMEOUT)) {
+                throw new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        "Measurements were still being retrieved after " + PAUSE_TIMEOUT + ", not rebuilding the statistics");
+            }
+
+            sensorStatisticsService.rebuild();
+        } finally {
+            fetchEngine.resume();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public class SensorStatisticsRepository {
+
+    private static final RowMapper<SensorStatisticsBucket> ROW_MAPPER = (row, rowNumber) -> {
+        String sensorId = row.getString("sensor_id");
+        Instant bucketStart = row.getTimestamp("bucket_start").toInstant();
+
+        RunningStatistics runningStatistics = new RunningStatistics(
+                row.getLong("value_count"),
+                row.getDouble("minimum_value"),
+                row.getDouble("maximum_value"),
+                row.getDouble("mean_value"),
+                row.getDouble("m2"));
+
+        QuantileSketch quantileSketch = QuantileSketch.fromBytes(row.getBytes("sketch"));
+
+        return new SensorStatisticsBucket(sensorId, bucketStart, runningStatistics, quantileSketch);
+    };
+
+    @FunctionalInterface
+    public interface MinimumAndMaximumCallback {
+
+        void accept(Instant bucketStart, double minimumValue, double maximumValue);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SensorStatisticsRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+    }
+
+    /**
+     * Finds the buckets matching the given buckets on sensor ID and bucket start, using a single query, and locks them until the
+     * transaction ends. The buckets are locked in the order of the primary key, so that two transactions locking some of the same buckets
+     * don't deadlock.
+     */
+    public List<SensorStatisticsBucket> findMatchingForUpdate(Collection<SensorStatisticsBucket> buckets) {
+
+        String[] sensorIds = new String[buckets.size()];
+        Timestamp[] bucketStarts = new Timestamp[buckets.size()];
+        int index = 0;
+
+        for (SensorStatisticsBucket bucket : buckets) {
+            sensorIds[index] = bucket.getSensorId();
+            bucketStarts[index] = Timestamp.from(bucket.getBucketStart());
+            index++;
+        }
+
+        return jdbcTemplate.query(
+                "SELECT sensor_id, bucket_start, value_count, minimum_value, maximum_value, mean_value, m2, sketch"
+                        + " FROM sensor_statistics WHERE (sensor_id, bucket_start) IN (SELECT * FROM"
+                        + " UNNEST(CAST(? AS VARCHAR ARRAY), CAST(? AS TIMESTAMP ARRAY))) ORDER BY sensor_id, bucket_start"
+                        + " FOR UPDATE",
+                ROW_MAPPER,
+                sensorIds,
+                bucketStarts);
+    }
+
+    /**
+     * Inserts the bucket, unless a bucket with the same sensor ID and bucket start exists. If another transaction has inserted it, but not
+     * committed yet, this waits for that transaction to end.
+     *
+     * @return whether the bucket was inserted (and is locked until the transaction ends)
+     */
+    public boolean insertIfAbsent(SensorStatisticsBucket bucket) {
+
+        RunningStatistics runningStatistics = bucket.getRunningStatistics();
+
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO sensor_statistics (sensor_id, bucket_start, value_count, minimum_value, maximum_value,"
+                            + " mean_value, m2, sketch) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    bucket.getSensorId(),
+                    Timestamp.from(bucket.getBucketStart()),
+                    runningStatistics.getCount(),
+                    runningStatistics.getMinimum(),
+                    runningStatistics.getMaximum(),
+                    runningStatistics.getMean(),
+                    runningStatistics.getM2(),
+                    bucket.getQuantileSketch().toBytes());
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // Only the failed statement is rolled back, so the transaction can go on.
+            return false;
+        }
+    }
+
+    /**
+     * Finds the buckets of the given sensor starting within {@code [fromInclusive, toExclusive)}, ordered by bucket start.
+     */
+    public List<SensorStatisticsBucket> findBySensorId(String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        return jdbcTemplate.query(
+                "SELECT sensor_id, bucket_start, value_count, minimum_value, maximum_value, mean_value, m2, sketch"
+                        + " FROM sensor_statistics WHERE sensor_id = ? AND bucket_start >= ? AND bucket_start < ?"
+                        + " ORDER BY bucket_start",
+                ROW_MAPPER,
+                sensorId,
+                Timestamp.from(fromInclusive),
+                Timestamp.from(toExclusive));
+    }
+
+    public void batchInsertOrUpdate(List<SensorStatisticsBucket> buckets) {
+
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO sensor_statistics (sensor_id, bucket_start, value_count, minimum_value, maximum_value,"
+                        + " mean_value, m2, sketch) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+
+                        SensorStatisticsBucket bucket = buckets.get(index);
+                        RunningStatistics runningStatistics = bucket.getRunningStatistics();
+
+                        preparedStatement.setString(1, bucket.getSensorId());
+                        preparedStatement.setTimestamp(2, Timestamp.from(bucket.getBucketStart()));
+                        preparedStatement.setLong(3, runningStatistics.getCount());
+                        preparedStatement.setDouble(4, runningStatistics.getMinimum());
+                        preparedStatement.setDouble(5, runningStatistics.getMaximum());
+                        preparedStatement.setDouble(6, runningStatistics.getMean());
+                        preparedStatement.setDouble(7, runningStatistics.getM2());
+                        preparedStatement.setBytes(8, bucket.getQuantileSketch().toBytes());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+
+                        return buckets.size();
+                    }
+                });
+    }
+
+    /**
+     * Calls the callback with the minimum and maximum value of each bucket of the given sensor starting within
+     * {@code [fromInclusive, toExclusive)}, ordered by bucket start. Unlike {@link #findBySensorId}, the buckets are not kept in memory and
+     * their sketches are not read.
+     */
+    public void forEachMinimumAndMaximum(
+            String sensorId, Instant fromInclusive, Instant toExclusive, MinimumAndMaximumCallback callback) {
+
+        jdbcTemplate.query(
+                "SELECT bucket_start, minimum_value, maximum_value FROM sensor_statistics"
+                        + " WHERE sensor_id = ? AND bucket_start >= ? AND bucket_start < ? AND value_count > 0"
+                        + " ORDER BY sensor_id, bucket_start",
+                row -> {
+                    callback.accept(
+                            row.getTimestamp("bucket_start").toInstant(),
+                            row.getDouble("minimum_value"),
+                            row.getDouble("maximum_value"));
+                },
+                sensorId,
+                Timestamp.from(fromInclusive),
+                Timestamp.from(toExclusive));
+    }
+
+    public void deleteAll() {
+
+        jdbcTemplate.update("DELETE FROM sensor_statistics");
+    }
+}
@@ -0,0 +1,328 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Measurement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains running statistics and quantile sketches of numeric measurements per sensor and per time bucket.
+ * <p>
+ * The statistics are updated in the same transaction as the measurements are saved, so they survive restarts and stay consistent with the
+ * {@code measurement} table. Since the API may send the same measurement more than once, measurements that are already stored (or that
+ * occur more than once in the same batch) are only counted once. If a live measurement is received again with a different value, the last
+ * value wins, like in the {@code measurement} table. A value cannot be removed from a quantile sketch, so the bucket of such a measurement
+ * is then calculated again from the stored measurements of the bucket and the measurements being saved. Merged replayed measurements never
+ * replace stored measurements (see {@link MeasurementReplayService#mergeStagedMeasurements(int)}), so for them the first value wins.
+ * <p>
+ * Statistics for an arbitrary time range are calculated by merging the buckets that lie completely within the range. Only the (at most
+ * two) partially covered buckets at the edges of the range are calculated from the measurements, which are read from
+ * {@link HotMeasurementTier} if they are recent enough.
+ */
+@Service
+class SensorStatisticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorStatisticsService.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1_000;
+
+    private static final Comparator<BucketKey> BUCKET_KEY_ORDER =
+            Comparator.comparing(BucketKey::sensorId).thenComparing(BucketKey::bucketStart);
+
+    private final MeasurementRepository measurementRepository;
+
+    private final SensorStatisticsRepository sensorStatisticsRepository;
+
+    private final HotMeasurementTier hotMeasurementTier;
+
+    private final long bucketSizeInMilliseconds;
+
+    SensorStatisticsService(
+            Configuration configuration,
+            MeasurementRepository measurementRepository,
+            SensorStatisticsRepository sensorStatisticsRepository,
+            HotMeasurementTier hotMeasurementTier) {
+
+        this.measurementRepository = Objects.requireNonNull(measurementRepository);
+        this.sensorStatisticsRepository = Objects.requireNonNull(sensorStatisticsRepository);
+        this.hotMeasurementTier = Objects.requireNonNull(hotMeasurementTier);
+
+        this.bucketSizeInMilliseconds =
+                Duration.ofMinutes(configuration.getStatisticsBucketSizeInMinutes()).toMillis();
+    }
+
+    /**
+     * Adds the numeric measurements to the statistics. Must be called before the measurements are written to the {@code measurement} table,
+     * as measurements already in the table are treated as duplicates, or as corrections if their value has changed.
+     * <p>
+     * The buckets of the measurements are locked (and created if they don't exist) before anything is read, and stay locked until the
+     * transaction ends. So if the live measurements and the replayed measurements update the same bucket at the same time, one waits for the
+     * other to commit, and then sees both its updated bucket and the measurements it has written.
+     * <p>
+     * Only measurements with a numeric value are considered, so a numeric value replaced by a string value is not removed from the
+     * statistics until they are rebuilt (see {@link #rebuild()}).
+     *
+     * @param replaceExisting whether the measurements replace stored measurements and each other, so the last value of a sensor and
+     *     timestamp wins (like live measurements), or are only saved if missing, so the first value wins (like merged replayed measurements)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMeasurements(List<Measurement> measurements, boolean replaceExisting) {
+
+        Map<MeasurementKey, Measurement> measurementsByKey = new LinkedHashMap<>();
+
+        for (Measurement measurement : measurements) {
+            if (replaceExisting) {
+                measurementsByKey.put(MeasurementKey.of(measurement), measurement);
+            } else {
+                measurementsByKey.putIfAbsent(MeasurementKey.of(measurement), measurement);
+            }
+        }
+
+        List<Measurement> numericMeasurements = new ArrayList<>(measurementsByKey.size());
+
+        for (Measurement measurement : measurementsByKey.values()) {
+            if (measurement.getNumericValue() != null) {
+                numericMeasurements.add(measurement);
+            }
+        }
+
+        if (numericMeasurements.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, SensorStatisticsBucket> lockedBuckets = lockBuckets(numericMeasurements);
+
+        Map<MeasurementKey, Double> storedValues = new HashMap<>();
+
+        for (Measurement existingMeasurement : measurementRepository.findExisting(numericMeasurements)) {
+            storedValues.put(MeasurementKey.of(existingMeasurement), existingMeasurement.getNumericValue());
+        }
+
+        Map<BucketKey, SensorStatisticsBucket> changedBuckets = new LinkedHashMap<>();
+        Map<BucketKey, List<Measurement>> bucketsToRecalculate = new LinkedHashMap<>();
+
+        for (Measurement measurement : numericMeasurements) {
+
+            MeasurementKey measurementKey = MeasurementKey.of(measurement);
+            BucketKey bucketKey = getBucketKey(measurement);
+
+            if (!storedValues.containsKey(measurementKey)) {
+                SensorStatisticsBucket bucket = lockedBuckets.get(bucketKey);
+                bucket.add(measurement.getNumericValue());
+                changedBuckets.put(bucketKey, bucket);
+            } else if (replaceExisting && !measurement.getNumericValue().equals(storedValues.get(measurementKey))) {
+                bucketsToRecalculate.put(bucketKey, new ArrayList<>());
+            }
+        }
+
+        if (!bucketsToRecalculate.isEmpty()) {
+
+            for (Measurement measurement : numericMeasurements) {
+                List<Measurement> bucketMeasurements = bucketsToRecalculate.get(getBucketKey(measurement));
+                if (bucketMeasurements != null) {
+                    bucketMeasurements.add(measurement);
+                }
+            }
+
+            LOGGER.debug("Recalculating {} statistics bucket(s) with changed values", bucketsToRecalculate.size());
+
+            bucketsToRecalculate.forEach((bucketKey, bucketMeasurements) ->
+                    changedBuckets.put(bucketKey, recalculateBucket(bucketKey, bucketMeasurements)));
+        }
+
+        if (changedBuckets.isEmpty()) {
+            return;
+        }
+
+        LOGGER.debug("Updating {} statistics bucket(s)", changedBuckets.size());
+
+        sensorStatisticsRepository.batchInsertOrUpdate(new ArrayList<>(changedBuckets.values()));
+    }
+
+    @Transactional(readOnly = true)
+    public SensorStatisticsSummary summarize(String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        SensorStatisticsBucket result = new SensorStatisticsBucket(sensorId, fromInclusive);
+
+        // The buckets lying completely within the range.
+        Instant firstFullBucketStart = getBucketStart(fromInclusive.plusMillis(bucketSizeInMilliseconds - 1));
+        Instant fullBucketsEnd = getBucketStart(toExclusive);
+
+        if (firstFullBucketStart.isBefore(fullBucketsEnd)) {
+            for (SensorStatisticsBucket bucket :
+                    sensorStatisticsRepository.findBySensorId(sensorId, firstFullBucketStart, fullBucketsEnd)) {
+                result.merge(bucket);
+            }
+            addRawValues(result, sensorId, fromInclusive, firstFullBucketStart);
+            addRawValues(result, sensorId, fullBucketsEnd, toExclusive);
+        } else {
+            addRawValues(result, sensorId, fromInclusive, toExclusive);
+        }
+
+        return new SensorStatisticsSummary(
+                sensorId, fromInclusive, toExclusive, result.getRunningStatistics(), result.getQuantileSketch());
+    }
+
+    /**
+     * Deletes all statistics and calculates them again from the {@code measurement} table, e.g. after the bucket size has been changed or
+     * after measurements have been imported by other means than the API.
+     * <p>
+     * This runs as a single transaction, which locks every bucket it deletes until it commits, and doesn't see the measurements committed
+     * after it has started scanning them. So measurements must not be saved meanwhile, which is why {@link SensorStatisticsController}
+     * pauses the {@link FetchEngine} while calling this.
+     */
+    @Transactional
+    public void rebuild() {
+
+        LOGGER.info("Rebuilding sensor statistics");
+
+        sensorStatisticsRepository.deleteAll();
+
+        List<SensorStatisticsBucket> completedBuckets = new ArrayList<>(REBUILD_BATCH_SIZE);
+        SensorStatisticsBucket[] currentBucket = new SensorStatisticsBucket[1];
+
+        // The measurements are ordered by sensor ID and timestamp, so each bucket is completed before the next one starts.
+        measurementRepository.forEachNumericValueOrderedBySensorIdAndTimestamp((sensorId, timestamp, numericValue) -> {
+            Instant bucketStart = getBucketStart(timestamp);
+            SensorStatisticsBucket bucket = currentBucket[0];
+
+            if (bucket == null
+                    || !bucket.getSensorId().equals(sensorId)
+                    || !bucket.getBucketStart().equals(bucketStart)) {
+
+                if (bucket != null) {
+                    completedBuckets.add(bucket);
+                }
+                if (completedBuckets.size() == REBUILD_BATCH_SIZE) {
+                    sensorStatisticsRepository.batchInsertOrUpdate(completedBuckets);
+                    completedBuckets.clear();
+                }
+                bucket = new SensorStatisticsBucket(sensorId, bucketStart);
+                currentBucket[0] = bucket;
+            }
+
+            bucket.add(numericValue);
+        });
+
+        if (currentBucket[0] != null) {
+            completedBuckets.add(currentBucket[0]);
+        }
+        sensorStatisticsRepository.batchInsertOrUpdate(completedBuckets);
+
+        LOGGER.info("Rebuilt sensor statistics");
+    }
+
+    /**
+     * Calculates the bucket from the numeric measurements stored within it, with the given measurements (which are about to be saved)
+     * replacing the stored measurements with the same timestamp.
+     */
+    private SensorStatisticsBucket recalculateBucket(BucketKey bucketKey, List<Measurement> measurementsToSave) {
+
+        Map<Instant, Double> values = new HashMap<>();
+
+        measurementRepository.forEachNumericValue(
+                bucketKey.sensorId(),
+                bucketKey.bucketStart(),
+                bucketKey.bucketStart().plusMillis(bucketSizeInMilliseconds),
+                (ignoredSensorId, timestamp, numericValue) -> values.put(timestamp, numericValue));
+
+        for (Measurement measurement : measurementsToSave) {
+            values.put(measurement.getTimestamp().toInstant(), measurement.getNumericValue());
+        }
+
+        SensorStatisticsBucket bucket = new SensorStatisticsBucket(bucketKey.sensorId(), bucketKey.bucketStart());
+
+        for (double value : values.values()) {
+            bucket.add(value);
+        }
+
+        return bucket;
+    }
+
+    private void addRawValues(
+            SensorStatisticsBucket result, String sensorId, Instant fromInclusive, Instant toExclusive) {
+
+        if (!fromInclusive.isBefore(toExclusive)) {
+            return;
+        }
+
+        hotMeasurementTier.forEachNumericValue(
+                sensorId, fromInclusive, toExclusive, (ignoredSensorId, ignoredTimestamp, numericValue) -> {
+                    result.add(numericValue);
+                });
+    }
+
+    /**
+     * Locks the buckets of the measurements in the order of the primary key, inserting empty buckets for those that don't exist.
+     */
+    private Map<BucketKey, SensorStatisticsBucket> lockBuckets(List<Measurement> measurements) {
+
+        Map<BucketKey, SensorStatisticsBucket> emptyBuckets = new TreeMap<>(BUCKET_KEY_ORDER);
+
+        for (Measurement measurement : measurements) {
+            emptyBuckets.computeIfAbsent(
+                    getBucketKey(measurement), key -> new SensorStatisticsBucket(key.sensorId(), key.bucketStart()));
+        }
+
+        Map<BucketKey, SensorStatisticsBucket> lockedBuckets = new HashMap<>();
+
+        for (SensorStatisticsBucket storedBucket : sensorStatisticsRepository.findMatchingForUpdate(emptyBuckets.values())) {
+            lockedBuckets.put(new BucketKey(storedBucket.getSensorId(), storedBucket.getBucketStart()), storedBucket);
+        }
+
+        for (Map.Entry<BucketKey, SensorStatisticsBucket> entry : emptyBuckets.entrySet()) {
+
+            if (lockedBuckets.containsKey(entry.getKey())) {
+                continue;
+            }
+
+            SensorStatisticsBucket emptyBucket = entry.getValue();
+
+            if (sensorStatisticsRepository.insertIfAbsent(emptyBucket)) {
+                lockedBuckets.put(entry.getKey(), emptyBucket);
+            } else {
+                // Another transaction has inserted (and committed) the bucket since we looked for it.
+                lockedBuckets.put(
+                        entry.getKey(),
+                        sensorStatisticsRepository.findMatchingForUpdate(List.of(emptyBucket)).get(0));
+            }
+        }
+
+        return lockedBuckets;
+    }
+
+    private BucketKey getBucketKey(Measurement measurement) {
+
+        return new BucketKey(measurement.getSensorId(), getBucketStart(measurement.getTimestamp().toInstant()));
+    }
+
+    private Instant getBucketStart(Instant timestamp) {
+
+        long epochMilli = timestamp.toEpochMilli();
+        return Instant.ofEpochMilli(epochMilli - Math.floorMod(epochMilli, bucketSizeInMilliseconds));
+    }
+
+    private record BucketKey(String sensorId, Instant bucketStart) {}
+
+    private record MeasurementKey(String sensorId, Instant timestamp) {
+
+        static MeasurementKey of(Measurement measurement) {
+
+            return new MeasurementKey(
+                    measurement.getSensorId(), measurement.getTimestamp().toInstant());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The statistics of the numeric measurements of a sensor within a time range, as returned by {@link SensorStatisticsController}.
+ * <p>
+ * All values except the count are {@code null} if the sensor has no numeric measurements within the time range. The percentiles are
+ * estimates, see {@link QuantileSketch}.
+ */
+public final class SensorStatisticsSummary {
+
+    private final String sensorId;
+
+    private final Instant from;
+
+    private final Instant to;
+
+    private final long count;
+
+    private final Double minimum;
+
+    private final Double maximum;
+
+    private final Double mean;
+
+    private final Double variance;
+
+    private final Double p50;
+
+    private final Double p95;
+
+    private final Double p99;
+
+    SensorStatisticsSummary(
+            String sensorId,
+            Instant from,
+            Instant to,
+            RunningStatistics runningStatistics,
+            QuantileSketch quantileSketch) {
+
+        this.sensorId = Objects.requireNonNull(sensorId);
+        this.from = Objects.requireNonNull(from);
+        this.to = Objects.requireNonNull(to);
+        this.count = runningStatistics.getCount();
+
+        boolean empty = count == 0;
+
+        this.minimum = empty ? null : runningStatistics.getMinimum();
+        this.maximum = empty ? null : runningStatistics.getMaximum();
+        this.mean = empty ? null : runningStatistics.getMean();
+        this.variance = empty ? null : runningStatistics.getVariance();
+        this.p50 = empty ? null : quantileSketch.getQuantile(0.50);
+        this.p95 = empty ? null : quantileSketch.getQuantile(0.95);
+        this.p99 = empty ? null : quantileSketch.getQuantile(0.99);
+    }
+
+    public String getSensorId() {
+
+        return sensorId;
+    }
+
+    public Instant getFrom() {
+
+        return from;
+    }
+
+    public Instant getTo() {
+
+        return to;
+    }
+
+    public long getCount() {
+
+        return count;
+    }
+
+    public Double getMinimum() {
+
+        return minimum;
+    }
+
+    public Double getMaximum() {
+
+        return maximum;
+    }
+
+    public Double getMean() {
+
+        return mean;
+    }
+
+    public Double getVariance() {
+
+        return variance;
+    }
+
+    public Double getP50() {
+
+        return p50;
+    }
+
+    public Double getP95() {
+
+        return p95;
+    }
+
+    public Double getP99() {
+
+        return p99;
+    }
+}
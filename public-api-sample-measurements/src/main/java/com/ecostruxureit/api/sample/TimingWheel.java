@@ -0,0 +1,190 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.util.function.Consumer;
+
+/**
+ * A hashed hierarchical timing wheel, which keeps track of a large number of timers with a deadline given in ticks.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots each. A slot of the lowest level covers a single tick, a slot of the next
+ * level covers {@value #SLOTS} ticks, and so on. A timer is put in the lowest level that covers its deadline, and each slot is a doubly
+ * linked list, so scheduling and cancelling a timer take constant time. When the wheel reaches the start of the range covered by a slot of
+ * a higher level, its timers are moved ("cascaded") to the lower levels. Deadlines beyond the range of the wheel (about 194 days with a
+ * tick of one second) are parked in the highest level and moved forward until they are reached.
+ * <p>
+ * This class is not thread safe.
+ */
+final class TimingWheel<T extends TimingWheel.Timer> {
+
+    static final int SLOTS = 64;
+
+    static final int LEVELS = 4;
+
+    private static final int SLOT_BITS = Integer.numberOfTrailingZeros(SLOTS);
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * A timer that can be scheduled in a {@link TimingWheel}. Subclasses hold the state needed when the timer expires.
+     */
+    abstract static class Timer {
+
+        private long deadline;
+
+        private Timer previous;
+
+        private Timer next;
+
+        final boolean isScheduled() {
+
+            return next != null;
+        }
+
+        final long getDeadline() {
+
+            return deadline;
+        }
+    }
+
+    /**
+     * The head of the list of timers of a slot.
+     */
+    private static final class Slot extends Timer {
+
+        Slot() {
+
+            Timer head = this;
+            head.previous = this;
+            head.next = this;
+        }
+    }
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+
+    private long currentTick;
+
+    private int size;
+
+    TimingWheel(long startTick) {
+
+        this.currentTick = startTick;
+
+        for (int level = 0; level < LEVELS; level++) {
+            for (int index = 0; index < SLOTS; index++) {
+                slots[level][index] = new Slot();
+            }
+        }
+    }
+
+    long getCurrentTick() {
+
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     */
+    int size() {
+
+        return size;
+    }
+
+    /**
+     * Schedules the timer to expire at the given tick, or at the next tick if the deadline has already been reached. A timer that is
+     * already scheduled is rescheduled.
+     */
+    void schedule(T timer, long deadline) {
+
+        cancel(timer);
+        ((Timer) timer).deadline = deadline;
+        insert(timer, currentTick + 1);
+        size++;
+    }
+
+    void cancel(T timer) {
+
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Advances the wheel one tick at a time until the given tick, and passes each timer whose deadline has been reached to the consumer.
+     * The timers are removed from the wheel before being passed to the consumer, which may schedule them again.
+     */
+    @SuppressWarnings("unchecked")
+    void advanceTo(long tick, Consumer<T> expiredTimerConsumer) {
+
+        while (currentTick < tick) {
+
+            currentTick++;
+            cascade(1);
+
+            Timer slot = slots[0][(int) (currentTick & SLOT_MASK)];
+
+            while (slot.next != slot) {
+
+                Timer timer = slot.next;
+                unlink(timer);
+
+                if (timer.deadline > currentTick) {
+                    // The deadline was beyond the range of the wheel when the timer was scheduled.
+                    insert(timer, currentTick + 1);
+                } else {
+                    size--;
+                    expiredTimerConsumer.accept((T) timer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the timers of the slot of the given level that starts at the current tick (if any) to the lower levels, after doing the same for
+     * the higher levels.
+     */
+    private void cascade(int level) {
+
+        if (level >= LEVELS || (currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+            return;
+        }
+
+        cascade(level + 1);
+
+        Timer slot = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+
+        while (slot.next != slot) {
+            Timer timer = slot.next;
+            unlink(timer);
+            insert(timer, currentTick);
+        }
+    }
+
+    private void insert(Timer timer, long earliestTick) {
+
+        long tick = Math.min(Math.max(timer.deadline, earliestTick), currentTick + MAX_DELTA);
+        long delta = tick - currentTick;
+        int level = 0;
+
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        Timer slot = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+
+        timer.previous = slot.previous;
+        timer.next = slot;
+        slot.previous.next = timer;
+        slot.previous = timer;
+    }
+
+    private static void unlink(Timer timer) {
+
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+    }
+}
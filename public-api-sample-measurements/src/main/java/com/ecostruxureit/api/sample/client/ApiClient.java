@@ -2,25 +2,28 @@
 package com.ecostruxureit.api.sample.client;
 
 import com.ecostruxureit.api.sample.Configuration;
+import com.ecostruxureit.api.sample.SensorFilterService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import generated.dto.CompletedReplaySystemMessage;
-import generated.dto.Measurement;
 import generated.dto.RateLimitReachedReplaySystemMessage;
 import generated.dto.ReplaySystemMessage;
-import java.io.BufferedReader;
+import jakarta.annotation.PreDestroy;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.util.Objects;
-import java.util.function.Consumer;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.logging.log4j.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -47,56 +50,121 @@ public class ApiClient {
 
     private final ObjectMapper objectMapper;
 
-    ApiClient(Configuration configuration, ObjectMapper objectMapper) {
+    private final SensorFilterService sensorFilterService;
+
+    private final ExecutorService parseExecutorService;
+
+    private final MeasurementStreamParser measurementStreamParser;
+
+    private final StreamRecorder streamRecorder;
+
+    ApiClient(Configuration configuration, ObjectMapper objectMapper, SensorFilterService sensorFilterService) {
 
         this.configuration = Objects.requireNonNull(configuration);
         this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.sensorFilterService = Objects.requireNonNull(sensorFilterService);
+
+        int parseWorkers = configuration.getParseWorkers();
+
+        this.parseExecutorService = parseWorkers > 1
+                ? Executors.newFixedThreadPool(parseWorkers, new CustomizableThreadFactory("measurement-parser-"))
+                : null;
+        this.measurementStreamParser =
+                new MeasurementStreamParser(new MeasurementLineParser(objectMapper), parseExecutorService, parseWorkers);
+
+        String captureDirectory = configuration.getCaptureDirectory();
+
+        this.streamRecorder = Strings.isEmpty(captureDirectory)
+                ? null
+                : new StreamRecorder(
+                        Path.of(captureDirectory),
+                        configuration.getCaptureFileSizeInMegabytes() * 1024L * 1024L,
+                        Clock.systemUTC());
     }
 
-    public void retrieveLiveMeasurements(Consumer<Measurement> consumer) throws ApiException {
+    public void retrieveLiveMeasurements(MeasurementConsumer consumer) throws ApiException {
 
         EndStreamPredicate endStreamPredicate = line -> false;
 
-        stream("live", consumer, endStreamPredicate);
+        stream("live", StreamCapture.LIVE, consumer, endStreamPredicate);
     }
 
-    public void replayMeasurements(String fromOffset, String toOffset, Consumer<Measurement> consumer)
+    public void replayMeasurements(String fromOffset, String toOffset, MeasurementConsumer consumer)
             throws ApiException {
 
-        EndStreamPredicate endStreamPredicate = line -> {
-            try {
-                ReplaySystemMessage replaySystemMessage = objectMapper.readValue(line, ReplaySystemMessage.class);
+        // Note that the offsets returned by the API are guaranteed to be URL safe so we can send them directly back to
+        // the API.
+
+        stream(
+                "replay?fromOffset=" + fromOffset + "&toOffset=" + toOffset,
+                StreamCapture.REPLAY,
+                consumer,
+                this::isEndOfReplay);
+    }
 
-                if (replaySystemMessage == null || replaySystemMessage.getReplaySystemMessageType() == null) {
-                    return false;
-                }
+    /**
+     * Passes the measurements of a stream recorded to capture files (see the {@code captureDirectory} configuration property) to the
+     * consumer, in the same way as if the stream was received from the API. The end of a capture is treated as the end of the stream.
+     */
+    public void reingest(StreamCapture streamCapture, MeasurementConsumer consumer) throws ApiException {
 
-                if (replaySystemMessage instanceof CompletedReplaySystemMessage) {
-                    LOGGER.debug("Received completed replay system message");
-                    return true;
-                }
+        EndStreamPredicate endStreamPredicate = streamCapture.isReplay() ? this::isEndOfReplay : line -> false;
 
-                if (replaySystemMessage instanceof RateLimitReachedReplaySystemMessage) {
-                    LOGGER.debug("Received rate limit reached replay system message");
-                    throw new RateLimitRetriableApiException();
-                }
+        try (InputStream inputStream = streamCapture.openInputStream()) {
 
-                LOGGER.warn(
-                        "Received unknown replay system message: {}", replaySystemMessage.getReplaySystemMessageType());
+            measurementStreamParser.read(
+                    inputStream, () -> {}, sensorFilterService.getSensorFilter(), consumer, endStreamPredicate);
 
-            } catch (JsonProcessingException ignored) {
+        } catch (ConnectionClosedRetriableApiException | RateLimitRetriableApiException ex) {
+            // The recorded stream ended here.
+        } catch (UnknownLocalRetriableApiException ex) {
+            if (!(ex.getCause() instanceof EOFException)) {
+                throw ex;
             }
+            // The last capture file was not completely written, e.g. because the application was killed while recording.
+            LOGGER.warn("Capture {} is truncated", streamCapture);
+        } catch (IOException ex) {
+            throw new UnknownLocalRetriableApiException(ex);
+        }
+    }
 
-            return false;
-        };
+    @PreDestroy
+    void shutdown() {
 
-        // Note that the offsets returned by the API are guaranteed to be URL safe so we can send them directly back to
-        // the API.
+        if (parseExecutorService != null) {
+            parseExecutorService.shutdown();
+        }
+    }
+
+    private boolean isEndOfReplay(String line) throws ApiException {
 
-        stream("replay?fromOffset=" + fromOffset + "&toOffset=" + toOffset, consumer, endStreamPredicate);
+        try {
+            ReplaySystemMessage replaySystemMessage = objectMapper.readValue(line, ReplaySystemMessage.class);
+
+            if (replaySystemMessage == null || replaySystemMessage.getReplaySystemMessageType() == null) {
+                return false;
+            }
+
+            if (replaySystemMessage instanceof CompletedReplaySystemMessage) {
+                LOGGER.debug("Received completed replay system message");
+                return true;
+            }
+
+            if (replaySystemMessage instanceof RateLimitReachedReplaySystemMessage) {
+                LOGGER.debug("Received rate limit reached replay system message");
+                throw new RateLimitRetriableApiException();
+            }
+
+            LOGGER.warn("Received unknown replay system message: {}", replaySystemMessage.getReplaySystemMessageType());
+
+        } catch (JsonProcessingException ignored) {
+        }
+
+        return false;
     }
 
-    private void stream(String path, Consumer<Measurement> consumer, EndStreamPredicate endStreamPredicate)
+    private void stream(
+            String path, String streamName, MeasurementConsumer consumer, EndStreamPredicate endStreamPredicate)
             throws ApiException {
 
         try {
@@ -116,7 +184,18 @@ public class ApiClient {
             switch (httpUrlConnection.getResponseCode()) {
                 case HttpURLConnection.HTTP_OK:
                     // This is the normal case where everything is okay and we can start streaming.
-                    stream(httpUrlConnection.getInputStream(), consumer, endStreamPredicate);
+                    // The filter is looked up every time a stream is opened, so changes take effect when the stream is reconnected or
+                    // the next replay is started.
+                    InputStream inputStream = httpUrlConnection.getInputStream();
+                    if (streamRecorder != null) {
+                        inputStream = streamRecorder.record(streamName, inputStream);
+                    }
+                    measurementStreamParser.read(
+                            inputStream,
+                            httpUrlConnection::disconnect,
+                            sensorFilterService.getSensorFilter(),
+                            consumer,
+                            endStreamPredicate);
                     break;
 
                 case HttpURLConnection.HTTP_BAD_REQUEST:
@@ -147,49 +226,4 @@ public class ApiClient {
             throw new UnknownLocalRetriableApiException(ex);
         }
     }
-
-    private void stream(InputStream inputStream, Consumer<Measurement> consumer, EndStreamPredicate endStreamPredicate)
-            throws ApiException {
-
-        try (GZIPInputStream gzipInputStream = new GZIPInputStream(inputStream);
-                InputStreamReader inputStreamReader = new InputStreamReader(gzipInputStream, StandardCharsets.UTF_8);
-                BufferedReader bufferedReader = new BufferedReader(inputStreamReader)) {
-
-            while (true) {
-
-                String line = bufferedReader.readLine();
-
-                if (line == null) {
-                    throw new ConnectionClosedRetriableApiException();
-                }
-
-                if (line.isEmpty()) {
-                    // Ignoring heartbeat.
-                    continue;
-                }
-
-                try {
-                    Measurement measurement = objectMapper.readValue(line, Measurement.class);
-                    // If a line cannot be converted to a measurement, the measurement instance will just contain null
-                    // for all its
-                    // properties. Because of that we can use a property known to be non-null for measurements (sensor
-                    // ID) to determine
-                    // whether or not the line was a measurement.
-                    if (measurement.getSensorId() != null) {
-                        consumer.accept(measurement);
-                        continue;
-                    }
-                } catch (JsonProcessingException ignored) {
-                }
-
-                if (endStreamPredicate.test(line)) {
-                    return;
-                }
-
-                throw new UnexpectedDataApiException(line);
-            }
-        } catch (IOException ex) {
-            throw new UnknownLocalRetriableApiException(ex);
-        }
-    }
 }
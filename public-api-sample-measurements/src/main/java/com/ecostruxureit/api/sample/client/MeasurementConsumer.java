@@ -0,0 +1,18 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import generated.dto.Measurement;
+import java.util.function.Consumer;
+
+/**
+ * Receives the measurements streamed by {@link ApiClient}.
+ */
+@FunctionalInterface
+public interface MeasurementConsumer extends Consumer<Measurement> {
+
+    /**
+     * Called instead of {@link #accept(Object)} for a measurement that was rejected by the {@link SensorFilter} but carried an offset, so
+     * that the offset can still be used to keep track of replays.
+     */
+    default void acceptOffset(String offset) {}
+}
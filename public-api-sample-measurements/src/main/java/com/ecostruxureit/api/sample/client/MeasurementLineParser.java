@@ -0,0 +1,165 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import generated.dto.Measurement;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Parses the lines streamed by the measurements API.
+ * <p>
+ * If a {@link SensorFilter} is used, a line is first scanned with a streaming parser: as soon as the sensor ID has been read, a
+ * measurement of a rejected sensor is skipped without deserializing it, except that its offset (if any) is still passed to
+ * {@link MeasurementConsumer#acceptOffset(String)}. Only measurements of accepted sensors are deserialized into {@link Measurement}s.
+ */
+class MeasurementLineParser {
+
+    /**
+     * The result of parsing a line: a measurement, a measurement rejected by the filter (possibly with an offset), or something else.
+     */
+    static final class ParsedLine {
+
+        static final ParsedLine NOT_A_MEASUREMENT = new ParsedLine(null, null, false);
+
+        private static final ParsedLine REJECTED_WITHOUT_OFFSET = new ParsedLine(null, null, true);
+
+        private final Measurement measurement;
+
+        private final String rejectedOffset;
+
+        private final boolean rejected;
+
+        private ParsedLine(Measurement measurement, String rejectedOffset, boolean rejected) {
+
+            this.measurement = measurement;
+            this.rejectedOffset = rejectedOffset;
+            this.rejected = rejected;
+        }
+
+        static ParsedLine measurement(Measurement measurement) {
+
+            return new ParsedLine(measurement, null, false);
+        }
+
+        static ParsedLine rejected(String offset) {
+
+            return offset == null ? REJECTED_WITHOUT_OFFSET : new ParsedLine(null, offset, true);
+        }
+
+        /**
+         * Passes the measurement (or the offset of a rejected measurement) to the consumer.
+         *
+         * @return {@code false} if the line did not contain a measurement
+         */
+        boolean deliverTo(MeasurementConsumer consumer) {
+
+            if (measurement != null) {
+                consumer.accept(measurement);
+                return true;
+            }
+
+            if (rejectedOffset != null) {
+                consumer.acceptOffset(rejectedOffset);
+            }
+
+            return rejected;
+        }
+    }
+
+    private static final String SENSOR_ID_FIELD = "sensorId";
+
+    private static final String OFFSET_FIELD = "offset";
+
+    private final ObjectMapper objectMapper;
+
+    MeasurementLineParser(ObjectMapper objectMapper) {
+
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+    }
+
+    /**
+     * Passes the measurement contained in the line to the consumer (or its offset, if the measurement was rejected by the filter).
+     *
+     * @return {@code false} if the line did not contain a measurement
+     */
+    boolean parse(String line, SensorFilter sensorFilter, MeasurementConsumer consumer) {
+
+        return parse(line, sensorFilter).deliverTo(consumer);
+    }
+
+    /**
+     * Parses the line without passing the result to a consumer yet, which allows lines to be parsed by several threads. This method is
+     * thread-safe.
+     */
+    ParsedLine parse(String line, SensorFilter sensorFilter) {
+
+        if (!sensorFilter.acceptsAll()) {
+            ParsedLine parsedLine = scan(line, sensorFilter);
+            if (parsedLine != null) {
+                return parsedLine;
+            }
+        }
+
+        try {
+            Measurement measurement = objectMapper.readValue(line, Measurement.class);
+            // If a line cannot be converted to a measurement, the measurement instance will just contain null for all its properties.
+            // Because of that we can use a property known to be non-null for measurements (sensor ID) to determine whether or not the
+            // line was a measurement.
+            if (measurement.getSensorId() != null) {
+                return ParsedLine.measurement(measurement);
+            }
+        } catch (JsonProcessingException ignored) {
+        }
+
+        return ParsedLine.NOT_A_MEASUREMENT;
+    }
+
+    /**
+     * Returns the result for a measurement rejected by the filter, or {@code null} if the line must be deserialized.
+     */
+    private ParsedLine scan(String line, SensorFilter sensorFilter) {
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            boolean rejected = false;
+            String offset = null;
+
+            // The fields may come in any order, so after a rejected sensor ID the scan continues until the offset has been found (or
+            // the end of the object), skipping all other values.
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (valueToken == JsonToken.VALUE_STRING && SENSOR_ID_FIELD.equals(fieldName)) {
+                    if (sensorFilter.accepts(parser.getText())) {
+                        return null;
+                    }
+                    rejected = true;
+                    if (offset != null) {
+                        break;
+                    }
+                } else if (valueToken == JsonToken.VALUE_STRING && OFFSET_FIELD.equals(fieldName)) {
+                    offset = parser.getText();
+                    if (rejected) {
+                        break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            return rejected ? ParsedLine.rejected(offset) : null;
+
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
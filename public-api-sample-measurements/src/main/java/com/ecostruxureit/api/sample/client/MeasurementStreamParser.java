@@ -0,0 +1,373 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import com.ecostruxureit.api.sample.client.ApiClient.EndStreamPredicate;
+import com.ecostruxureit.api.sample.client.MeasurementLineParser.ParsedLine;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the gzipped stream of lines returned by the measurements API and passes the measurements to a {@link MeasurementConsumer}.
+ * <p>
+ * Without a parse executor, the stream is inflated, split into lines and parsed on the calling thread. With a parse executor, the work is
+ * split into a pipeline so that a single stream can use more than one core:
+ * <ol>
+ * <li>a reader thread inflates the stream, splits it into lines and groups them into chunks,</li>
+ * <li>the threads of the parse executor parse the chunks in parallel, and</li>
+ * <li>the calling thread acts as a sequencer, taking the parsed chunks in the order they were read and passing the measurements (and
+ * offsets) to the consumer, so the consumer sees exactly the same sequence as without a parse executor.</li>
+ * </ol>
+ * A chunk is handed to the parse executor when it is full, or when the reader thread is about to wait for more data to be received, so
+ * that a slow stream is not delayed. The number of chunks being parsed or waiting for the sequencer is bounded, so the reader thread stops
+ * reading if the consumer cannot keep up.
+ */
+class MeasurementStreamParser {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private static final int MAX_PENDING_CHUNKS_PER_PARSE_THREAD = 4;
+
+    private final MeasurementLineParser measurementLineParser;
+
+    private final ExecutorService parseExecutorService;
+
+    private final int maxPendingChunks;
+
+    /**
+     * @param parseExecutorService the executor used to parse lines in parallel, or {@code null} to parse on the calling thread
+     * @param parseThreads the number of threads of the parse executor
+     */
+    MeasurementStreamParser(
+            MeasurementLineParser measurementLineParser, ExecutorService parseExecutorService, int parseThreads) {
+
+        this.measurementLineParser = Objects.requireNonNull(measurementLineParser);
+        this.parseExecutorService = parseExecutorService;
+        this.maxPendingChunks = Math.max(1, parseThreads) * MAX_PENDING_CHUNKS_PER_PARSE_THREAD;
+    }
+
+    /**
+     * Reads the stream until the end stream predicate matches a line that is not a measurement.
+     *
+     * @param abort closes the connection, which is used to stop the reader thread when the calling thread stops reading
+     */
+    void read(
+            InputStream inputStream,
+            Runnable abort,
+            SensorFilter sensorFilter,
+            MeasurementConsumer consumer,
+            EndStreamPredicate endStreamPredicate)
+            throws ApiException {
+
+        if (parseExecutorService == null) {
+            readSequentially(inputStream, sensorFilter, consumer, endStreamPredicate);
+        } else {
+            readInParallel(inputStream, abort, sensorFilter, consumer, endStreamPredicate);
+        }
+    }
+
+    private void readSequentially(
+            InputStream inputStream,
+            SensorFilter sensorFilter,
+            MeasurementConsumer consumer,
+            EndStreamPredicate endStreamPredicate)
+            throws ApiException {
+
+        try (BufferedReader bufferedReader = createReader(inputStream)) {
+
+            while (true) {
+
+                String line = bufferedReader.readLine();
+
+                if (line == null) {
+                    throw new ConnectionClosedRetriableApiException();
+                }
+
+                if (line.isEmpty()) {
+                    // Ignoring heartbeat.
+                    continue;
+                }
+
+                if (measurementLineParser.parse(line, sensorFilter, consumer)) {
+                    continue;
+                }
+
+                if (endStreamPredicate.test(line)) {
+                    return;
+                }
+
+                throw new UnexpectedDataApiException(line);
+            }
+        } catch (IOException ex) {
+            throw new UnknownLocalRetriableApiException(ex);
+        }
+    }
+
+    private void readInParallel(
+            InputStream inputStream,
+            Runnable abort,
+            SensorFilter sensorFilter,
+            MeasurementConsumer consumer,
+            EndStreamPredicate endStreamPredicate)
+            throws ApiException {
+
+        BlockingQueue<Future<Chunk>> chunks = new ArrayBlockingQueue<>(maxPendingChunks);
+
+        Thread readerThread = new Thread(() -> readChunks(inputStream, sensorFilter, chunks), "measurement-stream-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        try {
+            while (true) {
+
+                Chunk chunk = chunks.take().get();
+
+                if (chunk.exception != null) {
+                    throw chunk.exception;
+                }
+
+                for (int i = 0; i < chunk.lines.size(); i++) {
+
+                    if (chunk.parsedLines[i].deliverTo(consumer)) {
+                        continue;
+                    }
+
+                    String line = chunk.lines.get(i);
+
+                    if (endStreamPredicate.test(line)) {
+                        return;
+                    }
+
+                    throw new UnexpectedDataApiException(line);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UnknownLocalRetriableApiException(ex);
+        } catch (ExecutionException ex) {
+            throw unwrapParseFailure(ex.getCause());
+        } finally {
+            // Stops the reader thread, whether it is waiting for data or for room in the queue.
+            readerThread.interrupt();
+            abort.run();
+        }
+    }
+
+    /**
+     * Rethrows what was thrown while parsing a chunk the way it would have been thrown when parsing on the calling thread: unchecked
+     * exceptions and errors as they are, and a checked exception like an {@link IOException} as an
+     * {@link UnknownLocalRetriableApiException}.
+     */
+    private static UnknownLocalRetriableApiException unwrapParseFailure(Throwable cause) {
+
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new UnknownLocalRetriableApiException(cause);
+    }
+
+    /**
+     * Runs on the reader thread. Ends with a chunk containing the exception that ended the stream, unless the reader thread is interrupted
+     * because the calling thread has stopped reading.
+     */
+    private void readChunks(InputStream inputStream, SensorFilter sensorFilter, BlockingQueue<Future<Chunk>> chunks) {
+
+        try {
+            ApiException exception;
+            ChunkBuilder chunkBuilder = new ChunkBuilder(sensorFilter, chunks);
+
+            try (BufferedReader bufferedReader =
+                    createReader(new FlushBeforeBlockingInputStream(inputStream, chunkBuilder))) {
+
+                while (true) {
+
+                    String line = bufferedReader.readLine();
+
+                    if (line == null) {
+                        chunkBuilder.flush();
+                        exception = new ConnectionClosedRetriableApiException();
+                        break;
+                    }
+
+                    if (!line.isEmpty()) {
+                        // Empty lines are heartbeats.
+                        chunkBuilder.add(line);
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                // A runtime exception may also be thrown if the connection is aborted while inflating.
+                exception = new UnknownLocalRetriableApiException(ex);
+            }
+
+            chunks.put(CompletableFuture.completedFuture(new Chunk(exception)));
+
+        } catch (InterruptedException ignored) {
+            // The calling thread has stopped reading.
+        }
+    }
+
+    private static BufferedReader createReader(InputStream inputStream) throws IOException {
+
+        return new BufferedReader(
+                new InputStreamReader(new AvailabilityReportingGZIPInputStream(inputStream), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A {@link GZIPInputStream} that only reports data as available if it can inflate some without waiting for more data to be received.
+     * A plain {@link GZIPInputStream} reports data as available until the end of the stream, which makes {@link InputStreamReader} keep on
+     * reading until it has filled its buffer of several thousand characters, so the lines it has already decoded would wait for the
+     * following lines to be received.
+     */
+    private static final class AvailabilityReportingGZIPInputStream extends GZIPInputStream {
+
+        AvailabilityReportingGZIPInputStream(InputStream inputStream) throws IOException {
+
+            super(inputStream);
+        }
+
+        @Override
+        public int available() throws IOException {
+
+            if (super.available() == 0) {
+                return 0;
+            }
+
+            return inf.needsInput() && in.available() == 0 ? 0 : 1;
+        }
+    }
+
+    /**
+     * Groups the lines read by the reader thread into chunks, and submits them to the parse executor.
+     */
+    private final class ChunkBuilder {
+
+        private final SensorFilter sensorFilter;
+
+        private final BlockingQueue<Future<Chunk>> chunks;
+
+        private List<String> lines = new ArrayList<>(CHUNK_SIZE);
+
+        ChunkBuilder(SensorFilter sensorFilter, BlockingQueue<Future<Chunk>> chunks) {
+
+            this.sensorFilter = sensorFilter;
+            this.chunks = chunks;
+        }
+
+        void add(String line) throws InterruptedException {
+
+            lines.add(line);
+
+            if (lines.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Submits the lines added since the last chunk (if any) as a chunk.
+         */
+        void flush() throws InterruptedException {
+
+            if (lines.isEmpty()) {
+                return;
+            }
+
+            List<String> chunkLines = lines;
+            lines = new ArrayList<>(CHUNK_SIZE);
+
+            chunks.put(CompletableFuture.supplyAsync(
+                    () -> {
+                        ParsedLine[] parsedLines = new ParsedLine[chunkLines.size()];
+                        for (int i = 0; i < parsedLines.length; i++) {
+                            parsedLines[i] = measurementLineParser.parse(chunkLines.get(i), sensorFilter);
+                        }
+                        return new Chunk(chunkLines, parsedLines);
+                    },
+                    parseExecutorService));
+        }
+    }
+
+    /**
+     * Flushes the chunk being built when the stream is read while no data is available, i.e. just before the reader thread would wait for
+     * more data to be received. The decompressing and decoding readers only read from the stream when they have used up what they have
+     * buffered, so the lines they have already buffered are put into full chunks, while the lines read before a pause in the stream are
+     * parsed right away, also if the pause is in the middle of a line.
+     */
+    private static final class FlushBeforeBlockingInputStream extends FilterInputStream {
+
+        private final ChunkBuilder chunkBuilder;
+
+        FlushBeforeBlockingInputStream(InputStream inputStream, ChunkBuilder chunkBuilder) {
+
+            super(inputStream);
+            this.chunkBuilder = chunkBuilder;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            flushIfNothingAvailable();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+
+            flushIfNothingAvailable();
+            return super.read(bytes, offset, length);
+        }
+
+        private void flushIfNothingAvailable() throws IOException {
+
+            if (in.available() > 0) {
+                return;
+            }
+
+            try {
+                chunkBuilder.flush();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for room for a chunk");
+            }
+        }
+    }
+
+    private static final class Chunk {
+
+        private final List<String> lines;
+
+        private final ParsedLine[] parsedLines;
+
+        private final ApiException exception;
+
+        Chunk(List<String> lines, ParsedLine[] parsedLines) {
+
+            this.lines = lines;
+            this.parsedLines = parsedLines;
+            this.exception = null;
+        }
+
+        Chunk(ApiException exception) {
+
+            this.lines = List.of();
+            this.parsedLines = new ParsedLine[0];
+            this.exception = exception;
+        }
+    }
+}
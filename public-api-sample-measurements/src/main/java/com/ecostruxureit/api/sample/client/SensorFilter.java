@@ -0,0 +1,56 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Decides which sensors measurements are wanted for, using either an allowlist or a denylist of sensor IDs. Measurements of other sensors
+ * are skipped by {@link ApiClient} as soon as their sensor ID has been read.
+ */
+public final class SensorFilter {
+
+    public static final SensorFilter ACCEPT_ALL = new SensorFilter(Set.of(), false);
+
+    private final Set<String> sensorIds;
+
+    private final boolean allowlist;
+
+    private SensorFilter(Set<String> sensorIds, boolean allowlist) {
+
+        this.sensorIds = sensorIds;
+        this.allowlist = allowlist;
+    }
+
+    /**
+     * Creates a filter that only accepts the given sensors.
+     */
+    public static SensorFilter allow(Collection<String> sensorIds) {
+
+        return new SensorFilter(Set.copyOf(sensorIds), true);
+    }
+
+    /**
+     * Creates a filter that accepts all sensors except the given ones.
+     */
+    public static SensorFilter deny(Collection<String> sensorIds) {
+
+        return sensorIds.isEmpty() ? ACCEPT_ALL : new SensorFilter(Set.copyOf(sensorIds), false);
+    }
+
+    public boolean accepts(String sensorId) {
+
+        return sensorIds.contains(sensorId) == allowlist;
+    }
+
+    boolean acceptsAll() {
+
+        return !allowlist && sensorIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+
+        return (allowlist ? "allowlist" : "denylist") + " of " + sensorIds.size() + " sensor(s)";
+    }
+}
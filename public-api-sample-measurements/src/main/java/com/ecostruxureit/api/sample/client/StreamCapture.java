@@ -0,0 +1,138 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A stream from the API that was recorded to capture files by {@link ApiClient}, see the {@code captureDirectory} configuration property.
+ * <p>
+ * The raw (gzipped) bytes of a stream are split into one or more capture files named
+ * {@code <stream name>-<time the stream was opened>-<part>.capture}, e.g. {@code live-20250101T120000.000Z-0001.capture}. Only the
+ * concatenation of all the parts of a stream is a valid gzip stream. Captures can be re-ingested using
+ * {@link ApiClient#reingest(StreamCapture, MeasurementConsumer)}.
+ */
+public final class StreamCapture {
+
+    static final String LIVE = "live";
+
+    static final String REPLAY = "replay";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static final Pattern FILE_NAME_PATTERN =
+            Pattern.compile("(" + LIVE + "|" + REPLAY + ")-(\\d{8}T\\d{6}\\.\\d{3}Z)-(\\d+)\\.capture");
+
+    private final String streamName;
+
+    private final String openedAt;
+
+    private final List<Path> files;
+
+    private StreamCapture(String streamName, String openedAt, List<Path> files) {
+
+        this.streamName = Objects.requireNonNull(streamName);
+        this.openedAt = Objects.requireNonNull(openedAt);
+        this.files = List.copyOf(files);
+    }
+
+    /**
+     * Finds the captures in the directory, in the order the streams were opened.
+     */
+    public static List<StreamCapture> findAll(Path directory) throws IOException {
+
+        List<Matcher> matchers = new ArrayList<>();
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.map(path -> FILE_NAME_PATTERN.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .forEach(matchers::add);
+        }
+
+        // The timestamps sort chronologically, since they have a fixed length.
+        matchers.sort(Comparator.<Matcher, String>comparing(matcher -> matcher.group(2))
+                .thenComparing(matcher -> matcher.group(1))
+                .thenComparingInt(matcher -> Integer.parseInt(matcher.group(3))));
+
+        Map<String, List<Path>> filesByStream = new LinkedHashMap<>();
+
+        for (Matcher matcher : matchers) {
+            filesByStream
+                    .computeIfAbsent(matcher.group(1) + "-" + matcher.group(2), key -> new ArrayList<>())
+                    .add(directory.resolve(matcher.group()));
+        }
+
+        List<StreamCapture> captures = new ArrayList<>();
+
+        filesByStream.forEach((key, files) -> {
+            int separatorIndex = key.indexOf('-');
+            captures.add(new StreamCapture(key.substring(0, separatorIndex), key.substring(separatorIndex + 1), files));
+        });
+
+        return captures;
+    }
+
+    static String fileName(String streamName, Instant openedAt, int part) {
+
+        return String.format("%s-%s-%04d.capture", streamName, TIMESTAMP_FORMATTER.format(openedAt), part);
+    }
+
+    public String getStreamName() {
+
+        return streamName;
+    }
+
+    public boolean isReplay() {
+
+        return REPLAY.equals(streamName);
+    }
+
+    public List<Path> getFiles() {
+
+        return files;
+    }
+
+    /**
+     * Opens the concatenation of all the capture files of the stream.
+     */
+    InputStream openInputStream() throws IOException {
+
+        List<InputStream> inputStreams = new ArrayList<>(files.size());
+
+        try {
+            for (Path file : files) {
+                inputStreams.add(Files.newInputStream(file));
+            }
+        } catch (IOException ex) {
+            for (InputStream inputStream : inputStreams) {
+                inputStream.close();
+            }
+            throw ex;
+        }
+
+        return new SequenceInputStream(Collections.enumeration(inputStreams));
+    }
+
+    @Override
+    public String toString() {
+
+        return "StreamCapture{" + streamName + "-" + openedAt + ", files=" + files.size() + "}";
+    }
+}
@@ -0,0 +1,168 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the raw (gzipped) bytes of the streams read by {@link ApiClient} to rotating capture files (see {@link StreamCapture}).
+ * <p>
+ * The bytes are copied to a buffered file as they are read, without being inflated or parsed, so recording adds little CPU overhead. If
+ * writing a capture file fails, a warning is logged and the rest of the stream is not recorded, but reading the stream is not affected.
+ */
+class StreamRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamRecorder.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    private final long maxFileSizeInBytes;
+
+    private final Clock clock;
+
+    StreamRecorder(Path directory, long maxFileSizeInBytes, Clock clock) {
+
+        this.directory = Objects.requireNonNull(directory);
+        this.maxFileSizeInBytes = maxFileSizeInBytes;
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Returns an input stream that records the bytes read from the given input stream. The capture files are closed when the returned
+     * input stream is closed.
+     */
+    InputStream record(String streamName, InputStream inputStream) {
+
+        return new RecordingInputStream(streamName, clock.instant(), inputStream);
+    }
+
+    private final class RecordingInputStream extends FilterInputStream {
+
+        private final String streamName;
+
+        private final Instant openedAt;
+
+        private OutputStream outputStream;
+
+        private int part;
+
+        private long fileSizeInBytes;
+
+        private boolean failed;
+
+        RecordingInputStream(String streamName, Instant openedAt, InputStream inputStream) {
+
+            super(inputStream);
+            this.streamName = streamName;
+            this.openedAt = openedAt;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+
+            if (b != -1) {
+                record(new byte[] {(byte) b}, 0, 1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int count = super.read(b, off, len);
+
+            if (count > 0) {
+                record(b, off, count);
+            }
+
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            // Skipped bytes must be recorded too, so they are read instead.
+            byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            int count = read(buffer, 0, buffer.length);
+            return Math.max(count, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            try {
+                super.close();
+            } finally {
+                closeFile();
+            }
+        }
+
+        private void record(byte[] b, int off, int len) {
+
+            if (failed) {
+                return;
+            }
+
+            try {
+                if (outputStream == null || fileSizeInBytes >= maxFileSizeInBytes) {
+                    closeFile();
+                    if (part == 0) {
+                        Files.createDirectories(directory);
+                    }
+                    part++;
+                    Path file = directory.resolve(StreamCapture.fileName(streamName, openedAt, part));
+                    outputStream = new BufferedOutputStream(
+                            Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                            BUFFER_SIZE);
+                    fileSizeInBytes = 0;
+                }
+
+                outputStream.write(b, off, len);
+                fileSizeInBytes += len;
+
+            } catch (IOException ex) {
+                LOGGER.warn("Failed to record {} stream, the rest of the stream will not be recorded", streamName, ex);
+                failed = true;
+                closeFile();
+            }
+        }
+
+        private void closeFile() {
+
+            if (outputStream == null) {
+                return;
+            }
+
+            try {
+                outputStream.close();
+            } catch (IOException ex) {
+                LOGGER.warn("Failed to close capture file of {} stream", streamName, ex);
+                failed = true;
+            }
+
+            outputStream = null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_EPOCH_SECOND_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_FLAGS_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_HEADER_LENGTH;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_NANO_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_NUMERIC_VALUE_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_OFFSET_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_SENSOR_ID_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_STRING_VALUE_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_NUMERIC_VALUE;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_OFFSET_ONLY;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_STRING_VALUE;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * A view of an entry in the mapped queue file. The values are read directly from the file when the getters are called (only the strings
+ * are copied), so an instance is only valid during the call of {@link MeasurementQueueHandler#onEntry(MeasurementQueueEntry)} it is passed
+ * to, and it must not be kept.
+ * <p>
+ * If the writer overwrites the entry while it is being handled, the lengths of the strings may be garbage. They are therefore checked
+ * against the length of the entry, and if a check fails, the getter throws an exception, which {@link MeasurementQueueReader} catches and
+ * reports to the handler as an overrun.
+ */
+public final class MeasurementQueueEntry {
+
+    private final ByteBuffer buffer;
+
+    private int entryOffset;
+
+    private int entryLength;
+
+    private long position;
+
+    MeasurementQueueEntry(ByteBuffer buffer) {
+
+        this.buffer = buffer;
+    }
+
+    void wrap(int entryOffset, int entryLength, long position) {
+
+        this.entryOffset = entryOffset;
+        this.entryLength = entryLength;
+        this.position = position;
+    }
+
+    /**
+     * Returns the position of the entry in the queue, which can be used to resume reading after it.
+     */
+    public long getPosition() {
+
+        return position;
+    }
+
+    /**
+     * Returns whether the entry only holds an offset of the live measurements stream, which was received without a measurement. The
+     * getters of the measurement then return {@code null} or {@code 0}, except for {@link #getOffset()}.
+     */
+    public boolean isOffsetOnly() {
+
+        return (flags() & FLAG_OFFSET_ONLY) != 0;
+    }
+
+    /**
+     * Returns the ID of the sensor, or {@code null} if the entry {@link #isOffsetOnly() only holds an offset}.
+     */
+    public String getSensorId() {
+
+        if (isOffsetOnly()) {
+            return null;
+        }
+
+        return readString(ENTRY_HEADER_LENGTH, buffer.getInt(entryOffset + ENTRY_SENSOR_ID_LENGTH_OFFSET));
+    }
+
+    public long getEpochSecond() {
+
+        return buffer.getLong(entryOffset + ENTRY_EPOCH_SECOND_OFFSET);
+    }
+
+    public int getNano() {
+
+        return buffer.getInt(entryOffset + ENTRY_NANO_OFFSET);
+    }
+
+    /**
+     * Returns the timestamp, or {@code null} if the entry {@link #isOffsetOnly() only holds an offset}.
+     */
+    public Instant getTimestamp() {
+
+        if (isOffsetOnly()) {
+            return null;
+        }
+
+        return Instant.ofEpochSecond(getEpochSecond(), getNano());
+    }
+
+    public boolean hasNumericValue() {
+
+        return (flags() & FLAG_NUMERIC_VALUE) != 0;
+    }
+
+    /**
+     * Returns the numeric value without boxing it, or {@code 0} if the entry has no numeric value.
+     */
+    public double getNumericValueAsDouble() {
+
+        return buffer.getDouble(entryOffset + ENTRY_NUMERIC_VALUE_OFFSET);
+    }
+
+    public Double getNumericValue() {
+
+        return hasNumericValue() ? getNumericValueAsDouble() : null;
+    }
+
+    public String getStringValue() {
+
+        if ((flags() & FLAG_STRING_VALUE) == 0) {
+            return null;
+        }
+
+        return readString(ENTRY_HEADER_LENGTH + sensorIdLength(), stringValueLength());
+    }
+
+    /**
+     * Returns the offset of the live measurements stream received with this measurement, or {@code null}.
+     */
+    public String getOffset() {
+
+        if ((flags() & FLAG_OFFSET) == 0) {
+            return null;
+        }
+
+        return readString(
+                ENTRY_HEADER_LENGTH + sensorIdLength() + stringValueLength(),
+                buffer.getInt(entryOffset + ENTRY_OFFSET_LENGTH_OFFSET));
+    }
+
+    @Override
+    public String toString() {
+
+        return "MeasurementQueueEntry{position=" + position + ", sensorId=" + getSensorId() + ", timestamp=" + getTimestamp()
+                + ", numericValue=" + getNumericValue() + ", stringValue=" + getStringValue() + ", offset=" + getOffset() + "}";
+    }
+
+    private byte flags() {
+
+        return buffer.get(entryOffset + ENTRY_FLAGS_OFFSET);
+    }
+
+    private int sensorIdLength() {
+
+        return buffer.getInt(entryOffset + ENTRY_SENSOR_ID_LENGTH_OFFSET);
+    }
+
+    private int stringValueLength() {
+
+        return buffer.getInt(entryOffset + ENTRY_STRING_VALUE_LENGTH_OFFSET);
+    }
+
+    private String readString(int offset, int length) {
+
+        // The offset is calculated from the other lengths, which may also be garbage (and may even have overflowed).
+        if (offset < ENTRY_HEADER_LENGTH || length < 0 || length > entryLength - offset) {
+            throw new EntryOverwrittenException(position);
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(entryOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Thrown by the getters when the entry is inconsistent, because the writer is overwriting it.
+     */
+    static final class EntryOverwrittenException extends IllegalStateException {
+
+        EntryOverwrittenException(long position) {
+
+            super("The entry at position " + position + " is being overwritten");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+
+            // Only used to report an overrun, so the stack trace is not needed.
+            return this;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+/**
+ * Receives the entries read by {@link MeasurementQueueReader}.
+ */
+@FunctionalInterface
+public interface MeasurementQueueHandler {
+
+    /**
+     * Called for each entry, in the order they were written. The entry must not be used after this method returns.
+     * <p>
+     * If the entry is overwritten while it is being handled, its getters may throw an {@link IllegalStateException}, which should not be
+     * caught, as the reader then stops handling the entry and calls {@link #onOverrun(long, long)} instead.
+     */
+    void onEntry(MeasurementQueueEntry entry);
+
+    /**
+     * Called if the reader fell so far behind that the entries from {@code fromPosition} were overwritten before they could be read. The
+     * reader skips to {@code toPosition}, i.e. it continues with the entries written after the overrun was detected. If the entry just
+     * passed to {@link #onEntry(MeasurementQueueEntry)} was overwritten while it was being handled, {@code fromPosition} is its position and
+     * the values read from it may be inconsistent.
+     */
+    default void onOverrun(long fromPosition, long toPosition) {}
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The layout of a measurement queue file, shared by {@link MeasurementQueueWriter} and {@link MeasurementQueueReader}. All values are
+ * little endian.
+ * <p>
+ * The file starts with a header:
+ * <pre>
+ *   0: int  magic number
+ *   4: int  version
+ *   8: long capacity of the data region in bytes (a multiple of 8)
+ *  64: long claim position - the writer may be overwriting the data region up to this position
+ * 128: long write position - the data region contains complete entries up to this position
+ * </pre>
+ * followed by the data region, which is used as a ring buffer. Positions are absolute byte positions that only increase, and the position
+ * {@code p} is stored at index {@code p % capacity} of the data region. Each entry starts at a multiple of 8 and is laid out as follows:
+ * <pre>
+ *   0: int    length of the entry in bytes (or {@link #PADDING} if the rest of the data region is unused and the next entry is at index 0)
+ *   4: byte   flags
+ *   8: long   epoch second of the timestamp
+ *  16: int    nanosecond of the timestamp
+ *  20: int    length of the UTF-8 encoded sensor ID
+ *  24: double numeric value
+ *  32: int    length of the UTF-8 encoded string value
+ *  36: int    length of the UTF-8 encoded offset
+ *  40: bytes  sensor ID, string value and offset
+ * </pre>
+ * The flags tell whether the entry has a numeric value, a string value and an offset. An entry with the {@link #FLAG_OFFSET_ONLY} flag is
+ * not a measurement, but an offset received without a measurement, and its sensor ID is empty.
+ * <p>
+ * The claim and write positions are on separate cache lines, since readers poll the write position.
+ */
+final class MeasurementQueueLayout {
+
+    static final int MAGIC = 0x4D51_5545; // "MQUE"
+
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+
+    static final int VERSION_OFFSET = 4;
+
+    static final int CAPACITY_OFFSET = 8;
+
+    static final int CLAIM_POSITION_OFFSET = 64;
+
+    static final int WRITE_POSITION_OFFSET = 128;
+
+    static final int HEADER_LENGTH = 192;
+
+    static final int PADDING = -1;
+
+    static final int ENTRY_LENGTH_OFFSET = 0;
+
+    static final int ENTRY_FLAGS_OFFSET = 4;
+
+    static final int ENTRY_EPOCH_SECOND_OFFSET = 8;
+
+    static final int ENTRY_NANO_OFFSET = 16;
+
+    static final int ENTRY_SENSOR_ID_LENGTH_OFFSET = 20;
+
+    static final int ENTRY_NUMERIC_VALUE_OFFSET = 24;
+
+    static final int ENTRY_STRING_VALUE_LENGTH_OFFSET = 32;
+
+    static final int ENTRY_OFFSET_LENGTH_OFFSET = 36;
+
+    static final int ENTRY_HEADER_LENGTH = 40;
+
+    static final byte FLAG_NUMERIC_VALUE = 1;
+
+    static final byte FLAG_STRING_VALUE = 2;
+
+    static final byte FLAG_OFFSET = 4;
+
+    static final byte FLAG_OFFSET_ONLY = 8;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Gives acquire/release access to the positions in the header, which is what makes entries written by one process visible to readers
+     * in other processes (the file is mapped into the memory of all of them).
+     */
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, BYTE_ORDER);
+
+    private MeasurementQueueLayout() {}
+
+    static long getAcquire(ByteBuffer buffer, int offset) {
+
+        return (long) LONG_VIEW.getAcquire(buffer, offset);
+    }
+
+    static void setRelease(ByteBuffer buffer, int offset, long value) {
+
+        LONG_VIEW.setRelease(buffer, offset, value);
+    }
+
+    static int align(int length) {
+
+        return (length + 7) & ~7;
+    }
+}
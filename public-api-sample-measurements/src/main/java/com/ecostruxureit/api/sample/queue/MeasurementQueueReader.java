@@ -0,0 +1,251 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.CAPACITY_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.CLAIM_POSITION_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_HEADER_LENGTH;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.HEADER_LENGTH;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.MAGIC;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.MAGIC_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.PADDING;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.VERSION;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.VERSION_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.WRITE_POSITION_OFFSET;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the entries written to a memory-mapped queue file by {@link MeasurementQueueWriter}, typically in another process. Entries are
+ * read directly from the mapped file, without system calls or copying.
+ * <p>
+ * Each reader keeps track of its own position, which the consumer can store (e.g. after handling an entry) and use to resume reading
+ * after a restart, as long as the writer has not overwritten the entries in the meantime. Instances of this class are not thread-safe.
+ * <p>
+ * Example of a consumer tailing the queue:
+ * <pre>
+ * try (MeasurementQueueReader reader = MeasurementQueueReader.open(Path.of("measurements.queue"))) {
+ *     while (true) {
+ *         reader.poll(entry -&gt; System.out.println(entry), 100, Duration.ofSeconds(1));
+ *     }
+ * }
+ * </pre>
+ */
+public final class MeasurementQueueReader implements Closeable {
+
+    private static final int SPIN_COUNT = 100;
+
+    private static final int YIELD_COUNT = 10;
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final FileChannel fileChannel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final MeasurementQueueEntry entry;
+
+    private long position;
+
+    private MeasurementQueueReader(FileChannel fileChannel, MappedByteBuffer buffer, int capacity, long position) {
+
+        this.fileChannel = fileChannel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.entry = new MeasurementQueueEntry(buffer);
+        this.position = position;
+    }
+
+    /**
+     * Opens the queue file and starts reading the entries written from now on.
+     */
+    public static MeasurementQueueReader open(Path file) throws IOException {
+
+        return open(file, -1);
+    }
+
+    /**
+     * Opens the queue file and starts reading at the given position, which must be a position returned by {@link #getPosition()}. If the
+     * entries at the position have been overwritten, {@link MeasurementQueueHandler#onOverrun(long, long)} is called by the first poll.
+     */
+    public static MeasurementQueueReader open(Path file, long position) throws IOException {
+
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            if (fileChannel.size() < HEADER_LENGTH) {
+                throw new IOException("Not a measurement queue file: " + file);
+            }
+
+            MappedByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+            header.order(MeasurementQueueLayout.BYTE_ORDER);
+
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a measurement queue file (or an unsupported version): " + file);
+            }
+
+            int capacity = (int) header.getLong(CAPACITY_OFFSET);
+
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, (long) HEADER_LENGTH + capacity);
+            buffer.order(MeasurementQueueLayout.BYTE_ORDER);
+
+            long writePosition = MeasurementQueueLayout.getAcquire(buffer, WRITE_POSITION_OFFSET);
+
+            if (position > writePosition) {
+                throw new IllegalArgumentException(
+                        "Position " + position + " is after the write position " + writePosition + " of " + file);
+            }
+
+            return new MeasurementQueueReader(fileChannel, buffer, capacity, position < 0 ? writePosition : position);
+        } catch (IOException | RuntimeException ex) {
+            fileChannel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Passes up to {@code maxEntries} available entries to the handler without waiting.
+     *
+     * @return the number of entries passed to the handler
+     */
+    public int poll(MeasurementQueueHandler handler, int maxEntries) {
+
+        long writePosition = MeasurementQueueLayout.getAcquire(buffer, WRITE_POSITION_OFFSET);
+        int count = 0;
+
+        while (count < maxEntries && position < writePosition) {
+            int index = (int) (position % capacity);
+            int length = buffer.getInt(HEADER_LENGTH + index + ENTRY_LENGTH_OFFSET);
+
+            if (isOverwritten(position)) {
+                overrun(handler);
+                return count;
+            }
+
+            if (length == PADDING) {
+                position += capacity - index;
+                continue;
+            }
+
+            if (length < ENTRY_HEADER_LENGTH || length > capacity / 4 || length > capacity - index) {
+                throw new IllegalStateException("Invalid entry length " + length + " at position " + position
+                        + " (was the reader opened at a position not returned by getPosition()?)");
+            }
+
+            entry.wrap(HEADER_LENGTH + index, length, position);
+
+            try {
+                handler.onEntry(entry);
+            } catch (MeasurementQueueEntry.EntryOverwrittenException ex) {
+                if (!isOverwritten(position)) {
+                    throw new IllegalStateException("Invalid entry at position " + position, ex);
+                }
+                overrun(handler);
+                return count;
+            }
+
+            count++;
+
+            if (isOverwritten(position)) {
+                overrun(handler);
+                return count;
+            }
+
+            position += MeasurementQueueLayout.align(length);
+        }
+
+        return count;
+    }
+
+    /**
+     * Like {@link #poll(MeasurementQueueHandler, int)}, but waits up to {@code timeout} for entries to become available. To react quickly
+     * without using a lot of CPU, the reader first spins, then yields, and then sleeps for exponentially increasing periods (up to one
+     * millisecond) while waiting.
+     *
+     * @return the number of entries passed to the handler, which is {@code 0} if the timeout elapsed
+     */
+    public int poll(MeasurementQueueHandler handler, int maxEntries, Duration timeout) throws InterruptedException {
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long parkNanos = MIN_PARK_NANOS;
+
+        for (int idleCount = 0; ; idleCount++) {
+            int count = poll(handler, maxEntries);
+
+            if (count > 0) {
+                return count;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+
+            if (remainingNanos <= 0) {
+                return 0;
+            }
+
+            if (idleCount < SPIN_COUNT) {
+                Thread.onSpinWait();
+            } else if (idleCount < SPIN_COUNT + YIELD_COUNT) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(Math.min(parkNanos, remainingNanos));
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the next entry to read.
+     */
+    public long getPosition() {
+
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes written to the queue that have not been read yet, which indicates how far behind this reader is.
+     */
+    public long getLag() {
+
+        return MeasurementQueueLayout.getAcquire(buffer, WRITE_POSITION_OFFSET) - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        fileChannel.close();
+    }
+
+    /**
+     * Returns whether the writer has started to overwrite the entry at the given position. The fence ensures that the values read from the
+     * entry before this check are not read after the claim position.
+     */
+    private boolean isOverwritten(long entryPosition) {
+
+        VarHandle.loadLoadFence();
+        return MeasurementQueueLayout.getAcquire(buffer, CLAIM_POSITION_OFFSET) - capacity > entryPosition;
+    }
+
+    private void overrun(MeasurementQueueHandler handler) {
+
+        long fromPosition = position;
+        position = MeasurementQueueLayout.getAcquire(buffer, WRITE_POSITION_OFFSET);
+        handler.onOverrun(fromPosition, position);
+    }
+}
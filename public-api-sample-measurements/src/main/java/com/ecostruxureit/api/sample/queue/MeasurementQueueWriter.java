@@ -0,0 +1,283 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.CAPACITY_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.CLAIM_POSITION_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_EPOCH_SECOND_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_FLAGS_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_HEADER_LENGTH;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_NANO_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_NUMERIC_VALUE_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_OFFSET_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_SENSOR_ID_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.ENTRY_STRING_VALUE_LENGTH_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_NUMERIC_VALUE;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_OFFSET_ONLY;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.FLAG_STRING_VALUE;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.HEADER_LENGTH;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.MAGIC;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.MAGIC_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.PADDING;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.VERSION;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.VERSION_OFFSET;
+import static com.ecostruxureit.api.sample.queue.MeasurementQueueLayout.WRITE_POSITION_OFFSET;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends measurements to a memory-mapped queue file which can be read by {@link MeasurementQueueReader}s in other processes. See
+ * {@link MeasurementQueueLayout} for the file format.
+ * <p>
+ * Appended entries become visible to readers when {@link #commit()} is called. The queue is a ring buffer, so old entries are overwritten
+ * when it is full - a reader that falls more than the capacity of the queue behind loses entries. There must only be one writer per file,
+ * and instances of this class are not thread-safe.
+ */
+public final class MeasurementQueueWriter implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementQueueWriter.class);
+
+    /**
+     * The maximum capacity, which keeps the file within what a single {@link MappedByteBuffer} can map.
+     */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    private final FileChannel fileChannel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private long position;
+
+    private MeasurementQueueWriter(FileChannel fileChannel, MappedByteBuffer buffer, int capacity, long position) {
+
+        this.fileChannel = fileChannel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.position = position;
+    }
+
+    /**
+     * Opens the queue file, creating it with the given capacity (in bytes) if it does not exist. If it exists, writing continues after the
+     * last committed entry, so that readers can continue from where they were, and the capacity of the existing file is kept.
+     */
+    public static MeasurementQueueWriter open(Path file, int capacity) throws IOException {
+
+        if (capacity < 4_096 || capacity > MAX_CAPACITY || capacity % 8 != 0) {
+            throw new IllegalArgumentException(
+                    "Capacity must be a multiple of 8 between 4096 and " + MAX_CAPACITY + ": " + capacity);
+        }
+
+        FileChannel fileChannel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            int existingCapacity = fileChannel.size() >= HEADER_LENGTH ? readExistingCapacity(fileChannel) : -1;
+
+            if (existingCapacity > 0 && existingCapacity != capacity) {
+                // Resizing the file would make readers that have it mapped fail, so the existing capacity is kept.
+                LOGGER.warn(
+                        "Measurement queue {} has a capacity of {} bytes, keeping it instead of {} bytes",
+                        file,
+                        existingCapacity,
+                        capacity);
+            }
+
+            int actualCapacity = existingCapacity > 0 ? existingCapacity : capacity;
+
+            MappedByteBuffer buffer =
+                    fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_LENGTH + actualCapacity);
+            buffer.order(MeasurementQueueLayout.BYTE_ORDER);
+
+            long position;
+
+            if (existingCapacity > 0) {
+                position = MeasurementQueueLayout.getAcquire(buffer, WRITE_POSITION_OFFSET);
+            } else {
+                position = 0;
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putLong(CAPACITY_OFFSET, actualCapacity);
+                MeasurementQueueLayout.setRelease(buffer, WRITE_POSITION_OFFSET, 0);
+                // The magic number is written last, so readers never see a partially initialized header.
+                VarHandle.storeStoreFence();
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+            }
+
+            // If a previous writer stopped while appending, the claimed but uncommitted part of the data region is simply reused.
+            MeasurementQueueLayout.setRelease(buffer, CLAIM_POSITION_OFFSET, position);
+
+            LOGGER.info(
+                    "Opened measurement queue {} with a capacity of {} bytes at position {}",
+                    file,
+                    actualCapacity,
+                    position);
+
+            return new MeasurementQueueWriter(fileChannel, buffer, actualCapacity, position);
+        } catch (IOException | RuntimeException ex) {
+            fileChannel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends an entry. It is not visible to readers until {@link #commit()} is called.
+     *
+     * @param numericValue the numeric value, or {@code null}
+     * @param stringValue the string value, or {@code null}
+     * @param offset the offset of the live measurements stream, or {@code null}
+     */
+    public void append(String sensorId, Instant timestamp, Double numericValue, String stringValue, String offset) {
+
+        byte[] sensorIdBytes = sensorId.getBytes(StandardCharsets.UTF_8);
+        byte[] stringValueBytes = stringValue == null ? null : stringValue.getBytes(StandardCharsets.UTF_8);
+        byte[] offsetBytes = offset == null ? null : offset.getBytes(StandardCharsets.UTF_8);
+
+        byte flags = 0;
+        flags |= numericValue != null ? FLAG_NUMERIC_VALUE : 0;
+        flags |= stringValueBytes != null ? FLAG_STRING_VALUE : 0;
+        flags |= offsetBytes != null ? FLAG_OFFSET : 0;
+
+        append(flags, sensorIdBytes, timestamp, numericValue == null ? 0 : numericValue, stringValueBytes, offsetBytes);
+    }
+
+    /**
+     * Appends an entry with only an offset of the live measurements stream, i.e. an offset that was not received together with a
+     * measurement. It is not visible to readers until {@link #commit()} is called.
+     */
+    public void appendOffset(String offset) {
+
+        append(
+                (byte) (FLAG_OFFSET | FLAG_OFFSET_ONLY),
+                new byte[0],
+                Instant.EPOCH,
+                0,
+                null,
+                offset.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void append(
+            byte flags,
+            byte[] sensorIdBytes,
+            Instant timestamp,
+            double numericValue,
+            byte[] stringValueBytes,
+            byte[] offsetBytes) {
+
+        int length = ENTRY_HEADER_LENGTH
+                + sensorIdBytes.length
+                + (stringValueBytes == null ? 0 : stringValueBytes.length)
+                + (offsetBytes == null ? 0 : offsetBytes.length);
+        int alignedLength = MeasurementQueueLayout.align(length);
+
+        if (alignedLength > capacity / 4) {
+            throw new IllegalArgumentException("Entry of " + length + " bytes is too large for the measurement queue");
+        }
+
+        int index = (int) (position % capacity);
+
+        if (index + alignedLength > capacity) {
+            // The entry does not fit before the end of the data region, so the rest of it is skipped.
+            claim(position + (capacity - index) + alignedLength);
+            buffer.putInt(HEADER_LENGTH + index, PADDING);
+            position += capacity - index;
+            index = 0;
+        } else {
+            claim(position + alignedLength);
+        }
+
+        int entryOffset = HEADER_LENGTH + index;
+
+        buffer.putInt(entryOffset + ENTRY_LENGTH_OFFSET, length);
+        buffer.put(entryOffset + ENTRY_FLAGS_OFFSET, flags);
+        buffer.putLong(entryOffset + ENTRY_EPOCH_SECOND_OFFSET, timestamp.getEpochSecond());
+        buffer.putInt(entryOffset + ENTRY_NANO_OFFSET, timestamp.getNano());
+        buffer.putInt(entryOffset + ENTRY_SENSOR_ID_LENGTH_OFFSET, sensorIdBytes.length);
+        buffer.putDouble(entryOffset + ENTRY_NUMERIC_VALUE_OFFSET, numericValue);
+        buffer.putInt(
+                entryOffset + ENTRY_STRING_VALUE_LENGTH_OFFSET, stringValueBytes == null ? 0 : stringValueBytes.length);
+        buffer.putInt(entryOffset + ENTRY_OFFSET_LENGTH_OFFSET, offsetBytes == null ? 0 : offsetBytes.length);
+
+        int bytesOffset = entryOffset + ENTRY_HEADER_LENGTH;
+        buffer.put(bytesOffset, sensorIdBytes);
+        bytesOffset += sensorIdBytes.length;
+
+        if (stringValueBytes != null) {
+            buffer.put(bytesOffset, stringValueBytes);
+            bytesOffset += stringValueBytes.length;
+        }
+
+        if (offsetBytes != null) {
+            buffer.put(bytesOffset, offsetBytes);
+        }
+
+        position += alignedLength;
+    }
+
+    /**
+     * Makes the entries appended since the last commit visible to readers.
+     */
+    public void commit() {
+
+        MeasurementQueueLayout.setRelease(buffer, WRITE_POSITION_OFFSET, position);
+    }
+
+    /**
+     * Returns the position after the last appended entry.
+     */
+    public long getPosition() {
+
+        return position;
+    }
+
+    public int getCapacity() {
+
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        commit();
+        fileChannel.close();
+    }
+
+    /**
+     * Tells readers that the data region is about to be overwritten up to the given position. The fence ensures that readers cannot see
+     * the overwritten data without also seeing the new claim position.
+     */
+    private void claim(long claimPosition) {
+
+        MeasurementQueueLayout.setRelease(buffer, CLAIM_POSITION_OFFSET, claimPosition);
+        VarHandle.storeStoreFence();
+    }
+
+    private static int readExistingCapacity(FileChannel fileChannel) throws IOException {
+
+        MappedByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+        header.order(MeasurementQueueLayout.BYTE_ORDER);
+
+        if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Not a measurement queue file (or an unsupported version)");
+        }
+
+        long capacity = header.getLong(CAPACITY_OFFSET);
+
+        if (capacity <= 0 || capacity > MAX_CAPACITY || fileChannel.size() < HEADER_LENGTH + capacity) {
+            throw new IOException("Measurement queue file has an invalid capacity: " + capacity);
+        }
+
+        return (int) capacity;
+    }
+}
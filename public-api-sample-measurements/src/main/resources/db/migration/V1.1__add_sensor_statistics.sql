@@ -0,0 +1,16 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- This table stores the statistics of the numeric measurements per sensor and per time bucket (the bucket size is configured using the
+-- statisticsBucketSizeInMinutes configuration property). The columns value_count, mean_value and m2 are the state of Welford's algorithm,
+-- and sketch contains a serialized quantile sketch. Also see the SensorStatisticsService class.
+CREATE TABLE sensor_statistics
+(
+    sensor_id     VARCHAR   NOT NULL,
+    bucket_start  TIMESTAMP NOT NULL,
+    value_count   BIGINT    NOT NULL,
+    minimum_value DOUBLE    NOT NULL,
+    maximum_value DOUBLE    NOT NULL,
+    mean_value    DOUBLE    NOT NULL,
+    m2            DOUBLE    NOT NULL,
+    sketch        VARBINARY NOT NULL,
+    PRIMARY KEY (sensor_id, bucket_start)
+);
@@ -0,0 +1,12 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- This table stores replayed measurements until they are merged into the measurement table by the MeasurementStagingMerger class. Unlike
+-- the measurement table, it has no unique constraint on (sensor_id, timestamp), so replays only append rows to it and do not compete with
+-- the live measurements for the locks and indexes of the measurement table. The id column defines the order in which the rows were staged.
+CREATE TABLE measurement_staging
+(
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sensor_id     VARCHAR   NOT NULL,
+    timestamp     TIMESTAMP NOT NULL,
+    numeric_value DOUBLE,
+    string_value  VARCHAR
+);
@@ -0,0 +1,7 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- This table stores the sensor IDs of the sensor allowlist or denylist, if the sensorFilterMode configuration property is set and the
+-- sensorFilterFile configuration property is not. Also see the SensorFilterService class.
+CREATE TABLE sensor_filter
+(
+    sensor_id VARCHAR NOT NULL PRIMARY KEY
+);
@@ -0,0 +1,26 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- This table stores the events fired when a sensor stops sending measurements (SILENT) and when it starts again (RECOVERED). occurred_at
+-- is when the event was detected, and last_seen is the timestamp of the latest measurement of the sensor at that time. Also see the
+-- SensorLivenessMonitor class.
+CREATE TABLE sensor_liveness_event
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sensor_id   VARCHAR   NOT NULL,
+    event_type  VARCHAR   NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    last_seen   TIMESTAMP NOT NULL
+);
+
+CREATE INDEX sensor_liveness_event_occurred_at ON sensor_liveness_event (occurred_at);
+
+-- This table stores the periods in which a sensor was silent, from the timestamp of the last measurement before the gap to the timestamp
+-- of the first measurement after it. live_stream_interrupted is true if the live measurements stream of this application was disconnected
+-- during the gap, in which case the gap may be caused by the disconnect (and be filled by a replay) rather than by the sensor or upstream.
+CREATE TABLE sensor_gap
+(
+    sensor_id               VARCHAR   NOT NULL,
+    gap_start               TIMESTAMP NOT NULL,
+    gap_end                 TIMESTAMP NOT NULL,
+    live_stream_interrupted BOOLEAN   NOT NULL,
+    PRIMARY KEY (sensor_id, gap_start)
+);
@@ -0,0 +1,22 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- This table stores the leases that decide which instance of the application (node) retrieves the live measurements and performs the
+-- replays of an organization, when several instances share the database. fencing_token is incremented every time the lease changes owner,
+-- and expires_at is extended by the owner while it is alive. Also see the LeaseManager class.
+CREATE TABLE lease
+(
+    organization_id VARCHAR   NOT NULL,
+    name            VARCHAR   NOT NULL,
+    owner_id        VARCHAR   NOT NULL,
+    fencing_token   BIGINT    NOT NULL,
+    expires_at      TIMESTAMP NOT NULL,
+    PRIMARY KEY (organization_id, name)
+);
+
+-- This table stores the nodes that are alive, which the leases are distributed among. A node extends expires_at while it is alive.
+CREATE TABLE lease_node
+(
+    organization_id VARCHAR   NOT NULL,
+    node_id         VARCHAR   NOT NULL,
+    expires_at      TIMESTAMP NOT NULL,
+    PRIMARY KEY (organization_id, node_id)
+);
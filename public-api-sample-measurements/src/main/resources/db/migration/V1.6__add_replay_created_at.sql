@@ -0,0 +1,5 @@
+-- Copyright © 2025 Schneider Electric. All Rights Reserved.
+-- Records when each replay row was inserted, so that pending replays that are too old to be performed can be deleted (see the
+-- RetentionService class). Since a pending replay is replaced by a smaller one every time it makes progress, this is the time of its latest
+-- progress.
+ALTER TABLE replay ADD COLUMN created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL;
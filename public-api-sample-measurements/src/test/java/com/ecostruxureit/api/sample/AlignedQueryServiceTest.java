@@ -0,0 +1,134 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+class AlignedQueryServiceTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private AlignedQueryService alignedQueryService;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+
+        // "a" has a measurement every other minute from minute 0, "b" has measurements at minute 1 and 5, "c" has none.
+        measurementLiveService.saveMeasurements(List.of(
+                testHelper.createMeasurement("a", 0, 0d),
+                testHelper.createMeasurement("a", 2 * MINUTE, 20d),
+                testHelper.createMeasurement("a", 4 * MINUTE, 40d),
+                testHelper.createMeasurement("a", 6 * MINUTE, 60d),
+                testHelper.createMeasurement("b", MINUTE, 1d),
+                testHelper.createMeasurement("b", 5 * MINUTE, 5d),
+                testHelper.createMeasurement("b", 3 * MINUTE, "not numeric")));
+    }
+
+    @Test
+    void givenFillPolicyNone_whenQuerying_thenOnlyExactMatchesHaveValues() throws IOException {
+
+        // When
+
+        List<String> rows = query(FillPolicy.NONE, 1, 2, 3, 4, 5);
+
+        // Then
+
+        assertThat(rows).containsExactly("1:,1.0,", "2:20.0,,", "3:,,", "4:40.0,,", "5:,5.0,");
+    }
+
+    @Test
+    void givenFillPolicyPrevious_whenQuerying_thenTheLatestValueAtOrBeforeEachInstantIsUsed() throws IOException {
+
+        // When
+
+        List<String> rows = query(FillPolicy.PREVIOUS, 1, 2, 3, 4, 5, 10);
+
+        // Then
+
+        assertThat(rows)
+                .containsExactly(
+                        "1:0.0,1.0,", "2:20.0,1.0,", "3:20.0,1.0,", "4:40.0,1.0,", "5:40.0,5.0,", "10:60.0,5.0,");
+    }
+
+    @Test
+    void givenFillPolicyLinear_whenQuerying_thenValuesAreInterpolatedBetweenMeasurements() throws IOException {
+
+        // When
+
+        List<String> rows = query(FillPolicy.LINEAR, 0, 1, 2, 3, 4, 5, 6, 7);
+
+        // Then
+
+        // The values before the first and after the last measurement of a sensor cannot be interpolated.
+        assertThat(rows)
+                .containsExactly(
+                        "0:0.0,,",
+                        "1:10.0,1.0,",
+                        "2:20.0,2.0,",
+                        "3:30.0,3.0,",
+                        "4:40.0,4.0,",
+                        "5:50.0,5.0,",
+                        "6:60.0,,",
+                        "7:,,");
+    }
+
+    @Test
+    void givenInstantsWithinTheRangeOfMeasurements_whenQueryingLinear_thenMeasurementsOutsideTheRangeAreUsed()
+            throws IOException {
+
+        // When
+
+        List<String> rows = query(FillPolicy.LINEAR, 3);
+
+        // Then
+
+        assertThat(rows).containsExactly("3:30.0,3.0,");
+    }
+
+    private List<String> query(FillPolicy fillPolicy, int... minutes) throws IOException {
+
+        List<Instant> instants = new ArrayList<>();
+
+        for (int minute : minutes) {
+            instants.add(Instant.ofEpochMilli(minute * MINUTE));
+        }
+
+        List<String> rows = new ArrayList<>();
+
+        alignedQueryService.query(List.of("a", "b", "c"), instants, fillPolicy, (instant, values) -> {
+            StringBuilder row = new StringBuilder().append(instant.toEpochMilli() / MINUTE).append(':');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                if (!Double.isNaN(values[i])) {
+                    row.append(values[i]);
+                }
+            }
+            rows.add(row.toString());
+        });
+
+        return rows;
+    }
+}
@@ -4,9 +4,13 @@ package com.ecostruxureit.api.sample;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
 
 import com.ecostruxureit.api.sample.client.ApiException;
+import com.ecostruxureit.api.sample.client.ConnectionClosedRetriableApiException;
 import generated.dto.Measurement;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.SyncTaskExecutor;
@@ -35,9 +40,15 @@ class FetchEngineWithReplayDisabledTest {
     @Autowired
     private MeasurementReplayService measurementReplayService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private TestHelper testHelper;
 
+    @SpyBean
+    private SensorLivenessMonitor sensorLivenessMonitor;
+
     @TestConfiguration
     static class TestSpringConfiguration {
 
@@ -180,6 +191,31 @@ class FetchEngineWithReplayDisabledTest {
         assertThat(measurementReplayService.findPendingReplays()).isEmpty();
     }
 
+    @Test
+    void givenFetchingIsPaused_whenFetching_thenMeasurementsAreOnlyRetrievedOnceResumed() throws Exception {
+
+        // Given
+
+        Measurement measurement = testHelper.createMeasurement("sensorId", 1L, 42d);
+        measurement.setOffset("offset");
+        testHelper.mockApiClientForLive(measurement);
+
+        assertThat(fetchEngine.pause(Duration.ofSeconds(10))).isTrue();
+
+        // When
+
+        fetchEngine.fetch();
+        List<Measurement> measurementsWhilePaused = testHelper.findMeasurements();
+
+        fetchEngine.resume();
+        fetchEngine.fetch();
+
+        // Then
+
+        assertThat(measurementsWhilePaused).isEmpty();
+        assertThat(testHelper.findMeasurements()).containsExactly(testHelper.createMeasurement("sensorId", 1L, 42d));
+    }
+
     @Test
     void whenExceptionOccurs_thenRetrievingLiveMeasurementsIsRestarted() throws ApiException {
 
@@ -215,4 +251,51 @@ class FetchEngineWithReplayDisabledTest {
 
         assertThat(measurementReplayService.findPendingReplays()).isEmpty();
     }
+
+    @Test
+    void whenConnectionIsClosed_thenRetrievingLiveMeasurementsIsRestartedImmediatelyAndReconnectLatencyIsRecorded()
+            throws ApiException {
+
+        // Given
+
+        long reconnectsBefore = meterRegistry
+                .timer(FetchEngine.LIVE_RECONNECT_LATENCY_METRIC)
+                .count();
+
+        String sensorId = "sensorId";
+        long timestamp = 1L;
+        double numericValue = 42d;
+
+        Measurement measurement = testHelper.createMeasurement(sensorId, timestamp, numericValue);
+        measurement.setOffset("fromOffset");
+        testHelper.mockApiClientForLive(new ConnectionClosedRetriableApiException(), measurement);
+
+        // When
+
+        fetchEngine.fetch();
+
+        // Then
+
+        assertThat(testHelper.findMeasurements())
+                .containsExactly(testHelper.createMeasurement(sensorId, timestamp, numericValue));
+
+        assertThat(meterRegistry.timer(FetchEngine.LIVE_RECONNECT_LATENCY_METRIC).count())
+                .isEqualTo(reconnectsBefore + 1);
+    }
+
+    @Test
+    void whenLiveStreamEndsNormally_thenSensorLivenessMonitorIsToldThatTheStreamIsDisconnected() throws ApiException {
+
+        // Given
+
+        testHelper.mockApiClientForLive(testHelper.createMeasurement("sensorId", 1L, 42d));
+
+        // When
+
+        fetchEngine.fetch();
+
+        // Then
+
+        verify(sensorLivenessMonitor).onLiveStreamDisconnected();
+    }
 }
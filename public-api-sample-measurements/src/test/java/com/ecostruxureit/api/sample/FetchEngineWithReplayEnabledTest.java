@@ -3,14 +3,22 @@ package com.ecostruxureit.api.sample;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.ecostruxureit.api.sample.client.ApiException;
+import com.ecostruxureit.api.sample.client.StreamCapture;
 import generated.dto.Measurement;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.SyncTaskExecutor;
@@ -32,6 +40,9 @@ class FetchEngineWithReplayEnabledTest {
     @Autowired
     private TestHelper testHelper;
 
+    @SpyBean
+    private LeaseManager leaseManager;
+
     @TestConfiguration
     static class TestSpringConfiguration {
 
@@ -212,4 +223,35 @@ class FetchEngineWithReplayEnabledTest {
 
         assertThat(measurementReplayService.findPendingReplays()).isEmpty();
     }
+
+    @Test
+    void whenReingestingRecordedStream_thenMeasurementsAreInsertedWithoutUpdatingReplaysOrCheckingTheLease(@TempDir Path captureDirectory)
+            throws Exception {
+
+        // Given
+
+        Files.createFile(captureDirectory.resolve("live-20250101T120000.000Z-0001.capture"));
+        StreamCapture streamCapture = StreamCapture.findAll(captureDirectory).getFirst();
+
+        Measurement measurement = testHelper.createMeasurement("sensorId", 1L, 42d);
+        measurement.setOffset("recordedOffset");
+        testHelper.mockApiClientForReingest(measurement);
+
+        // When
+
+        long measurementCount = fetchEngine.reingest(streamCapture);
+
+        // Then
+
+        assertThat(measurementCount).isEqualTo(1);
+
+        assertThat(testHelper.findMeasurements()).containsExactly(testHelper.createMeasurement("sensorId", 1L, 42d));
+
+        // The recorded offsets are not related to the current state of the replays.
+        assertThat(measurementReplayService.getLatestOffset()).isEmpty();
+
+        assertThat(measurementReplayService.findPendingReplays()).isEmpty();
+
+        verify(leaseManager, never()).checkHeld(any());
+    }
 }
@@ -0,0 +1,171 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.ecostruxureit.api.sample.MeasurementRepository.NumericValueCallback;
+import generated.dto.Measurement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HotMeasurementTierTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final MeasurementRepository measurementRepository = mock(MeasurementRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void givenRangeWithinTheHotTier_whenQuerying_thenValuesAreServedFromMemoryInTimestampOrder() {
+
+        // Given
+
+        HotMeasurementTier hotMeasurementTier = createHotMeasurementTier(Duration.ofHours(1), 1024 * 1024, 30);
+
+        hotMeasurementTier.put(
+                List.of(
+                        createMeasurement("sensorId", 20, 2d),
+                        createMeasurement("sensorId", 10, 1d),
+                        createMeasurement("otherSensorId", 15, 9d),
+                        createMeasurement("sensorId", 15, 1.5)),
+                true);
+        // Replayed measurements do not replace existing values.
+        hotMeasurementTier.put(
+                List.of(createMeasurement("sensorId", 10, 100d), createMeasurement("sensorId", 25, 2.5)), false);
+        // Live measurements replace existing values.
+        hotMeasurementTier.put(List.of(createMeasurement("sensorId", 20, 200d)), true);
+
+        // When
+
+        List<String> values = query(hotMeasurementTier, "sensorId", 0, 25);
+
+        // Then
+
+        assertThat(values).containsExactly("10=1.0", "15=1.5", "20=200.0");
+        verifyNoInteractions(measurementRepository);
+        assertThat(meterRegistry
+                        .get(HotMeasurementTier.QUERIES_METRIC)
+                        .tag("result", "hit")
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(HotMeasurementTier.VALUES_METRIC).gauge().value())
+                .isEqualTo(5);
+        assertThat(meterRegistry.get(HotMeasurementTier.BYTES_METRIC).gauge().value())
+                .isPositive();
+    }
+
+    @Test
+    void givenRangeStartingBeforeTheHotTier_whenQuerying_thenTheOlderPartIsReadFromTheDatabase() {
+
+        // Given
+
+        HotMeasurementTier hotMeasurementTier = createHotMeasurementTier(Duration.ofSeconds(10), 1024 * 1024, 30);
+
+        hotMeasurementTier.put(List.of(createMeasurement("sensorId", 25, 2.5)), true);
+
+        doAnswer(invocation -> {
+                    NumericValueCallback callback = invocation.getArgument(3);
+                    callback.accept("sensorId", STARTED_AT.plusSeconds(5), 0.5);
+                    return null;
+                })
+                .when(measurementRepository)
+                .forEachNumericValue(eq("sensorId"), any(), any(), any());
+
+        // When
+
+        List<String> values = query(hotMeasurementTier, "sensorId", 0, 30);
+
+        // Then
+
+        // The clock is at 30 seconds, so measurements older than 20 seconds have expired from the hot tier.
+        verify(measurementRepository)
+                .forEachNumericValue(
+                        eq("sensorId"), eq(STARTED_AT), eq(STARTED_AT.plusSeconds(20)), any());
+        assertThat(values).containsExactly("5=0.5", "25=2.5");
+        assertThat(meterRegistry
+                        .get(HotMeasurementTier.QUERIES_METRIC)
+                        .tag("result", "partial")
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void givenMoreMeasurementsThanTheMemoryLimit_whenPutting_thenTheOldestMeasurementsAreEvicted() {
+
+        // Given
+
+        HotMeasurementTier hotMeasurementTier = createHotMeasurementTier(Duration.ofHours(1), 32 * 1024, 3_600);
+        List<Measurement> measurements = new ArrayList<>();
+
+        for (int second = 0; second < 3_600; second++) {
+            measurements.add(createMeasurement("sensorId", second, second));
+        }
+
+        // When
+
+        hotMeasurementTier.put(measurements, true);
+
+        // Then
+
+        assertThat(meterRegistry.get(HotMeasurementTier.BYTES_METRIC).gauge().value())
+                .isLessThanOrEqualTo(32 * 1024);
+
+        List<String> values = query(hotMeasurementTier, "sensorId", 3_599, 3_600);
+
+        assertThat(values).containsExactly("3599=3599.0");
+        verifyNoInteractions(measurementRepository);
+
+        query(hotMeasurementTier, "sensorId", 0, 1);
+
+        verify(measurementRepository)
+                .forEachNumericValue(eq("sensorId"), eq(STARTED_AT), eq(STARTED_AT.plusSeconds(1)), any());
+    }
+
+    private HotMeasurementTier createHotMeasurementTier(Duration maxAge, long maxBytes, int nowInSeconds) {
+
+        // The hot tier is created when the clock is at STARTED_AT, after which the clock is moved forward.
+        MutableClock clock = new MutableClock(STARTED_AT);
+        HotMeasurementTier hotMeasurementTier =
+                new HotMeasurementTier(maxAge, maxBytes, measurementRepository, meterRegistry, clock);
+        clock.setInstant(STARTED_AT.plusSeconds(nowInSeconds));
+        return hotMeasurementTier;
+    }
+
+    private static List<String> query(
+            HotMeasurementTier hotMeasurementTier, String sensorId, int fromSecond, int toSecond) {
+
+        List<String> values = new ArrayList<>();
+
+        hotMeasurementTier.forEachNumericValue(
+                sensorId,
+                STARTED_AT.plusSeconds(fromSecond),
+                STARTED_AT.plusSeconds(toSecond),
+                (ignoredSensorId, timestamp, numericValue) ->
+                        values.add(Duration.between(STARTED_AT, timestamp).toSeconds() + "=" + numericValue));
+
+        return values;
+    }
+
+    private static Measurement createMeasurement(String sensorId, int second, double numericValue) {
+
+        Measurement measurement = new Measurement();
+        measurement.setSensorId(sensorId);
+        measurement.setTimestamp(STARTED_AT.plusSeconds(second).atOffset(ZoneOffset.UTC));
+        measurement.setNumericValue(numericValue);
+        return measurement;
+    }
+}
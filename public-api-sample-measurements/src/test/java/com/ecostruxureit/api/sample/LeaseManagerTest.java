@@ -0,0 +1,195 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+class LeaseManagerTest {
+
+    private static final Duration DURATION = Duration.ofSeconds(15);
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private LeaseManager nodeA;
+
+    private LeaseManager nodeB;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+
+        nodeA = new LeaseManager(true, "organizationId", "node-a", DURATION, leaseRepository, clock);
+        nodeB = new LeaseManager(true, "organizationId", "node-b", DURATION, leaseRepository, clock);
+    }
+
+    @Test
+    void givenSingleNode_whenHeartbeat_thenBothLeasesAreAcquired() {
+
+        // When
+
+        List<String> acquiredLeases = heartbeat(nodeA);
+
+        // Then
+
+        assertThat(acquiredLeases).containsExactly(LeaseManager.LIVE_LEASE, LeaseManager.REPLAY_LEASE);
+        assertThat(nodeA.isHeld(LeaseManager.LIVE_LEASE)).isTrue();
+        assertThat(nodeA.isHeld(LeaseManager.REPLAY_LEASE)).isTrue();
+        assertThat(findLeases()).containsExactly("live node-a 1", "replay node-a 1");
+    }
+
+    @Test
+    void givenHeartbeatIsRolledBack_whenLeaseDurationHasPassedSincePreviousHeartbeat_thenLeasesAreNotHeld() {
+
+        // Given
+
+        heartbeat(nodeA);
+        clock.advance(nodeA.getHeartbeatInterval());
+
+        // When
+
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            nodeA.heartbeat();
+            transactionStatus.setRollbackOnly();
+        });
+
+        // Then
+
+        // The leases were acquired by the first heartbeat, and they expire as if the second heartbeat never happened.
+        clock.advance(DURATION.minus(nodeA.getHeartbeatInterval()));
+        assertThat(nodeA.isHeld(LeaseManager.LIVE_LEASE)).isFalse();
+        assertThat(nodeA.isHeld(LeaseManager.REPLAY_LEASE)).isFalse();
+        assertThat(findLeases()).containsExactly("live node-a 1", "replay node-a 1");
+    }
+
+    @Test
+    void givenFirstHeartbeatIsRolledBack_whenLeaseIsChecked_thenItIsNotHeld() {
+
+        // When
+
+        List<String> acquiredLeases = transactionTemplate.execute(transactionStatus -> {
+            transactionStatus.setRollbackOnly();
+            return nodeA.heartbeat();
+        });
+
+        // Then
+
+        assertThat(acquiredLeases).containsExactly(LeaseManager.LIVE_LEASE, LeaseManager.REPLAY_LEASE);
+        assertThat(nodeA.isHeld(LeaseManager.LIVE_LEASE)).isFalse();
+        assertThat(findLeases()).isEmpty();
+    }
+
+    @Test
+    void givenLeasesHeldByNode_whenAnotherNodeJoins_thenReplayLeaseIsHandedOver() {
+
+        // Given
+
+        heartbeat(nodeA);
+
+        // When
+
+        List<String> acquiredBeforeRelease = heartbeat(nodeB);
+        clock.advance(Duration.ofSeconds(5));
+        heartbeat(nodeA);
+        List<String> acquiredAfterRelease = heartbeat(nodeB);
+
+        // Then
+
+        assertThat(acquiredBeforeRelease).isEmpty();
+        assertThat(acquiredAfterRelease).containsExactly(LeaseManager.REPLAY_LEASE);
+        assertThat(nodeA.isHeld(LeaseManager.LIVE_LEASE)).isTrue();
+        assertThat(nodeA.isHeld(LeaseManager.REPLAY_LEASE)).isFalse();
+        assertThat(nodeB.isHeld(LeaseManager.LIVE_LEASE)).isFalse();
+        assertThat(nodeB.isHeld(LeaseManager.REPLAY_LEASE)).isTrue();
+        assertThat(findLeases()).containsExactly("live node-a 1", "replay node-b 2");
+    }
+
+    @Test
+    void givenNodeStopsHeartbeating_whenLeaseExpires_thenOtherNodeTakesOverAndOldTokenIsFenced() {
+
+        // Given
+
+        heartbeat(nodeA);
+        heartbeat(nodeB);
+        heartbeat(nodeA);
+        heartbeat(nodeB);
+
+        // When
+
+        // Node A is paused, while node B keeps heartbeating.
+        for (int heartbeat = 0; heartbeat < 3; heartbeat++) {
+            clock.advance(nodeB.getHeartbeatInterval());
+            heartbeat(nodeB);
+        }
+
+        // Then
+
+        assertThat(nodeB.isHeld(LeaseManager.LIVE_LEASE)).isTrue();
+        assertThat(nodeA.isHeld(LeaseManager.LIVE_LEASE)).isFalse();
+        assertThat(findLeases()).containsExactly("live node-b 2", "replay node-b 2");
+
+        assertThrows(
+                LeaseLostException.class,
+                () -> transactionTemplate.executeWithoutResult(
+                        transactionStatus -> nodeA.checkFencingToken(LeaseManager.LIVE_LEASE)));
+        transactionTemplate.executeWithoutResult(
+                transactionStatus -> nodeB.checkFencingToken(LeaseManager.LIVE_LEASE));
+    }
+
+    @Test
+    void givenLeasesHeldByNode_whenReleased_thenOtherNodeAcquiresThemWithoutWaiting() {
+
+        // Given
+
+        heartbeat(nodeA);
+        heartbeat(nodeB);
+
+        // When
+
+        transactionTemplate.executeWithoutResult(transactionStatus -> nodeA.releaseAll());
+        List<String> acquiredLeases = heartbeat(nodeB);
+
+        // Then
+
+        assertThat(acquiredLeases).containsExactly(LeaseManager.LIVE_LEASE, LeaseManager.REPLAY_LEASE);
+        assertThat(findLeases()).containsExactly("live node-b 2", "replay node-b 2");
+    }
+
+    private List<String> heartbeat(LeaseManager leaseManager) {
+
+        return transactionTemplate.execute(transactionStatus -> leaseManager.heartbeat());
+    }
+
+    private List<String> findLeases() {
+
+        return jdbcTemplate.query(
+                "SELECT name, owner_id, fencing_token FROM lease ORDER BY name",
+                (row, rowNumber) ->
+                        row.getString("name") + " " + row.getString("owner_id") + " " + row.getLong("fencing_token"));
+    }
+}
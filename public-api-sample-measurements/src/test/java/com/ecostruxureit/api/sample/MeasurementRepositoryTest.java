@@ -0,0 +1,81 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import generated.dto.Measurement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+class MeasurementRepositoryTest {
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+    }
+
+    @ParameterizedTest
+    @EnumSource(MeasurementWriteStrategy.class)
+    void givenStoredMeasurements_whenBatchInsertOrUpdate_thenNewMeasurementsAreInsertedAndTheLastOfEachKeyWins(
+            MeasurementWriteStrategy writeStrategy) {
+
+        // Given
+
+        transactionTemplate.executeWithoutResult(transactionStatus -> measurementRepository.batchInsertOrUpdate(
+                List.of(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 2L, 2d)),
+                MeasurementWriteStrategy.BATCHED_MERGE));
+
+        // More rows than fit in a single multi-row statement, values that need quoting in a CSV file, a stored measurement that is
+        // updated, and a new measurement that occurs twice.
+        List<Measurement> measurements = new ArrayList<>();
+
+        for (long timestamp = 10; timestamp < 1_010; timestamp++) {
+            measurements.add(testHelper.createMeasurement("otherSensorId", timestamp, (double) timestamp));
+        }
+
+        measurements.add(testHelper.createMeasurement("sensorId", 2L, "\"quoted\", with comma\nand newline"));
+        measurements.add(testHelper.createMeasurement("sensorId", 3L, ""));
+        measurements.add(testHelper.createMeasurement("sensorId", 4L, 4d));
+        measurements.add(testHelper.createMeasurement("sensorId", 4L, 5d));
+
+        // When
+
+        transactionTemplate.executeWithoutResult(
+                transactionStatus -> measurementRepository.batchInsertOrUpdate(measurements, writeStrategy));
+
+        // Then
+
+        List<Measurement> storedMeasurements = testHelper.findMeasurements();
+
+        assertThat(storedMeasurements).hasSize(1_004);
+        assertThat(storedMeasurements)
+                .contains(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 2L, "\"quoted\", with comma\nand newline"),
+                        testHelper.createMeasurement("sensorId", 3L, ""),
+                        testHelper.createMeasurement("sensorId", 4L, 5d),
+                        testHelper.createMeasurement("otherSensorId", 10L, 10d),
+                        testHelper.createMeasurement("otherSensorId", 1_009L, 1_009d));
+    }
+}
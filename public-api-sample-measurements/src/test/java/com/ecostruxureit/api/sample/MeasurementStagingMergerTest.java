@@ -0,0 +1,127 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+@TestPropertySource(properties = "stagingMergeChunkSize=2")
+class MeasurementStagingMergerTest {
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private MeasurementStagingMerger measurementStagingMerger;
+
+    @Autowired
+    private SensorStatisticsService sensorStatisticsService;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @Autowired
+    private HotMeasurementTier hotMeasurementTier;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+    }
+
+    @Test
+    void givenStagedMeasurements_whenMerged_thenMissingMeasurementsAreInsertedOnceAndStagingIsEmptied() {
+
+        // Given
+
+        measurementLiveService.saveMeasurements(List.of(testHelper.createMeasurement("sensorId", 1L, 1d)));
+
+        // A measurement that already exists, a measurement staged twice, and measurements only staged once (more than one chunk in total).
+        testHelper.stageMeasurements(
+                testHelper.createMeasurement("sensorId", 1L, 1d),
+                testHelper.createMeasurement("sensorId", 2L, 2d),
+                testHelper.createMeasurement("sensorId", 2L, 2d),
+                testHelper.createMeasurement("sensorId", 3L, 3d),
+                testHelper.createMeasurement("otherSensorId", 3L, "stringValue"));
+
+        // When
+
+        measurementStagingMerger.mergeStagedMeasurements();
+
+        // Then
+
+        assertThat(testHelper.findMeasurements())
+                .containsExactlyInAnyOrder(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 2L, 2d),
+                        testHelper.createMeasurement("sensorId", 3L, 3d),
+                        testHelper.createMeasurement("otherSensorId", 3L, "stringValue"));
+
+        assertThat(testHelper.countStagedMeasurements()).isZero();
+
+        // The range covers a whole statistics bucket, so the statistics maintained while merging are used.
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.EPOCH.plus(Duration.ofHours(1)));
+
+        assertThat(summary.getCount()).isEqualTo(3);
+        assertThat(summary.getMean()).isEqualTo(2);
+    }
+
+    @Test
+    void givenStagedMeasurementWithAnotherValueThanStored_whenMerged_thenOnlyMergedMeasurementsAreAddedToStatisticsAndHotTier() {
+
+        // Given
+
+        Instant bucketStart = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        long timestamp = bucketStart.toEpochMilli();
+
+        measurementLiveService.saveMeasurements(List.of(testHelper.createMeasurement("sensorId", timestamp, 10d)));
+
+        testHelper.stageMeasurements(
+                testHelper.createMeasurement("sensorId", timestamp, 99d),
+                testHelper.createMeasurement("sensorId", timestamp + 1, 2d),
+                testHelper.createMeasurement("sensorId", timestamp + 1, 5d));
+
+        // When
+
+        measurementStagingMerger.mergeStagedMeasurements();
+
+        // Then
+
+        assertThat(testHelper.findMeasurements())
+                .containsExactlyInAnyOrder(
+                        testHelper.createMeasurement("sensorId", timestamp, 10d),
+                        testHelper.createMeasurement("sensorId", timestamp + 1, 2d));
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", bucketStart, bucketStart.plus(Duration.ofHours(1)));
+
+        assertThat(summary.getCount()).isEqualTo(2);
+        assertThat(summary.getMean()).isEqualTo(6);
+
+        List<Double> hotValues = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> hotMeasurementTier.forEachNumericValue(
+                "sensorId",
+                bucketStart,
+                bucketStart.plus(Duration.ofHours(1)),
+                (sensorId, instant, numericValue) -> hotValues.add(numericValue)));
+
+        assertThat(hotValues).containsExactly(10d, 2d);
+    }
+}
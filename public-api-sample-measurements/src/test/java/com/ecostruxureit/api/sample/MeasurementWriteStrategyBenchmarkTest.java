@@ -0,0 +1,103 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Measurement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Compares the throughput and commit latency of the {@link MeasurementWriteStrategy} values at different batch sizes, using a database
+ * stored on disk in the {@code target} directory. Turned off via the @Disabled annotation since it takes a while to run.
+ * <p>
+ * Each batch is written in its own transaction, and half of the measurements of a batch replace already stored measurements (like when the
+ * live measurements stream is reconnected and measurements are received again).
+ */
+@Disabled("Only for manual use")
+@ActiveProfiles(Profiles.TEST)
+@SpringBootTest
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:file:./target/write-strategy-benchmark")
+class MeasurementWriteStrategyBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementWriteStrategyBenchmarkTest.class);
+
+    private static final int SENSOR_COUNT = 1_000;
+
+    private static final int MEASUREMENTS_PER_RUN = 100_000;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @Test
+    void compareWriteStrategies() {
+
+        for (int batchSize : new int[] {10, 100, 1_000}) {
+            for (MeasurementWriteStrategy writeStrategy : MeasurementWriteStrategy.values()) {
+
+                testHelper.truncateTables();
+
+                int batchCount = MEASUREMENTS_PER_RUN / batchSize;
+                long[] commitLatencyInNanos = new long[batchCount];
+                long startedAtNanos = System.nanoTime();
+
+                for (int batch = 0; batch < batchCount; batch++) {
+                    List<Measurement> measurements = createBatch(batch, batchSize);
+
+                    TransactionStatus transactionStatus =
+                            transactionManager.getTransaction(new DefaultTransactionDefinition());
+                    measurementRepository.batchInsertOrUpdate(measurements, writeStrategy);
+
+                    long commitStartedAtNanos = System.nanoTime();
+                    transactionManager.commit(transactionStatus);
+                    commitLatencyInNanos[batch] = System.nanoTime() - commitStartedAtNanos;
+                }
+
+                long elapsedInNanos = System.nanoTime() - startedAtNanos;
+                Arrays.sort(commitLatencyInNanos);
+
+                LOGGER.info(
+                        "{} with batch size {}: {} rows/s, commit latency median {} us, p99 {} us",
+                        writeStrategy,
+                        batchSize,
+                        MEASUREMENTS_PER_RUN * TimeUnit.SECONDS.toNanos(1) / elapsedInNanos,
+                        TimeUnit.NANOSECONDS.toMicros(commitLatencyInNanos[batchCount / 2]),
+                        TimeUnit.NANOSECONDS.toMicros(commitLatencyInNanos[batchCount * 99 / 100]));
+            }
+        }
+    }
+
+    /**
+     * Creates a batch where the first half are new measurements and the second half are measurements from the previous batch.
+     */
+    private List<Measurement> createBatch(int batch, int batchSize) {
+
+        List<Measurement> measurements = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < batchSize; i++) {
+            int index = i < batchSize / 2 ? batch * batchSize + i : (batch - 1) * batchSize + i - batchSize / 2;
+            index = Math.max(0, index);
+            measurements.add(testHelper.createMeasurement(
+                    "sensor" + index % SENSOR_COUNT, index / SENSOR_COUNT, (double) batch));
+        }
+
+        return measurements;
+    }
+}
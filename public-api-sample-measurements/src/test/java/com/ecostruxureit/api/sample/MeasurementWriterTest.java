@@ -0,0 +1,189 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import generated.dto.Measurement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+class MeasurementWriterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementWriterTest.class);
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+    }
+
+    @Test
+    void givenSeveralShards_whenWriting_thenOrderPerSensorIsPreservedAndCheckpointsArePerformedInOrder() {
+
+        // Given
+
+        MeasurementWriter measurementWriter = new MeasurementWriter(4, measurementLiveService, transactionTemplate);
+        List<Integer> checkpoints = new CopyOnWriteArrayList<>();
+
+        // When
+
+        // Each batch overwrites the values of the previous batch, so only the values of the last batch remain if the order is preserved.
+        try {
+            for (int batch = 1; batch <= 20; batch++) {
+                List<Measurement> measurements = new ArrayList<>();
+                for (int sensor = 0; sensor < 10; sensor++) {
+                    measurements.add(testHelper.createMeasurement("sensor" + sensor, 1L, (double) batch));
+                }
+                int checkpoint = batch;
+                measurementWriter.write(measurements, () -> checkpoints.add(checkpoint));
+            }
+            measurementWriter.awaitPendingWrites();
+        } finally {
+            measurementWriter.shutdown();
+        }
+
+        // Then
+
+        assertThat(testHelper.findMeasurements())
+                .hasSize(10)
+                .allSatisfy(measurement -> assertThat(measurement.getNumericValue()).isEqualTo(20d));
+
+        assertThat(checkpoints).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20);
+    }
+
+    @Test
+    void givenSeveralShards_whenWriting_thenAfterCommitActionsRunInOrderOnceTheirBatchIsCommitted() {
+
+        // Given
+
+        MeasurementWriter measurementWriter = new MeasurementWriter(4, measurementLiveService, transactionTemplate);
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        List<Integer> committedMeasurementCounts = new CopyOnWriteArrayList<>();
+
+        // When
+
+        try {
+            for (int batch = 1; batch <= 5; batch++) {
+                List<Measurement> measurements = new ArrayList<>();
+                for (int sensor = 0; sensor < 10; sensor++) {
+                    measurements.add(testHelper.createMeasurement("sensor" + sensor, batch, (double) batch));
+                }
+                int afterCommitBatch = batch;
+                measurementWriter.write(measurements, null, () -> {
+                    batches.add(afterCommitBatch);
+                    committedMeasurementCounts.add(testHelper.findMeasurements().size());
+                });
+            }
+            measurementWriter.awaitPendingWrites();
+        } finally {
+            measurementWriter.shutdown();
+        }
+
+        // Then
+
+        assertThat(batches).containsExactly(1, 2, 3, 4, 5);
+        for (int i = 0; i < committedMeasurementCounts.size(); i++) {
+            assertThat(committedMeasurementCounts.get(i)).isGreaterThanOrEqualTo((i + 1) * 10);
+        }
+    }
+
+    @Test
+    void givenSeveralShards_whenSavingFails_thenAfterCommitActionsOfTheBatchAndLaterBatchesAreNotRun() {
+
+        // Given
+
+        MeasurementWriter measurementWriter = new MeasurementWriter(4, measurementLiveService, transactionTemplate);
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+
+        Measurement measurementWithoutTimestamp = new Measurement();
+        measurementWithoutTimestamp.setSensorId("sensor1");
+
+        // When
+
+        try {
+            measurementWriter.write(
+                    List.of(testHelper.createMeasurement("sensor0", 1L, 1d)), null, () -> batches.add(1));
+            measurementWriter.write(List.of(measurementWithoutTimestamp), null, () -> batches.add(2));
+
+            // The failure is rethrown either when the third batch is written or when waiting for it
+            assertThatThrownBy(() -> {
+                        measurementWriter.write(
+                                List.of(testHelper.createMeasurement("sensor0", 3L, 3d)), null, () -> batches.add(3));
+                        measurementWriter.awaitPendingWrites();
+                    })
+                    .isInstanceOf(RuntimeException.class);
+        } finally {
+            measurementWriter.shutdown();
+        }
+
+        // Then
+
+        assertThat(batches).containsExactly(1);
+    }
+
+    @Disabled("Only for manual use")
+    @Test
+    void measureThroughputForDifferentNumbersOfShards() {
+
+        int sensorCount = 1_000;
+        int batchSize = 100;
+        int batchCount = 2_000;
+
+        for (int shardCount : new int[] {1, 2, 4, 8}) {
+
+            testHelper.truncateTables();
+
+            MeasurementWriter measurementWriter =
+                    new MeasurementWriter(shardCount, measurementLiveService, transactionTemplate);
+
+            long startedAtNanos = System.nanoTime();
+
+            try {
+                for (int batch = 0; batch < batchCount; batch++) {
+                    List<Measurement> measurements = new ArrayList<>(batchSize);
+                    for (int i = 0; i < batchSize; i++) {
+                        int index = batch * batchSize + i;
+                        measurements.add(testHelper.createMeasurement(
+                                "sensor" + index % sensorCount, index / sensorCount, (double) index));
+                    }
+                    measurementWriter.write(measurements, batch % 10 == 0 ? () -> {} : null);
+                }
+                measurementWriter.awaitPendingWrites();
+            } finally {
+                measurementWriter.shutdown();
+            }
+
+            long elapsedInMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+
+            LOGGER.info(
+                    "{} shard(s): {} measurements in {} ms ({} measurements/s)",
+                    shardCount,
+                    batchSize * batchCount,
+                    elapsedInMilliseconds,
+                    batchSize * batchCount * 1_000L / Math.max(1, elapsedInMilliseconds));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock that only moves when told to.
+ */
+final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+
+        this.instant = instant;
+    }
+
+    void setInstant(Instant instant) {
+
+        this.instant = instant;
+    }
+
+    void advance(Duration duration) {
+
+        this.instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+
+        return instant;
+    }
+}
@@ -0,0 +1,133 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+
+    private static final int VALUE_COUNT = 100_000;
+
+    /**
+     * The rank error of the sketch is well below 2% for the default k, so 2% of the value range is a safe tolerance for uniform values.
+     */
+    private static final double TOLERANCE = 0.02 * VALUE_COUNT;
+
+    @Test
+    void whenValuesAreAdded_thenQuantilesAreApproximatelyCorrect() {
+
+        // Given
+
+        QuantileSketch sketch = new QuantileSketch();
+
+        // When
+
+        for (int value : shuffledValues()) {
+            sketch.add(value);
+        }
+
+        // Then
+
+        assertThat(sketch.getCount()).isEqualTo(VALUE_COUNT);
+        assertThat(sketch.getQuantile(0.50)).isCloseTo(0.50 * VALUE_COUNT, within(TOLERANCE));
+        assertThat(sketch.getQuantile(0.95)).isCloseTo(0.95 * VALUE_COUNT, within(TOLERANCE));
+        assertThat(sketch.getQuantile(0.99)).isCloseTo(0.99 * VALUE_COUNT, within(TOLERANCE));
+        assertThat(sketch.toBytes().length).isLessThan(10_000);
+    }
+
+    @Test
+    void whenSketchesAreMerged_thenQuantilesCoverAllValues() {
+
+        // Given
+
+        QuantileSketch lowerSketch = new QuantileSketch();
+        QuantileSketch upperSketch = new QuantileSketch();
+
+        for (int value : shuffledValues()) {
+            (value < VALUE_COUNT / 2 ? lowerSketch : upperSketch).add(value);
+        }
+
+        // When
+
+        lowerSketch.merge(upperSketch);
+
+        // Then
+
+        assertThat(lowerSketch.getCount()).isEqualTo(VALUE_COUNT);
+        assertThat(lowerSketch.getQuantile(0.25)).isCloseTo(0.25 * VALUE_COUNT, within(TOLERANCE));
+        assertThat(lowerSketch.getQuantile(0.75)).isCloseTo(0.75 * VALUE_COUNT, within(TOLERANCE));
+    }
+
+    @Test
+    void whenSketchIsSerialized_thenDeserializedSketchReturnsSameQuantiles() {
+
+        // Given
+
+        QuantileSketch sketch = new QuantileSketch();
+
+        for (int value : shuffledValues()) {
+            sketch.add(value);
+        }
+
+        // When
+
+        QuantileSketch deserializedSketch = QuantileSketch.fromBytes(sketch.toBytes());
+
+        // Then
+
+        assertThat(deserializedSketch.getCount()).isEqualTo(sketch.getCount());
+        assertThat(deserializedSketch.getQuantile(0.95)).isEqualTo(sketch.getQuantile(0.95));
+    }
+
+    @Test
+    void whenRunningStatisticsAreMerged_thenResultEqualsStatisticsOfAllValues() {
+
+        // Given
+
+        RunningStatistics all = new RunningStatistics();
+        RunningStatistics first = new RunningStatistics();
+        RunningStatistics second = new RunningStatistics();
+
+        double[] values = {4, 7, 13, 16, 1, 2, 30};
+
+        for (int i = 0; i < values.length; i++) {
+            all.add(values[i]);
+            (i < 3 ? first : second).add(values[i]);
+        }
+
+        // When
+
+        first.merge(second);
+
+        // Then
+
+        assertThat(first.getCount()).isEqualTo(all.getCount());
+        assertThat(first.getMinimum()).isEqualTo(1);
+        assertThat(first.getMaximum()).isEqualTo(30);
+        assertThat(first.getMean()).isCloseTo(all.getMean(), within(1e-9));
+        assertThat(first.getVariance()).isCloseTo(all.getVariance(), within(1e-9));
+    }
+
+    private static int[] shuffledValues() {
+
+        int[] values = new int[VALUE_COUNT];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+
+        Random random = new Random(42);
+
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,194 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import generated.dto.Measurement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+class RetentionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-10T00:00:00Z");
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private RetentionRepository retentionRepository;
+
+    @Autowired
+    private SensorLivenessRepository sensorLivenessRepository;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    private final MeasurementWriter measurementWriter = mock(MeasurementWriter.class);
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+
+        when(measurementWriter.getRecentWriteLatency()).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    void givenMeasurementsOfSeveralSensors_whenEnforcingRetention_thenOnlyExpiredMeasurementsAreDeletedInChunks()
+            throws InterruptedException {
+
+        // Given
+
+        List<Measurement> measurements = new ArrayList<>();
+
+        for (String sensorId : List.of("sensor1", "sensor2", "sensor3")) {
+            for (int day = 1; day <= 9; day++) {
+                measurements.add(testHelper.createMeasurement(sensorId, daysAgo(day).toEpochMilli(), (double) day));
+            }
+        }
+
+        measurementLiveService.saveMeasurements(measurements);
+
+        // Keep the measurements of the last 3 days, deleting at most 2 rows per chunk.
+        RetentionService retentionService =
+                createRetentionService(Map.of(RetainedTable.MEASUREMENT, Duration.ofDays(3)));
+
+        // When
+
+        long deletedRowCount = retentionService.enforceRetention();
+
+        // Then
+
+        assertThat(deletedRowCount).isEqualTo(3 * 6);
+        assertThat(testHelper.findMeasurements())
+                .map(measurement -> measurement.getSensorId() + " " + measurement.getNumericValue())
+                .containsExactlyInAnyOrder(
+                        "sensor1 1.0", "sensor1 2.0", "sensor1 3.0",
+                        "sensor2 1.0", "sensor2 2.0", "sensor2 3.0",
+                        "sensor3 1.0", "sensor3 2.0", "sensor3 3.0");
+        assertThat(countRows("sensor_statistics")).isEqualTo(3 * 9);
+    }
+
+    @Test
+    void givenLivenessEventsAndPendingReplays_whenEnforcingRetention_thenExpiredRowsAreDeleted()
+            throws InterruptedException {
+
+        // Given
+
+        List<SensorLivenessEvent> events = List.of(
+                new SensorLivenessEvent("sensorId", SensorLivenessEventType.SILENT, daysAgo(5), daysAgo(6)),
+                new SensorLivenessEvent("sensorId", SensorLivenessEventType.RECOVERED, daysAgo(4), daysAgo(4)),
+                new SensorLivenessEvent("sensorId", SensorLivenessEventType.SILENT, daysAgo(1), daysAgo(2)));
+        transactionTemplate.executeWithoutResult(
+                transactionStatus -> sensorLivenessRepository.batchInsertEvents(events));
+
+        insertReplay("latestOffset", "", daysAgo(5));
+        insertReplay("fromOffset1", "toOffset1", daysAgo(5));
+        insertReplay("fromOffset2", "toOffset2", daysAgo(1));
+
+        RetentionService retentionService = new RetentionService(
+                Map.of(RetainedTable.SENSOR_LIVENESS_EVENT, Duration.ofDays(3)),
+                Duration.ofDays(3),
+                2,
+                Duration.ofMillis(100),
+                retentionRepository,
+                measurementWriter,
+                leaseManager,
+                transactionTemplate,
+                new MutableClock(NOW));
+
+        // When
+
+        long deletedRowCount = retentionService.enforceRetention();
+
+        // Then
+
+        assertThat(deletedRowCount).isEqualTo(3);
+        assertThat(countRows("sensor_liveness_event")).isEqualTo(1);
+        // The latest offset received is kept, however old it is.
+        assertThat(jdbcTemplate.queryForList("SELECT from_offset FROM replay ORDER BY from_offset", String.class))
+                .containsExactly("fromOffset2", "latestOffset");
+    }
+
+    @Test
+    void givenSlowLiveWrites_whenEnforcingRetention_thenRetentionWaitsForThem() throws InterruptedException {
+
+        // Given
+
+        measurementLiveService.saveMeasurements(
+                List.of(testHelper.createMeasurement("sensorId", daysAgo(5).toEpochMilli(), 1d)));
+
+        when(measurementWriter.getRecentWriteLatency()).thenReturn(Duration.ofSeconds(1), Duration.ZERO);
+
+        RetentionService retentionService =
+                createRetentionService(Map.of(RetainedTable.MEASUREMENT, Duration.ofDays(3)));
+
+        // When
+
+        long deletedRowCount = retentionService.enforceRetention();
+
+        // Then
+
+        assertThat(deletedRowCount).isEqualTo(1);
+        verify(measurementWriter, times(2)).getRecentWriteLatency();
+    }
+
+    private RetentionService createRetentionService(Map<RetainedTable, Duration> retentions) {
+
+        return new RetentionService(
+                retentions,
+                Duration.ZERO,
+                2,
+                Duration.ofMillis(100),
+                retentionRepository,
+                measurementWriter,
+                leaseManager,
+                transactionTemplate,
+                new MutableClock(NOW));
+    }
+
+    private void insertReplay(String fromOffset, String toOffset, Instant createdAt) {
+
+        jdbcTemplate.update(
+                "INSERT INTO replay (from_offset, to_offset, created_at) VALUES (?, ?, ?)",
+                fromOffset,
+                toOffset,
+                Timestamp.from(createdAt));
+    }
+
+    private int countRows(String tableName) {
+
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName, Integer.class);
+    }
+
+    private static Instant daysAgo(int days) {
+
+        return NOW.minus(Duration.ofDays(days));
+    }
+}
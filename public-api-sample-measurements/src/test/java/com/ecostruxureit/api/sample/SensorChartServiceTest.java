@@ -0,0 +1,147 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import generated.dto.Measurement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+@TestPropertySource(properties = "statisticsBucketSizeInMinutes=1")
+class SensorChartServiceTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toMillis();
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private SensorChartService sensorChartService;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+    }
+
+    @Test
+    void givenFewerMeasurementsThanMaxPoints_whenDownsampling_thenAllMeasurementsAreReturned() {
+
+        // Given
+
+        measurementLiveService.saveMeasurements(List.of(
+                testHelper.createMeasurement("sensorId", 2 * SECOND, 2d),
+                testHelper.createMeasurement("sensorId", SECOND, 1d),
+                testHelper.createMeasurement("sensorId", 3 * SECOND, "not numeric")));
+
+        // When
+
+        List<ChartPoint> points = downsample(10 * SECOND, 10, DownsamplingMode.LTTB);
+
+        // Then
+
+        assertThat(points)
+                .map(ChartPoint::toString)
+                .containsExactly("1970-01-01T00:00:01Z=1.0", "1970-01-01T00:00:02Z=2.0");
+    }
+
+    @Test
+    void givenManyMeasurements_whenDownsamplingWithLttb_thenFirstLastAndPeaksAreKept() {
+
+        // Given
+
+        saveFlatSeriesWithPeaks(1_000);
+
+        // When
+
+        List<ChartPoint> points = downsample(1_000 * SECOND, 10, DownsamplingMode.LTTB);
+
+        // Then
+
+        assertThat(points).hasSizeLessThanOrEqualTo(10);
+        assertThat(points).isSortedAccordingTo((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
+        assertThat(points.get(0)).hasToString("1970-01-01T00:00:00Z=0.0");
+        assertThat(points.get(points.size() - 1)).hasToString("1970-01-01T00:16:39Z=0.0");
+        assertThat(points)
+                .map(ChartPoint::toString)
+                .contains("1970-01-01T00:08:20Z=100.0", "1970-01-01T00:11:40Z=-50.0");
+    }
+
+    @Test
+    void givenManyMeasurements_whenDownsamplingWithMinMax_thenMinimumAndMaximumOfEachBucketAreKept() {
+
+        // Given
+
+        saveFlatSeriesWithPeaks(1_000);
+
+        // When
+
+        // 20 buckets of 50 seconds, which are shorter than the statistics buckets.
+        List<ChartPoint> points = downsample(1_000 * SECOND, 40, DownsamplingMode.MIN_MAX);
+
+        // Then
+
+        assertThat(points).hasSizeLessThanOrEqualTo(40);
+        assertThat(points).isSortedAccordingTo((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
+        assertThat(points)
+                .map(ChartPoint::toString)
+                .contains("1970-01-01T00:08:20Z=100.0", "1970-01-01T00:11:40Z=-50.0");
+    }
+
+    @Test
+    void givenBucketsLongerThanStatisticsBuckets_whenDownsamplingWithMinMax_thenStatisticsBucketsAreUsed() {
+
+        // Given
+
+        List<Measurement> measurements = new ArrayList<>();
+
+        for (int second = 0; second < 3_600; second += 10) {
+            measurements.add(testHelper.createMeasurement("sensorId", second * SECOND, second == 1_820 ? 100d : 0d));
+        }
+
+        measurementLiveService.saveMeasurements(measurements);
+
+        // When
+
+        // 5 buckets of 12 minutes, which each contain 12 statistics buckets of 1 minute.
+        List<ChartPoint> points = downsample(60 * MINUTE, 10, DownsamplingMode.MIN_MAX);
+
+        // Then
+
+        // The timestamp is the start of the statistics bucket containing the maximum.
+        assertThat(points).map(ChartPoint::toString).contains("1970-01-01T00:30:00Z=100.0");
+    }
+
+    private void saveFlatSeriesWithPeaks(int seconds) {
+
+        List<Measurement> measurements = new ArrayList<>();
+
+        for (int second = 0; second < seconds; second++) {
+            double value = second == 500 ? 100d : second == 700 ? -50d : 0d;
+            measurements.add(testHelper.createMeasurement("sensorId", second * SECOND, value));
+        }
+
+        measurementLiveService.saveMeasurements(measurements);
+    }
+
+    private List<ChartPoint> downsample(long toMilliseconds, int maxPoints, DownsamplingMode mode) {
+
+        return sensorChartService.downsample(
+                "sensorId", Instant.EPOCH, Instant.ofEpochMilli(toMilliseconds), maxPoints, mode);
+    }
+}
@@ -0,0 +1,201 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import generated.dto.Measurement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SensorLivenessMonitorTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final SensorLivenessRepository sensorLivenessRepository = mock(SensorLivenessRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MutableClock clock = new MutableClock(STARTED_AT);
+
+    private final List<String> events = new ArrayList<>();
+
+    private final List<String> gaps = new ArrayList<>();
+
+    private SensorLivenessMonitor sensorLivenessMonitor;
+
+    @BeforeEach
+    void beforeEach() {
+
+        recordWrittenEventsAndGaps();
+
+        // Silent after 3 times the reporting interval, but at least 60 seconds.
+        sensorLivenessMonitor = new SensorLivenessMonitor(
+                true, 3, Duration.ofSeconds(60), sensorLivenessRepository, meterRegistry, clock);
+    }
+
+    private void recordWrittenEventsAndGaps() {
+
+        doAnswer(invocation -> {
+                    List<SensorLivenessEvent> insertedEvents = invocation.getArgument(0);
+                    insertedEvents.forEach(event -> events.add(event.getSensorId() + " " + event.getType() + " at "
+                            + secondsSinceStart(event.getOccurredAt()) + ", last seen "
+                            + secondsSinceStart(event.getLastSeen())));
+                    return null;
+                })
+                .when(sensorLivenessRepository)
+                .batchInsertEvents(any());
+
+        doAnswer(invocation -> {
+                    List<SensorGap> insertedGaps = invocation.getArgument(0);
+                    insertedGaps.forEach(gap -> gaps.add(gap.getSensorId() + " from " + secondsSinceStart(gap.getFrom())
+                            + " to " + secondsSinceStart(gap.getTo())
+                            + (gap.isLiveStreamInterrupted() ? " interrupted" : "")));
+                    return null;
+                })
+                .when(sensorLivenessRepository)
+                .batchInsertOrUpdateGaps(any());
+    }
+
+    @Test
+    void givenSensorsThatStopReporting_whenTicking_thenSilentAndRecoveredEventsAreFiredAfterTheirReportingIntervals() {
+
+        // Given
+
+        // "fast" reports every 10 seconds (silent after 60 seconds), "slow" every 60 seconds (silent after 180 seconds).
+        for (int second = 0; second <= 120; second += 10) {
+            List<Measurement> measurements = new ArrayList<>();
+            measurements.add(createMeasurement("fast", second));
+            if (second % 60 == 0) {
+                measurements.add(createMeasurement("slow", second));
+            }
+            receiveAt(second, measurements);
+        }
+
+        // When
+
+        tickEverySecondUntil(300);
+
+        // Then
+
+        assertThat(events).containsExactly("fast SILENT at 180, last seen 120", "slow SILENT at 300, last seen 120");
+        assertThat(sensorLivenessMonitor.findSilentSensors()).hasSize(2);
+        assertThat(meterRegistry.get(SensorLivenessMonitor.SILENT_SENSORS_METRIC).gauge().value())
+                .isEqualTo(2);
+
+        // When
+
+        events.clear();
+        receiveAt(400, List.of(createMeasurement("fast", 400)));
+        tickEverySecondUntil(401);
+
+        // Then
+
+        assertThat(events).containsExactly("fast RECOVERED at 400, last seen 400");
+        assertThat(gaps).containsExactly("fast from 120 to 400");
+        assertThat(sensorLivenessMonitor.findSilentSensors()).hasSize(1);
+    }
+
+    @Test
+    void givenLiveStreamDisconnected_whenTicking_thenSensorsAreNotSilentUntilTheStreamHasBeenConnectedForLongEnough() {
+
+        // Given
+
+        for (int second = 0; second <= 100; second += 10) {
+            receiveAt(second, List.of(createMeasurement("sensorId", second)));
+        }
+
+        sensorLivenessMonitor.onLiveStreamDisconnected();
+        tickEverySecondUntil(300);
+
+        // When
+
+        sensorLivenessMonitor.onLiveStreamConnected();
+        tickEverySecondUntil(359);
+
+        // Then
+
+        assertThat(events).isEmpty();
+
+        // When
+
+        tickEverySecondUntil(360);
+        receiveAt(400, List.of(createMeasurement("sensorId", 400)));
+        tickEverySecondUntil(401);
+
+        // Then
+
+        assertThat(events)
+                .containsExactly("sensorId SILENT at 360, last seen 100", "sensorId RECOVERED at 400, last seen 400");
+        assertThat(gaps).containsExactly("sensorId from 100 to 400 interrupted");
+    }
+
+    @Test
+    void givenWritingFails_whenTickingAgain_thenEventsAndGapsAreWrittenByTheNextTick() {
+
+        // Given
+
+        for (int second = 0; second <= 100; second += 10) {
+            receiveAt(second, List.of(createMeasurement("sensorId", second)));
+        }
+
+        tickEverySecondUntil(190);
+        events.clear();
+        receiveAt(200, List.of(createMeasurement("sensorId", 200)));
+
+        doThrow(new IllegalStateException("Database is unavailable"))
+                .when(sensorLivenessRepository)
+                .batchInsertEvents(any());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThatThrownBy(sensorLivenessMonitor::tick).isInstanceOf(IllegalStateException.class);
+
+        // When
+
+        recordWrittenEventsAndGaps();
+        tickEverySecondUntil(202);
+
+        // Then
+
+        assertThat(events).containsExactly("sensorId RECOVERED at 200, last seen 200");
+        assertThat(gaps).containsExactly("sensorId from 100 to 200");
+    }
+
+    private void receiveAt(int second, List<Measurement> measurements) {
+
+        tickEverySecondUntil(second);
+        sensorLivenessMonitor.recordLiveMeasurements(measurements);
+    }
+
+    private void tickEverySecondUntil(int second) {
+
+        while (clock.instant().isBefore(STARTED_AT.plusSeconds(second))) {
+            clock.advance(Duration.ofSeconds(1));
+            sensorLivenessMonitor.tick();
+        }
+    }
+
+    private static long secondsSinceStart(Instant instant) {
+
+        return Duration.between(STARTED_AT, instant).toSeconds();
+    }
+
+    private static Measurement createMeasurement(String sensorId, int second) {
+
+        Measurement measurement = new Measurement();
+        measurement.setSensorId(sensorId);
+        measurement.setTimestamp(STARTED_AT.plusSeconds(second).atOffset(ZoneOffset.UTC));
+        measurement.setNumericValue(1d);
+        return measurement;
+    }
+}
@@ -0,0 +1,274 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import generated.dto.Measurement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles(Profiles.TEST)
+@TestPropertySource(properties = "statisticsBucketSizeInMinutes=1")
+class SensorStatisticsServiceTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Autowired
+    private MeasurementLiveService measurementLiveService;
+
+    @Autowired
+    private SensorStatisticsService sensorStatisticsService;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private TestHelper testHelper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+
+        testHelper.truncateTables();
+    }
+
+    @Test
+    void whenMeasurementsAreSaved_thenStatisticsAreCalculatedForRangeSpanningSeveralBuckets() {
+
+        // Given
+
+        // 1, 2, ..., 10 spread over 5 one-minute buckets with 2 values each.
+        for (int i = 0; i < 10; i++) {
+            saveMeasurements(testHelper.createMeasurement("sensorId", i * MINUTE / 2, (double) (i + 1)));
+        }
+
+        // When
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(5 * MINUTE));
+
+        // Then
+
+        assertThat(summary.getCount()).isEqualTo(10);
+        assertThat(summary.getMinimum()).isEqualTo(1);
+        assertThat(summary.getMaximum()).isEqualTo(10);
+        assertThat(summary.getMean()).isEqualTo(5.5);
+        assertThat(summary.getVariance()).isEqualTo(8.25);
+        assertThat(summary.getP50()).isEqualTo(5);
+        assertThat(summary.getP99()).isEqualTo(10);
+    }
+
+    @Test
+    void whenRangeStartsAndEndsWithinBuckets_thenOnlyMeasurementsWithinRangeAreIncluded() {
+
+        // Given
+
+        for (int i = 0; i < 10; i++) {
+            saveMeasurements(testHelper.createMeasurement("sensorId", i * MINUTE / 2, (double) (i + 1)));
+        }
+
+        // When
+
+        SensorStatisticsSummary summary = sensorStatisticsService.summarize(
+                "sensorId", Instant.ofEpochMilli(MINUTE / 2), Instant.ofEpochMilli(4 * MINUTE));
+
+        // Then
+
+        assertThat(summary.getCount()).isEqualTo(7);
+        assertThat(summary.getMinimum()).isEqualTo(2);
+        assertThat(summary.getMaximum()).isEqualTo(8);
+    }
+
+    @Test
+    void whenSameMeasurementIsSavedTwice_thenItIsOnlyCountedOnce() {
+
+        // Given
+
+        Measurement measurement = testHelper.createMeasurement("sensorId", 1L, 42d);
+
+        // When
+
+        saveMeasurements(measurement, measurement);
+        saveMeasurements(measurement);
+
+        // Then
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(MINUTE));
+
+        assertThat(summary.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenMeasurementIsSavedAgainWithAnotherValue_thenLastValueWinsLikeInTheMeasurementTable() {
+
+        // Given
+
+        saveMeasurements(
+                testHelper.createMeasurement("sensorId", 1L, 10d),
+                testHelper.createMeasurement("sensorId", 2L, 20d),
+                testHelper.createMeasurement("sensorId", 3L, 30d));
+
+        // When
+
+        saveMeasurements(
+                testHelper.createMeasurement("sensorId", 1L, 15d),
+                testHelper.createMeasurement("sensorId", 2L, 5d),
+                testHelper.createMeasurement("sensorId", 2L, 25d),
+                testHelper.createMeasurement("sensorId", 4L, 40d));
+
+        // Then
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(MINUTE));
+
+        assertThat(summary.getCount()).isEqualTo(4);
+        assertThat(summary.getMinimum()).isEqualTo(15);
+        assertThat(summary.getMaximum()).isEqualTo(40);
+        assertThat(summary.getMean()).isEqualTo(27.5);
+        assertThat(testHelper.findMeasurements())
+                .extracting(Measurement::getNumericValue)
+                .containsExactlyInAnyOrder(15d, 25d, 30d, 40d);
+    }
+
+    @Test
+    void whenTwoWritersAddToSameNewBucketConcurrently_thenBothAreCountedAndSharedMeasurementOnlyOnce() throws Exception {
+
+        // When
+
+        writeConcurrently(
+                List.of(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 3L, 3d)),
+                List.of(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 2L, 2d)));
+
+        // Then
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(MINUTE));
+
+        assertThat(summary.getCount()).isEqualTo(3);
+        assertThat(summary.getMean()).isEqualTo(2);
+    }
+
+    @Test
+    void whenTwoWritersAddToSameExistingBucketConcurrently_thenBothAreCountedAndSharedMeasurementOnlyOnce() throws Exception {
+
+        // Given
+
+        saveMeasurements(testHelper.createMeasurement("sensorId", 0L, 0d));
+
+        // When
+
+        writeConcurrently(
+                List.of(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 3L, 3d)),
+                List.of(
+                        testHelper.createMeasurement("sensorId", 1L, 1d),
+                        testHelper.createMeasurement("sensorId", 2L, 2d)));
+
+        // Then
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(MINUTE));
+
+        assertThat(summary.getCount()).isEqualTo(4);
+        assertThat(summary.getMean()).isEqualTo(1.5);
+    }
+
+    @Test
+    void whenStatisticsAreRebuilt_thenTheyMatchTheStatisticsMaintainedDuringIngest() {
+
+        // Given
+
+        for (int i = 0; i < 10; i++) {
+            saveMeasurements(
+                    testHelper.createMeasurement("sensorId", i * MINUTE / 2, (double) (i + 1)),
+                    testHelper.createMeasurement("otherSensorId", i * MINUTE / 2, "not a number"));
+        }
+
+        SensorStatisticsSummary summaryBeforeRebuild =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(5 * MINUTE));
+
+        // When
+
+        sensorStatisticsService.rebuild();
+
+        // Then
+
+        SensorStatisticsSummary summaryAfterRebuild =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(5 * MINUTE));
+
+        assertThat(summaryAfterRebuild).usingRecursiveComparison().isEqualTo(summaryBeforeRebuild);
+    }
+
+    @Test
+    void givenNoMeasurements_whenStatisticsAreCalculated_thenOnlyCountIsReturned() {
+
+        // When
+
+        SensorStatisticsSummary summary =
+                sensorStatisticsService.summarize("sensorId", Instant.EPOCH, Instant.ofEpochMilli(MINUTE));
+
+        // Then
+
+        assertThat(summary.getCount()).isZero();
+        assertThat(summary.getMean()).isNull();
+        assertThat(summary.getP95()).isNull();
+    }
+
+    /**
+     * Records the first measurements in a transaction, which waits a while before writing them, while the second measurements are saved by
+     * another thread, so that both record their measurements in the statistics before either has committed.
+     */
+    private void writeConcurrently(List<Measurement> firstMeasurements, List<Measurement> secondMeasurements)
+            throws Exception {
+
+        CountDownLatch firstMeasurementsRecorded = new CountDownLatch(1);
+
+        CompletableFuture<Void> secondWriter = CompletableFuture.runAsync(() -> {
+            try {
+                firstMeasurementsRecorded.await();
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            measurementLiveService.saveMeasurements(secondMeasurements);
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            sensorStatisticsService.recordMeasurements(firstMeasurements, true);
+            firstMeasurementsRecorded.countDown();
+            try {
+                // Gives the second writer time to reach the statistics.
+                Thread.sleep(500);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            measurementRepository.batchInsertOrUpdate(firstMeasurements);
+        });
+
+        secondWriter.get(10, TimeUnit.SECONDS);
+    }
+
+    private void saveMeasurements(Measurement... measurements) {
+
+        measurementLiveService.saveMeasurements(List.of(measurements));
+    }
+}
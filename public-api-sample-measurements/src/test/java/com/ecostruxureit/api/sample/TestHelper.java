@@ -35,16 +35,30 @@ public class TestHelper {
     @Autowired
     private MeasurementRepository measurementRepository;
 
+    @Autowired
+    private MeasurementStagingRepository measurementStagingRepository;
+
     @Autowired
     private ReplayRepository replayRepository;
 
     @Autowired
     private TransactionTemplate transactionTemplate;
 
+    @Autowired
+    private HotMeasurementTier hotMeasurementTier;
+
     void truncateTables() {
 
         jdbcTemplate.update("TRUNCATE TABLE measurement");
         jdbcTemplate.update("TRUNCATE TABLE replay");
+        jdbcTemplate.update("TRUNCATE TABLE sensor_statistics");
+        jdbcTemplate.update("TRUNCATE TABLE measurement_staging");
+        jdbcTemplate.update("TRUNCATE TABLE sensor_filter");
+        jdbcTemplate.update("TRUNCATE TABLE sensor_liveness_event");
+        jdbcTemplate.update("TRUNCATE TABLE sensor_gap");
+        jdbcTemplate.update("TRUNCATE TABLE lease");
+        jdbcTemplate.update("TRUNCATE TABLE lease_node");
+        hotMeasurementTier.clear();
     }
 
     void mockApiClientForLive(Measurement... measurements) throws ApiException {
@@ -68,6 +82,39 @@ public class TestHelper {
         doThrow(throwable).when(apiClient).retrieveLiveMeasurements(any());
     }
 
+    void mockApiClientForLive(Throwable throwable, Measurement... measurementsAfterThrowable) throws ApiException {
+
+        doThrow(throwable)
+                .doAnswer((invocation) -> {
+                    Consumer<Measurement> consumer = invocation.getArgument(0);
+
+                    for (Measurement measurement : measurementsAfterThrowable) {
+
+                        consumer.accept(measurement);
+                    }
+
+                    return null;
+                })
+                .when(apiClient)
+                .retrieveLiveMeasurements(any());
+    }
+
+    void mockApiClientForReingest(Measurement... measurements) throws ApiException {
+
+        doAnswer((invocation) -> {
+                    Consumer<Measurement> consumer = invocation.getArgument(1);
+
+                    for (Measurement measurement : measurements) {
+
+                        consumer.accept(measurement);
+                    }
+
+                    return null;
+                })
+                .when(apiClient)
+                .reingest(any(), any());
+    }
+
     void mockApiClientForReplay(String fromOffset, String toOffset, Measurement... measurements) throws ApiException {
 
         doAnswer((invocation) -> {
@@ -112,6 +159,19 @@ public class TestHelper {
         return runInTransaction(() -> measurementRepository.findAll());
     }
 
+    void stageMeasurements(Measurement... measurements) {
+
+        runInTransaction(() -> {
+            measurementStagingRepository.batchInsert(List.of(measurements));
+            return null;
+        });
+    }
+
+    long countStagedMeasurements() {
+
+        return runInTransaction(() -> measurementStagingRepository.count());
+    }
+
     void insertReplay(String fromOffset, String toOffset) {
 
         runInTransaction(() -> {
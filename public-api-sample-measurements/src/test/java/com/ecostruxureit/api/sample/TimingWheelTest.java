@@ -0,0 +1,100 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    private static final long START_TICK = 1_000_003;
+
+    @Test
+    void givenTimersAtAllLevels_whenAdvancing_thenEachTimerExpiresAtItsDeadline() {
+
+        // Given
+
+        TimingWheel<TestTimer> timingWheel = new TimingWheel<>(START_TICK);
+        Random random = new Random(42);
+        List<TestTimer> timers = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            timers.add(new TestTimer(START_TICK + 1 + random.nextInt(300_000)));
+        }
+        // Beyond the range of the wheel.
+        timers.add(new TestTimer(START_TICK + (1L << 24) + 12_345));
+
+        for (TestTimer timer : timers) {
+            timingWheel.schedule(timer, timer.deadline);
+        }
+
+        // When
+
+        long tick = START_TICK;
+
+        while (timingWheel.size() > 0) {
+            tick += 1 + random.nextInt(1_000);
+            long currentTick = tick;
+            timingWheel.advanceTo(tick, timer -> timer.expiredAtTick = currentTick);
+        }
+
+        // Then
+
+        for (TestTimer timer : timers) {
+            // The wheel is advanced several ticks at a time, so the timer expires by the end of the step containing its deadline.
+            assertThat(timer.expiredAtTick).isBetween(timer.deadline, timer.deadline + 999);
+        }
+    }
+
+    @Test
+    void givenRescheduledAndCancelledTimers_whenAdvancing_thenOnlyTheLatestDeadlinesExpire() {
+
+        // Given
+
+        TimingWheel<TestTimer> timingWheel = new TimingWheel<>(START_TICK);
+        TestTimer rescheduledTimer = new TestTimer(START_TICK + 10);
+        TestTimer cancelledTimer = new TestTimer(START_TICK + 10);
+        TestTimer overdueTimer = new TestTimer(START_TICK - 10);
+
+        timingWheel.schedule(rescheduledTimer, START_TICK + 10);
+        timingWheel.schedule(cancelledTimer, START_TICK + 10);
+        timingWheel.schedule(overdueTimer, START_TICK - 10);
+        timingWheel.schedule(rescheduledTimer, START_TICK + 5_000);
+        timingWheel.cancel(cancelledTimer);
+
+        // When
+
+        List<Long> expiredTicks = new ArrayList<>();
+
+        for (long tick = START_TICK + 1; tick <= START_TICK + 10_000; tick++) {
+            long currentTick = tick;
+            timingWheel.advanceTo(tick, timer -> {
+                timer.expiredAtTick = currentTick;
+                expiredTicks.add(currentTick);
+            });
+        }
+
+        // Then
+
+        assertThat(expiredTicks).containsExactly(START_TICK + 1, START_TICK + 5_000);
+        assertThat(overdueTimer.expiredAtTick).isEqualTo(START_TICK + 1);
+        assertThat(rescheduledTimer.expiredAtTick).isEqualTo(START_TICK + 5_000);
+        assertThat(cancelledTimer.isScheduled()).isFalse();
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    private static final class TestTimer extends TimingWheel.Timer {
+
+        private final long deadline;
+
+        private long expiredAtTick = -1;
+
+        TestTimer(long deadline) {
+
+            this.deadline = deadline;
+        }
+    }
+}
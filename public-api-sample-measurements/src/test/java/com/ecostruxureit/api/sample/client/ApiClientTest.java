@@ -1,7 +1,7 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample.client;
 
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doReturn;
 
 import com.ecostruxureit.api.sample.Configuration;
 import com.ecostruxureit.api.sample.Profiles;
@@ -17,7 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.ActiveProfiles;
 
 /**
@@ -41,11 +41,14 @@ class ApiClientTest {
     @Autowired
     private ApiClient apiClient;
 
-    @MockBean
+    /**
+     * A spy, so that the configuration properties that are not read from the file keep their defaults.
+     */
+    @SpyBean
     private Configuration configuration;
 
     @BeforeEach
-    void mockConfiguration() {
+    void stubConfiguration() {
 
         String pathToPropertiesFileInHomeDir = System.getProperty("user.home") + "/ApiClientTest.properties";
         pathToPropertiesFileInHomeDir =
@@ -59,9 +62,9 @@ class ApiClientTest {
             throw new RuntimeException(ex);
         }
 
-        when(configuration.getApiKey()).thenReturn(properties.getProperty("apiKey"));
-        when(configuration.getApiUrl()).thenReturn(properties.getProperty("apiUrl"));
-        when(configuration.getOrganizationId()).thenReturn(properties.getProperty("organizationId"));
+        doReturn(properties.getProperty("apiKey")).when(configuration).getApiKey();
+        doReturn(properties.getProperty("apiUrl")).when(configuration).getApiUrl();
+        doReturn(properties.getProperty("organizationId")).when(configuration).getOrganizationId();
     }
 
     @Test
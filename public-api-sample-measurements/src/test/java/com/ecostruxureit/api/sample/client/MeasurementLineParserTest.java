@@ -0,0 +1,90 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import generated.dto.Measurement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class MeasurementLineParserTest {
+
+    private final MeasurementLineParser measurementLineParser =
+            new MeasurementLineParser(JsonMapper.builder().findAndAddModules().build());
+
+    private final List<Measurement> measurements = new ArrayList<>();
+
+    private final List<String> offsets = new ArrayList<>();
+
+    private final MeasurementConsumer consumer = new MeasurementConsumer() {
+
+        @Override
+        public void accept(Measurement measurement) {
+
+            measurements.add(measurement);
+        }
+
+        @Override
+        public void acceptOffset(String offset) {
+
+            offsets.add(offset);
+        }
+    };
+
+    @Test
+    void givenAllowlist_whenParsing_thenOnlyAllowedSensorsAreDeserializedAndOffsetsOfRejectedOnesAreForwarded() {
+
+        // Given
+
+        SensorFilter sensorFilter = SensorFilter.allow(Set.of("allowed"));
+
+        // When
+
+        boolean[] results = {
+            measurementLineParser.parse(
+                    "{\"sensorId\":\"allowed\",\"timestamp\":\"2025-01-01T00:00:00Z\",\"numericValue\":1.0}",
+                    sensorFilter,
+                    consumer),
+            measurementLineParser.parse(
+                    "{\"sensorId\":\"rejected\",\"timestamp\":\"2025-01-01T00:00:00Z\",\"numericValue\":2.0}",
+                    sensorFilter,
+                    consumer),
+            // The offset comes before the sensor ID, and there is a nested value to skip.
+            measurementLineParser.parse(
+                    "{\"offset\":\"offset1\",\"extra\":{\"a\":[1,2]},\"sensorId\":\"rejected\",\"stringValue\":\"x\"}",
+                    sensorFilter,
+                    consumer),
+            measurementLineParser.parse(
+                    "{\"sensorId\":\"rejected\",\"stringValue\":\"x\",\"offset\":\"offset2\"}", sensorFilter, consumer),
+            measurementLineParser.parse("{\"replaySystemMessageType\":\"COMPLETED\"}", sensorFilter, consumer)
+        };
+
+        // Then
+
+        assertThat(results).containsExactly(true, true, true, true, false);
+        assertThat(measurements).extracting(Measurement::getSensorId).containsExactly("allowed");
+        assertThat(offsets).containsExactly("offset1", "offset2");
+    }
+
+    @Test
+    void givenDenylist_whenParsing_thenDeniedSensorsAreSkipped() {
+
+        // Given
+
+        SensorFilter sensorFilter = SensorFilter.deny(Set.of("denied"));
+
+        // When
+
+        measurementLineParser.parse("{\"sensorId\":\"denied\",\"numericValue\":1.0}", sensorFilter, consumer);
+        measurementLineParser.parse("{\"sensorId\":\"other\",\"numericValue\":2.0,\"offset\":\"o\"}", sensorFilter, consumer);
+
+        // Then
+
+        assertThat(measurements).extracting(Measurement::getSensorId).containsExactly("other");
+        assertThat(measurements).extracting(Measurement::getOffset).containsExactly("o");
+        assertThat(offsets).isEmpty();
+    }
+}
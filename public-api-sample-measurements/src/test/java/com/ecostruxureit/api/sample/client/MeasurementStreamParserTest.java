@@ -0,0 +1,271 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ecostruxureit.api.sample.client.MeasurementLineParser.ParsedLine;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import generated.dto.Measurement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class MeasurementStreamParserTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementStreamParserTest.class);
+
+    private static final String END_LINE = "{\"replaySystemMessageType\":\"COMPLETED\"}";
+
+    private final MeasurementLineParser measurementLineParser =
+            new MeasurementLineParser(JsonMapper.builder().findAndAddModules().build());
+
+    @Test
+    void givenParseWorkers_whenReading_thenConsumerReceivesTheSameSequenceAsWhenReadingSequentially() throws Exception {
+
+        // Given
+
+        byte[] stream = createStream(5_000, true);
+        SensorFilter sensorFilter = SensorFilter.deny(Set.of("sensor7"));
+
+        // When
+
+        List<String> sequential = read(stream, 1, sensorFilter);
+        List<String> parallel = read(stream, 4, sensorFilter);
+
+        // Then
+
+        // The measurements of sensor7 are skipped, but their offsets (on every 100th measurement) are still passed on.
+        assertThat(sequential).hasSize(4_500 + 50);
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    void givenStreamEndingWithoutEndLine_whenReadingInParallel_thenConnectionClosedExceptionIsThrownAfterAllMeasurements()
+            throws Exception {
+
+        // Given
+
+        byte[] stream = createStream(1_000, false);
+        List<Measurement> measurements = new ArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            MeasurementStreamParser measurementStreamParser =
+                    new MeasurementStreamParser(measurementLineParser, executorService, 2);
+
+            // When / Then
+
+            assertThatThrownBy(() -> measurementStreamParser.read(
+                            new ByteArrayInputStream(stream),
+                            () -> {},
+                            SensorFilter.ACCEPT_ALL,
+                            measurements::add,
+                            line -> false))
+                    .isInstanceOf(ConnectionClosedRetriableApiException.class);
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(measurements).hasSize(1_000);
+    }
+
+    @Test
+    void givenParsingFails_whenReadingInParallel_thenTheExceptionThrownByTheParserIsRethrown() {
+
+        // Given
+
+        byte[] stream = createStream(1_000, true);
+        IllegalArgumentException parseFailure = new IllegalArgumentException("Unparseable line");
+        MeasurementLineParser failingMeasurementLineParser =
+                new MeasurementLineParser(JsonMapper.builder().findAndAddModules().build()) {
+
+                    @Override
+                    ParsedLine parse(String line, SensorFilter sensorFilter) {
+
+                        throw parseFailure;
+                    }
+                };
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            MeasurementStreamParser measurementStreamParser =
+                    new MeasurementStreamParser(failingMeasurementLineParser, executorService, 2);
+
+            // When / Then
+
+            assertThatThrownBy(() -> measurementStreamParser.read(
+                            new ByteArrayInputStream(stream),
+                            () -> {},
+                            SensorFilter.ACCEPT_ALL,
+                            measurement -> {},
+                            END_LINE::equals))
+                    .isSameAs(parseFailure);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void givenStreamPausingInTheMiddleOfLine_whenReadingSequentially_thenLinesReceivedBeforeThePauseAreDelivered() throws Exception {
+
+        assertLinesReceivedBeforePauseAreDelivered(1);
+    }
+
+    @Test
+    void givenStreamPausingInTheMiddleOfLine_whenReadingInParallel_thenLinesReceivedBeforeThePauseAreDelivered() throws Exception {
+
+        assertLinesReceivedBeforePauseAreDelivered(2);
+    }
+
+    @Disabled("Only for manual use")
+    @Test
+    void measureThroughputForDifferentNumbersOfParseWorkers() throws Exception {
+
+        int measurementCount = 1_000_000;
+        byte[] stream = createStream(measurementCount, true);
+
+        for (int parseWorkers : new int[] {1, 2, 4, 8}) {
+            // Warm up before measuring.
+            read(stream, parseWorkers, SensorFilter.ACCEPT_ALL);
+
+            long startedAtNanos = System.nanoTime();
+            read(stream, parseWorkers, SensorFilter.ACCEPT_ALL);
+            long elapsedInMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+
+            LOGGER.info(
+                    "{} parse worker(s): {} measurements in {} ms ({} measurements/s)",
+                    parseWorkers,
+                    measurementCount,
+                    elapsedInMilliseconds,
+                    measurementCount * 1_000L / Math.max(1, elapsedInMilliseconds));
+        }
+    }
+
+    /**
+     * Sends two measurements and the start of a third one, and checks that the two measurements are delivered before the rest of the stream
+     * is sent.
+     */
+    private void assertLinesReceivedBeforePauseAreDelivered(int parseWorkers) throws Exception {
+
+        PipedOutputStream pipedOutputStream = new PipedOutputStream();
+        PipedInputStream pipedInputStream = new PipedInputStream(pipedOutputStream, 65_536);
+        List<Measurement> measurements = new CopyOnWriteArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(parseWorkers + 1);
+        // Not closed, as the parser closes the stream when it has read the end line.
+        Writer writer = new OutputStreamWriter(new GZIPOutputStream(pipedOutputStream, true), StandardCharsets.UTF_8);
+
+        try {
+
+            Future<?> reading = executorService.submit(() -> {
+                new MeasurementStreamParser(
+                                measurementLineParser, parseWorkers > 1 ? executorService : null, parseWorkers)
+                        .read(pipedInputStream, () -> {}, SensorFilter.ACCEPT_ALL, measurements::add, END_LINE::equals);
+                return null;
+            });
+
+            String line = "{\"sensorId\":\"sensor\",\"timestamp\":\"2025-01-01T00:00:00.123Z\",\"numericValue\":1}\n";
+
+            writer.write(line + line + line.substring(0, 20));
+            writer.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (measurements.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(measurements).hasSize(2);
+
+            writer.write(line.substring(20) + END_LINE + "\n");
+            writer.flush();
+
+            reading.get(5, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(measurements).hasSize(3);
+    }
+
+    /**
+     * Reads the stream and returns what the consumer received, in order.
+     */
+    private List<String> read(byte[] stream, int parseWorkers, SensorFilter sensorFilter) throws ApiException {
+
+        List<String> received = new ArrayList<>();
+
+        MeasurementConsumer consumer = new MeasurementConsumer() {
+
+            @Override
+            public void accept(Measurement measurement) {
+
+                received.add(
+                        measurement.getSensorId() + "/" + measurement.getNumericValue() + "/" + measurement.getOffset());
+            }
+
+            @Override
+            public void acceptOffset(String offset) {
+
+                received.add("offset/" + offset);
+            }
+        };
+
+        ExecutorService executorService = parseWorkers > 1 ? Executors.newFixedThreadPool(parseWorkers) : null;
+
+        try {
+            new MeasurementStreamParser(measurementLineParser, executorService, parseWorkers)
+                    .read(new ByteArrayInputStream(stream), () -> {}, sensorFilter, consumer, END_LINE::equals);
+        } finally {
+            if (executorService != null) {
+                executorService.shutdown();
+            }
+        }
+
+        return received;
+    }
+
+    /**
+     * Creates a gzipped stream of measurements of 10 sensors, with an offset on every 100th measurement and a heartbeat on every
+     * 1000th.
+     */
+    private static byte[] createStream(int measurementCount, boolean withEndLine) {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(outputStream), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < measurementCount; i++) {
+                writer.write("{\"sensorId\":\"sensor" + i % 10 + "\",\"timestamp\":\"2025-01-01T00:00:00.123Z\""
+                        + ",\"numericValue\":" + i + (i % 100 == 7 ? ",\"offset\":\"offset" + i + "\"" : "") + "}\n");
+                if (i % 1_000 == 0) {
+                    writer.write("\n");
+                }
+            }
+            if (withEndLine) {
+                writer.write(END_LINE + "\n");
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return outputStream.toByteArray();
+    }
+}
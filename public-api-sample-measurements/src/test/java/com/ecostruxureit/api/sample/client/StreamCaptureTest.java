@@ -0,0 +1,104 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamCaptureTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenStreamLargerThanTheFileSize_whenRecording_thenItIsSplitIntoFilesThatCanBeReadBackAsTheOriginalStream()
+            throws IOException {
+
+        // Given
+
+        byte[] stream = gzip(100_000);
+        StreamRecorder streamRecorder = new StreamRecorder(
+                directory, 10_000, Clock.fixed(Instant.parse("2025-01-01T12:00:00Z"), ZoneOffset.UTC));
+
+        // When
+
+        try (InputStream inputStream = streamRecorder.record(StreamCapture.LIVE, new ByteArrayInputStream(stream))) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        // Then
+
+        List<StreamCapture> streamCaptures = StreamCapture.findAll(directory);
+
+        assertThat(streamCaptures).hasSize(1);
+        assertThat(streamCaptures.get(0).isReplay()).isFalse();
+        assertThat(streamCaptures.get(0).getFiles())
+                .hasSizeGreaterThan(1)
+                .first()
+                .isEqualTo(directory.resolve("live-20250101T120000.000Z-0001.capture"));
+
+        try (InputStream inputStream = streamCaptures.get(0).openInputStream()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(stream);
+        }
+    }
+
+    @Test
+    void givenCapturesOfSeveralStreams_whenFindingAll_thenTheyAreOrderedByTheTimeTheStreamsWereOpened() throws IOException {
+
+        // Given
+
+        Instant now = Instant.parse("2025-01-01T12:00:00Z");
+
+        Files.createFile(directory.resolve(StreamCapture.fileName(StreamCapture.LIVE, now.plusSeconds(60), 1)));
+        Files.createFile(directory.resolve(StreamCapture.fileName(StreamCapture.REPLAY, now, 10)));
+        Files.createFile(directory.resolve(StreamCapture.fileName(StreamCapture.REPLAY, now, 9)));
+        Files.createFile(directory.resolve(StreamCapture.fileName(StreamCapture.LIVE, now, 1)));
+        Files.createFile(directory.resolve("unrelated.txt"));
+
+        // When
+
+        List<StreamCapture> streamCaptures = StreamCapture.findAll(directory);
+
+        // Then
+
+        assertThat(streamCaptures)
+                .extracting(StreamCapture::toString)
+                .containsExactly(
+                        "StreamCapture{live-20250101T120000.000Z, files=1}",
+                        "StreamCapture{replay-20250101T120000.000Z, files=2}",
+                        "StreamCapture{live-20250101T120100.000Z, files=1}");
+        assertThat(streamCaptures.get(1).getFiles())
+                .extracting(file -> file.getFileName().toString())
+                .containsExactly("replay-20250101T120000.000Z-0009.capture", "replay-20250101T120000.000Z-0010.capture");
+    }
+
+    /**
+     * Returns a gzipped stream of lines that does not compress well, so that it is larger than the capture file size.
+     */
+    private static byte[] gzip(int lineCount) throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            for (int i = 0; i < lineCount; i++) {
+                gzipOutputStream.write((Integer.toHexString(i * 0x9E3779B9) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,269 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MeasurementQueueTest {
+
+    private static final int CAPACITY = 4_096;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenCommittedEntries_whenPolling_thenEntriesAreReadInOrderWithAllValues() throws Exception {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            writer.append("sensorId", Instant.ofEpochSecond(1, 2), 3d, null, null);
+            writer.append("sensorId", Instant.ofEpochSecond(4), null, "stringValue", "offset");
+            writer.append("uncommitted", Instant.ofEpochSecond(5), 6d, null, null);
+
+            // When
+
+            assertThat(reader.poll(entry -> {}, 10)).isZero();
+            writer.commit();
+
+            List<String> entries = new ArrayList<>();
+            int count = reader.poll(entry -> entries.add(entry.toString()), 2, Duration.ofSeconds(1));
+
+            // Then
+
+            assertThat(count).isEqualTo(2);
+            assertThat(entries)
+                    .containsExactly(
+                            "MeasurementQueueEntry{position=0, sensorId=sensorId, timestamp=1970-01-01T00:00:01.000000002Z,"
+                                    + " numericValue=3.0, stringValue=null, offset=null}",
+                            "MeasurementQueueEntry{position=48, sensorId=sensorId, timestamp=1970-01-01T00:00:04Z,"
+                                    + " numericValue=null, stringValue=stringValue, offset=offset}");
+            assertThat(reader.getLag()).isPositive();
+        }
+    }
+
+    @Test
+    void givenOffsetWithoutMeasurement_whenPolling_thenEntryOnlyHoldsTheOffset() throws Exception {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            writer.append("sensorId", Instant.ofEpochSecond(1), 2d, null, null);
+            writer.appendOffset("offset");
+            writer.commit();
+
+            // When
+
+            List<Boolean> offsetOnly = new ArrayList<>();
+            List<String> entries = new ArrayList<>();
+            reader.poll(
+                    entry -> {
+                        offsetOnly.add(entry.isOffsetOnly());
+                        entries.add(entry.toString());
+                    },
+                    2,
+                    Duration.ofSeconds(1));
+
+            // Then
+
+            assertThat(offsetOnly).containsExactly(false, true);
+            assertThat(entries)
+                    .containsExactly(
+                            "MeasurementQueueEntry{position=0, sensorId=sensorId, timestamp=1970-01-01T00:00:01Z,"
+                                    + " numericValue=2.0, stringValue=null, offset=null}",
+                            "MeasurementQueueEntry{position=48, sensorId=null, timestamp=null,"
+                                    + " numericValue=null, stringValue=null, offset=offset}");
+        }
+    }
+
+    @Test
+    void givenReaderKeepingUp_whenWritingMoreThanTheCapacity_thenAllEntriesAreReadAcrossTheWrapAround() throws Exception {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+        List<Long> readValues = new ArrayList<>();
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            // When
+
+            for (long value = 0; value < 1_000; value++) {
+                writer.append("sensor" + value, Instant.ofEpochSecond(value), (double) value, null, null);
+                if (value % 10 == 9) {
+                    writer.commit();
+                    reader.poll(
+                            entry -> readValues.add(entry.getEpochSecond()),
+                            Integer.MAX_VALUE,
+                            Duration.ofSeconds(1));
+                }
+            }
+
+            // Then
+
+            assertThat(writer.getPosition()).isGreaterThan(10L * CAPACITY);
+        }
+
+        assertThat(readValues).hasSize(1_000);
+        for (int i = 0; i < readValues.size(); i++) {
+            assertThat(readValues.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void givenReaderFallingBehind_whenPolling_thenOverrunIsReportedAndNewEntriesAreRead() throws Exception {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+        List<long[]> overruns = new ArrayList<>();
+        List<String> sensorIds = new ArrayList<>();
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            for (int i = 0; i < 500; i++) {
+                writer.append("lost", Instant.EPOCH, 1d, null, null);
+            }
+            writer.commit();
+
+            MeasurementQueueHandler handler = new MeasurementQueueHandler() {
+
+                @Override
+                public void onEntry(MeasurementQueueEntry entry) {
+
+                    sensorIds.add(entry.getSensorId());
+                }
+
+                @Override
+                public void onOverrun(long fromPosition, long toPosition) {
+
+                    overruns.add(new long[] {fromPosition, toPosition});
+                }
+            };
+
+            // When
+
+            reader.poll(handler, Integer.MAX_VALUE);
+            writer.append("received", Instant.EPOCH, 1d, null, null);
+            writer.commit();
+            reader.poll(handler, Integer.MAX_VALUE);
+
+            // Then
+
+            assertThat(overruns).hasSize(1);
+            assertThat(overruns.get(0)[0]).isZero();
+            assertThat(overruns.get(0)[1]).isEqualTo(writer.getPosition() - 48);
+            assertThat(sensorIds).containsExactly("received");
+        }
+    }
+
+    @Test
+    void givenWriterLappingReader_whenEntryIsOverwrittenWhileBeingHandled_thenOverrunIsReported() throws Exception {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+        List<long[]> overruns = new ArrayList<>();
+        List<String> sensorIds = new ArrayList<>();
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            writer.append("first", Instant.EPOCH, 1d, null, null);
+            writer.append("second", Instant.EPOCH, 2d, null, null);
+            writer.commit();
+
+            MeasurementQueueHandler handler = new MeasurementQueueHandler() {
+
+                @Override
+                public void onEntry(MeasurementQueueEntry entry) {
+
+                    if (entry.getPosition() > 0) {
+                        // Laps the reader, so that the second entry is overwritten by the middle of a larger entry, whose sensor ID
+                        // makes the lengths read from the second entry negative.
+                        while (writer.getPosition() <= CAPACITY) {
+                            writer.append("\u00e9".repeat(30), Instant.EPOCH, 3d, null, null);
+                        }
+                        writer.commit();
+                    }
+
+                    sensorIds.add(entry.getSensorId());
+                }
+
+                @Override
+                public void onOverrun(long fromPosition, long toPosition) {
+
+                    overruns.add(new long[] {fromPosition, toPosition});
+                }
+            };
+
+            // When
+
+            int count = reader.poll(handler, Integer.MAX_VALUE);
+
+            // Then
+
+            assertThat(count).isEqualTo(1);
+            assertThat(sensorIds).containsExactly("first");
+            assertThat(overruns).hasSize(1);
+            assertThat(overruns.get(0)[0]).isEqualTo(48);
+            assertThat(overruns.get(0)[1]).isEqualTo(writer.getPosition());
+            assertThat(reader.getPosition()).isEqualTo(writer.getPosition());
+        }
+    }
+
+    @Test
+    void givenExistingQueue_whenWriterAndReaderAreReopened_thenTheyContinueFromTheirPositions() throws IOException {
+
+        // Given
+
+        Path file = directory.resolve("measurements.queue");
+        long readerPosition;
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file)) {
+
+            writer.append("first", Instant.EPOCH, 1d, null, null);
+            writer.commit();
+            reader.poll(entry -> {}, 1);
+            readerPosition = reader.getPosition();
+            writer.append("second", Instant.EPOCH, 2d, null, null);
+        }
+
+        // When
+
+        List<String> sensorIds = new ArrayList<>();
+
+        try (MeasurementQueueWriter writer = MeasurementQueueWriter.open(file, 2 * CAPACITY);
+                MeasurementQueueReader reader = MeasurementQueueReader.open(file, readerPosition)) {
+
+            writer.append("third", Instant.EPOCH, 3d, null, null);
+            writer.commit();
+            reader.poll(entry -> sensorIds.add(entry.getSensorId()), 10);
+
+            // Then
+
+            assertThat(writer.getCapacity()).isEqualTo(CAPACITY);
+        }
+
+        assertThat(sensorIds).containsExactly("second", "third");
+    }
+}
@@ -1,22 +1,26 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
-import com.google.common.collect.Sets;
 import generated.dto.Alarm;
 import generated.dto.Alarm.SeverityEnum;
-import generated.dto.Device;
 import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -34,6 +38,8 @@ public class AlarmRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AlarmRepository.class);
 
+    private static final int MAX_IN_LIST_SIZE = 100;
+
     // Used to map from a row in the alarm table to an Alarm object
     private static final RowMapper<Alarm> ALARM_ROW_MAPPER = (row, rowNumber) -> {
         Alarm alarm = new Alarm();
@@ -48,10 +54,16 @@ public class AlarmRepository {
         return alarm;
     };
 
+    private final Configuration configuration;
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
-    AlarmRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    AlarmRepository(
+            Configuration configuration,
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+
+        this.configuration = Objects.requireNonNull(configuration);
         this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
         this.namedParameterJdbcTemplate = Objects.requireNonNull(namedParameterJdbcTemplate);
     }
@@ -59,35 +71,76 @@ public class AlarmRepository {
     /**
      * Inserts the Alarm into the alarm table if no row with the given ID exists - or updates the existing alarm row if one already exists.
      *
+     * @param organizationId the ID of the organization the alarm belongs to.
      * @param alarm the alarm to insert or update.
      * @throws UnexpectedNumberOfRowsAffectedException if the executed SQL did not result in exactly 1 row being inserted or changed.
      */
-    void insertOrUpdate(Alarm alarm) throws UnexpectedNumberOfRowsAffectedException {
+    void insertOrUpdate(String organizationId, Alarm alarm) throws UnexpectedNumberOfRowsAffectedException {
+        batchInsertOrUpdate(organizationId, Collections.singletonList(alarm));
+    }
 
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("id", alarm.getId());
-        parameters.addValue("device_id", alarm.getDeviceId());
-        parameters.addValue("label", alarm.getLabel());
-        parameters.addValue("message", alarm.getMessage());
-        parameters.addValue("severity", convertSeverityToString(alarm.getSeverity()));
-        parameters.addValue("activated_time", convertOffsetDateTimeToTimestamp(alarm.getActivatedTime()));
-        parameters.addValue("cleared_time", convertOffsetDateTimeToTimestamp(alarm.getClearedTime()));
-        parameters.addValue("alarm_reactivation_count", alarm.getAlarmReactivationCount());
-
-        int updatedRows = namedParameterJdbcTemplate.update(
+    /**
+     * Inserts or updates each of the given alarms like {@link #insertOrUpdate(String, Alarm)} does, but sends the MERGE statements to the
+     * database in batches of {@code upsertBatchSize} statements, instead of doing a round-trip to the database per alarm.
+     *
+     * @param organizationId the ID of the organization the alarms belong to.
+     * @param alarms the alarms to insert or update.
+     * @throws UnexpectedNumberOfRowsAffectedException if the executed SQL did not result in exactly 1 row being inserted or changed per alarm.
+     */
+    void batchInsertOrUpdate(String organizationId, Collection<Alarm> alarms)
+            throws UnexpectedNumberOfRowsAffectedException {
+
+        if (alarms.isEmpty()) {
+            return;
+        }
+
+        int[][] updatedRows = jdbcTemplate.batchUpdate(
                 // MERGE means insert if not exists otherwise replace - many databases have a similar statement.
                 // Otherwise will have to a combination of (insert or update) or (delete and insert) depending on the
                 // database.
-                "MERGE INTO alarm (id, device_id, label, message, severity, activated_time, cleared_time, alarm_reactivation_count) "
-                        + "KEY "
-                        + "(id)"
-                        + " VALUES (:id, :device_id, :label, :message, :severity, :activated_time, :cleared_time, :alarm_reactivation_count);"
-                        + "\n",
-                parameters);
-
-        if (updatedRows != 1) {
-            throw new UnexpectedNumberOfRowsAffectedException(1, updatedRows);
-        }
+                // The IDs are assumed to be unique across all organizations, so the row is found by its ID alone. If two
+                // organizations had an alarm with the same ID, they would overwrite each other's row.
+                "MERGE INTO alarm (id, organization_id, device_id, label, message, severity, activated_time, cleared_time, "
+                        + "alarm_reactivation_count, content_hash) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                alarms,
+                configuration.getUpsertBatchSize(),
+                (preparedStatement, alarm) -> {
+                    Object[] columnValues = toColumnValues(organizationId, alarm);
+                    for (int index = 0; index < columnValues.length; index++) {
+                        StatementCreatorUtils.setParameterValue(
+                                preparedStatement, index + 1, SqlTypeValue.TYPE_UNKNOWN, columnValues[index]);
+                    }
+                    preparedStatement.setLong(
+                            columnValues.length + 1, ContentHashIndex.computeContentHash(columnValues));
+                });
+
+        UnexpectedNumberOfRowsAffectedException.verifyOneRowAffectedPerStatement(updatedRows);
+    }
+
+    /**
+     * Computes the hash stored in the content_hash column, when the given alarm is written to the alarm table.
+     *
+     * @param organizationId the ID of the organization the alarm belongs to.
+     * @param alarm the alarm to compute the content hash of.
+     * @return the content hash of the alarm.
+     */
+    static long computeContentHash(String organizationId, Alarm alarm) {
+        return ContentHashIndex.computeContentHash(toColumnValues(organizationId, alarm));
+    }
+
+    /**
+     * Finds the ID and content hash of all the alarms of the given organization in the alarm table.
+     *
+     * @param organizationId the ID of the organization whose alarms to find.
+     * @return the IDs and content hashes of all alarms of the organization.
+     */
+    ContentHashIndex findAllContentHashes(String organizationId) {
+        ContentHashIndex result = new ContentHashIndex();
+        jdbcTemplate.query(
+                "SELECT id, content_hash FROM alarm WHERE organization_id = ?",
+                (RowCallbackHandler) row -> result.add(row.getString("id"), row.getObject("content_hash", Long.class)),
+                organizationId);
+        return result;
     }
 
     /**
@@ -113,27 +166,42 @@ public class AlarmRepository {
     }
 
     /**
-     * Finds all alarms that have occurred on the given device - that is alarms where device.id = alarm.device_id.
+     * Finds all alarms that have occurred on any of the given devices, using a query per {@value #MAX_IN_LIST_SIZE} devices, instead of a
+     * query per device.
      *
-     * @param device the Device who's alarms to find.
-     * @return all the alarms that has occurred on the given device.
+     * @param deviceIds the IDs of the Devices whose alarms to find.
+     * @return the alarms grouped by the ID of the device they have occurred on. Devices without alarms are not in the map.
      */
-    public List<Alarm> findByDevice(Device device) {
+    public Map<String, List<Alarm>> findByDeviceIds(Collection<String> deviceIds) {
 
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("device_id", device.getId());
+        Map<String, List<Alarm>> result = new HashMap<>();
 
-        List<Alarm> result = namedParameterJdbcTemplate.query(
-                "SELECT id, device_id, label, message, severity, activated_time, cleared_time, alarm_reactivation_count FROM alarm WHERE "
-                        + "device_id = :device_id",
-                parameters,
-                ALARM_ROW_MAPPER);
+        // The JDBC standard does not guarantee that you can use more than 100 values for an IN expression list, and various databases
+        // have different limits. See https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
+        List<String> deviceIdsAsList = new ArrayList<>(deviceIds);
+        for (int fromIndex = 0; fromIndex < deviceIdsAsList.size(); fromIndex += MAX_IN_LIST_SIZE) {
+
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            parameters.addValue(
+                    "device_ids",
+                    deviceIdsAsList.subList(fromIndex, Math.min(fromIndex + MAX_IN_LIST_SIZE, deviceIdsAsList.size())));
+
+            namedParameterJdbcTemplate.query(
+                    "SELECT id, device_id, label, message, severity, activated_time, cleared_time, alarm_reactivation_count FROM alarm WHERE "
+                            + "device_id IN (:device_ids)",
+                    parameters,
+                    (RowCallbackHandler) row -> {
+                        Alarm alarm = ALARM_ROW_MAPPER.mapRow(row, row.getRow());
+                        result.computeIfAbsent(alarm.getDeviceId(), deviceId -> new ArrayList<>())
+                                .add(alarm);
+                    });
+        }
 
         LOGGER.trace(
-                "{}.findByDevice({}) --> {}",
+                "{}.findByDeviceIds({}) --> {}",
                 getClass().getSimpleName(),
-                device.getId(),
-                result.stream().map(Alarm::getId).toList());
+                deviceIds,
+                result.values().stream().flatMap(List::stream).map(Alarm::getId).toList());
 
         return result;
     }
@@ -151,50 +219,62 @@ public class AlarmRepository {
     }
 
     /**
-     * Finds all the alarms in the alarm table, and return their IDs.
+     * Finds all the alarms of the given organization in the alarm table.
      *
-     * @return the IDs of all alarms.
+     * @param organizationId the ID of the organization whose alarms to find.
+     * @return all alarms of the organization.
      */
-    Set<String> findAllIds() {
-        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM alarm", String.class));
+    public List<Alarm> findByOrganizationId(String organizationId) {
+        return jdbcTemplate.query(
+                "SELECT id, device_id, label, message, severity, activated_time, cleared_time, alarm_reactivation_count FROM alarm WHERE "
+                        + "organization_id = ? ORDER BY device_id",
+                ALARM_ROW_MAPPER,
+                organizationId);
     }
 
     /**
-     * Deletes all the alarms from the alarm table, that have one of the given IDs. Silently ignores if trying to delete a non-existing ID.
+     * Deletes all the alarms of the given organization from the alarm table, that have one of the given IDs. Silently ignores if trying to
+     * delete a non-existing ID, or an alarm of another organization.
      *
+     * @param organizationId the ID of the organization the alarms belong to.
      * @param ids the IDs of the alarms to delete.
      */
-    void deleteByIds(Set<String> ids) {
-
-        // The JDBC standard does not guarantee that you can use more than 100 values for an IN expression list.
-        // Various databases exceed this number, but they usually have a hard limit for how many values are allowed.
-        // See https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
-        // Therefore, we delete the ids in chunks of no more than 100 per chunk.
-
-        Set<String> max100ids = Sets.newHashSetWithExpectedSize(100);
-        for (String id : ids) {
-            max100ids.add(id);
-            if (max100ids.size() == 100) {
-                deleteByIdsMax100(max100ids);
-                max100ids.clear();
-            }
-        }
-        if (max100ids.size() > 0) {
-            deleteByIdsMax100(max100ids);
-        }
-    }
-
-    private void deleteByIdsMax100(Set<String> ids) {
+    void deleteByIds(String organizationId, Collection<String> ids) {
 
-        if (ids.size() > 100) {
-            throw new IllegalArgumentException(
-                    "Parameter ids must not contain more than 100 entries, but contained " + ids.size());
+        if (ids.isEmpty()) {
+            return;
         }
 
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("ids", ids);
+        // Deleting the IDs one by one in a JDBC batch avoids long IN expression lists. The JDBC standard does not guarantee that
+        // you can use more than 100 values for an IN expression list, and various databases have different limits. See
+        // https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
+        // A batch still only needs one round-trip to the database per upsertBatchSize IDs.
+
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM alarm WHERE organization_id = ? AND id = ?",
+                ids,
+                configuration.getUpsertBatchSize(),
+                (preparedStatement, id) -> {
+                    preparedStatement.setString(1, organizationId);
+                    preparedStatement.setString(2, id);
+                });
+    }
 
-        namedParameterJdbcTemplate.update("DELETE FROM alarm WHERE id IN (:ids)", parameters);
+    /**
+     * @return the values written to the columns of the alarm table (except content_hash), in the order they appear in the MERGE statement.
+     */
+    private static Object[] toColumnValues(String organizationId, Alarm alarm) {
+        return new Object[] {
+            alarm.getId(),
+            organizationId,
+            alarm.getDeviceId(),
+            alarm.getLabel(),
+            alarm.getMessage(),
+            convertSeverityToString(alarm.getSeverity()),
+            convertOffsetDateTimeToTimestamp(alarm.getActivatedTime()),
+            convertOffsetDateTimeToTimestamp(alarm.getClearedTime()),
+            alarm.getAlarmReactivationCount()
+        };
     }
 
     private static String convertSeverityToString(SeverityEnum severity) {
@@ -5,6 +5,7 @@ import jakarta.annotation.PostConstruct;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import org.apache.logging.log4j.util.Strings;
@@ -15,7 +16,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Service;
 
 /**
- * Handles configuration of the application, e.g., API key, organization ID, and optionally API URL.
+ * Handles configuration of the application, e.g., API key, organization IDs, and optionally API URL.
  * <p>
  * Logs if required configuration attributes have not been set.
  */
@@ -34,6 +35,20 @@ public class Configuration {
 
     private String organizationId;
 
+    private List<String> organizationIds = new ArrayList<>();
+
+    private int upsertBatchSize = 1000;
+
+    private int pollIntervalInSeconds = 10;
+
+    private int maxPollIntervalInSeconds = 60;
+
+    private int maxImmediatePollsPerMinute = 30;
+
+    private int fetchThreadCount = 4;
+
+    private boolean inventoryIndexEnabled = true;
+
     public String getApiKey() {
         return apiKey;
     }
@@ -46,6 +61,42 @@ public class Configuration {
         return organizationId;
     }
 
+    /**
+     * @return the IDs of the organizations to retrieve data about - both the ones set with {@code organizationIds} and the one set with
+     * {@code organizationId}.
+     */
+    public List<String> getOrganizationIds() {
+        Set<String> result = new LinkedHashSet<>(organizationIds);
+        if (Strings.isNotEmpty(organizationId)) {
+            result.add(organizationId);
+        }
+        return new ArrayList<>(result);
+    }
+
+    public int getUpsertBatchSize() {
+        return upsertBatchSize;
+    }
+
+    public int getPollIntervalInSeconds() {
+        return pollIntervalInSeconds;
+    }
+
+    public int getMaxPollIntervalInSeconds() {
+        return maxPollIntervalInSeconds;
+    }
+
+    public int getMaxImmediatePollsPerMinute() {
+        return maxImmediatePollsPerMinute;
+    }
+
+    public int getFetchThreadCount() {
+        return fetchThreadCount;
+    }
+
+    public boolean isInventoryIndexEnabled() {
+        return inventoryIndexEnabled;
+    }
+
     public void setApiKey(String apiKey) {
         this.apiKey = apiKey;
     }
@@ -58,6 +109,34 @@ public class Configuration {
         this.organizationId = organizationId;
     }
 
+    public void setOrganizationIds(List<String> organizationIds) {
+        this.organizationIds = organizationIds;
+    }
+
+    public void setUpsertBatchSize(int upsertBatchSize) {
+        this.upsertBatchSize = upsertBatchSize;
+    }
+
+    public void setPollIntervalInSeconds(int pollIntervalInSeconds) {
+        this.pollIntervalInSeconds = pollIntervalInSeconds;
+    }
+
+    public void setMaxPollIntervalInSeconds(int maxPollIntervalInSeconds) {
+        this.maxPollIntervalInSeconds = maxPollIntervalInSeconds;
+    }
+
+    public void setMaxImmediatePollsPerMinute(int maxImmediatePollsPerMinute) {
+        this.maxImmediatePollsPerMinute = maxImmediatePollsPerMinute;
+    }
+
+    public void setFetchThreadCount(int fetchThreadCount) {
+        this.fetchThreadCount = fetchThreadCount;
+    }
+
+    public void setInventoryIndexEnabled(boolean inventoryIndexEnabled) {
+        this.inventoryIndexEnabled = inventoryIndexEnabled;
+    }
+
     @PostConstruct
     void postConstruct() {
 
@@ -79,8 +158,33 @@ public class Configuration {
             }
         }
 
-        if (Strings.isEmpty(organizationId)) {
-            missingConfigurationProperties.add("organizationId");
+        if (getOrganizationIds().isEmpty()) {
+            missingConfigurationProperties.add("organizationId (or organizationIds)");
+        }
+
+        if (upsertBatchSize < 1) {
+            throw new RuntimeException(
+                    "Configuration parameter upsertBatchSize must be at least 1, but was " + upsertBatchSize);
+        }
+
+        if (pollIntervalInSeconds < 1) {
+            throw new RuntimeException(
+                    "Configuration parameter pollIntervalInSeconds must be at least 1, but was " + pollIntervalInSeconds);
+        }
+
+        if (maxPollIntervalInSeconds < pollIntervalInSeconds) {
+            throw new RuntimeException("Configuration parameter maxPollIntervalInSeconds must be at least "
+                    + pollIntervalInSeconds + " (pollIntervalInSeconds), but was " + maxPollIntervalInSeconds);
+        }
+
+        if (maxImmediatePollsPerMinute < 0) {
+            throw new RuntimeException("Configuration parameter maxImmediatePollsPerMinute must be at least 0, but was "
+                    + maxImmediatePollsPerMinute);
+        }
+
+        if (fetchThreadCount < 1) {
+            throw new RuntimeException(
+                    "Configuration parameter fetchThreadCount must be at least 1, but was " + fetchThreadCount);
         }
 
         if (!missingConfigurationProperties.isEmpty()) {
@@ -113,6 +217,6 @@ public class Configuration {
             System.err.print(errorMessage);
             throw new RuntimeException(errorMessage.toString());
         }
-        LOGGER.info("Will retrieve data about organization ID {} using REST URL {}", organizationId, apiUrl);
+        LOGGER.info("Will retrieve data about organization IDs {} using REST URL {}", getOrganizationIds(), apiUrl);
     }
 }
@@ -0,0 +1,175 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Contains the ID and content hash of each row in a table. Used by {@link FetchEngine} when doing a full read, to find out which of the
+ * objects returned by the API are new or have changed, without loading the objects already in the database - and afterwards, which rows
+ * should be deleted because the API no longer returned them.
+ * <p>
+ * A full read can return hundreds of thousands of objects, so instead of using a {@code HashMap<String, Long>} (which has an entry object
+ * and a boxed {@code Long} per row), the IDs and hashes are stored in two arrays, which are used as an open addressing hash table.
+ */
+final class ContentHashIndex {
+
+    /**
+     * The result of comparing an object returned by the API with the row stored in the database.
+     */
+    enum Comparison {
+        INSERTED,
+        UPDATED,
+        UNCHANGED
+    }
+
+    private String[] ids = new String[16];
+    private long[] contentHashes = new long[16];
+    // Rows written before the content_hash column was added don't have a hash
+    private BitSet hasContentHash = new BitSet();
+    private BitSet compared = new BitSet();
+    private final int[] comparisonCounts = new int[Comparison.values().length];
+    private int size;
+
+    /**
+     * Computes a hash of the values that are written to the columns of a row. Two rows have the same hash, if their column values are
+     * equal.
+     *
+     * @param columnValues the values of the columns, in the order they are written.
+     * @return the hash of the column values.
+     */
+    static long computeContentHash(Object... columnValues) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Object columnValue : columnValues) {
+            if (columnValue == null) {
+                hasher.putBoolean(false);
+            } else {
+                // Timestamp.toString() depends on the default time zone, so timestamps are hashed as instants
+                String value = columnValue instanceof Timestamp timestamp
+                        ? timestamp.toInstant().toString()
+                        : columnValue.toString();
+                hasher.putBoolean(true);
+                hasher.putInt(value.length());
+                hasher.putString(value, StandardCharsets.UTF_8);
+            }
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * @param id the ID of a row.
+     * @param contentHash the content hash of the row - or null if the row doesn't have one.
+     */
+    void add(String id, Long contentHash) {
+
+        if ((size + 1) * 2 > ids.length) {
+            resize();
+        }
+
+        int slot = findSlot(ids, id);
+        if (ids[slot] == null) {
+            ids[slot] = id;
+            size++;
+        }
+        if (contentHash != null) {
+            contentHashes[slot] = contentHash;
+            hasContentHash.set(slot);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Compares the content hash of an object returned by the API with the hash of the row with the same ID, and remembers that the row
+     * has been compared.
+     *
+     * @param id the ID of the object.
+     * @param contentHash the content hash of the object.
+     * @return whether the object should be inserted or updated, or is unchanged.
+     */
+    Comparison compare(String id, long contentHash) {
+
+        Comparison result;
+        int slot = findSlot(ids, id);
+
+        if (ids[slot] == null) {
+            result = Comparison.INSERTED;
+        } else {
+            compared.set(slot);
+            if (hasContentHash.get(slot) && contentHashes[slot] == contentHash) {
+                result = Comparison.UNCHANGED;
+            } else {
+                result = Comparison.UPDATED;
+            }
+        }
+
+        comparisonCounts[result.ordinal()]++;
+        return result;
+    }
+
+    /**
+     * @return the number of times {@link #compare(String, long)} has returned the given result.
+     */
+    int getComparisonCount(Comparison comparison) {
+        return comparisonCounts[comparison.ordinal()];
+    }
+
+    /**
+     * @return the IDs of the rows that have not been passed to {@link #compare(String, long)}.
+     */
+    Set<String> findIdsNotCompared() {
+
+        Set<String> result = new HashSet<>();
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != null && !compared.get(slot)) {
+                result.add(ids[slot]);
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+
+        String[] oldIds = ids;
+        long[] oldContentHashes = contentHashes;
+        BitSet oldHasContentHash = hasContentHash;
+        BitSet oldCompared = compared;
+
+        ids = new String[oldIds.length * 2];
+        contentHashes = new long[ids.length];
+        hasContentHash = new BitSet(ids.length);
+        compared = new BitSet(ids.length);
+
+        for (int oldSlot = 0; oldSlot < oldIds.length; oldSlot++) {
+            if (oldIds[oldSlot] != null) {
+                int slot = findSlot(ids, oldIds[oldSlot]);
+                ids[slot] = oldIds[oldSlot];
+                contentHashes[slot] = oldContentHashes[oldSlot];
+                hasContentHash.set(slot, oldHasContentHash.get(oldSlot));
+                compared.set(slot, oldCompared.get(oldSlot));
+            }
+        }
+    }
+
+    /**
+     * @return the slot containing the given ID - or the empty slot where it should be added, if the table doesn't contain it.
+     */
+    private static int findSlot(String[] ids, String id) {
+
+        int mask = ids.length - 1; // the length is always a power of two
+        int hash = id.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        while (ids[slot] != null && !ids[slot].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
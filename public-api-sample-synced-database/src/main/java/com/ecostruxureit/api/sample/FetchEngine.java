@@ -1,20 +1,21 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import com.ecostruxureit.api.sample.ContentHashIndex.Comparison;
 import generated.dto.Alarm;
 import generated.dto.AlarmChangesResponse;
-import generated.dto.AlarmsResponse;
 import generated.dto.InventoryChangesResponse;
 import generated.dto.InventoryObject;
 import generated.dto.InventoryObjectChange;
 import generated.dto.InventoryObjectCreateOrUpdate;
 import generated.dto.InventoryObjectDelete;
-import generated.dto.InventoryResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -22,10 +23,13 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Retrieves alarms and inventory objects and decides when to do a "full" read, and when just reading recent changes are enough. Also stores
- * the retrieved data into a database.
+ * Retrieves alarms and inventory objects of an organization and decides when to do a "full" read, and when just reading recent changes are
+ * enough. Also stores the retrieved data into a database.
  * <p>
  * Is continuously triggered by {@link FetchTimer} for as long as the program is running.
+ * <p>
+ * The inventory objects written to the database are also written to the {@link InventoryIndex}, which applies them when the transaction is
+ * committed.
  */
 @Service
 public class FetchEngine {
@@ -54,6 +58,7 @@ public class FetchEngine {
 
     private final AlarmRepository alarmRepository;
     private final Clock clock;
+    private final InventoryIndex inventoryIndex;
     private final InventoryObjectRepository inventoryObjectRepository;
     private final LastApiPollRepository lastApiPollRepository;
     private final RestClient restClient;
@@ -61,106 +66,159 @@ public class FetchEngine {
     FetchEngine(
             AlarmRepository alarmRepository,
             Clock clock,
+            InventoryIndex inventoryIndex,
             InventoryObjectRepository inventoryObjectRepository,
             LastApiPollRepository lastApiPollRepository,
             RestClient restClient) {
 
         this.alarmRepository = Objects.requireNonNull(alarmRepository);
         this.clock = Objects.requireNonNull(clock);
+        this.inventoryIndex = Objects.requireNonNull(inventoryIndex);
         this.inventoryObjectRepository = Objects.requireNonNull(inventoryObjectRepository);
         this.lastApiPollRepository = Objects.requireNonNull(lastApiPollRepository);
         this.restClient = Objects.requireNonNull(restClient);
     }
 
+    /**
+     * @param organizationId the ID of the organization whose inventory objects to retrieve.
+     * @return true if changes were read, and the API returned new changes - in which case there may be more changes ready to be read right
+     *     away.
+     */
     // Ensures that all updates to inventory objects and the update of last api poll happens in same transaction
     @Transactional(propagation = Propagation.REQUIRED)
-    void fetchInventoryObjects() {
+    boolean fetchInventoryObjects(String organizationId) {
 
+        boolean receivedChanges = false;
         long now = clock.currentTimeMillis();
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject(organizationId);
         LOGGER.debug("Loaded last API poll info {}", lastApiPoll);
 
         if (shouldDoFullRead(now, lastApiPoll)) {
 
             LOGGER.info("Doing full inventory read based on poll info {}", lastApiPoll);
 
-            InventoryResponse inventoryResponse = restClient.listInventory();
-            List<InventoryObject> inventoryObjects = inventoryResponse.getInventoryObjects();
-            Set<String> inventoryIds = Objects.requireNonNull(inventoryObjects).stream()
-                    .map(InventoryObject::getId)
-                    .collect(Collectors.toSet());
+            long startNanos = System.nanoTime();
+            ContentHashIndex contentHashIndex = inventoryObjectRepository.findAllContentHashes(organizationId);
+
+            // The inventory objects are written while the response is being received, a chunk at a time, so a large
+            // inventory never has to be kept in memory all at once. Only the objects that are new, or have changed
+            // since they were last written, are written to the database.
+            long offset = restClient.streamInventory(organizationId, inventoryObjects -> {
+                List<InventoryObject> changedInventoryObjects = new ArrayList<>();
+                for (InventoryObject inventoryObject : inventoryObjects) {
+                    long contentHash = InventoryObjectRepository.computeContentHash(organizationId, inventoryObject);
+                    if (contentHashIndex.compare(inventoryObject.getId(), contentHash) != Comparison.UNCHANGED) {
+                        changedInventoryObjects.add(inventoryObject);
+                    }
+                }
+                inventoryObjectRepository.batchInsertOrUpdate(organizationId, changedInventoryObjects);
+                inventoryIndex.putAll(organizationId, changedInventoryObjects);
+            });
 
-            Set<String> allIdsOnlyInOurDatabase = inventoryObjectRepository.findAllIds();
-            allIdsOnlyInOurDatabase.removeAll(inventoryIds);
+            Set<String> allIdsOnlyInOurDatabase = contentHashIndex.findIdsNotCompared();
             if (!allIdsOnlyInOurDatabase.isEmpty()) {
-                inventoryObjectRepository.deleteByIds(allIdsOnlyInOurDatabase);
-                LOGGER.info("Deleted {} obsolete inventory objects", allIdsOnlyInOurDatabase.size());
+                inventoryObjectRepository.deleteByIds(organizationId, allIdsOnlyInOurDatabase);
+                inventoryIndex.removeAll(organizationId, allIdsOnlyInOurDatabase);
             }
 
-            for (InventoryObject inventoryObject : inventoryObjects) {
-                // Note: We just replace all the existing objects - one could of course only replace the ones that have
-                // actually changed.
-                inventoryObjectRepository.insertOrUpdate(inventoryObject);
-            }
-            LOGGER.info("Updated {} inventory objects", inventoryObjects.size());
+            LOGGER.info(
+                    "Synced inventory objects of organization {} in {} ms: {} unchanged, {} updated, {} inserted, {} deleted",
+                    organizationId,
+                    millisSince(startNanos),
+                    contentHashIndex.getComparisonCount(Comparison.UNCHANGED),
+                    contentHashIndex.getComparisonCount(Comparison.UPDATED),
+                    contentHashIndex.getComparisonCount(Comparison.INSERTED),
+                    allIdsOnlyInOurDatabase.size());
 
             lastApiPoll.setLastFullReadTime(now);
-            lastApiPoll.setCurrentOffset(inventoryResponse.getOffset());
+            lastApiPoll.setCurrentOffset(offset);
 
         } else {
 
             LOGGER.info("Doing changed inventory objects read based on poll info {}", lastApiPoll);
 
             // Note: If there are a LOT of changes since the last poll (won't happen very often if you poll frequently),
-            // then the API might
-            // not send you all of them right away. In that case you will just get the changes on a later call.
+            // then the API might not send you all of them right away. In that case you will just get the changes on a
+            // later call.
             //
-            // Therefore, in situation where you do get changes, you could do another poll straight away, until you no
-            // longer get any new
-            // changes, and then do a longer sleep after that. But it will complicate the code, so we wouldn't recommend
-            // doing it.
+            // Therefore, when changes are received, this method returns true, and the FetchTimer polls again straight
+            // away (within a limit), until no more new changes are received.
 
             InventoryChangesResponse inventoryChangesResponse =
-                    restClient.getInventoryChangesAfterOffset(lastApiPoll.getCurrentOffset());
-            for (InventoryObjectChange inventoryObjectChange :
-                    Objects.requireNonNull(inventoryChangesResponse.getInventoryObjectChanges())) {
+                    restClient.getInventoryChangesAfterOffset(organizationId, lastApiPoll.getCurrentOffset());
+            List<InventoryObjectChange> inventoryObjectChanges =
+                    Objects.requireNonNull(inventoryChangesResponse.getInventoryObjectChanges());
+
+            long startNanos = System.nanoTime();
+            List<InventoryObject> pendingInventoryObjects = new ArrayList<>();
+
+            for (InventoryObjectChange inventoryObjectChange : inventoryObjectChanges) {
 
                 if (inventoryObjectChange instanceof InventoryObjectDelete inventoryObjectDelete) {
-                    inventoryObjectRepository.deleteById(inventoryObjectDelete.getInventoryObjectId());
+                    // The changes must be applied in order, so the pending updates are written before the delete, as
+                    // one of them may be for the object being deleted.
+                    inventoryObjectRepository.batchInsertOrUpdate(organizationId, pendingInventoryObjects);
+                    inventoryIndex.putAll(organizationId, pendingInventoryObjects);
+                    pendingInventoryObjects.clear();
+                    inventoryObjectRepository.deleteById(organizationId, inventoryObjectDelete.getInventoryObjectId());
+                    inventoryIndex.removeAll(organizationId, Collections.singleton(inventoryObjectDelete.getInventoryObjectId()));
 
                 } else {
                     InventoryObjectCreateOrUpdate createOrUpdate =
                             (InventoryObjectCreateOrUpdate) inventoryObjectChange;
-                    InventoryObject inventoryObject = createOrUpdate.getInventoryObject();
-                    inventoryObjectRepository.insertOrUpdate(inventoryObject);
+                    pendingInventoryObjects.add(createOrUpdate.getInventoryObject());
                 }
             }
+            inventoryObjectRepository.batchInsertOrUpdate(organizationId, pendingInventoryObjects);
+            inventoryIndex.putAll(organizationId, pendingInventoryObjects);
+            LOGGER.debug(
+                    "Applied {} inventory object changes in {} ms", inventoryObjectChanges.size(), millisSince(startNanos));
 
+            receivedChanges = !inventoryObjectChanges.isEmpty()
+                    && !Objects.equals(inventoryChangesResponse.getOffset(), lastApiPoll.getCurrentOffset());
             lastApiPoll.setLastChangesPollTime(now);
             lastApiPoll.setCurrentOffset(inventoryChangesResponse.getOffset());
         }
         lastApiPollRepository.updateLastApiPoll(lastApiPoll);
         LOGGER.debug("Updated poll info to {}", lastApiPoll);
+        return receivedChanges;
     }
 
+    /**
+     * @param organizationId the ID of the organization whose alarms to retrieve.
+     * @return true if changes were read, and the API returned new changes - in which case there may be more changes ready to be read right
+     *     away.
+     */
     // Ensures that all updates to alarms and the update of last api poll happens in same transaction
     @Transactional(propagation = Propagation.REQUIRED)
-    void fetchAlarms() {
+    boolean fetchAlarms(String organizationId) {
+
+        boolean receivedChanges = false;
         long now = clock.currentTimeMillis();
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm(organizationId);
         LOGGER.debug("Loaded last API poll info {}", lastApiPoll);
 
         if (shouldDoFullRead(now, lastApiPoll)) {
 
             LOGGER.info("Doing full alarm read based on poll info {}", lastApiPoll);
 
-            AlarmsResponse alarmsResponse = restClient.listAlarms();
-            List<Alarm> alarms = alarmsResponse.getAlarms();
-            Set<String> alarmIds =
-                    Objects.requireNonNull(alarms).stream().map(Alarm::getId).collect(Collectors.toSet());
+            long startNanos = System.nanoTime();
+            ContentHashIndex contentHashIndex = alarmRepository.findAllContentHashes(organizationId);
+
+            // The alarms are written while the response is being received, a chunk at a time, and only the alarms
+            // that are new, or have changed since they were last written, are written to the database.
+            long offset = restClient.streamAlarms(organizationId, alarms -> {
+                List<Alarm> changedAlarms = new ArrayList<>();
+                for (Alarm alarm : alarms) {
+                    long contentHash = AlarmRepository.computeContentHash(organizationId, alarm);
+                    if (contentHashIndex.compare(alarm.getId(), contentHash) != Comparison.UNCHANGED) {
+                        changedAlarms.add(alarm);
+                    }
+                }
+                alarmRepository.batchInsertOrUpdate(organizationId, changedAlarms);
+            });
 
-            Set<String> allIdsOnlyInOurDatabase = alarmRepository.findAllIds();
-            allIdsOnlyInOurDatabase.removeAll(alarmIds);
+            Set<String> allIdsOnlyInOurDatabase = contentHashIndex.findIdsNotCompared();
             if (!allIdsOnlyInOurDatabase.isEmpty()) {
 
                 // Note: The alarm change API never marks an alarm as deleted - alarms just get a timestamp value in
@@ -179,36 +237,41 @@ public class FetchEngine {
                 // should instead just verify that they are at least cleared (they must be cleared - or else they would
                 // still be returned
                 // from the API as all active alarms that are still active are returned).
-                alarmRepository.deleteByIds(allIdsOnlyInOurDatabase);
-                LOGGER.info("Deleted {} obsolete alarms", allIdsOnlyInOurDatabase.size());
+                alarmRepository.deleteByIds(organizationId, allIdsOnlyInOurDatabase);
             }
 
-            for (Alarm alarm : alarms) {
-
-                // Note: We just replace all the existing alarms - one could of course only replace the ones that have
-                // actually changed.
-                alarmRepository.insertOrUpdate(alarm);
-            }
-            LOGGER.info("Updated {} alarms", alarms.size());
+            LOGGER.info(
+                    "Synced alarms of organization {} in {} ms: {} unchanged, {} updated, {} inserted, {} deleted",
+                    organizationId,
+                    millisSince(startNanos),
+                    contentHashIndex.getComparisonCount(Comparison.UNCHANGED),
+                    contentHashIndex.getComparisonCount(Comparison.UPDATED),
+                    contentHashIndex.getComparisonCount(Comparison.INSERTED),
+                    allIdsOnlyInOurDatabase.size());
 
             lastApiPoll.setLastFullReadTime(now);
-            lastApiPoll.setCurrentOffset(alarmsResponse.getOffset());
+            lastApiPoll.setCurrentOffset(offset);
 
         } else {
 
             LOGGER.info("Doing changed alarm read based on poll info {}", lastApiPoll);
 
             AlarmChangesResponse alarmChangesResponse =
-                    restClient.getAlarmChangesAfterOffset(lastApiPoll.getCurrentOffset());
-            for (Alarm alarm : Objects.requireNonNull(alarmChangesResponse.getAlarms())) {
-                alarmRepository.insertOrUpdate(alarm);
-            }
+                    restClient.getAlarmChangesAfterOffset(organizationId, lastApiPoll.getCurrentOffset());
+            List<Alarm> changedAlarms = Objects.requireNonNull(alarmChangesResponse.getAlarms());
+
+            long startNanos = System.nanoTime();
+            alarmRepository.batchInsertOrUpdate(organizationId, changedAlarms);
+            LOGGER.debug("Applied {} alarm changes in {} ms", changedAlarms.size(), millisSince(startNanos));
 
+            receivedChanges = !changedAlarms.isEmpty()
+                    && !Objects.equals(alarmChangesResponse.getOffset(), lastApiPoll.getCurrentOffset());
             lastApiPoll.setLastChangesPollTime(now);
             lastApiPoll.setCurrentOffset(alarmChangesResponse.getOffset());
         }
         lastApiPollRepository.updateLastApiPoll(lastApiPoll);
         LOGGER.debug("Updated poll info to {}", lastApiPoll);
+        return receivedChanges;
     }
 
     static boolean shouldDoFullRead(long now, LastApiPoll lastApiPoll) {
@@ -220,4 +283,8 @@ public class FetchEngine {
         long lastReadTime = Math.max(lastApiPoll.getLastChangesPollTime(), lastApiPoll.getLastFullReadTime());
         return now > (lastReadTime + MAX_MILLIS_SINCE_LAST_READ_BEFORE_REQUIRING_FULL_READ);
     }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
 }
@@ -1,15 +1,40 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 /**
- * Creates a background thread, that continuously tells the {@link FetchEngine} to retrieve inventory objects and alarms from the REST API.
+ * Continuously tells the {@link FetchEngine} to retrieve inventory objects and alarms from the REST API, for each of the configured
+ * organizations.
+ * <p>
+ * There is a fetch task per organization and resource (inventory objects or alarms), which are run by a pool of {@code fetchThreadCount}
+ * threads. As each task is independent, a slow full read of a large inventory doesn't delay the alarms, nor the other organizations - and
+ * as a task is only scheduled to run again when it has finished, there is never more than one thread writing the same resource of an
+ * organization.
+ * <p>
+ * When to run each task again is decided by a {@link PollingSchedule} per task: When the API returns changes, there may be more changes
+ * ready (the API may only return part of them, e.g. after an incident), so the resource is polled again right away. When it doesn't, or
+ * when the poll fails, the time between polls is increased up to {@code maxPollIntervalInSeconds}.
+ * <p>
+ * How far behind the API the local database may be is available as the metric {@value #BEHIND_METRIC}, tagged with the organization and
+ * the resource.
  * <p>
  * Note that we don't create an instance of this class when running tests as it would interfere with our tests if it starts a thread that
  * fetches data on its own. See {@link Profiles} for more info.
@@ -18,52 +43,117 @@ import org.springframework.stereotype.Service;
 @Profile(Profiles.NOT_TEST)
 public class FetchTimer {
 
-    /**
-     * How long the timer should sleep between asking the {@link FetchEngine} to retrieve inventory objects and alarms. Our recommendation
-     * is to poll every 10 seconds, which strikes a good balance between getting updates pretty fast, without being rate limited by the API.
-     */
-    private static final int SLEEP_MILLIS_BETWEEN_FETCHES = 10_000;
+    static final String BEHIND_METRIC = "sync.behind.seconds";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FetchTimer.class);
 
-    private final FetchEngine fetchEngine;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private final List<FetchTask> fetchTasks = new ArrayList<>();
+
+    FetchTimer(Configuration configuration, Clock clock, FetchEngine fetchEngine, MeterRegistry meterRegistry) {
+
+        this.clock = Objects.requireNonNull(clock);
+        this.executor = Executors.newScheduledThreadPool(
+                configuration.getFetchThreadCount(), new CustomizableThreadFactory("fetch-"));
 
-    FetchTimer(FetchEngine fetchEngine) {
-        this.fetchEngine = Objects.requireNonNull(fetchEngine);
+        // Warning: Do NOT use multiple threads to fetch alarms nor multiple threads to fetch inventory objects for a
+        // specific organization, as it will result in corrupted data because of race conditions (changes to your data
+        // must be applied in the correct order). Each of the tasks below is the only one writing its resource of its
+        // organization.
+        for (String organizationId : configuration.getOrganizationIds()) {
+            fetchTasks.add(new FetchTask(
+                    organizationId,
+                    LastApiPoll.RESOURCE_NAME_FOR_INVENTORY_OBJECT,
+                    () -> fetchEngine.fetchInventoryObjects(organizationId),
+                    createPollingSchedule(configuration, clock.currentTimeMillis())));
+            fetchTasks.add(new FetchTask(
+                    organizationId,
+                    LastApiPoll.RESOURCE_NAME_FOR_ALARM,
+                    () -> fetchEngine.fetchAlarms(organizationId),
+                    createPollingSchedule(configuration, clock.currentTimeMillis())));
+        }
+
+        for (FetchTask fetchTask : fetchTasks) {
+            Gauge.builder(
+                            BEHIND_METRIC,
+                            fetchTask.pollingSchedule,
+                            schedule -> schedule.getBehindByMillis(clock.currentTimeMillis()) / 1000.0)
+                    .description("How far behind the REST API the local database may be")
+                    .tag("organization", fetchTask.organizationId)
+                    .tag("resource", fetchTask.resourceName)
+                    .register(meterRegistry);
+        }
     }
 
     @PostConstruct
     void startTimer() {
+        fetchTasks.forEach(executor::execute);
+    }
 
-        // Note: One could run 2 threads instead of the one below - one to fetch alarms, and another to fetch inventory
-        // objects.
-        //
-        // If you want to retrieve data from multiple organizations, then it might make sense to fetch data using one
-        // thread per
-        // organization.
-        //
-        // Warning: Do NOT use multiple threads to fetch alarms nor multiple threads to fetch inventory objects for a
-        // specific organization,
-        // as it will result in corrupted data because of race conditions (changes to your data must be applied in the
-        // correct order).
-        Thread timerThread = new Thread(() -> {
-            while (true) {
-                try {
-                    fetchEngine.fetchInventoryObjects();
-                } catch (Exception e) {
-                    LOGGER.error("Failed fetching inventory objects", e);
-                }
-                try {
-                    fetchEngine.fetchAlarms();
-                } catch (Exception e) {
-                    LOGGER.error("Failed fetching alarms", e);
-                }
-                try {
-                    Thread.sleep(SLEEP_MILLIS_BETWEEN_FETCHES);
-                } catch (InterruptedException ignored) {
+    @PreDestroy
+    void stopTimer() {
+        executor.shutdownNow();
+    }
+
+    private static PollingSchedule createPollingSchedule(Configuration configuration, long now) {
+        return new PollingSchedule(
+                Duration.ofSeconds(configuration.getPollIntervalInSeconds()),
+                Duration.ofSeconds(configuration.getMaxPollIntervalInSeconds()),
+                configuration.getMaxImmediatePollsPerMinute(),
+                now);
+    }
+
+    /**
+     * Polls a resource of an organization once, and then schedules itself to run again when the {@link PollingSchedule} says so.
+     */
+    private class FetchTask implements Runnable {
+
+        private final String organizationId;
+        private final String resourceName;
+        private final BooleanSupplier fetch;
+        private final PollingSchedule pollingSchedule;
+
+        FetchTask(String organizationId, String resourceName, BooleanSupplier fetch, PollingSchedule pollingSchedule) {
+            this.organizationId = organizationId;
+            this.resourceName = resourceName;
+            this.fetch = fetch;
+            this.pollingSchedule = pollingSchedule;
+        }
+
+        @Override
+        public void run() {
+
+            long delayMillis = poll();
+            try {
+                executor.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Not fetching {} of organization {} again, as the timer is stopped", resourceName, organizationId);
+            }
+        }
+
+        /**
+         * @return the number of milliseconds to wait before polling the resource again.
+         */
+        private long poll() {
+
+            long pollStartTime = clock.currentTimeMillis();
+            try {
+                boolean receivedChanges = fetch.getAsBoolean();
+                long delayMillis =
+                        pollingSchedule.onPollCompleted(pollStartTime, receivedChanges, clock.currentTimeMillis());
+                if (delayMillis == 0) {
+                    LOGGER.debug("Received {} of organization {}, polling again right away", resourceName, organizationId);
                 }
+                return delayMillis;
+            } catch (Exception e) {
+                long delayMillis = pollingSchedule.onPollFailed();
+                LOGGER.error(
+                        "Failed fetching " + resourceName + " of organization " + organizationId + ", trying again in "
+                                + delayMillis + " ms",
+                        e);
+                return delayMillis;
             }
-        });
-        timerThread.start();
+        }
     }
 }
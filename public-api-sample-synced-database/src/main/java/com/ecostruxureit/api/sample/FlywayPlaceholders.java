@@ -0,0 +1,40 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes the configured organizations available to the Flyway migrations as placeholders.
+ * <p>
+ * {@value #SINGLE_ORGANIZATION_ID} is the ID of the organization when exactly one is configured, and empty otherwise. It lets
+ * {@code V1.4__add_organization_id.sql} assign the existing rows to that organization instead of deleting them.
+ */
+@Component
+class FlywayPlaceholders implements FlywayConfigurationCustomizer {
+
+    static final String SINGLE_ORGANIZATION_ID = "singleOrganizationId";
+
+    private final Configuration configuration;
+
+    FlywayPlaceholders(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void customize(FluentConfiguration flywayConfiguration) {
+
+        Map<String, String> placeholders = new HashMap<>(flywayConfiguration.getPlaceholders());
+        placeholders.put(SINGLE_ORGANIZATION_ID, getSingleOrganizationId(configuration.getOrganizationIds()));
+        flywayConfiguration.placeholders(placeholders);
+    }
+
+    static String getSingleOrganizationId(List<String> organizationIds) {
+
+        return organizationIds.size() == 1 ? organizationIds.get(0) : "";
+    }
+}
@@ -0,0 +1,51 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Device;
+import generated.dto.InventoryObject;
+import generated.dto.Location;
+import generated.dto.Organization;
+import java.util.List;
+
+/**
+ * Finds the inventory objects needed to show the tree, in which a given inventory object is a part.
+ * <p>
+ * Implemented by the {@link InventoryIndex}, which finds them in memory, and by the {@link InventoryObjectRepository}, which finds them
+ * in the database using a few recursive queries. Which one the web UI uses, is decided by the {@code inventoryIndexEnabled} configuration
+ * property.
+ */
+public interface InventoryHierarchy {
+
+    /**
+     * @param id the ID of a Device, Location, or Organization.
+     * @return the Device, Location, or Organization with the given ID - or null if none were found.
+     */
+    InventoryObject findById(String id);
+
+    /**
+     * @param device the Device which is part of a device-tree whose root we want to find.
+     * @return the root of the device-tree, which may be the device itself.
+     * @throws RuntimeException if the device parents form a cycle.
+     */
+    Device findRootDevice(Device device);
+
+    /**
+     * @param device the Device whose descendants to find.
+     * @return the device followed by all the Devices below it in its device-tree, where a device always comes after its parent - or an
+     * empty list, if the device wasn't found.
+     */
+    List<Device> findDeviceAndDescendants(Device device);
+
+    /**
+     * @param locationId the ID of the Location whose ancestors to find.
+     * @return the location followed by its parent location, the parent of that, and so on - or an empty list, if no Location with the
+     * given ID was found.
+     */
+    List<Location> findLocationAndAncestors(String locationId);
+
+    /**
+     * @param inventoryObjectId the ID of a Device, Location, or Organization.
+     * @return the Organization object of the organization that the given inventory object belongs to - or null if it wasn't found.
+     */
+    Organization findOrganizationOf(String inventoryObjectId);
+}
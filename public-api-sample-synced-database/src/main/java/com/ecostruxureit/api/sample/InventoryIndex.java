@@ -0,0 +1,586 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import generated.dto.Device;
+import generated.dto.InventoryObject;
+import generated.dto.Location;
+import generated.dto.Organization;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the structure of the inventory in memory, so the web UI can find the parents, children and location ancestors of inventory objects
+ * without querying the database.
+ * <p>
+ * The index is loaded from the {@code inventory_object} table at startup, and afterwards updated by {@link FetchEngine} as it writes
+ * inventory objects to the database - both during full reads and when applying changes.
+ * <p>
+ * Each ID is given a slot, which is an index into the arrays below. Parents are referenced by slot, and the child devices of a device form a
+ * linked list of slots - so adding, moving and removing an object doesn't depend on how many objects there are. As the data returned by
+ * the API is eventually consistent, an object may reference a parent that doesn't exist (yet). The parent then gets a slot without an
+ * object, which is released when nothing references it any longer.
+ * <p>
+ * The index can be disabled with the {@code inventoryIndexEnabled} configuration property, e.g. if the inventories are too large to be
+ * kept in memory - the web UI then uses the recursive queries of the {@link InventoryObjectRepository} instead.
+ * <p>
+ * This class is thread safe.
+ */
+@Service
+public class InventoryIndex implements InventoryHierarchy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryIndex.class);
+
+    private static final int NO_SLOT = -1;
+
+    /**
+     * The max number of changed objects read from the database at a time, when applying the changes of a committed transaction.
+     */
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final boolean enabled;
+    private final InventoryObjectRepository inventoryObjectRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] ids;
+    private InventoryObject[] inventoryObjects;
+    private String[] organizationIds;
+    private int[] deviceParentSlots; // The parent of a device
+    private int[] locationParentSlots; // The location of a device, or the parent of a location
+    private int[] firstChildDeviceSlots;
+    private int[] nextSiblingDeviceSlots;
+    private int[] previousSiblingDeviceSlots;
+    private int[] referenceCounts; // The number of objects referencing a slot as their device parent or location parent
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private int usedSlotCount;
+
+    InventoryIndex(Configuration configuration, InventoryObjectRepository inventoryObjectRepository) {
+        this.enabled = configuration.isInventoryIndexEnabled();
+        this.inventoryObjectRepository = Objects.requireNonNull(inventoryObjectRepository);
+        clear();
+    }
+
+    /**
+     * Loads the index from the inventory_object table, replacing what it contained before.
+     */
+    @PostConstruct
+    public void reload() {
+
+        if (!enabled) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            clear();
+            inventoryObjectRepository.forEachInventoryObject(this::putWithoutLocking);
+            LOGGER.info(
+                    "Loaded {} inventory objects into the inventory index in {} ms",
+                    slotById.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the given inventory objects to the index, or updates them if they are already in it.
+     * <p>
+     * If a transaction is active, the objects are added when it is committed - see {@link #reloadWhenCommitted(String, Collection)}.
+     *
+     * @param organizationId the ID of the organization the objects belong to.
+     * @param inventoryObjects the Devices, Locations, and Organizations to add or update.
+     */
+    void putAll(String organizationId, Collection<? extends InventoryObject> inventoryObjects) {
+
+        if (!enabled || inventoryObjects.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadWhenCommitted(organizationId, inventoryObjects.stream().map(InventoryObject::getId).toList());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (InventoryObject inventoryObject : inventoryObjects) {
+                putWithoutLocking(organizationId, inventoryObject);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the inventory objects of the given organization with the given IDs from the index. Silently ignores IDs that are not in the
+     * index, or that belong to another organization.
+     * <p>
+     * If a transaction is active, the objects are removed when it is committed - see {@link #reloadWhenCommitted(String, Collection)}.
+     *
+     * @param organizationId the ID of the organization the objects belong to.
+     * @param ids the IDs of the objects to remove.
+     */
+    void removeAll(String organizationId, Collection<String> ids) {
+
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadWhenCommitted(organizationId, ids);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                removeWithoutLocking(organizationId, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id the ID of a Device, Location, or Organization.
+     * @return the Device, Location, or Organization with the given ID - or null if it isn't in the index.
+     */
+    @Override
+    public InventoryObject findById(String id) {
+
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot == null ? null : inventoryObjects[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the Organization object of the organization that the given inventory object belongs to.
+     *
+     * @param inventoryObjectId the ID of a Device, Location, or Organization.
+     * @return the Organization object - or null if it isn't in the index.
+     */
+    @Override
+    public Organization findOrganizationOf(String inventoryObjectId) {
+
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(inventoryObjectId);
+            if (slot == null || organizationIds[slot] == null) {
+                return null;
+            }
+            Integer organizationSlot = slotById.get(organizationIds[slot]);
+            if (organizationSlot != null && inventoryObjects[organizationSlot] instanceof Organization organization) {
+                return organization;
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the Device that is the root of the device-tree, which the given device is part of - like
+     * {@link InventoryObjectRepository#findRootDevice(Device)} does.
+     *
+     * @param device the Device which is part of a device-tree whose root we want to find.
+     * @return the root of the device-tree, which may be the device itself.
+     * @throws RuntimeException if the device parents form a cycle.
+     */
+    @Override
+    public Device findRootDevice(Device device) {
+
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(device.getId());
+            if (slot == null) {
+                return device;
+            }
+
+            Device rootDevice = device;
+            int currentSlot = slot;
+
+            for (int iterations = 0; iterations <= usedSlotCount; iterations++) {
+                int parentSlot = deviceParentSlots[currentSlot];
+                if (parentSlot == NO_SLOT || !(inventoryObjects[parentSlot] instanceof Device parentDevice)) {
+                    return rootDevice;
+                }
+                rootDevice = parentDevice;
+                currentSlot = parentSlot;
+            }
+            // Safe-guard to not end in never ending loop in case of invalid data
+            throw new RuntimeException("The device parents of device " + device.getId() + " form a cycle");
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the given device and all the Devices below it in its device-tree - like
+     * {@link InventoryObjectRepository#findDeviceAndDescendants(Device)} does.
+     *
+     * @param device the Device whose descendants to find.
+     * @return the device followed by its descendants, ordered by their depth below the device - or an empty list, if the device isn't in
+     * the index.
+     */
+    @Override
+    public List<Device> findDeviceAndDescendants(Device device) {
+
+        lock.readLock().lock();
+        try {
+            List<Device> result = new ArrayList<>();
+            Integer slot = slotById.get(device.getId());
+            if (slot == null || !(inventoryObjects[slot] instanceof Device)) {
+                return result;
+            }
+
+            // Breadth first, so a device always comes after its parent. The visited slots are remembered, so a cycle in the device
+            // parents doesn't make the search go on forever.
+            BitSet visitedSlots = new BitSet(usedSlotCount);
+            ArrayDeque<Integer> slotsToVisit = new ArrayDeque<>();
+            slotsToVisit.add(slot);
+            visitedSlots.set(slot);
+
+            while (!slotsToVisit.isEmpty()) {
+                int currentSlot = slotsToVisit.poll();
+                result.add((Device) inventoryObjects[currentSlot]);
+                for (int childSlot = firstChildDeviceSlots[currentSlot];
+                        childSlot != NO_SLOT;
+                        childSlot = nextSiblingDeviceSlots[childSlot]) {
+                    if (!visitedSlots.get(childSlot) && inventoryObjects[childSlot] instanceof Device) {
+                        visitedSlots.set(childSlot);
+                        slotsToVisit.add(childSlot);
+                    }
+                }
+            }
+            return result;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the Location with the given ID, and all the Locations above it - like
+     * {@link InventoryObjectRepository#findLocationAndAncestors(String)} does.
+     *
+     * @param locationId the ID of the Location whose ancestors to find.
+     * @return the location followed by its ancestors - or an empty list, if no Location with the given ID is in the index.
+     */
+    @Override
+    public List<Location> findLocationAndAncestors(String locationId) {
+
+        lock.readLock().lock();
+        try {
+            List<Location> result = new ArrayList<>();
+            Integer slot = slotById.get(locationId);
+            BitSet visitedSlots = new BitSet(usedSlotCount);
+
+            // Stops at the first parent that isn't a Location, or that has been visited already, if the location parents form a cycle
+            int currentSlot = slot == null ? NO_SLOT : slot;
+            while (currentSlot != NO_SLOT
+                    && !visitedSlots.get(currentSlot)
+                    && inventoryObjects[currentSlot] instanceof Location location) {
+                visitedSlots.set(currentSlot);
+                result.add(location);
+                currentSlot = locationParentSlots[currentSlot];
+            }
+            return result;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of inventory objects in the index.
+     */
+    int size() {
+
+        lock.readLock().lock();
+        try {
+            int result = 0;
+            for (Integer slot : slotById.values()) {
+                if (inventoryObjects[slot] != null) {
+                    result++;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The changes made by a transaction must only be visible in the index, if (and when) the transaction is committed - otherwise the web
+     * UI would show data that isn't in the database, if the transaction is rolled back. So the IDs of the changed objects are collected
+     * while the transaction is active, and the objects are read from the database again, {@value #RELOAD_CHUNK_SIZE} at a time, when it
+     * has been committed. Only holding the IDs keeps a full read of a large inventory from holding all its objects twice until the commit.
+     */
+    private void reloadWhenCommitted(String organizationId, Collection<String> ids) {
+
+        @SuppressWarnings("unchecked")
+        Map<String, Set<String>> changedIdsByOrganizationId =
+                (Map<String, Set<String>>) TransactionSynchronizationManager.getResource(this);
+
+        if (changedIdsByOrganizationId == null) {
+            Map<String, Set<String>> newChangedIdsByOrganizationId = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, newChangedIdsByOrganizationId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    newChangedIdsByOrganizationId.forEach(InventoryIndex.this::reload);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryIndex.this);
+                }
+            });
+            changedIdsByOrganizationId = newChangedIdsByOrganizationId;
+        }
+
+        changedIdsByOrganizationId
+                .computeIfAbsent(organizationId, ignored -> new LinkedHashSet<>())
+                .addAll(ids);
+    }
+
+    /**
+     * Updates the objects of the organization with the given IDs from the database, and removes the ones that are no longer in it. Each
+     * chunk is read while holding the write lock, so a concurrent reload of the same objects can't overwrite it with older data.
+     */
+    private void reload(String organizationId, Set<String> ids) {
+
+        List<String> idsAsList = new ArrayList<>(ids);
+        for (int fromIndex = 0; fromIndex < idsAsList.size(); fromIndex += RELOAD_CHUNK_SIZE) {
+
+            List<String> chunk = idsAsList.subList(fromIndex, Math.min(fromIndex + RELOAD_CHUNK_SIZE, idsAsList.size()));
+
+            lock.writeLock().lock();
+            try {
+                Set<String> removedIds = new HashSet<>(chunk);
+                for (InventoryObject inventoryObject : inventoryObjectRepository.findByIds(organizationId, chunk)) {
+                    removedIds.remove(inventoryObject.getId());
+                    putWithoutLocking(organizationId, inventoryObject);
+                }
+                for (String removedId : removedIds) {
+                    removeWithoutLocking(organizationId, removedId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void putWithoutLocking(String organizationId, InventoryObject inventoryObject) {
+
+        int slot = getOrAllocateSlot(inventoryObject.getId());
+        inventoryObjects[slot] = inventoryObject;
+        organizationIds[slot] = organizationId;
+
+        String deviceParentId = null;
+        String locationParentId = null;
+        if (inventoryObject instanceof Device device) {
+            deviceParentId = device.getParentId();
+            locationParentId = device.getLocationId();
+        } else if (inventoryObject instanceof Location location) {
+            locationParentId = location.getParentId();
+        }
+
+        int oldDeviceParentSlot = deviceParentSlots[slot];
+        int oldLocationParentSlot = locationParentSlots[slot];
+
+        // The new parents are referenced before the old ones are released, so a slot isn't released and allocated again if the parent
+        // hasn't changed.
+        int newDeviceParentSlot = deviceParentId == null ? NO_SLOT : getOrAllocateSlot(deviceParentId);
+        int newLocationParentSlot = locationParentId == null ? NO_SLOT : getOrAllocateSlot(locationParentId);
+
+        if (newDeviceParentSlot != oldDeviceParentSlot) {
+            if (oldDeviceParentSlot != NO_SLOT) {
+                unlinkChild(oldDeviceParentSlot, slot);
+            }
+            if (newDeviceParentSlot != NO_SLOT) {
+                referenceCounts[newDeviceParentSlot]++;
+                linkChild(newDeviceParentSlot, slot);
+            }
+            deviceParentSlots[slot] = newDeviceParentSlot;
+            releaseReference(oldDeviceParentSlot);
+        }
+
+        if (newLocationParentSlot != oldLocationParentSlot) {
+            if (newLocationParentSlot != NO_SLOT) {
+                referenceCounts[newLocationParentSlot]++;
+            }
+            locationParentSlots[slot] = newLocationParentSlot;
+            releaseReference(oldLocationParentSlot);
+        }
+
+        // The parents may have been allocated without being referenced, if they were the object itself
+        releaseSlotIfUnused(newDeviceParentSlot);
+        releaseSlotIfUnused(newLocationParentSlot);
+    }
+
+    private void removeWithoutLocking(String organizationId, String id) {
+
+        Integer slot = slotById.get(id);
+        if (slot == null || inventoryObjects[slot] == null || !organizationId.equals(organizationIds[slot])) {
+            return;
+        }
+
+        // The children keep referencing the slot, just like the rows of the children keep referencing the ID in the database
+        inventoryObjects[slot] = null;
+        organizationIds[slot] = null;
+
+        int deviceParentSlot = deviceParentSlots[slot];
+        if (deviceParentSlot != NO_SLOT) {
+            unlinkChild(deviceParentSlot, slot);
+            deviceParentSlots[slot] = NO_SLOT;
+            releaseReference(deviceParentSlot);
+        }
+
+        int locationParentSlot = locationParentSlots[slot];
+        if (locationParentSlot != NO_SLOT) {
+            locationParentSlots[slot] = NO_SLOT;
+            releaseReference(locationParentSlot);
+        }
+
+        releaseSlotIfUnused(slot);
+    }
+
+    private void linkChild(int parentSlot, int childSlot) {
+
+        int firstChildSlot = firstChildDeviceSlots[parentSlot];
+        nextSiblingDeviceSlots[childSlot] = firstChildSlot;
+        previousSiblingDeviceSlots[childSlot] = NO_SLOT;
+        if (firstChildSlot != NO_SLOT) {
+            previousSiblingDeviceSlots[firstChildSlot] = childSlot;
+        }
+        firstChildDeviceSlots[parentSlot] = childSlot;
+    }
+
+    private void unlinkChild(int parentSlot, int childSlot) {
+
+        int previousSlot = previousSiblingDeviceSlots[childSlot];
+        int nextSlot = nextSiblingDeviceSlots[childSlot];
+        if (previousSlot == NO_SLOT) {
+            firstChildDeviceSlots[parentSlot] = nextSlot;
+        } else {
+            nextSiblingDeviceSlots[previousSlot] = nextSlot;
+        }
+        if (nextSlot != NO_SLOT) {
+            previousSiblingDeviceSlots[nextSlot] = previousSlot;
+        }
+        nextSiblingDeviceSlots[childSlot] = NO_SLOT;
+        previousSiblingDeviceSlots[childSlot] = NO_SLOT;
+    }
+
+    private void releaseReference(int slot) {
+
+        if (slot != NO_SLOT) {
+            referenceCounts[slot]--;
+            releaseSlotIfUnused(slot);
+        }
+    }
+
+    /**
+     * Releases the slot, if it doesn't contain an object, and no objects reference it as their parent.
+     */
+    private void releaseSlotIfUnused(int slot) {
+
+        if (slot == NO_SLOT || inventoryObjects[slot] != null || referenceCounts[slot] > 0) {
+            return;
+        }
+
+        slotById.remove(ids[slot]);
+        ids[slot] = null;
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private int getOrAllocateSlot(String id) {
+
+        Integer existingSlot = slotById.get(id);
+        if (existingSlot != null) {
+            return existingSlot;
+        }
+
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (usedSlotCount == ids.length) {
+                grow();
+            }
+            slot = usedSlotCount++;
+        }
+
+        ids[slot] = id;
+        inventoryObjects[slot] = null;
+        organizationIds[slot] = null;
+        deviceParentSlots[slot] = NO_SLOT;
+        locationParentSlots[slot] = NO_SLOT;
+        firstChildDeviceSlots[slot] = NO_SLOT;
+        nextSiblingDeviceSlots[slot] = NO_SLOT;
+        previousSiblingDeviceSlots[slot] = NO_SLOT;
+        referenceCounts[slot] = 0;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private void grow() {
+
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        inventoryObjects = Arrays.copyOf(inventoryObjects, capacity);
+        organizationIds = Arrays.copyOf(organizationIds, capacity);
+        deviceParentSlots = Arrays.copyOf(deviceParentSlots, capacity);
+        locationParentSlots = Arrays.copyOf(locationParentSlots, capacity);
+        firstChildDeviceSlots = Arrays.copyOf(firstChildDeviceSlots, capacity);
+        nextSiblingDeviceSlots = Arrays.copyOf(nextSiblingDeviceSlots, capacity);
+        previousSiblingDeviceSlots = Arrays.copyOf(previousSiblingDeviceSlots, capacity);
+        referenceCounts = Arrays.copyOf(referenceCounts, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    private void clear() {
+
+        int capacity = 16;
+        slotById.clear();
+        ids = new String[capacity];
+        inventoryObjects = new InventoryObject[capacity];
+        organizationIds = new String[capacity];
+        deviceParentSlots = new int[capacity];
+        locationParentSlots = new int[capacity];
+        firstChildDeviceSlots = new int[capacity];
+        nextSiblingDeviceSlots = new int[capacity];
+        previousSiblingDeviceSlots = new int[capacity];
+        referenceCounts = new int[capacity];
+        freeSlots = new int[capacity];
+        freeSlotCount = 0;
+        usedSlotCount = 0;
+    }
+}
@@ -1,25 +1,30 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
-import com.google.common.collect.Sets;
 import generated.dto.Device;
 import generated.dto.InventoryObject;
 import generated.dto.Location;
 import generated.dto.Organization;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -34,7 +39,7 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @Repository
 @Transactional(propagation = Propagation.REQUIRED)
-public class InventoryObjectRepository {
+public class InventoryObjectRepository implements InventoryHierarchy {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InventoryObjectRepository.class);
 
@@ -81,6 +86,14 @@ public class InventoryObjectRepository {
         return result;
     };
 
+    /**
+     * The max number of levels the recursive queries below will go up or down a hierarchy. Besides being a sanity limit, it is a
+     * safe-guard against never ending recursion, in case of invalid data that isn't caught by the cycle check of the queries.
+     */
+    private static final int MAX_HIERARCHY_DEPTH = 100;
+
+    private static final int MAX_IN_LIST_SIZE = 100;
+
     private static LocalDate setDate(String serviceDueDate) {
         if (serviceDueDate == null || serviceDueDate.isEmpty()) {
             return null;
@@ -106,71 +119,151 @@ public class InventoryObjectRepository {
      * Inserts the InventoryObject subtype into the inventory_object table if no row with the given ID exists - or updates the existing row
      * if one already exists.
      *
+     * @param organizationId the ID of the organization the object belongs to.
      * @param inventoryObject the Device, Location, or Organization to insert or update.
      * @throws UnexpectedNumberOfRowsAffectedException if the executed SQL did not result in exactly 1 row being inserted or changed.
      */
-    void insertOrUpdate(InventoryObject inventoryObject) throws UnexpectedNumberOfRowsAffectedException {
+    void insertOrUpdate(String organizationId, InventoryObject inventoryObject)
+            throws UnexpectedNumberOfRowsAffectedException {
+        batchInsertOrUpdate(organizationId, Collections.singletonList(inventoryObject));
+    }
 
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
+    /**
+     * Inserts or updates each of the given InventoryObject subtypes like {@link #insertOrUpdate(String, InventoryObject)} does, but sends
+     * the MERGE statements to the database in batches of {@code upsertBatchSize} statements, instead of doing a round-trip to the database
+     * per object.
+     *
+     * @param organizationId the ID of the organization the objects belong to.
+     * @param inventoryObjects the Devices, Locations, and Organizations to insert or update.
+     * @throws UnexpectedNumberOfRowsAffectedException if the executed SQL did not result in exactly 1 row being inserted or changed per
+     *                                                 object.
+     */
+    void batchInsertOrUpdate(String organizationId, Collection<? extends InventoryObject> inventoryObjects)
+            throws UnexpectedNumberOfRowsAffectedException {
+
+        if (inventoryObjects.isEmpty()) {
+            return;
+        }
+
+        int[][] updatedRows = jdbcTemplate.batchUpdate(
+                // Many databases have an insert-or-update statement, although they may look very different from this.
+                // Alternatively one could do a delete (ignoring if fails) followed by an insert.
+                // The IDs are assumed to be unique across all organizations, so the row is found by its ID alone. If two
+                // organizations had an object with the same ID, they would overwrite each other's row.
+                "MERGE INTO inventory_object (id, organization_id, discriminator, label, type, device_parent_id, "
+                        + "location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, "
+                        + "device_note, content_hash) KEY (id)\n"
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                inventoryObjects,
+                configuration.getUpsertBatchSize(),
+                (preparedStatement, inventoryObject) ->
+                        setMergeParameters(preparedStatement, organizationId, inventoryObject));
+
+        UnexpectedNumberOfRowsAffectedException.verifyOneRowAffectedPerStatement(updatedRows);
+    }
+
+    /**
+     * Computes the hash stored in the content_hash column, when the given InventoryObject subtype is written to the inventory_object table.
+     *
+     * @param organizationId the ID of the organization the object belongs to.
+     * @param inventoryObject the Device, Location, or Organization to compute the content hash of.
+     * @return the content hash of the object.
+     */
+    static long computeContentHash(String organizationId, InventoryObject inventoryObject) {
+        return ContentHashIndex.computeContentHash(toColumnValues(organizationId, inventoryObject));
+    }
+
+    /**
+     * Finds the ID and content hash of all the Devices, Locations, and Organizations of the given organization in the inventory_object
+     * table.
+     *
+     * @param organizationId the ID of the organization whose objects to find.
+     * @return the IDs and content hashes of all the InventoryObject subtypes of the organization.
+     */
+    ContentHashIndex findAllContentHashes(String organizationId) {
+        ContentHashIndex result = new ContentHashIndex();
+        jdbcTemplate.query(
+                "SELECT id, content_hash FROM inventory_object WHERE organization_id = ?",
+                (RowCallbackHandler) row -> result.add(row.getString("id"), row.getObject("content_hash", Long.class)),
+                organizationId);
+        return result;
+    }
+
+    private static void setMergeParameters(
+            PreparedStatement preparedStatement, String organizationId, InventoryObject inventoryObject)
+            throws SQLException {
+
+        Object[] columnValues = toColumnValues(organizationId, inventoryObject);
+        for (int index = 0; index < columnValues.length; index++) {
+            StatementCreatorUtils.setParameterValue(
+                    preparedStatement, index + 1, SqlTypeValue.TYPE_UNKNOWN, columnValues[index]);
+        }
+        preparedStatement.setLong(columnValues.length + 1, ContentHashIndex.computeContentHash(columnValues));
+    }
+
+    /**
+     * @return the values written to the columns of the inventory_object table (except content_hash), in the order they appear in the MERGE
+     * statement.
+     */
+    private static Object[] toColumnValues(String organizationId, InventoryObject inventoryObject) {
 
         // Map common fields from InventoryObject
-        parameters.addValue("id", inventoryObject.getId());
-        parameters.addValue("discriminator", inventoryObject.getClass().getSimpleName());
-        parameters.addValue("label", inventoryObject.getLabel());
+        String id = inventoryObject.getId();
+        String discriminator = inventoryObject.getClass().getSimpleName();
+        String label = inventoryObject.getLabel();
 
         // Map fields specific to each subtype of InventoryObject
 
-        switch (inventoryObject) {
-            case Device device -> {
-                parameters.addValue("type", device.getType());
-                parameters.addValue("device_parent_id", device.getParentId());
-                parameters.addValue("location_parent_id", device.getLocationId());
-                parameters.addValue("gateway_ids", convertStringListToCommaSeparatedString(device.getGatewayIds()));
-                parameters.addValue("address", null);
-                parameters.addValue("warranty_expiration", device.getWarrantyExpirationDate());
-                parameters.addValue("service_due_date", device.getServiceDueDate());
-                parameters.addValue("last_service_date", device.getLastServiceDate());
-                parameters.addValue("device_note", device.getDeviceNote());
-            }
-            case Location location -> {
-                parameters.addValue("type", location.getType());
-                parameters.addValue("device_parent_id", null);
-                parameters.addValue("location_parent_id", location.getParentId());
-                parameters.addValue("gateway_ids", null);
-                parameters.addValue("address", location.getAddress());
-                parameters.addValue("warranty_expiration", null);
-                parameters.addValue("service_due_date", null);
-                parameters.addValue("last_service_date", null);
-                parameters.addValue("device_note", null);
-            }
-            case Organization organization -> {
-                parameters.addValue("type", null);
-                parameters.addValue("device_parent_id", null);
-                parameters.addValue("location_parent_id", null);
-                parameters.addValue("gateway_ids", null);
-                parameters.addValue("address", organization.getAddress());
-                parameters.addValue("warranty_expiration", null);
-                parameters.addValue("service_due_date", null);
-                parameters.addValue("last_service_date", null);
-                parameters.addValue("device_note", null);
-            }
+        return switch (inventoryObject) {
+            case Device device -> new Object[] {
+                id,
+                organizationId,
+                discriminator,
+                label,
+                device.getType(),
+                device.getParentId(),
+                device.getLocationId(),
+                convertStringListToCommaSeparatedString(device.getGatewayIds()),
+                null,
+                device.getWarrantyExpirationDate(),
+                device.getServiceDueDate(),
+                device.getLastServiceDate(),
+                device.getDeviceNote()
+            };
+            case Location location -> new Object[] {
+                id,
+                organizationId,
+                discriminator,
+                label,
+                location.getType(),
+                null,
+                location.getParentId(),
+                null,
+                location.getAddress(),
+                null,
+                null,
+                null,
+                null
+            };
+            case Organization organization -> new Object[] {
+                id,
+                organizationId,
+                discriminator,
+                label,
+                null,
+                null,
+                null,
+                null,
+                organization.getAddress(),
+                null,
+                null,
+                null,
+                null
+            };
             default ->
                 throw new RuntimeException("Unexpected parameter type :"
                         + inventoryObject.getClass().getSimpleName());
-        }
-
-        int updatedRows = namedParameterJdbcTemplate.update(
-                // Many databases have an insert-or-update statement, although they may look very different from this.
-                // Alternatively one could do a delete (ignoring if fails) followed by an insert.
-                "MERGE INTO inventory_object (id, discriminator, label, type, device_parent_id, location_parent_id, "
-                        + "gateway_ids, address,warranty_expiration,service_due_date,last_service_date,device_note ) KEY (id)\n"
-                        + "VALUES (:id, :discriminator, :label, :type, :device_parent_id, :location_parent_id, "
-                        + ":gateway_ids, :address, :warranty_expiration, :service_due_date, :last_service_date, :device_note)",
-                parameters);
-
-        if (updatedRows != 1) {
-            throw new UnexpectedNumberOfRowsAffectedException(1, updatedRows);
-        }
+        };
     }
 
     /**
@@ -179,6 +272,7 @@ public class InventoryObjectRepository {
      * @param id of the InventoryObject subtype to find.
      * @return the Device, Location, or Organization with the given ID - or null if none were found.
      */
+    @Override
     public InventoryObject findById(String id) {
 
         MapSqlParameterSource parameters = new MapSqlParameterSource();
@@ -206,25 +300,54 @@ public class InventoryObjectRepository {
     }
 
     /**
-     * The inventory will contain exactly one Organization object, which contains information like name and address of the organization.
-     * This method returns that Organization object.
+     * Finds the Devices, Locations, and Organizations of the given organization with the given IDs, using a query per
+     * {@value #MAX_IN_LIST_SIZE} IDs. IDs that are not in the inventory_object table, or belong to another organization, are skipped.
      *
-     * @return the single Organization object.
+     * @param organizationId the ID of the organization the objects belong to.
+     * @param ids the IDs of the objects to find.
+     * @return the objects found, in no particular order.
      */
-    public Organization findOrganization() {
-        return (Organization) findById(configuration.getOrganizationId());
+    List<InventoryObject> findByIds(String organizationId, Collection<String> ids) {
+
+        List<InventoryObject> result = new ArrayList<>(ids.size());
+
+        // The JDBC standard does not guarantee that you can use more than 100 values for an IN expression list, and various databases
+        // have different limits. See https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
+        List<String> idsAsList = new ArrayList<>(ids);
+        for (int fromIndex = 0; fromIndex < idsAsList.size(); fromIndex += MAX_IN_LIST_SIZE) {
+
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            parameters.addValue("organization_id", organizationId);
+            parameters.addValue("ids", idsAsList.subList(fromIndex, Math.min(fromIndex + MAX_IN_LIST_SIZE, idsAsList.size())));
+
+            result.addAll(namedParameterJdbcTemplate.query(
+                    "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                            + "FROM inventory_object "
+                            + "WHERE organization_id = :organization_id AND id IN (:ids)",
+                    parameters,
+                    INVENTORY_OBJECT_ROW_MAPPER));
+        }
+        return result;
     }
 
     /**
-     * Finds the Location with the given ID in the inventory_object table.
+     * The inventory of each organization will contain exactly one Organization object, which contains information like name and address of
+     * the organization. This method returns the Organization object of the organization that the given inventory object belongs to.
      *
-     * @param locationId the ID of the Location to find.
-     * @return the Location with the given ID - or null if no Location with the given ID was found.
+     * @param inventoryObjectId the ID of a Device, Location, or Organization.
+     * @return the Organization object - or null if it wasn't found.
      */
-    public Location findLocationById(String locationId) {
-        InventoryObject inventoryObject = findById(locationId);
-        if (inventoryObject instanceof Location location) {
-            return location;
+    @Override
+    public Organization findOrganizationOf(String inventoryObjectId) {
+        List<InventoryObject> result = jdbcTemplate.query(
+                "SELECT organization.id, organization.discriminator, organization.label, organization.type, organization.device_parent_id, organization.location_parent_id, organization.gateway_ids, organization.address, organization.warranty_expiration, organization.service_due_date, organization.last_service_date, organization.device_note "
+                        + "FROM inventory_object organization "
+                        + "JOIN inventory_object member ON member.organization_id = organization.id "
+                        + "WHERE member.id = ? AND organization.discriminator = 'Organization'",
+                INVENTORY_OBJECT_ROW_MAPPER,
+                inventoryObjectId);
+        if (!result.isEmpty() && result.getFirst() instanceof Organization organization) {
+            return organization;
         }
         return null;
     }
@@ -240,6 +363,19 @@ public class InventoryObjectRepository {
                 INVENTORY_OBJECT_ROW_MAPPER);
     }
 
+    /**
+     * Reads all the Devices, Locations, and Organizations in the inventory_object table one row at a time, so they don't all have to be
+     * held in a list.
+     *
+     * @param consumer receives the ID of the organization each object belongs to, and the object.
+     */
+    void forEachInventoryObject(BiConsumer<String, InventoryObject> consumer) {
+        jdbcTemplate.query(
+                "SELECT id, organization_id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note FROM inventory_object",
+                (RowCallbackHandler) row -> consumer.accept(
+                        row.getString("organization_id"), INVENTORY_OBJECT_ROW_MAPPER.mapRow(row, row.getRow())));
+    }
+
     /**
      * Return a list of rows. A row will be represented by a map, where key is the column name and value is the cell value. E.g.:
      * <pre>
@@ -252,64 +388,21 @@ public class InventoryObjectRepository {
      */
     public List<Map<String, Object>> findAllAsListOfMapsOrderedByDiscriminatorDesc() {
         return jdbcTemplate.queryForList(
-                "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                "SELECT id, organization_id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
                         + "FROM inventory_object ORDER BY discriminator DESC");
     }
 
     /**
-     * Finds all the inventory objects (Devices, Locations, and Organization) in the inventory_object table, and return their IDs.
-     *
-     * @return the IDs of all the InventoryObject subtypes.
-     */
-    Set<String> findAllIds() {
-        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM inventory_object", String.class));
-    }
-
-    /**
-     * Finds the Devices that are the parent of this device (or null if it doesn't have a parent). E.g. given the devices below, then:
-     * <ul>
-     *     <li>findParentDevice(device-a) would return null
-     *     <li>findParentDevice(device-b) would return device-a
-     *     <li>findParentDevice(device-d) would return device-c
-     * </ul>
-     * <pre>
-     *           device-a
-     *              |
-     *      +-------+-------+
-     *      |               |
-     *   device-b        device-c
-     *                      |
-     *                   device-d
-     * </pre>
+     * Like {@link #findAllAsListOfMapsOrderedByDiscriminatorDesc()}, but only returns the rows of the given organization.
      *
-     * @param device the Device whose parent to find
-     * @return the immediate parent of the given device, or null if the device does not have a parent device
+     * @param organizationId the ID of the organization whose objects to find.
+     * @return all the Devices, Locations, and Organizations of the organization from the inventory_object table
      */
-    Device findParentDevice(Device device) {
-        Device result;
-        String deviceParentId = device.getParentId();
-        if (deviceParentId == null) {
-            result = null;
-        } else {
-            InventoryObject parent = findById(deviceParentId);
-            if (!(parent instanceof Device parentDevice)) {
-                // This can happen because the Public API returns eventually consistent data.
-                LOGGER.debug(
-                        "Device {} referenced a device parent ID {}, which doesn't exist or wasn't a Device",
-                        extractDeviceId(device),
-                        extractDeviceParentId(device));
-                result = null;
-            } else {
-                result = parentDevice;
-            }
-        }
-
-        LOGGER.trace(
-                "{}.findParentDevice({}) -> {}",
-                getClass().getSimpleName(),
-                extractDeviceId(device),
-                extractDeviceId(result));
-        return result;
+    public List<Map<String, Object>> findByOrganizationIdAsListOfMapsOrderedByDiscriminatorDesc(String organizationId) {
+        return jdbcTemplate.queryForList(
+                "SELECT id, organization_id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                        + "FROM inventory_object WHERE organization_id = ? ORDER BY discriminator DESC",
+                organizationId);
     }
 
     /**
@@ -333,39 +426,58 @@ public class InventoryObjectRepository {
      * @param device the Device which is part of a device-tree whose root we want to find
      * @return the root of the device-tree
      */
+    @Override
     public Device findRootDevice(Device device) {
 
-        Device currentDevice = device;
-
-        int iterations = 0;
+        Device result = device;
+
+        if (device.getParentId() != null) {
+
+            // Reads the chain of device parents, starting with the parent of the device, in a single query. The path column contains the
+            // IDs visited so far, so the recursion stops if the device parents form a cycle.
+            List<InventoryObject> ancestors = jdbcTemplate.query(
+                    "WITH RECURSIVE device_ancestor(tree_id, tree_parent_id, tree_depth, tree_path) AS (\n"
+                            + "    SELECT id, device_parent_id, 1, CAST(',' || ? || ',' || id || ',' AS VARCHAR)\n"
+                            + "    FROM inventory_object WHERE id = ? AND discriminator = 'Device'\n"
+                            + "  UNION ALL\n"
+                            + "    SELECT parent.id, parent.device_parent_id, tree_depth + 1, tree_path || parent.id || ','\n"
+                            + "    FROM inventory_object parent JOIN device_ancestor ON parent.id = tree_parent_id\n"
+                            + "    WHERE parent.discriminator = 'Device' AND LOCATE(',' || parent.id || ',', tree_path) = 0\n"
+                            + "    AND tree_depth < ?\n"
+                            + ")\n"
+                            + "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                            + "FROM inventory_object JOIN device_ancestor ON id = tree_id ORDER BY tree_depth",
+                    INVENTORY_OBJECT_ROW_MAPPER,
+                    device.getId(),
+                    device.getParentId(),
+                    MAX_HIERARCHY_DEPTH);
+
+            if (!ancestors.isEmpty()) {
+                result = (Device) ancestors.getLast();
+            }
 
-        while (true) {
-            iterations++;
-            if (iterations > 100) {
+            // If the root still has a parent, which is a Device, the recursion was stopped by the cycle check or the depth limit
+            String parentIdOfRoot = result.getParentId();
+            if (parentIdOfRoot != null
+                    && (parentIdOfRoot.equals(device.getId())
+                            || ancestors.stream().anyMatch(ancestor -> parentIdOfRoot.equals(ancestor.getId()))
+                            || ancestors.size() >= MAX_HIERARCHY_DEPTH)) {
                 // Safe-guard to not end in never ending loop in case of invalid data
-                throw new RuntimeException("After 100 iterations have still not reached root device");
+                throw new RuntimeException("Could not find the root device of device " + device.getId()
+                        + ", as its device parents form a cycle or are more than " + MAX_HIERARCHY_DEPTH + " levels deep");
             }
-            Device parentDevice = findParentDevice(currentDevice);
-            if (parentDevice == null) {
-                break;
-            }
-            currentDevice = parentDevice;
         }
 
         LOGGER.trace(
-                "{}.findRootDevice({}) -> {}",
-                getClass().getSimpleName(),
-                extractDeviceId(device),
-                extractDeviceId(currentDevice));
-        return currentDevice;
+                "{}.findRootDevice({}) -> {}", getClass().getSimpleName(), extractDeviceId(device), extractDeviceId(result));
+        return result;
     }
 
     /**
-     * Finds all the Devices that have the given device as their parent. E.g. given the devices below, then:
+     * Finds the given device and all the Devices below it in its device-tree, using a single query. E.g. given the devices below, then:
      * <ul>
-     *     <li>findAllChildDevices(device-a) would return a list with device-b and device-c
-     *     <li>findAllChildDevices(device-b) would return an empty list
-     *     <li>findAllChildDevices(device-c) would return a list with device-d
+     *     <li>findDeviceAndDescendants(device-a) would return a list with device-a, device-b, device-c, and device-d
+     *     <li>findDeviceAndDescendants(device-c) would return a list with device-c and device-d
      * </ul>
      * <pre>
      *           device-a
@@ -377,28 +489,36 @@ public class InventoryObjectRepository {
      *                   device-d
      * </pre>
      *
-     * @param device the Device whose children to find
-     * @return the immediate children of the given device, which will be an empty list, if the device does not have any children
+     * @param device the Device whose descendants to find
+     * @return the device followed by its descendants, ordered by their depth below the device - or an empty list, if the device doesn't
+     * exist in the inventory_object table
      */
-    public List<Device> findAllChildDevices(Device device) {
-
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("device_parent_id", device.getId());
-
-        List<InventoryObject> resultAsInventoryObjects = namedParameterJdbcTemplate.query(
-                "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
-                        + "FROM inventory_object "
-                        + "WHERE device_parent_id = :device_parent_id",
-                parameters,
-                INVENTORY_OBJECT_ROW_MAPPER);
+    @Override
+    public List<Device> findDeviceAndDescendants(Device device) {
+
+        // The path column contains the IDs from the given device down to the current device, so the recursion stops if the device
+        // parents form a cycle.
+        List<InventoryObject> resultAsInventoryObjects = jdbcTemplate.query(
+                "WITH RECURSIVE device_tree(tree_id, tree_depth, tree_path) AS (\n"
+                        + "    SELECT id, 0, CAST(',' || id || ',' AS VARCHAR)\n"
+                        + "    FROM inventory_object WHERE id = ? AND discriminator = 'Device'\n"
+                        + "  UNION ALL\n"
+                        + "    SELECT child.id, tree_depth + 1, tree_path || child.id || ','\n"
+                        + "    FROM inventory_object child JOIN device_tree ON child.device_parent_id = tree_id\n"
+                        + "    WHERE child.discriminator = 'Device' AND LOCATE(',' || child.id || ',', tree_path) = 0\n"
+                        + "    AND tree_depth < ?\n"
+                        + ")\n"
+                        + "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                        + "FROM inventory_object JOIN device_tree ON id = tree_id ORDER BY tree_depth",
+                INVENTORY_OBJECT_ROW_MAPPER,
+                device.getId(),
+                MAX_HIERARCHY_DEPTH);
 
-        List<Device> resultAsDevices = resultAsInventoryObjects.stream()
-                .filter(inventoryObject -> inventoryObject instanceof Device) // just to guard against invalid data
-                .map(inventoryObject -> (Device) inventoryObject)
-                .collect(Collectors.toList());
+        List<Device> resultAsDevices =
+                resultAsInventoryObjects.stream().map(Device.class::cast).collect(Collectors.toList());
 
         LOGGER.trace(
-                "{}.findAllChildDevices({}) -> {}",
+                "{}.findDeviceAndDescendants({}) -> {}",
                 getClass().getSimpleName(),
                 device.getId(),
                 resultAsDevices.stream().map(InventoryObject::getId).collect(Collectors.toList()));
@@ -407,52 +527,82 @@ public class InventoryObjectRepository {
     }
 
     /**
-     * Deletes the InventoryObject subtype objects with the given ID from the inventory_object table. Silently ignores if trying to delete a
-     * non-existing ID.
+     * Finds the Location with the given ID, and all the Locations above it (its parent location, the parent of that, and so on), using a
+     * single query.
      *
-     * @param id the IDs of the object to delete.
+     * @param locationId the ID of the Location whose ancestors to find
+     * @return the location followed by its ancestors, ordered from the location up towards the top-most location - or an empty list, if no
+     * Location with the given ID exists in the inventory_object table
      */
-    public void deleteById(String id) {
-        deleteByIds(Collections.singleton(id));
+    @Override
+    public List<Location> findLocationAndAncestors(String locationId) {
+
+        // The path column contains the IDs visited so far, so the recursion stops if the location parents form a cycle
+        List<InventoryObject> resultAsInventoryObjects = jdbcTemplate.query(
+                "WITH RECURSIVE location_ancestor(tree_id, tree_parent_id, tree_depth, tree_path) AS (\n"
+                        + "    SELECT id, location_parent_id, 0, CAST(',' || id || ',' AS VARCHAR)\n"
+                        + "    FROM inventory_object WHERE id = ? AND discriminator = 'Location'\n"
+                        + "  UNION ALL\n"
+                        + "    SELECT parent.id, parent.location_parent_id, tree_depth + 1, tree_path || parent.id || ','\n"
+                        + "    FROM inventory_object parent JOIN location_ancestor ON parent.id = tree_parent_id\n"
+                        + "    WHERE parent.discriminator = 'Location' AND LOCATE(',' || parent.id || ',', tree_path) = 0\n"
+                        + "    AND tree_depth < ?\n"
+                        + ")\n"
+                        + "SELECT id, discriminator, label, type, device_parent_id, location_parent_id, gateway_ids, address, warranty_expiration, service_due_date, last_service_date, device_note "
+                        + "FROM inventory_object JOIN location_ancestor ON id = tree_id ORDER BY tree_depth",
+                INVENTORY_OBJECT_ROW_MAPPER,
+                locationId,
+                MAX_HIERARCHY_DEPTH);
+
+        List<Location> resultAsLocations =
+                resultAsInventoryObjects.stream().map(Location.class::cast).collect(Collectors.toList());
+
+        LOGGER.trace(
+                "{}.findLocationAndAncestors({}) -> {}",
+                getClass().getSimpleName(),
+                locationId,
+                resultAsLocations.stream().map(InventoryObject::getId).collect(Collectors.toList()));
+
+        return resultAsLocations;
     }
 
     /**
-     * Deletes all the InventoryObject subtype objects from the inventory_object table, that have one of the given IDs. Silently ignores if
-     * trying to delete a non-existing ID.
+     * Deletes the InventoryObject subtype object with the given ID of the given organization from the inventory_object table. Silently
+     * ignores if trying to delete a non-existing ID, or an object of another organization.
      *
-     * @param ids the IDs of the objects to delete.
+     * @param organizationId the ID of the organization the object belongs to.
+     * @param id the ID of the object to delete.
      */
-    public void deleteByIds(Set<String> ids) {
-
-        // The JDBC standard does not guarantee that you can use more than 100 values for an IN expression list.
-        // Various databases exceed this number, but they usually have a hard limit for how many values are allowed.
-        // See https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
-        // Therefore, we delete the ids in chunks of no more than 100 per chunk.
-
-        Set<String> max100ids = Sets.newHashSetWithExpectedSize(100);
-        for (String id : ids) {
-            max100ids.add(id);
-            if (max100ids.size() == 100) {
-                deleteByIdsMax100(max100ids);
-                max100ids.clear();
-            }
-        }
-        if (max100ids.size() > 0) {
-            deleteByIdsMax100(max100ids);
-        }
+    public void deleteById(String organizationId, String id) {
+        deleteByIds(organizationId, Collections.singleton(id));
     }
 
-    private void deleteByIdsMax100(Set<String> ids) {
+    /**
+     * Deletes all the InventoryObject subtype objects of the given organization from the inventory_object table, that have one of the given
+     * IDs. Silently ignores if trying to delete a non-existing ID, or an object of another organization.
+     *
+     * @param organizationId the ID of the organization the objects belong to.
+     * @param ids the IDs of the objects to delete.
+     */
+    public void deleteByIds(String organizationId, Collection<String> ids) {
 
-        if (ids.size() > 100) {
-            throw new IllegalArgumentException(
-                    "Parameter ids must not contain more than 100 entries, but contained " + ids.size());
+        if (ids.isEmpty()) {
+            return;
         }
 
-        MapSqlParameterSource parameters = new MapSqlParameterSource();
-        parameters.addValue("ids", ids);
-
-        namedParameterJdbcTemplate.update("DELETE FROM inventory_object WHERE id IN (:ids)", parameters);
+        // Deleting the IDs one by one in a JDBC batch avoids long IN expression lists. The JDBC standard does not guarantee that
+        // you can use more than 100 values for an IN expression list, and various databases have different limits. See
+        // https://docs.spring.io/spring/docs/current/spring-framework-reference/data-access.html#jdbc-in-clause
+        // A batch still only needs one round-trip to the database per upsertBatchSize IDs.
+
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM inventory_object WHERE organization_id = ? AND id = ?",
+                ids,
+                configuration.getUpsertBatchSize(),
+                (preparedStatement, id) -> {
+                    preparedStatement.setString(1, organizationId);
+                    preparedStatement.setString(2, id);
+                });
     }
 
     private static String convertStringListToCommaSeparatedString(List<String> strings) {
@@ -476,12 +626,4 @@ public class InventoryObjectRepository {
             return device.getId();
         }
     }
-
-    private String extractDeviceParentId(Device device) {
-        if (device == null) {
-            return "null";
-        } else {
-            return device.getParentId();
-        }
-    }
 }
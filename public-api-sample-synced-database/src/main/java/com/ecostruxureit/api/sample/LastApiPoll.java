@@ -4,21 +4,33 @@ package com.ecostruxureit.api.sample;
 import java.time.Instant;
 
 /**
- * Two instances of this object is stored in the database in the {@code last_api_poll} table.
+ * Two instances of this object per organization is stored in the database in the {@code last_api_poll} table.
  * <p>
- * The instances each contain information about when the data was last retrieved from the REST endpoint - one about when alarms were last
- * retrieved and one about when inventory objects were last retrieved.
+ * The instances each contain information about when the data of an organization was last retrieved from the REST endpoint - one about when
+ * alarms were last retrieved and one about when inventory objects were last retrieved.
  */
 class LastApiPoll {
 
     static final String RESOURCE_NAME_FOR_ALARM = "alarm";
     static final String RESOURCE_NAME_FOR_INVENTORY_OBJECT = "inventory_object";
 
+    private String organizationId;
     private String resourceName;
     private long currentOffset;
     private long lastPollTime;
     private long lastFullReadTime;
 
+    /**
+     * @return the ID of the organization, whose data this instance contains poll information about.
+     */
+    String getOrganizationId() {
+        return organizationId;
+    }
+
+    void setOrganizationId(String organizationId) {
+        this.organizationId = organizationId;
+    }
+
     /**
      * @return either {@link #RESOURCE_NAME_FOR_ALARM} or {@link #RESOURCE_NAME_FOR_INVENTORY_OBJECT} depending on which this instance
      * contains poll information about.
@@ -76,7 +88,8 @@ class LastApiPoll {
 
     @Override
     public String toString() {
-        return "LastApiPoll{" + "resourceName='"
+        return "LastApiPoll{" + "organizationId='"
+                + organizationId + '\'' + ", resourceName='"
                 + resourceName + '\'' + ", currentOffset="
                 + currentOffset + ", lastPollTime="
                 + Instant.ofEpochMilli(lastPollTime) + ", lastFullReadTime="
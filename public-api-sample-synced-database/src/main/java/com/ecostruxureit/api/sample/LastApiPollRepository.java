@@ -1,6 +1,7 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import java.util.List;
 import java.util.Objects;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -20,6 +21,7 @@ class LastApiPollRepository {
     // Used to map from a row in the last_api_poll table to an LastApiPoll object
     private static final RowMapper<LastApiPoll> ROW_MAPPER = (row, rowNumber) -> {
         LastApiPoll lastApiPoll = new LastApiPoll();
+        lastApiPoll.setOrganizationId(row.getString("organization_id"));
         lastApiPoll.setResourceName(row.getString("resource_name"));
         lastApiPoll.setCurrentOffset(row.getLong("current_offset"));
         lastApiPoll.setLastChangesPollTime(row.getLong("last_changes_poll_time"));
@@ -34,40 +36,54 @@ class LastApiPollRepository {
     }
 
     /**
-     * @param lastApiPoll updates the row in the last_api_poll that represents the given resource.
+     * @param lastApiPoll inserts or updates the row in the last_api_poll that represents the given organization and resource.
      */
     void updateLastApiPoll(LastApiPoll lastApiPoll) {
 
-        // Note that V1.0__init.sql inserts initial versions of the 2 rows, so we can always just do updates (never
-        // inserts).
+        // The row of an organization and resource is inserted the first time it is polled, and updated afterwards.
         int updatedRows = jdbcTemplate.update(
-                "UPDATE last_api_poll "
-                        + "SET current_offset = ?, last_changes_poll_time = ?, last_full_read_time = ? "
-                        + "WHERE resource_name = ?",
+                "MERGE INTO last_api_poll "
+                        + "(organization_id, resource_name, current_offset, last_changes_poll_time, last_full_read_time) "
+                        + "KEY (organization_id, resource_name) VALUES (?, ?, ?, ?, ?)",
+                lastApiPoll.getOrganizationId(),
+                lastApiPoll.getResourceName(),
                 lastApiPoll.getCurrentOffset(),
                 lastApiPoll.getLastChangesPollTime(),
-                lastApiPoll.getLastFullReadTime(),
-                lastApiPoll.getResourceName());
+                lastApiPoll.getLastFullReadTime());
 
         if (updatedRows != 1) {
             throw new UnexpectedNumberOfRowsAffectedException(1, updatedRows);
         }
     }
 
-    LastApiPoll findLastApiPollForAlarm() {
-        return findLastApiPollByResourceName(LastApiPoll.RESOURCE_NAME_FOR_ALARM);
+    LastApiPoll findLastApiPollForAlarm(String organizationId) {
+        return findLastApiPoll(organizationId, LastApiPoll.RESOURCE_NAME_FOR_ALARM);
     }
 
-    LastApiPoll findLastApiPollForInventoryObject() {
-        return findLastApiPollByResourceName(LastApiPoll.RESOURCE_NAME_FOR_INVENTORY_OBJECT);
+    LastApiPoll findLastApiPollForInventoryObject(String organizationId) {
+        return findLastApiPoll(organizationId, LastApiPoll.RESOURCE_NAME_FOR_INVENTORY_OBJECT);
     }
 
-    private LastApiPoll findLastApiPollByResourceName(String resourceName) {
+    /**
+     * @return the poll information about the given organization and resource - or an instance with offset and times set to 0, if the
+     * resource of the organization has not been polled yet.
+     */
+    private LastApiPoll findLastApiPoll(String organizationId, String resourceName) {
 
-        return jdbcTemplate.queryForObject(
-                "SELECT resource_name, current_offset, last_changes_poll_time, last_full_read_time"
-                        + " FROM last_api_poll WHERE resource_name = ?",
+        List<LastApiPoll> result = jdbcTemplate.query(
+                "SELECT organization_id, resource_name, current_offset, last_changes_poll_time, last_full_read_time"
+                        + " FROM last_api_poll WHERE organization_id = ? AND resource_name = ?",
                 ROW_MAPPER,
+                organizationId,
                 resourceName);
+
+        if (!result.isEmpty()) {
+            return result.get(0);
+        }
+
+        LastApiPoll lastApiPoll = new LastApiPoll();
+        lastApiPoll.setOrganizationId(organizationId);
+        lastApiPoll.setResourceName(resourceName);
+        return lastApiPoll;
     }
 }
@@ -0,0 +1,104 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.time.Duration;
+
+/**
+ * Decides when to poll a REST resource (alarms or inventory objects) again, based on the result of the previous poll.
+ * <p>
+ * The API may return only part of the changes, if there are a lot of them (e.g. after an incident). So if a poll returned changes, the
+ * resource is polled again right away, until the API no longer returns any new changes. To not be rate limited by the API, the number of
+ * these immediate polls is limited to {@code maxImmediatePollsPerMinute} (using a token bucket) - when the limit is reached, the normal
+ * poll interval is used instead.
+ * <p>
+ * If a poll didn't return any changes, the poll interval is doubled, up to {@code maxPollInterval}, and it is reset to
+ * {@code pollInterval} when changes are received again. Likewise, the time to wait after a failed poll is doubled for each failure in a
+ * row, up to {@code maxPollInterval}, so e.g. an unavailable API isn't polled more than needed.
+ * <p>
+ * The schedule also keeps track of how far behind the local database may be, which is the time since the start of the latest successful
+ * poll. A poll returning changes counts too, as a busy organization may return new changes on every poll without being behind. If the API
+ * only returned part of the changes, the database is further behind than that, until the rest has been read by the immediate polls.
+ * <p>
+ * This class is thread safe.
+ */
+class PollingSchedule {
+
+    private final long pollIntervalMillis;
+    private final long maxPollIntervalMillis;
+    private final int maxImmediatePollsPerMinute;
+    private long currentPollIntervalMillis;
+    private long failureDelayMillis;
+    private double immediatePollTokens;
+    private long lastTokenRefillTime;
+    private long lastCaughtUpTime;
+
+    /**
+     * @param pollInterval the interval between polls, while changes are being received.
+     * @param maxPollInterval the max interval between polls, when no changes are being received.
+     * @param maxImmediatePollsPerMinute the max number of times per minute to poll again right away, because a poll returned changes.
+     * @param now the current time in milliseconds since the epoch.
+     */
+    PollingSchedule(Duration pollInterval, Duration maxPollInterval, int maxImmediatePollsPerMinute, long now) {
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.maxPollIntervalMillis = maxPollInterval.toMillis();
+        this.maxImmediatePollsPerMinute = maxImmediatePollsPerMinute;
+        this.currentPollIntervalMillis = pollIntervalMillis;
+        this.failureDelayMillis = pollIntervalMillis;
+        this.immediatePollTokens = maxImmediatePollsPerMinute;
+        this.lastTokenRefillTime = now;
+        this.lastCaughtUpTime = now;
+    }
+
+    /**
+     * @param pollStartTime the time the poll started, in milliseconds since the epoch.
+     * @param receivedChanges true if the poll returned new changes, in which case more changes may be ready to be read right away.
+     * @param now the current time in milliseconds since the epoch.
+     * @return the number of milliseconds to wait before polling again.
+     */
+    synchronized long onPollCompleted(long pollStartTime, boolean receivedChanges, long now) {
+
+        failureDelayMillis = pollIntervalMillis;
+        lastCaughtUpTime = pollStartTime;
+
+        if (!receivedChanges) {
+            long delayMillis = currentPollIntervalMillis;
+            currentPollIntervalMillis = Math.min(currentPollIntervalMillis * 2, maxPollIntervalMillis);
+            return delayMillis;
+        }
+
+        currentPollIntervalMillis = pollIntervalMillis;
+
+        refillImmediatePollTokens(now);
+        if (immediatePollTokens >= 1) {
+            immediatePollTokens--;
+            return 0;
+        }
+        return pollIntervalMillis;
+    }
+
+    /**
+     * @return the number of milliseconds to wait before polling again, after a poll failed.
+     */
+    synchronized long onPollFailed() {
+        currentPollIntervalMillis = pollIntervalMillis;
+        long delayMillis = failureDelayMillis;
+        failureDelayMillis = Math.min(failureDelayMillis * 2, maxPollIntervalMillis);
+        return delayMillis;
+    }
+
+    /**
+     * @param now the current time in milliseconds since the epoch.
+     * @return the number of milliseconds the local database may be behind the API.
+     */
+    synchronized long getBehindByMillis(long now) {
+        return Math.max(0, now - lastCaughtUpTime);
+    }
+
+    private void refillImmediatePollTokens(long now) {
+        long elapsedMillis = Math.max(0, now - lastTokenRefillTime);
+        immediatePollTokens = Math.min(
+                maxImmediatePollsPerMinute,
+                immediatePollTokens + elapsedMillis * maxImmediatePollsPerMinute / (double) Duration.ofMinutes(1).toMillis());
+        lastTokenRefillTime = now;
+    }
+}
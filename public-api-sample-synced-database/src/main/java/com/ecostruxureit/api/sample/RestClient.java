@@ -1,17 +1,21 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import generated.dto.Alarm;
 import generated.dto.AlarmChangesResponse;
-import generated.dto.AlarmsResponse;
 import generated.dto.InventoryChangesResponse;
-import generated.dto.InventoryResponse;
+import generated.dto.InventoryObject;
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -27,49 +31,75 @@ public class RestClient {
     private static final Duration READ_TIMEOUT = Duration.ofMinutes(2);
 
     private final Configuration configuration;
+    private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
 
-    RestClient(Configuration configuration, RestTemplateBuilder restTemplateBuilder) {
+    RestClient(Configuration configuration, ObjectMapper objectMapper, RestTemplateBuilder restTemplateBuilder) {
 
         this.configuration = Objects.requireNonNull(configuration);
+        this.objectMapper = Objects.requireNonNull(objectMapper);
         this.restTemplate = restTemplateBuilder
                 .setConnectTimeout(CONNECTION_TIMEOUT)
                 .setReadTimeout(READ_TIMEOUT)
                 .build();
     }
 
-    InventoryResponse listInventory() {
-
-        return httpGet(InventoryResponse.class, "inventory");
+    /**
+     * Reads all the inventory objects of an organization, and passes them to the consumer in chunks of {@code upsertBatchSize} objects
+     * while the response is being received - see {@link StreamingResponseExtractor}.
+     *
+     * @param organizationId the ID of the organization whose inventory objects to read.
+     * @param inventoryObjectsConsumer receives the inventory objects.
+     * @return the offset to use when reading the inventory changes that happen after this read.
+     */
+    long streamInventory(String organizationId, Consumer<List<InventoryObject>> inventoryObjectsConsumer) {
+
+        return httpGetStreaming(
+                new StreamingResponseExtractor<>(
+                        objectMapper,
+                        "inventoryObjects",
+                        InventoryObject.class,
+                        configuration.getUpsertBatchSize(),
+                        inventoryObjectsConsumer),
+                organizationId,
+                "inventory");
     }
 
-    InventoryChangesResponse getInventoryChangesAfterOffset(long offset) {
+    InventoryChangesResponse getInventoryChangesAfterOffset(String organizationId, long offset) {
 
-        return httpGet(InventoryChangesResponse.class, "inventory-changes", Long.toString(offset));
+        return httpGet(InventoryChangesResponse.class, organizationId, "inventory-changes", Long.toString(offset));
     }
 
-    AlarmsResponse listAlarms() {
-
-        return httpGet(AlarmsResponse.class, "alarms");
+    /**
+     * Reads all the active alarms and recently cleared alarms of an organization, and passes them to the consumer in chunks of
+     * {@code upsertBatchSize} alarms while the response is being received - see {@link StreamingResponseExtractor}.
+     *
+     * @param organizationId the ID of the organization whose alarms to read.
+     * @param alarmsConsumer receives the alarms.
+     * @return the offset to use when reading the alarm changes that happen after this read.
+     */
+    long streamAlarms(String organizationId, Consumer<List<Alarm>> alarmsConsumer) {
+
+        return httpGetStreaming(
+                new StreamingResponseExtractor<>(
+                        objectMapper, "alarms", Alarm.class, configuration.getUpsertBatchSize(), alarmsConsumer),
+                organizationId,
+                "alarms");
     }
 
-    AlarmChangesResponse getAlarmChangesAfterOffset(long offset) {
+    AlarmChangesResponse getAlarmChangesAfterOffset(String organizationId, long offset) {
 
-        return httpGet(AlarmChangesResponse.class, "alarm-changes", Long.toString(offset));
+        return httpGet(AlarmChangesResponse.class, organizationId, "alarm-changes", Long.toString(offset));
     }
 
-    private <T> T httpGet(Class<T> expectedResultType, String... extraPathSegments) {
-
-        String uri = UriComponentsBuilder.fromHttpUrl(configuration.getApiUrl())
-                .pathSegment("organizations", configuration.getOrganizationId())
-                .pathSegment(extraPathSegments)
-                .toUriString();
+    private <T> T httpGet(Class<T> expectedResultType, String organizationId, String... extraPathSegments) {
 
         HttpHeaders requestHeaders = new HttpHeaders();
-        requestHeaders.set(HttpHeaders.AUTHORIZATION, "bearer " + configuration.getApiKey());
+        requestHeaders.set(HttpHeaders.AUTHORIZATION, getAuthorizationHeaderValue());
         HttpEntity<Void> requestEntity = new HttpEntity<>(null, requestHeaders);
 
-        ResponseEntity<T> response = restTemplate.exchange(uri, HttpMethod.GET, requestEntity, expectedResultType);
+        ResponseEntity<T> response = restTemplate.exchange(
+                buildUri(organizationId, extraPathSegments), HttpMethod.GET, requestEntity, expectedResultType);
 
         // The call to exchange above already throws an exception if receiving 4xx and 5xx status codes.
         // But we only see "200 OK" as success, so throw exception if it isn't (e.g. if it is "204 No Content").
@@ -79,4 +109,30 @@ public class RestClient {
 
         return response.getBody();
     }
+
+    private long httpGetStreaming(
+            StreamingResponseExtractor<?> responseExtractor, String organizationId, String... extraPathSegments) {
+
+        Long offset = restTemplate.execute(
+                buildUri(organizationId, extraPathSegments),
+                HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set(HttpHeaders.AUTHORIZATION, getAuthorizationHeaderValue());
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                },
+                responseExtractor);
+
+        return Objects.requireNonNull(offset);
+    }
+
+    private String buildUri(String organizationId, String... extraPathSegments) {
+        return UriComponentsBuilder.fromHttpUrl(configuration.getApiUrl())
+                .pathSegment("organizations", organizationId)
+                .pathSegment(extraPathSegments)
+                .toUriString();
+    }
+
+    private String getAuthorizationHeaderValue() {
+        return "bearer " + configuration.getApiKey();
+    }
 }
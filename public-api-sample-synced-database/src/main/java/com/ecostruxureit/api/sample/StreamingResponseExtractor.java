@@ -0,0 +1,123 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+/**
+ * Reads the response of a "full read" REST resource (e.g. {@code /inventory} or {@code /alarms}) while it is being received, instead of
+ * deserializing the whole response into one object.
+ * <p>
+ * The response is a JSON object containing an array with all the objects, and the offset to use when later reading changes. The objects in
+ * the array are deserialized one by one and passed to a consumer in chunks, so only a single chunk needs to be kept in memory at a time -
+ * no matter how many objects the organization has.
+ *
+ * @param <T> the type of the objects in the array.
+ */
+class StreamingResponseExtractor<T> implements ResponseExtractor<Long> {
+
+    private static final String OFFSET_FIELD_NAME = "offset";
+
+    private final ObjectMapper objectMapper;
+    private final String arrayFieldName;
+    private final Class<T> elementType;
+    private final int chunkSize;
+    private final Consumer<List<T>> chunkConsumer;
+
+    /**
+     * @param objectMapper used to deserialize the objects in the array.
+     * @param arrayFieldName the name of the field containing the array of objects - e.g. {@code inventoryObjects}.
+     * @param elementType the type of the objects in the array.
+     * @param chunkSize the max number of objects passed to the consumer at a time.
+     * @param chunkConsumer receives the objects in the array, in the order they appear in the response.
+     */
+    StreamingResponseExtractor(
+            ObjectMapper objectMapper,
+            String arrayFieldName,
+            Class<T> elementType,
+            int chunkSize,
+            Consumer<List<T>> chunkConsumer) {
+
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.arrayFieldName = Objects.requireNonNull(arrayFieldName);
+        this.elementType = Objects.requireNonNull(elementType);
+        this.chunkSize = chunkSize;
+        this.chunkConsumer = Objects.requireNonNull(chunkConsumer);
+    }
+
+    /**
+     * @return the offset contained in the response.
+     * @throws IOException if the response could not be read, or did not contain the array and the offset.
+     */
+    @Override
+    public Long extractData(ClientHttpResponse response) throws IOException {
+
+        // The RestTemplate already throws an exception if receiving 4xx and 5xx status codes.
+        // But we only see "200 OK" as success, so throw exception if it isn't (e.g. if it is "204 No Content").
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
+            throw new RuntimeException("Request failed with status: " + response.getStatusCode());
+        }
+
+        Long offset = null;
+        boolean arrayFound = false;
+
+        try (JsonParser parser = objectMapper.createParser(response.getBody())) {
+
+            expectToken(parser.nextToken(), JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+                String fieldName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (arrayFieldName.equals(fieldName)) {
+                    expectToken(valueToken, JsonToken.START_ARRAY);
+                    readArray(parser);
+                    arrayFound = true;
+
+                } else if (OFFSET_FIELD_NAME.equals(fieldName)) {
+                    offset = parser.getLongValue();
+
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (!arrayFound || offset == null) {
+            throw new IOException("Response did not contain both the fields " + arrayFieldName + " and " + OFFSET_FIELD_NAME);
+        }
+        return offset;
+    }
+
+    private void readArray(JsonParser parser) throws IOException {
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            chunk.add(objectMapper.readValue(parser, elementType));
+            if (chunk.size() == chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+    }
+
+    private static void expectToken(JsonToken actualToken, JsonToken expectedToken) throws IOException {
+        if (actualToken != expectedToken) {
+            throw new IOException("Expected " + expectedToken + " in response, but got " + actualToken);
+        }
+    }
+}
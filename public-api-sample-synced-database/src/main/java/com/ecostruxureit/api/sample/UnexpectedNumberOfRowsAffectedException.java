@@ -1,5 +1,8 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
+
+import java.sql.Statement;
+
 /**
  * Is thrown by repository methods, if the number of rows that were actually updated by a given SQL statement, does not match the number of
  * rows we expected to be updated. This also means that the transaction making the change will be rolled back (because of Spring's
@@ -11,4 +14,21 @@ class UnexpectedNumberOfRowsAffectedException extends RuntimeException {
         super("Expected " + expectedNumberOfRowsAffected + " rows to have been affected, but "
                 + actualNumberOfRowsAffected + " were");
     }
+
+    /**
+     * Verifies that each statement in a JDBC batch affected exactly 1 row.
+     *
+     * @param batchUpdateCounts the update counts returned by {@link org.springframework.jdbc.core.JdbcTemplate#batchUpdate}, per chunk.
+     * @throws UnexpectedNumberOfRowsAffectedException if a statement did not affect exactly 1 row.
+     */
+    static void verifyOneRowAffectedPerStatement(int[][] batchUpdateCounts) throws UnexpectedNumberOfRowsAffectedException {
+        for (int[] chunkUpdateCounts : batchUpdateCounts) {
+            for (int updatedRows : chunkUpdateCounts) {
+                // Some JDBC drivers don't report the number of rows affected by each statement in a batch.
+                if (updatedRows != 1 && updatedRows != Statement.SUCCESS_NO_INFO) {
+                    throw new UnexpectedNumberOfRowsAffectedException(1, updatedRows);
+                }
+            }
+        }
+    }
 }
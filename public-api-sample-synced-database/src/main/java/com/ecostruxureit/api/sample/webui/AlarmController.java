@@ -2,13 +2,15 @@
 package com.ecostruxureit.api.sample.webui;
 
 import com.ecostruxureit.api.sample.AlarmRepository;
+import com.ecostruxureit.api.sample.Configuration;
 import java.util.Objects;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
- * Handles the page that renders all alarms stored in the database.
+ * Handles the page that renders all alarms stored in the database - or only the alarms of a given organization.
  */
 @Controller
 public class AlarmController {
@@ -16,15 +18,23 @@ public class AlarmController {
     public static final String ALARMS_PATH = "/alarms";
 
     private final AlarmRepository alarmRepository;
+    private final Configuration configuration;
 
-    public AlarmController(AlarmRepository alarmRepository) {
+    public AlarmController(AlarmRepository alarmRepository, Configuration configuration) {
         this.alarmRepository = Objects.requireNonNull(alarmRepository);
+        this.configuration = Objects.requireNonNull(configuration);
     }
 
     @GetMapping(ALARMS_PATH)
-    public String alarms(Model model) {
-
-        model.addAttribute("alarms", alarmRepository.findAll());
+    public String alarms(
+            Model model, @RequestParam(name = "organizationId", required = false) String organizationId) {
+
+        if (organizationId == null) {
+            model.addAttribute("alarms", alarmRepository.findAll());
+        } else {
+            model.addAttribute("alarms", alarmRepository.findByOrganizationId(organizationId));
+        }
+        model.addAttribute("organizationIds", configuration.getOrganizationIds());
 
         // Rendered by the template by the same name + html suffix (the model is made available to the template)
         return "alarm-list";
@@ -2,6 +2,9 @@
 package com.ecostruxureit.api.sample.webui;
 
 import com.ecostruxureit.api.sample.AlarmRepository;
+import com.ecostruxureit.api.sample.Configuration;
+import com.ecostruxureit.api.sample.InventoryHierarchy;
+import com.ecostruxureit.api.sample.InventoryIndex;
 import com.ecostruxureit.api.sample.InventoryObjectRepository;
 import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.MutableGraph;
@@ -12,6 +15,7 @@ import generated.dto.Location;
 import generated.dto.Organization;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -21,11 +25,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
- * Handles the page that renders all inventory items stored in the database.
+ * Handles the page that renders all inventory items stored in the database - or only the inventory items of a given organization.
  * <p>
- * Also handles the page that shows a detailed tree in which a given inventory object is a part.
+ * Also handles the page that shows a detailed tree in which a given inventory object is a part. The structure of the tree is found in the
+ * {@link InventoryIndex}, so only the alarms of the devices in the tree are read from the database - or if the index is disabled, with a
+ * few recursive queries by the {@link InventoryObjectRepository}.
  */
 @SuppressWarnings("UnstableApiUsage")
 @Controller
@@ -34,20 +41,33 @@ public class InventoryObjectController {
     static final String INVENTORY_OBJECTS_PATH = "/inventory-objects";
 
     private final AlarmRepository alarmRepository;
+    private final Configuration configuration;
+    private final InventoryHierarchy inventoryHierarchy;
     private final InventoryObjectRepository inventoryObjectRepository;
 
     public InventoryObjectController(
-            AlarmRepository alarmRepository, InventoryObjectRepository inventoryObjectRepository) {
+            AlarmRepository alarmRepository,
+            Configuration configuration,
+            InventoryIndex inventoryIndex,
+            InventoryObjectRepository inventoryObjectRepository) {
 
         this.alarmRepository = Objects.requireNonNull(alarmRepository);
+        this.configuration = Objects.requireNonNull(configuration);
         this.inventoryObjectRepository = Objects.requireNonNull(inventoryObjectRepository);
+        this.inventoryHierarchy = configuration.isInventoryIndexEnabled()
+                ? Objects.requireNonNull(inventoryIndex)
+                : inventoryObjectRepository;
     }
 
     @GetMapping(INVENTORY_OBJECTS_PATH)
-    public String inventoryObjects(Model model) {
+    public String inventoryObjects(
+            Model model, @RequestParam(name = "organizationId", required = false) String organizationId) {
 
-        List<Map<String, Object>> rows = inventoryObjectRepository.findAllAsListOfMapsOrderedByDiscriminatorDesc();
+        List<Map<String, Object>> rows = organizationId == null
+                ? inventoryObjectRepository.findAllAsListOfMapsOrderedByDiscriminatorDesc()
+                : inventoryObjectRepository.findByOrganizationIdAsListOfMapsOrderedByDiscriminatorDesc(organizationId);
         model.addAttribute("rows", rows);
+        model.addAttribute("organizationIds", configuration.getOrganizationIds());
 
         // Rendered by the template by the same name + html suffix (the model is made available to the template)
         return "inventory-object-list";
@@ -62,10 +82,10 @@ public class InventoryObjectController {
                 GraphBuilder.directed().allowsSelfLoops(false).build();
         InventoryObject treeRoot = null;
 
-        InventoryObject inventoryObject = inventoryObjectRepository.findById(inventoryObjectId);
+        InventoryObject inventoryObject = inventoryHierarchy.findById(inventoryObjectId);
 
         if (inventoryObject instanceof Device device) {
-            Device rootDevice = inventoryObjectRepository.findRootDevice(device);
+            Device rootDevice = inventoryHierarchy.findRootDevice(device);
             insertDeviceAndItsDescendantDevicesIntoTree(tree, rootDevice);
             insertAlarmsIntoTree(tree);
             treeRoot = insertLocationAncestorsIntoTreeAndReturnRoot(tree, rootDevice);
@@ -77,8 +97,9 @@ public class InventoryObjectController {
             treeRoot = insertLocationAncestorsIntoTreeAndReturnRoot(tree, inventoryObject);
         }
 
-        // Finally always insert the organization object as the root of the tree.
-        treeRoot = insertOrganizationIntoTreeAndReturnRoot(tree, treeRoot);
+        // Finally always insert the organization object (of the organization the inventory object belongs to) as the
+        // root of the tree.
+        treeRoot = insertOrganizationIntoTreeAndReturnRoot(tree, treeRoot, inventoryObjectId);
 
         // Write the tree as raw text that is included as is in the HTML page.
         String treeAsText = renderNodeAndItsDescendants(treeRoot, tree);
@@ -101,12 +122,17 @@ public class InventoryObjectController {
 
         tree.addNode(device);
 
-        List<Device> childDevices = inventoryObjectRepository.findAllChildDevices(device);
+        // The devices are ordered so a device always comes after its parent
+        Map<String, Device> devicesById = new HashMap<>();
 
-        for (Device childDevice : childDevices) {
+        for (Device descendantDevice : inventoryHierarchy.findDeviceAndDescendants(device)) {
 
-            insertDeviceAndItsDescendantDevicesIntoTree(tree, childDevice);
-            tree.putEdge(device, childDevice);
+            tree.addNode(descendantDevice);
+            Device parentDevice = devicesById.get(descendantDevice.getParentId());
+            if (parentDevice != null) {
+                tree.putEdge(parentDevice, descendantDevice);
+            }
+            devicesById.put(descendantDevice.getId(), descendantDevice);
         }
     }
 
@@ -118,12 +144,11 @@ public class InventoryObjectController {
                 .map(node -> (Device) node)
                 .collect(Collectors.toSet());
 
-        for (Device device : allDevicesInTree) {
-
-            // Would be more efficient to find alarms for all devices at once - but would also be more complicated :-)
-            List<Alarm> alarmsOnDevice = alarmRepository.findByDevice(device);
+        Map<String, List<Alarm>> alarmsByDeviceId = alarmRepository.findByDeviceIds(
+                allDevicesInTree.stream().map(Device::getId).toList());
 
-            for (Alarm alarm : alarmsOnDevice) {
+        for (Device device : allDevicesInTree) {
+            for (Alarm alarm : alarmsByDeviceId.getOrDefault(device.getId(), List.of())) {
                 tree.putEdge(device, alarm);
             }
         }
@@ -146,22 +171,22 @@ public class InventoryObjectController {
                         + Objects.requireNonNull(inventoryObject).getClass().getSimpleName());
         }
 
-        while (nextLocationIdToLookup != null) {
-            Location location = inventoryObjectRepository.findLocationById(nextLocationIdToLookup);
-            if (location != null) {
+        if (nextLocationIdToLookup != null) {
+            for (Location location : inventoryHierarchy.findLocationAndAncestors(nextLocationIdToLookup)) {
                 tree.putEdge(location, currentRoot);
                 currentRoot = location;
-                nextLocationIdToLookup = location.getParentId();
-            } else {
-                nextLocationIdToLookup = null;
             }
         }
         return currentRoot;
     }
 
     private InventoryObject insertOrganizationIntoTreeAndReturnRoot(
-            MutableGraph<Object> tree, InventoryObject currentRoot) {
-        Organization organization = inventoryObjectRepository.findOrganization();
+            MutableGraph<Object> tree, InventoryObject currentRoot, String inventoryObjectId) {
+        Organization organization = inventoryHierarchy.findOrganizationOf(inventoryObjectId);
+        if (organization == null) {
+            // This can happen because the Public API returns eventually consistent data.
+            return currentRoot;
+        }
         if (currentRoot != null) {
             tree.putEdge(organization, currentRoot);
         } else {
@@ -0,0 +1,8 @@
+-- Copyright (c) 2025 Schneider Electric. All Rights Reserved.
+-- A hash of the content of the row, which is used to only write the objects that have changed, when doing a full read. Rows written
+-- before this column was added don't have a hash, and are always written by the next full read.
+ALTER TABLE inventory_object
+    ADD COLUMN content_hash BIGINT;
+
+ALTER TABLE alarm
+    ADD COLUMN content_hash BIGINT;
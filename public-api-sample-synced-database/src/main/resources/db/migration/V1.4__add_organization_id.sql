@@ -0,0 +1,56 @@
+-- Copyright (c) 2025 Schneider Electric. All Rights Reserved.
+-- Makes it possible to sync several organizations into the same database. Each row contains the ID of the organization it belongs to.
+-- When exactly one organization is configured, the existing rows (and the polling state in last_api_poll) are assigned to it, so the
+-- sync continues where it stopped. Otherwise it isn't known which organization the existing rows belong to, so they are deleted, and
+-- last_api_poll is recreated without any rows, which makes the next poll of each organization a full read that inserts the rows again.
+-- The placeholder is set by FlywayPlaceholders.
+ALTER TABLE inventory_object
+    ADD COLUMN organization_id VARCHAR;
+
+ALTER TABLE alarm
+    ADD COLUMN organization_id VARCHAR;
+
+UPDATE inventory_object
+SET organization_id = NULLIF('${singleOrganizationId}', '');
+
+UPDATE alarm
+SET organization_id = NULLIF('${singleOrganizationId}', '');
+
+DELETE FROM inventory_object
+WHERE organization_id IS NULL;
+
+DELETE FROM alarm
+WHERE organization_id IS NULL;
+
+-- Rows are deleted by organization, so a row without one would never be deleted.
+ALTER TABLE inventory_object
+    ALTER COLUMN organization_id SET NOT NULL;
+
+ALTER TABLE alarm
+    ALTER COLUMN organization_id SET NOT NULL;
+
+CREATE INDEX inventory_object_organization_id ON inventory_object (organization_id);
+
+CREATE INDEX alarm_organization_id ON alarm (organization_id);
+
+-- Contains a row per organization and resource, which is inserted the first time the resource of the organization is polled.
+CREATE TABLE last_api_poll_by_organization
+(
+    organization_id        VARCHAR NOT NULL,
+    resource_name          VARCHAR NOT NULL,
+    current_offset         BIGINT  NOT NULL,
+    last_changes_poll_time BIGINT  NOT NULL,
+    last_full_read_time    BIGINT  NOT NULL,
+    PRIMARY KEY (organization_id, resource_name)
+);
+
+INSERT INTO last_api_poll_by_organization
+    (organization_id, resource_name, current_offset, last_changes_poll_time, last_full_read_time)
+SELECT '${singleOrganizationId}', resource_name, current_offset, last_changes_poll_time, last_full_read_time
+FROM last_api_poll
+WHERE '${singleOrganizationId}' <> '';
+
+DROP TABLE last_api_poll;
+
+ALTER TABLE last_api_poll_by_organization
+    RENAME TO last_api_poll;
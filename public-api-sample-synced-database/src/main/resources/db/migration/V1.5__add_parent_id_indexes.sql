@@ -0,0 +1,6 @@
+-- Copyright (c) 2025 Schneider Electric. All Rights Reserved.
+-- Makes it fast to find the children of an inventory object, e.g. the recursive query in InventoryObjectRepository that finds all the
+-- devices below a device. Going up the hierarchy (finding the parents of an object) uses the primary key instead.
+CREATE INDEX inventory_object_device_parent_id ON inventory_object (device_parent_id);
+
+CREATE INDEX inventory_object_location_parent_id ON inventory_object (location_parent_id);
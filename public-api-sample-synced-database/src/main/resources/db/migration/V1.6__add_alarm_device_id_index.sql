@@ -0,0 +1,3 @@
+-- Copyright (c) 2025 Schneider Electric. All Rights Reserved.
+-- Makes it fast to find the alarms of the devices shown in the tree on the inventory object details page.
+CREATE INDEX alarm_device_id ON alarm (device_id);
@@ -1,6 +1,7 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import static com.ecostruxureit.api.sample.TestData.ORGANIZATION_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -9,11 +10,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.google.common.collect.Sets;
 import generated.dto.Alarm;
 import generated.dto.Alarm.SeverityEnum;
-import generated.dto.Device;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -34,6 +37,12 @@ class AlarmRepositoryTest {
     @Autowired
     private AlarmRepository alarmRepository;
 
+    @Autowired
+    private Configuration configuration;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
     @Test
     void insertOrUpdateAlarm() {
 
@@ -53,7 +62,7 @@ class AlarmRepositoryTest {
         alarmV1.setActivatedTime(activatedTime);
         alarmV1.setClearedTime(null); // not yet cleared - which means this alarm is still active
         alarmV1.alarmReactivationCount(alarmReactivationCount);
-        alarmRepository.insertOrUpdate(alarmV1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarmV1);
 
         // Verify that if we load the inserted alarm from the database again, then it looks as expected
         Alarm alarmV1FromRepository = alarmRepository.findById(alarmId);
@@ -76,7 +85,7 @@ class AlarmRepositoryTest {
         alarmV2.setSeverity(SeverityEnum.WARNING);
         alarmV2.setActivatedTime(activatedTime);
         alarmV2.setClearedTime(clearedTime);
-        alarmRepository.insertOrUpdate(alarmV2); // should end up replacing alarmV1 as it has the same ID
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarmV2); // should end up replacing alarmV1 as it has the same ID
 
         // Verify that if now load the alarm from the database, then it reflects the 2nd version of the alarm
         Alarm alarmV2FromRepository = alarmRepository.findById(alarmId);
@@ -89,16 +98,50 @@ class AlarmRepositoryTest {
         assertEquals(clearedTime, alarmV2FromRepository.getClearedTime());
     }
 
+    @Test
+    void batchInsertOrUpdate_whenMoreAlarmsThanBatchSize_thenInsertsAndUpdatesAll() {
+
+        int numberOfAlarms = configuration.getUpsertBatchSize() + 10;
+
+        List<Alarm> alarms = new ArrayList<>();
+        for (int n = 0; n < numberOfAlarms; n++) {
+            Alarm alarm = new Alarm();
+            alarm.setId("id-" + n);
+            alarm.setLabel("label-v1");
+            alarm.setSeverity(SeverityEnum.ERROR);
+            alarms.add(alarm);
+        }
+
+        alarmRepository.batchInsertOrUpdate(ORGANIZATION_ID, alarms);
+
+        assertEquals(numberOfAlarms, alarmRepository.findAll().size());
+
+        // Update one of the alarms - it should replace the existing row
+        Alarm modifiedAlarm = new Alarm();
+        modifiedAlarm.setId("id-0");
+        modifiedAlarm.setLabel("label-v2");
+        modifiedAlarm.setSeverity(SeverityEnum.INFO);
+        modifiedAlarm.setAlarmReactivationCount(2);
+
+        alarmRepository.batchInsertOrUpdate(ORGANIZATION_ID, List.of(modifiedAlarm));
+
+        assertEquals(numberOfAlarms, alarmRepository.findAll().size());
+        assertEquals("label-v2", alarmRepository.findById("id-0").getLabel());
+        assertEquals(SeverityEnum.INFO, alarmRepository.findById("id-0").getSeverity());
+        assertEquals(2, alarmRepository.findById("id-0").getAlarmReactivationCount());
+        assertEquals("label-v1", alarmRepository.findById("id-1").getLabel());
+    }
+
     @Test
     void findById() {
 
         Alarm alarm1 = new Alarm();
         alarm1.setId("5bb1a628-a92c-4000-aee2-b877e68b71a0");
-        alarmRepository.insertOrUpdate(alarm1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm1);
 
         Alarm alarm2 = new Alarm();
         alarm2.setId("42f429dd-617c-417e-815e-94416444fe3d");
-        alarmRepository.insertOrUpdate(alarm2);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm2);
 
         assertNotNull(alarmRepository.findById("5bb1a628-a92c-4000-aee2-b877e68b71a0"));
         assertNotNull(alarmRepository.findById("42f429dd-617c-417e-815e-94416444fe3d"));
@@ -106,69 +149,83 @@ class AlarmRepositoryTest {
     }
 
     @Test
-    void findByDevice() {
-
-        Device device1 = new Device();
-        device1.setId("c51c2a0d-5308-4299-a26a-f6ba317657fb");
-
-        Device device2 = new Device();
-        device2.setId("266250ad-0557-471d-a813-6487ed9a7be8");
-
-        Device device3 = new Device();
-        device3.setId("e6f7a57b-0371-4794-914b-d64e49dfa818");
+    void findByDeviceIds_thenReturnsAlarmsGroupedByDevice() {
 
         Alarm alarm1 = new Alarm();
-        alarm1.setId("5bb1a628-a92c-4000-aee2-b877e68b71a0");
-        alarm1.setDeviceId(device1.getId());
-        alarmRepository.insertOrUpdate(alarm1);
+        alarm1.setId("alarm_1");
+        alarm1.setDeviceId("device_1");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm1);
 
         Alarm alarm2 = new Alarm();
-        alarm2.setId("42f429dd-617c-417e-815e-94416444fe3d");
-        alarm2.setDeviceId(device2.getId());
-        alarmRepository.insertOrUpdate(alarm2);
+        alarm2.setId("alarm_2");
+        alarm2.setDeviceId("device_2");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm2);
 
         Alarm alarm3 = new Alarm();
-        alarm3.setId("0c92116d-280c-4df3-bcf0-6a42bf30df12");
-        alarm3.setDeviceId(device1.getId());
-        alarmRepository.insertOrUpdate(alarm3);
-
-        assertEquals(2, alarmRepository.findByDevice(device1).size());
-        assertEquals(1, alarmRepository.findByDevice(device2).size());
-        assertEquals(0, alarmRepository.findByDevice(device3).size());
+        alarm3.setId("alarm_3");
+        alarm3.setDeviceId("device_1");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm3);
+
+        Alarm alarm4 = new Alarm();
+        alarm4.setId("alarm_4");
+        alarm4.setDeviceId("device_4");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm4);
+
+        statementCounter.reset();
+        Map<String, List<Alarm>> result = alarmRepository.findByDeviceIds(List.of("device_1", "device_2", "device_3"));
+
+        assertEquals(1, statementCounter.getCount());
+        assertEquals(Set.of("device_1", "device_2"), result.keySet());
+        assertEquals(
+                Set.of("alarm_1", "alarm_3"),
+                result.get("device_1").stream().map(Alarm::getId).collect(Collectors.toSet()));
+        assertEquals(List.of("alarm_2"), result.get("device_2").stream().map(Alarm::getId).toList());
     }
 
     @Test
-    void findAll() {
+    void findByDeviceIds_givenManyDevices_thenUsesQueryPer100Devices() {
+
+        List<String> deviceIds = new ArrayList<>();
+        List<Alarm> alarms = new ArrayList<>();
+        for (int index = 0; index < 250; index++) {
+            Alarm alarm = new Alarm();
+            alarm.setId("alarm_" + index);
+            alarm.setDeviceId("device_" + index);
+            alarms.add(alarm);
+            deviceIds.add(alarm.getDeviceId());
+        }
+        alarmRepository.batchInsertOrUpdate(ORGANIZATION_ID, alarms);
 
-        Alarm alarm1 = new Alarm();
-        alarm1.setId("5bb1a628-a92c-4000-aee2-b877e68b71a0");
-        alarmRepository.insertOrUpdate(alarm1);
+        statementCounter.reset();
+        Map<String, List<Alarm>> result = alarmRepository.findByDeviceIds(deviceIds);
 
-        Alarm alarm2 = new Alarm();
-        alarm2.setId("42f429dd-617c-417e-815e-94416444fe3d");
-        alarmRepository.insertOrUpdate(alarm2);
+        assertEquals(3, statementCounter.getCount());
+        assertEquals(new HashSet<>(deviceIds), result.keySet());
+    }
 
-        List<Alarm> allAlarms = alarmRepository.findAll();
+    @Test
+    void findByDeviceIds_givenNoDevices_thenReturnsEmptyMapWithoutQuerying() {
 
-        assertEquals(2, allAlarms.size());
+        statementCounter.reset();
+
+        assertTrue(alarmRepository.findByDeviceIds(List.of()).isEmpty());
+        assertEquals(0, statementCounter.getCount());
     }
 
     @Test
-    void findAllIds() {
+    void findAll() {
 
         Alarm alarm1 = new Alarm();
-        alarm1.setId("3d8ef983-7d70-4d4f-9134-e4200d08374f");
-        alarmRepository.insertOrUpdate(alarm1);
+        alarm1.setId("5bb1a628-a92c-4000-aee2-b877e68b71a0");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm1);
 
         Alarm alarm2 = new Alarm();
-        alarm2.setId("dc78a469-d0cc-4972-abaa-d4f1f82fa468");
-        alarmRepository.insertOrUpdate(alarm2);
+        alarm2.setId("42f429dd-617c-417e-815e-94416444fe3d");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm2);
 
-        Set<String> allIds = alarmRepository.findAllIds();
+        List<Alarm> allAlarms = alarmRepository.findAll();
 
-        assertEquals(2, allIds.size());
-        assertTrue(allIds.contains(alarm1.getId()));
-        assertTrue(allIds.contains(alarm2.getId()));
+        assertEquals(2, allAlarms.size());
     }
 
     @Test
@@ -177,22 +234,43 @@ class AlarmRepositoryTest {
         Alarm alarm1 = new Alarm();
         alarm1.setId("fc0dc73e-19ab-4d4e-896f-cbed03e1cf4c");
         alarm1.setLabel("Alarm1");
-        alarmRepository.insertOrUpdate(alarm1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm1);
 
         Alarm alarm2 = new Alarm();
         alarm2.setId("ea88bf33-3bf8-4b59-80a8-1f595efc474c");
         alarm2.setLabel("Alarm2");
-        alarmRepository.insertOrUpdate(alarm2);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm2);
 
         Alarm alarm3 = new Alarm();
         alarm3.setId("408dc88e-169d-4101-998b-1aafe94cbb0b");
         alarm3.setLabel("Alarm3");
-        alarmRepository.insertOrUpdate(alarm3);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm3);
 
         Set<String> idsToDelete = new HashSet<>();
         idsToDelete.add(alarm1.getId());
         idsToDelete.add(alarm3.getId());
-        alarmRepository.deleteByIds(idsToDelete);
+        alarmRepository.deleteByIds(ORGANIZATION_ID, idsToDelete);
+
+        List<Alarm> allAlarms = alarmRepository.findAll();
+
+        assertEquals(1, allAlarms.size());
+        assertEquals("Alarm2", allAlarms.getFirst().getLabel());
+    }
+
+    @Test
+    void deleteByIds_whenAlarmBelongsToAnotherOrganization_thenKeepsIt() {
+
+        Alarm alarm1 = new Alarm();
+        alarm1.setId("fc0dc73e-19ab-4d4e-896f-cbed03e1cf4c");
+        alarm1.setLabel("Alarm1");
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm1);
+
+        Alarm alarm2 = new Alarm();
+        alarm2.setId("ea88bf33-3bf8-4b59-80a8-1f595efc474c");
+        alarm2.setLabel("Alarm2");
+        alarmRepository.insertOrUpdate("organization_b", alarm2);
+
+        alarmRepository.deleteByIds(ORGANIZATION_ID, Set.of(alarm1.getId(), alarm2.getId()));
 
         List<Alarm> allAlarms = alarmRepository.findAll();
 
@@ -205,7 +283,7 @@ class AlarmRepositoryTest {
 
         Alarm donNotDeleteMe = new Alarm();
         donNotDeleteMe.setId("a2fd5041-4ecb-40c8-be92-d07f129bd775");
-        alarmRepository.insertOrUpdate(donNotDeleteMe);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, donNotDeleteMe);
 
         int entriesToKeep = 1;
         int entriesToDelete = 110;
@@ -217,12 +295,12 @@ class AlarmRepositoryTest {
             idsToDelete.add(id);
             Alarm alarmToDelete = new Alarm();
             alarmToDelete.setId(id);
-            alarmRepository.insertOrUpdate(alarmToDelete);
+            alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarmToDelete);
         }
 
         assertEquals(entriesToDelete + entriesToKeep, alarmRepository.findAll().size());
 
-        alarmRepository.deleteByIds(idsToDelete);
+        alarmRepository.deleteByIds(ORGANIZATION_ID, idsToDelete);
 
         assertEquals(entriesToKeep, alarmRepository.findAll().size());
     }
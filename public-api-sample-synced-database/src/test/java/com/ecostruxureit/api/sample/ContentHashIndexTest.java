@@ -0,0 +1,74 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.ecostruxureit.api.sample.ContentHashIndex.Comparison;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the methods in {@link ContentHashIndex}.
+ */
+class ContentHashIndexTest {
+
+    @Test
+    void computeContentHash() {
+
+        long hash = ContentHashIndex.computeContentHash("id", "label", null, Timestamp.from(Instant.EPOCH));
+
+        assertEquals(hash, ContentHashIndex.computeContentHash("id", "label", null, Timestamp.from(Instant.EPOCH)));
+        assertNotEquals(hash, ContentHashIndex.computeContentHash("id", "label2", null, Timestamp.from(Instant.EPOCH)));
+        assertNotEquals(hash, ContentHashIndex.computeContentHash("id", "label", "", Timestamp.from(Instant.EPOCH)));
+        assertNotEquals(hash, ContentHashIndex.computeContentHash("id", null, "label", Timestamp.from(Instant.EPOCH)));
+        assertNotEquals(hash, ContentHashIndex.computeContentHash("idl", "abel", null, Timestamp.from(Instant.EPOCH)));
+    }
+
+    @Test
+    void compare() {
+
+        ContentHashIndex contentHashIndex = new ContentHashIndex();
+        contentHashIndex.add("unchanged", 1L);
+        contentHashIndex.add("updated", 2L);
+        contentHashIndex.add("without-hash", null);
+        contentHashIndex.add("deleted", 4L);
+
+        assertEquals(Comparison.UNCHANGED, contentHashIndex.compare("unchanged", 1L));
+        assertEquals(Comparison.UPDATED, contentHashIndex.compare("updated", 3L));
+        assertEquals(Comparison.UPDATED, contentHashIndex.compare("without-hash", 0L));
+        assertEquals(Comparison.INSERTED, contentHashIndex.compare("inserted", 5L));
+
+        assertEquals(1, contentHashIndex.getComparisonCount(Comparison.UNCHANGED));
+        assertEquals(2, contentHashIndex.getComparisonCount(Comparison.UPDATED));
+        assertEquals(1, contentHashIndex.getComparisonCount(Comparison.INSERTED));
+        assertEquals(Set.of("deleted"), contentHashIndex.findIdsNotCompared());
+    }
+
+    @Test
+    void add_whenManyIds_thenAllCanBeFound() {
+
+        int numberOfIds = 10_000;
+
+        ContentHashIndex contentHashIndex = new ContentHashIndex();
+        for (int n = 0; n < numberOfIds; n++) {
+            contentHashIndex.add("id-" + n, (long) n);
+        }
+
+        assertEquals(numberOfIds, contentHashIndex.size());
+
+        Set<String> expectedIdsNotCompared = new HashSet<>();
+        for (int n = 0; n < numberOfIds; n++) {
+            if (n % 2 == 0) {
+                assertEquals(Comparison.UNCHANGED, contentHashIndex.compare("id-" + n, n));
+            } else {
+                expectedIdsNotCompared.add("id-" + n);
+            }
+        }
+
+        assertEquals(expectedIdsNotCompared, contentHashIndex.findIdsNotCompared());
+    }
+}
@@ -1,8 +1,10 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import static com.ecostruxureit.api.sample.TestData.ORGANIZATION_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import generated.dto.Alarm;
@@ -17,6 +19,8 @@ import generated.dto.InventoryResponse;
 import generated.dto.Location;
 import generated.dto.Organization;
 import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -24,7 +28,9 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -56,6 +62,15 @@ class FetchEngineTest {
     @Autowired
     private LastApiPollRepository lastApiPollRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private TestData testData;
+
     private static final long NOW = 1568200692543L;
     private static final long LESS_THAN_ONE_DAY_BEFORE_NOW =
             NOW - Duration.ofDays(1).toMillis() + 1;
@@ -110,15 +125,16 @@ class FetchEngineTest {
         mockResponse.addInventoryObjectsItem(createLocation("2", "loc-2"));
         mockResponse.addInventoryObjectsItem(createDevice("3", "dev-3"));
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.listInventory()).thenReturn(mockResponse);
+        mockStreamInventory(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchInventoryObjects();
+        boolean receivedChanges = fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
 
         // Then
 
-        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject();
+        assertFalse(receivedChanges, "A full read has read everything there is");
+        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         assertEquals(NOW, lastApiPollForInventoryObject.getLastFullReadTime());
         assertEquals(0L, lastApiPollForInventoryObject.getLastChangesPollTime());
         assertEquals(24L, lastApiPollForInventoryObject.getCurrentOffset());
@@ -126,6 +142,52 @@ class FetchEngineTest {
         assertEquals(3, inventoryObjectRepository.findAll().size());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The inventory index is only updated when the changes are committed
+    void fetchInventoryObjects_whenCommitted_thenInventoryIndexContainsTheObjectsInTheDatabase() {
+
+        try {
+
+            // When
+
+            InventoryResponse mockResponse = new InventoryResponse();
+            mockResponse.addInventoryObjectsItem(createOrganization("1", "org-1"));
+            mockResponse.addInventoryObjectsItem(createLocation("2", "loc-2"));
+            mockResponse.addInventoryObjectsItem(createDevice("3", "dev-3"));
+            mockResponse.setOffset(24L);
+            mockStreamInventory(mockResponse);
+
+            Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
+
+            fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
+
+            // Then
+
+            assertEquals(3, inventoryIndex.size());
+            assertEquals("dev-3", inventoryIndex.findById("3").getLabel());
+
+            // When
+
+            InventoryChangesResponse mockChangesResponse = new InventoryChangesResponse();
+            mockChangesResponse.addInventoryObjectChangesItem(createOrUpdateChange(createLocation("2", "loc-2-modified")));
+            mockChangesResponse.addInventoryObjectChangesItem(deleteChange("3"));
+            mockChangesResponse.setOffset(28L);
+            Mockito.when(restClient.getInventoryChangesAfterOffset(ORGANIZATION_ID, 24L))
+                    .thenReturn(mockChangesResponse);
+
+            fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
+
+            // Then
+
+            assertEquals(2, inventoryIndex.size());
+            assertEquals("loc-2-modified", inventoryIndex.findById("2").getLabel());
+            assertNull(inventoryIndex.findById("3"));
+
+        } finally {
+            testData.resetDatabase();
+        }
+    }
+
     @Test
     void
             fetchInventoryObjects_givenSomeInventoryObjectsAlreadyInDatabase_whenFullRead_thenDeletesRemovedAndUpdatesRest() {
@@ -136,11 +198,11 @@ class FetchEngineTest {
         InventoryObject existingInventoryObject2 = createLocation("2", "loc-2");
         InventoryObject existingInventoryObject3 = createDevice("3", "dev-3");
 
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject1);
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject2);
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject3);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject1);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject2);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject3);
 
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
         lastApiPoll.setLastFullReadTime(MORE_THAN_ONE_WEEK_BEFORE_NOW); // Forces full read
         lastApiPoll.setCurrentOffset(12L);
@@ -157,15 +219,15 @@ class FetchEngineTest {
         mockResponse.addInventoryObjectsItem(unmodifiedInventoryObject1);
         mockResponse.addInventoryObjectsItem(modifiedInventoryObject3);
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.listInventory()).thenReturn(mockResponse);
+        mockStreamInventory(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchInventoryObjects();
+        fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
 
         // Then
 
-        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         assertEquals(NOW, lastApiPollForInventoryObject.getLastFullReadTime());
         assertEquals(LESS_THAN_ONE_DAY_BEFORE_NOW, lastApiPollForInventoryObject.getLastChangesPollTime());
         assertEquals(24L, lastApiPollForInventoryObject.getCurrentOffset());
@@ -175,6 +237,76 @@ class FetchEngineTest {
         assertEquals("dev-3-modified", inventoryObjectRepository.findById("3").getLabel());
     }
 
+    @Test
+    void fetchInventoryObjects_givenSomeInventoryObjectsAlreadyInDatabase_whenFullRead_thenOnlyWritesChangedObjects() {
+
+        // Given
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createOrganization("1", "org-1"));
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("2", "dev-2"));
+
+        // Change the labels behind the back of the repository, so it can be seen below whether the rows are written again
+        jdbcTemplate.update("UPDATE inventory_object SET label = CONCAT(label, '-not-written')");
+
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
+        lastApiPoll.setLastFullReadTime(MORE_THAN_ONE_WEEK_BEFORE_NOW); // Forces full read
+        lastApiPollRepository.updateLastApiPoll(lastApiPoll);
+
+        // When
+
+        InventoryResponse mockResponse = new InventoryResponse();
+        mockResponse.addInventoryObjectsItem(createOrganization("1", "org-1")); // <= note same label
+        mockResponse.addInventoryObjectsItem(createDevice("2", "dev-2-modified")); // <= note modified label
+        mockResponse.addInventoryObjectsItem(createDevice("3", "dev-3")); // <= note new object
+        mockResponse.setOffset(24L);
+        mockStreamInventory(mockResponse);
+
+        Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
+
+        fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
+
+        // Then
+
+        assertEquals(3, inventoryObjectRepository.findAll().size());
+        assertEquals("org-1-not-written", inventoryObjectRepository.findById("1").getLabel());
+        assertEquals("dev-2-modified", inventoryObjectRepository.findById("2").getLabel());
+        assertEquals("dev-3", inventoryObjectRepository.findById("3").getLabel());
+    }
+
+    @Test
+    void fetchInventoryObjects_givenInventoryObjectsOfOtherOrganization_whenFullRead_thenKeepsThem() {
+
+        // Given
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createOrganization("1", "org-1"));
+        inventoryObjectRepository.insertOrUpdate("other-organization", createOrganization("other-1", "other-org-1"));
+
+        LastApiPoll otherLastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject("other-organization");
+        otherLastApiPoll.setLastFullReadTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
+        otherLastApiPoll.setCurrentOffset(12L);
+        lastApiPollRepository.updateLastApiPoll(otherLastApiPoll);
+
+        // When
+
+        InventoryResponse mockResponse = new InventoryResponse();
+        mockResponse.addInventoryObjectsItem(createDevice("2", "dev-2")); // <= note org-1 is no longer returned
+        mockResponse.setOffset(24L);
+        mockStreamInventory(mockResponse);
+
+        Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
+
+        fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
+
+        // Then
+
+        assertEquals(2, inventoryObjectRepository.findAll().size());
+        assertEquals("dev-2", inventoryObjectRepository.findById("2").getLabel());
+        assertEquals("other-org-1", inventoryObjectRepository.findById("other-1").getLabel());
+        assertEquals(24L, lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID).getCurrentOffset());
+        assertEquals(
+                12L, lastApiPollRepository.findLastApiPollForInventoryObject("other-organization").getCurrentOffset());
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"true", "false"})
     void
@@ -187,11 +319,11 @@ class FetchEngineTest {
         InventoryObject existingInventoryObject2 = createLocation("2", "loc-2");
         InventoryObject existingInventoryObject3 = createDevice("3", "dev-3");
 
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject1);
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject2);
-        inventoryObjectRepository.insertOrUpdate(existingInventoryObject3);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject1);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject2);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, existingInventoryObject3);
 
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
         lastApiPoll.setLastFullReadTime(LESS_THAN_ONE_DAY_BEFORE_NOW); // Change read is enough
         lastApiPoll.setCurrentOffset(12L);
@@ -212,26 +344,27 @@ class FetchEngineTest {
         change2.setInventoryObjectId("2");
         mockResponse.addInventoryObjectChangesItem(change2);
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.getInventoryChangesAfterOffset(12L)).thenReturn(mockResponse);
+        Mockito.when(restClient.getInventoryChangesAfterOffset(ORGANIZATION_ID, 12L)).thenReturn(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchInventoryObjects();
+        boolean receivedChanges = fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
 
         if (testDuplicateReads) {
             // In some cases the API may return the same changes more than once
             // By calling the API twice while getting same result back both times, we verify that the engine can handle
             // duplicate changes
             mockResponse.setOffset(28L);
-            Mockito.when(restClient.getInventoryChangesAfterOffset(24L))
+            Mockito.when(restClient.getInventoryChangesAfterOffset(ORGANIZATION_ID, 24L))
                     .thenReturn(mockResponse); // Offset was updated by previous read
             Mockito.when(clock.currentTimeMillis()).thenReturn(JUST_AFTER_NOW); // Time has passed since now
-            fetchEngine.fetchInventoryObjects();
+            fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
         }
 
         // Then
 
-        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject();
+        assertTrue(receivedChanges);
+        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         assertEquals(LESS_THAN_ONE_DAY_BEFORE_NOW, lastApiPollForInventoryObject.getLastFullReadTime());
         assertEquals(
                 (testDuplicateReads ? JUST_AFTER_NOW : NOW), lastApiPollForInventoryObject.getLastChangesPollTime());
@@ -242,6 +375,42 @@ class FetchEngineTest {
         assertEquals("dev-3-modified", inventoryObjectRepository.findById("3").getLabel());
     }
 
+    @Test
+    void fetchInventoryObjects_givenDeleteBetweenUpdatesOfSameObject_whenChangesRead_thenAppliesChangesInOrder() {
+
+        // Given
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("1", "dev-1"));
+
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
+        lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
+        lastApiPoll.setLastFullReadTime(LESS_THAN_ONE_DAY_BEFORE_NOW); // Change read is enough
+        lastApiPoll.setCurrentOffset(12L);
+
+        lastApiPollRepository.updateLastApiPoll(lastApiPoll);
+
+        // When
+
+        // Device 1 is modified and then deleted, while device 2 is created, deleted and then created again
+        InventoryChangesResponse mockResponse = new InventoryChangesResponse();
+        mockResponse.addInventoryObjectChangesItem(createOrUpdateChange(createDevice("1", "dev-1-modified")));
+        mockResponse.addInventoryObjectChangesItem(createOrUpdateChange(createDevice("2", "dev-2")));
+        mockResponse.addInventoryObjectChangesItem(deleteChange("1"));
+        mockResponse.addInventoryObjectChangesItem(deleteChange("2"));
+        mockResponse.addInventoryObjectChangesItem(createOrUpdateChange(createDevice("2", "dev-2-recreated")));
+        mockResponse.setOffset(24L);
+        Mockito.when(restClient.getInventoryChangesAfterOffset(ORGANIZATION_ID, 12L)).thenReturn(mockResponse);
+
+        Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
+
+        fetchEngine.fetchInventoryObjects(ORGANIZATION_ID);
+
+        // Then
+
+        assertEquals(1, inventoryObjectRepository.findAll().size());
+        assertEquals("dev-2-recreated", inventoryObjectRepository.findById("2").getLabel());
+    }
+
     @Test
     void fetchAlarms_givenStartupStateInDatabase_whenFullRead_thenInsertsAll() {
 
@@ -252,15 +421,15 @@ class FetchEngineTest {
         mockResponse.addAlarmsItem(createAlarm("2", "alarm-2"));
         mockResponse.addAlarmsItem(createAlarm("3", "alarm-3"));
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.listAlarms()).thenReturn(mockResponse);
+        mockStreamAlarms(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchAlarms();
+        fetchEngine.fetchAlarms(ORGANIZATION_ID);
 
         // Then
 
-        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         assertEquals(NOW, lastApiPollForAlarm.getLastFullReadTime());
         assertEquals(0L, lastApiPollForAlarm.getLastChangesPollTime());
         assertEquals(24L, lastApiPollForAlarm.getCurrentOffset());
@@ -277,11 +446,11 @@ class FetchEngineTest {
         Alarm existingAlarm2 = createAlarm("2", "alarm-2");
         Alarm existingAlarm3 = createAlarm("3", "alarm-3");
 
-        alarmRepository.insertOrUpdate(existingAlarm1);
-        alarmRepository.insertOrUpdate(existingAlarm2);
-        alarmRepository.insertOrUpdate(existingAlarm3);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm2);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm3);
 
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
         lastApiPoll.setLastFullReadTime(MORE_THAN_ONE_WEEK_BEFORE_NOW); // Forces full read
         lastApiPoll.setCurrentOffset(12L);
@@ -298,15 +467,15 @@ class FetchEngineTest {
         mockResponse.addAlarmsItem(unmodifiedAlarm1);
         mockResponse.addAlarmsItem(modifiedAlarm3);
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.listAlarms()).thenReturn(mockResponse);
+        mockStreamAlarms(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchAlarms();
+        fetchEngine.fetchAlarms(ORGANIZATION_ID);
 
         // Then
 
-        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         assertEquals(NOW, lastApiPollForAlarm.getLastFullReadTime());
         assertEquals(LESS_THAN_ONE_DAY_BEFORE_NOW, lastApiPollForAlarm.getLastChangesPollTime());
         assertEquals(24L, lastApiPollForAlarm.getCurrentOffset());
@@ -327,11 +496,11 @@ class FetchEngineTest {
         Alarm existingAlarm2 = createAlarm("2", "alarm-2");
         Alarm existingAlarm3 = createAlarm("3", "alarm-3");
 
-        alarmRepository.insertOrUpdate(existingAlarm1);
-        alarmRepository.insertOrUpdate(existingAlarm2);
-        alarmRepository.insertOrUpdate(existingAlarm3);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm2);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, existingAlarm3);
 
-        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
         lastApiPoll.setLastFullReadTime(LESS_THAN_ONE_DAY_BEFORE_NOW); // Change read is enough
         lastApiPoll.setCurrentOffset(12L);
@@ -348,26 +517,27 @@ class FetchEngineTest {
         mockResponse.addAlarmsItem(modifiedAlarm2);
         mockResponse.addAlarmsItem(modifiedAlarm3);
         mockResponse.setOffset(24L);
-        Mockito.when(restClient.getAlarmChangesAfterOffset(12L)).thenReturn(mockResponse);
+        Mockito.when(restClient.getAlarmChangesAfterOffset(ORGANIZATION_ID, 12L)).thenReturn(mockResponse);
 
         Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
 
-        fetchEngine.fetchAlarms();
+        boolean receivedChanges = fetchEngine.fetchAlarms(ORGANIZATION_ID);
 
         if (testDuplicateReads) {
             // In some cases the API may return the same changes more than once
             // By calling the API twice while getting same result back both times, we verify that the engine can handle
             // duplicate changes
             mockResponse.setOffset(28L);
-            Mockito.when(restClient.getAlarmChangesAfterOffset(24L))
+            Mockito.when(restClient.getAlarmChangesAfterOffset(ORGANIZATION_ID, 24L))
                     .thenReturn(mockResponse); // Offset was updated by previous read
             Mockito.when(clock.currentTimeMillis()).thenReturn(JUST_AFTER_NOW); // Time has passed since now
-            fetchEngine.fetchAlarms();
+            fetchEngine.fetchAlarms(ORGANIZATION_ID);
         }
 
         // Then
 
-        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm();
+        assertTrue(receivedChanges);
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         assertEquals(LESS_THAN_ONE_DAY_BEFORE_NOW, lastApiPollForAlarm.getLastFullReadTime());
         assertEquals((testDuplicateReads ? JUST_AFTER_NOW : NOW), lastApiPollForAlarm.getLastChangesPollTime());
         assertEquals((testDuplicateReads ? 28L : 24L), lastApiPollForAlarm.getCurrentOffset());
@@ -378,6 +548,54 @@ class FetchEngineTest {
         assertEquals("alarm-3-modified", alarmRepository.findById("3").getLabel());
     }
 
+    // The RestClient passes the objects of a full read to a consumer instead of returning them
+    @Test
+    void fetchAlarms_givenNoNewChanges_whenChangesRead_thenReturnsFalse() {
+
+        // Given
+
+        LastApiPoll lastApiPoll = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
+        lastApiPoll.setLastChangesPollTime(LESS_THAN_ONE_DAY_BEFORE_NOW);
+        lastApiPoll.setLastFullReadTime(LESS_THAN_ONE_DAY_BEFORE_NOW); // Change read is enough
+        lastApiPoll.setCurrentOffset(12L);
+
+        lastApiPollRepository.updateLastApiPoll(lastApiPoll);
+
+        // When
+
+        AlarmChangesResponse mockResponse = new AlarmChangesResponse();
+        mockResponse.setAlarms(List.of());
+        mockResponse.setOffset(12L);
+        Mockito.when(restClient.getAlarmChangesAfterOffset(ORGANIZATION_ID, 12L)).thenReturn(mockResponse);
+
+        Mockito.when(clock.currentTimeMillis()).thenReturn(NOW);
+
+        boolean receivedChanges = fetchEngine.fetchAlarms(ORGANIZATION_ID);
+
+        // Then
+
+        assertFalse(receivedChanges);
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
+        assertEquals(NOW, lastApiPollForAlarm.getLastChangesPollTime());
+        assertEquals(12L, lastApiPollForAlarm.getCurrentOffset());
+    }
+
+    private void mockStreamInventory(InventoryResponse response) {
+        Mockito.when(restClient.streamInventory(Mockito.eq(ORGANIZATION_ID), Mockito.any())).thenAnswer(invocation -> {
+            Consumer<List<InventoryObject>> inventoryObjectsConsumer = invocation.getArgument(1);
+            inventoryObjectsConsumer.accept(response.getInventoryObjects());
+            return response.getOffset();
+        });
+    }
+
+    private void mockStreamAlarms(AlarmsResponse response) {
+        Mockito.when(restClient.streamAlarms(Mockito.eq(ORGANIZATION_ID), Mockito.any())).thenAnswer(invocation -> {
+            Consumer<List<Alarm>> alarmsConsumer = invocation.getArgument(1);
+            alarmsConsumer.accept(response.getAlarms());
+            return response.getOffset();
+        });
+    }
+
     private static Alarm createAlarm(String id, String label) {
         Alarm alarm = new Alarm();
         alarm.setId(id);
@@ -405,4 +623,16 @@ class FetchEngineTest {
         device.setLabel(label);
         return device;
     }
+
+    private static InventoryObjectCreateOrUpdate createOrUpdateChange(InventoryObject inventoryObject) {
+        InventoryObjectCreateOrUpdate change = new InventoryObjectCreateOrUpdate();
+        change.setInventoryObject(inventoryObject);
+        return change;
+    }
+
+    private static InventoryObjectDelete deleteChange(String inventoryObjectId) {
+        InventoryObjectDelete change = new InventoryObjectDelete();
+        change.setInventoryObjectId(inventoryObjectId);
+        return change;
+    }
 }
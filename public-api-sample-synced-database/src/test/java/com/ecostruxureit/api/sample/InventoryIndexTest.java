@@ -0,0 +1,412 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static com.ecostruxureit.api.sample.TestData.ORGANIZATION_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import generated.dto.Device;
+import generated.dto.InventoryObject;
+import generated.dto.Location;
+import generated.dto.Organization;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods in {@link InventoryIndex}.
+ */
+class InventoryIndexTest {
+
+    private final InventoryObjectRepository inventoryObjectRepository = Mockito.mock(InventoryObjectRepository.class);
+    private final InventoryIndex inventoryIndex = new InventoryIndex(new Configuration(), inventoryObjectRepository);
+
+    @Test
+    void findRootDevice_givenDeviceTree_thenReturnsRoot() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", "device_a");
+        Device device_c = createDevice("device_c", "device_b");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_c, device_b, device_a));
+
+        // When
+        Device rootOfC = inventoryIndex.findRootDevice(device_c);
+        Device rootOfA = inventoryIndex.findRootDevice(device_a);
+
+        // Then
+        assertSame(device_a, rootOfC);
+        assertSame(device_a, rootOfA);
+    }
+
+    @Test
+    void findRootDevice_givenParentNotInIndex_thenReturnsDeviceItself() {
+
+        // Given
+        Device device_b = createDevice("device_b", "device_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_b));
+
+        // When
+        Device root = inventoryIndex.findRootDevice(device_b);
+
+        // Then
+        assertSame(device_b, root);
+    }
+
+    @Test
+    void findRootDevice_givenCycle_thenThrows() {
+
+        // Given
+        Device device_a = createDevice("device_a", "device_b");
+        Device device_b = createDevice("device_b", "device_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a, device_b));
+
+        // When + Then
+        assertThrows(RuntimeException.class, () -> inventoryIndex.findRootDevice(device_a));
+    }
+
+    @Test
+    void findDeviceAndDescendants_givenDeviceTree_thenParentsComeBeforeChildren() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", "device_a");
+        Device device_c = createDevice("device_c", "device_a");
+        Device device_d = createDevice("device_d", "device_c");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_d, device_c, device_b, device_a));
+
+        // When
+        List<Device> result = inventoryIndex.findDeviceAndDescendants(device_a);
+
+        // Then
+        assertEquals(4, result.size());
+        assertSame(device_a, result.getFirst());
+        assertTrue(result.indexOf(device_c) < result.indexOf(device_d));
+        assertEquals(List.of(device_c, device_d), inventoryIndex.findDeviceAndDescendants(device_c));
+        assertEquals(List.of(), inventoryIndex.findDeviceAndDescendants(createDevice("device_x", null)));
+    }
+
+    @Test
+    void findDeviceAndDescendants_givenCycle_thenReturnsEachDeviceOnce() {
+
+        // Given
+        Device device_a = createDevice("device_a", "device_b");
+        Device device_b = createDevice("device_b", "device_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a, device_b));
+
+        // When
+        List<Device> result = inventoryIndex.findDeviceAndDescendants(device_a);
+
+        // Then
+        assertEquals(List.of(device_a, device_b), result);
+    }
+
+    @Test
+    void findDeviceAndDescendants_whenParentChanges_thenChildIsMoved() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", null);
+        Device device_c = createDevice("device_c", "device_a");
+        Device device_d = createDevice("device_d", "device_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a, device_b, device_c, device_d));
+
+        // When
+        Device movedDevice_c = createDevice("device_c", "device_b");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(movedDevice_c));
+
+        // Then
+        assertEquals(Set.of("device_d"), findIdsOfChildDevices(device_a));
+        assertEquals(Set.of("device_c"), findIdsOfChildDevices(device_b));
+        assertSame(movedDevice_c, inventoryIndex.findById("device_c"));
+    }
+
+    @Test
+    void findDeviceAndDescendants_whenParentIsRemovedAndAddedAgain_thenChildrenAreKept() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", "device_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a, device_b));
+
+        // When
+        inventoryIndex.removeAll(ORGANIZATION_ID, List.of("device_a"));
+
+        // Then
+        assertNull(inventoryIndex.findById("device_a"));
+        assertSame(device_b, inventoryIndex.findRootDevice(device_b));
+
+        // When
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a));
+
+        // Then
+        assertEquals(Set.of("device_b"), findIdsOfChildDevices(device_a));
+        assertSame(device_a, inventoryIndex.findRootDevice(device_b));
+    }
+
+    @Test
+    void removeAll_whenAllObjectsAreRemoved_thenIndexIsEmpty() {
+
+        // Given
+        Location location_a = createLocation("location_a", null);
+        Device device_b = createDevice("device_b", "device_c");
+        device_b.setLocationId("location_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(location_a, device_b));
+
+        // When
+        inventoryIndex.removeAll(ORGANIZATION_ID, List.of("device_b", "location_a", "unknown_id"));
+
+        // Then
+        assertEquals(0, inventoryIndex.size());
+        assertNull(inventoryIndex.findById("location_a"));
+        assertNull(inventoryIndex.findById("device_c"));
+    }
+
+    @Test
+    void removeAll_whenObjectBelongsToAnotherOrganization_thenKeepsIt() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", "device_a");
+        inventoryIndex.putAll("organization_b", List.of(device_a, device_b));
+
+        // When
+        inventoryIndex.removeAll(ORGANIZATION_ID, List.of("device_a"));
+
+        // Then
+        assertSame(device_a, inventoryIndex.findById("device_a"));
+        assertEquals(Set.of("device_b"), findIdsOfChildDevices(device_a));
+    }
+
+    @Test
+    void findLocationAndAncestors_thenOnlyReturnsLocations() {
+
+        // Given
+        Location location_a = createLocation("location_a", null);
+        Location location_b = createLocation("location_b", "location_a");
+        Device device_c = createDevice("device_c", null);
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(location_a, location_b, device_c));
+
+        // When + Then
+        assertEquals(List.of(location_b, location_a), inventoryIndex.findLocationAndAncestors("location_b"));
+        assertEquals(List.of(), inventoryIndex.findLocationAndAncestors("device_c"));
+        assertEquals(List.of(), inventoryIndex.findLocationAndAncestors("location_x"));
+    }
+
+    @Test
+    void findLocationAndAncestors_givenCycle_thenReturnsEachLocationOnce() {
+
+        // Given
+        Location location_a = createLocation("location_a", "location_b");
+        Location location_b = createLocation("location_b", "location_a");
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(location_a, location_b));
+
+        // When + Then
+        assertEquals(List.of(location_a, location_b), inventoryIndex.findLocationAndAncestors("location_a"));
+    }
+
+    @Test
+    void putAll_givenIndexIsDisabled_thenNothingIsAdded() {
+
+        // Given
+        Configuration configuration = new Configuration();
+        configuration.setInventoryIndexEnabled(false);
+        InventoryIndex disabledInventoryIndex = new InventoryIndex(configuration, inventoryObjectRepository);
+
+        // When
+        disabledInventoryIndex.reload();
+        disabledInventoryIndex.putAll(ORGANIZATION_ID, List.of(createDevice("device_a", null)));
+
+        // Then
+        assertNull(disabledInventoryIndex.findById("device_a"));
+        Mockito.verifyNoInteractions(inventoryObjectRepository);
+    }
+
+    @Test
+    void findOrganizationOf_givenSeveralOrganizations_thenReturnsOrganizationOfObject() {
+
+        // Given
+        Organization organization_a = createOrganization(ORGANIZATION_ID);
+        Organization organization_b = createOrganization("organization_b");
+        Device device_c = createDevice("device_c", null);
+        Device device_d = createDevice("device_d", null);
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(organization_a, device_c));
+        inventoryIndex.putAll("organization_b", List.of(organization_b, device_d));
+
+        // When + Then
+        assertSame(organization_a, inventoryIndex.findOrganizationOf("device_c"));
+        assertSame(organization_b, inventoryIndex.findOrganizationOf("device_d"));
+        assertNull(inventoryIndex.findOrganizationOf("device_x"));
+    }
+
+    @Test
+    void putAll_givenManyObjects_thenAllAreFound() {
+
+        // Given
+        Device root = createDevice("device_0", null);
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(root));
+        for (int index = 1; index < 1000; index++) {
+            inventoryIndex.putAll(ORGANIZATION_ID, List.of(createDevice("device_" + index, "device_" + (index - 1))));
+        }
+
+        // When
+        Device root_of_last = inventoryIndex.findRootDevice((Device) inventoryIndex.findById("device_999"));
+
+        // Then
+        assertEquals(1000, inventoryIndex.size());
+        assertSame(root, root_of_last);
+    }
+
+    @Test
+    void putAll_givenActiveTransaction_thenObjectsAreReadFromRepositoryWhenCommitted() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        Mockito.doReturn(List.of(device_a))
+                .when(inventoryObjectRepository)
+                .findByIds(ORGANIZATION_ID, List.of("device_a"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+
+            // When
+            inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a));
+
+            // Then
+            assertNull(inventoryIndex.findById("device_a"));
+
+            // When
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(
+                    synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Then
+            assertSame(device_a, inventoryIndex.findById("device_a"));
+            assertNull(TransactionSynchronizationManager.getResource(inventoryIndex));
+
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removeAll_givenActiveTransaction_thenObjectsNoLongerInRepositoryAreRemovedWhenCommitted() {
+
+        // Given
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(createDevice("device_a", null), createDevice("device_b", null)));
+        Device device_b = createDevice("device_b", "device_a");
+        Mockito.doReturn(List.of(device_b))
+                .when(inventoryObjectRepository)
+                .findByIds(ORGANIZATION_ID, List.of("device_a", "device_b"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+
+            // When
+            inventoryIndex.removeAll(ORGANIZATION_ID, List.of("device_a"));
+            inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_b));
+
+            // Then
+            assertEquals(2, inventoryIndex.size());
+
+            // When
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(
+                    synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Then
+            assertEquals(1, inventoryIndex.size());
+            assertNull(inventoryIndex.findById("device_a"));
+            assertSame(device_b, inventoryIndex.findById("device_b"));
+
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void putAll_givenActiveTransaction_whenRolledBack_thenObjectsAreNotAdded() {
+
+        // Given
+        Device device_a = createDevice("device_a", null);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+
+            // When
+            inventoryIndex.putAll(ORGANIZATION_ID, List.of(device_a));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization ->
+                            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            assertNull(inventoryIndex.findById("device_a"));
+            assertNull(TransactionSynchronizationManager.getResource(inventoryIndex));
+
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reload_thenReplacesContentWithObjectsFromRepository() {
+
+        // Given
+        inventoryIndex.putAll(ORGANIZATION_ID, List.of(createDevice("device_x", null)));
+        Device device_a = createDevice("device_a", null);
+        Device device_b = createDevice("device_b", "device_a");
+        Mockito.doAnswer(invocation -> {
+                    BiConsumer<String, InventoryObject> consumer = invocation.getArgument(0);
+                    consumer.accept(ORGANIZATION_ID, device_b);
+                    consumer.accept(ORGANIZATION_ID, device_a);
+                    return null;
+                })
+                .when(inventoryObjectRepository)
+                .forEachInventoryObject(Mockito.any());
+
+        // When
+        inventoryIndex.reload();
+
+        // Then
+        assertEquals(2, inventoryIndex.size());
+        assertNull(inventoryIndex.findById("device_x"));
+        assertTrue(findIdsOfChildDevices(device_a).contains("device_b"));
+    }
+
+    private Set<String> findIdsOfChildDevices(Device device) {
+        return inventoryIndex.findDeviceAndDescendants(device).stream()
+                .filter(descendant -> device.getId().equals(descendant.getParentId()))
+                .map(InventoryObject::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static Device createDevice(String id, String parentId) {
+        Device device = new Device();
+        device.setId(id);
+        device.setLabel("Label of " + id);
+        device.setParentId(parentId);
+        return device;
+    }
+
+    private static Location createLocation(String id, String parentId) {
+        Location location = new Location();
+        location.setId(id);
+        location.setLabel("Label of " + id);
+        location.setParentId(parentId);
+        return location;
+    }
+
+    private static Organization createOrganization(String id) {
+        Organization organization = new Organization();
+        organization.setId(id);
+        organization.setLabel("Label of " + id);
+        return organization;
+    }
+}
@@ -1,6 +1,7 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import static com.ecostruxureit.api.sample.TestData.ORGANIZATION_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -12,14 +13,19 @@ import generated.dto.InventoryObject;
 import generated.dto.Location;
 import generated.dto.Organization;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -36,12 +42,17 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 class InventoryObjectRepositoryTest {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryObjectRepositoryTest.class);
+
     @Autowired
     private Configuration configuration;
 
     @Autowired
     private InventoryObjectRepository inventoryObjectRepository;
 
+    @Autowired
+    private StatementCounter statementCounter;
+
     @Autowired
     private TestData testData;
 
@@ -55,7 +66,7 @@ class InventoryObjectRepositoryTest {
         organization.setLabel("Flamingo Inc.");
         organization.setAddress("Silcon Alle 1, 6000 Kolding, Denmark");
 
-        inventoryObjectRepository.insertOrUpdate(organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
 
         assertEquals(1, inventoryObjectRepository.findAll().size());
 
@@ -75,7 +86,7 @@ class InventoryObjectRepositoryTest {
         location.setParentId("loc-parent-id");
         location.setAddress("Somewhere nice");
 
-        inventoryObjectRepository.insertOrUpdate(location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
         assertEquals(1, inventoryObjectRepository.findAll().size());
 
@@ -98,7 +109,7 @@ class InventoryObjectRepositoryTest {
         device.setLocationId("device-location-id");
         device.setParentId("device-parent-id");
 
-        inventoryObjectRepository.insertOrUpdate(device);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device);
 
         assertEquals(1, inventoryObjectRepository.findAll().size());
 
@@ -120,7 +131,49 @@ class InventoryObjectRepositoryTest {
         // Nothing is just an InventoryObject - it is always and Organization, Device, or Location, but the
         // InventoryObject generated based
         // on the Open API Specification is not made abstract.
-        assertThrows(RuntimeException.class, () -> inventoryObjectRepository.insertOrUpdate(inventoryObject));
+        assertThrows(RuntimeException.class, () -> inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, inventoryObject));
+    }
+
+    @Test
+    void batchInsertOrUpdate_whenMoreObjectsThanBatchSize_thenInsertsAndUpdatesAll() {
+
+        int numberOfDevices = configuration.getUpsertBatchSize() + 10;
+
+        Location location = new Location();
+        location.setId("loc-id");
+        location.setLabel("Kolding");
+
+        List<InventoryObject> inventoryObjects = new ArrayList<>();
+        inventoryObjects.add(location);
+        for (int n = 0; n < numberOfDevices; n++) {
+            Device device = new Device();
+            device.setId("device-" + n);
+            device.setLabel("UPS " + n);
+            device.setLocationId(location.getId());
+            device.setWarrantyExpirationDate(LocalDate.of(2030, 1, 1));
+            inventoryObjects.add(device);
+        }
+
+        inventoryObjectRepository.batchInsertOrUpdate(ORGANIZATION_ID, inventoryObjects);
+
+        assertEquals(numberOfDevices + 1, inventoryObjectRepository.findAll().size());
+
+        // Update some of the objects again - they should replace the existing rows
+        Device modifiedDevice = new Device();
+        modifiedDevice.setId("device-0");
+        modifiedDevice.setLabel("UPS 0 modified");
+        Location modifiedLocation = new Location();
+        modifiedLocation.setId("loc-id");
+        modifiedLocation.setLabel("Kolding modified");
+
+        inventoryObjectRepository.batchInsertOrUpdate(ORGANIZATION_ID, List.of(modifiedDevice, modifiedLocation));
+
+        assertEquals(numberOfDevices + 1, inventoryObjectRepository.findAll().size());
+        assertEquals("UPS 0 modified", inventoryObjectRepository.findById("device-0").getLabel());
+        assertNull(((Device) inventoryObjectRepository.findById("device-0")).getWarrantyExpirationDate());
+        assertEquals(LocalDate.of(2030, 1, 1), ((Device) inventoryObjectRepository.findById("device-1"))
+                .getWarrantyExpirationDate());
+        assertEquals("Kolding modified", inventoryObjectRepository.findById("loc-id").getLabel());
     }
 
     @Test
@@ -129,33 +182,63 @@ class InventoryObjectRepositoryTest {
     }
 
     @Test
-    void findOrganization_whenOrganizationExist_thenReturnsOrganization() {
+    void findOrganizationOf_whenOrganizationExist_thenReturnsOrganization() {
         Organization organization = new Organization();
         organization.setId(configuration.getOrganizationId());
+        Location location = new Location();
+        location.setId("loc-id");
 
-        inventoryObjectRepository.insertOrUpdate(organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
-        assertEquals(organization, inventoryObjectRepository.findOrganization());
+        assertEquals(organization, inventoryObjectRepository.findOrganizationOf("loc-id"));
+        assertEquals(organization, inventoryObjectRepository.findOrganizationOf(configuration.getOrganizationId()));
     }
 
     @Test
-    void findOrganization_whenNoOrganizationExist_thenReturnsNull() {
-        assertNull(inventoryObjectRepository.findOrganization());
+    void findOrganizationOf_whenSeveralOrganizationsExist_thenReturnsOrganizationOfGivenObject() {
+        Organization organization = new Organization();
+        organization.setId(ORGANIZATION_ID);
+        Organization otherOrganization = new Organization();
+        otherOrganization.setId("other-organization");
+        Location otherLocation = new Location();
+        otherLocation.setId("other-loc-id");
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
+        inventoryObjectRepository.insertOrUpdate("other-organization", otherOrganization);
+        inventoryObjectRepository.insertOrUpdate("other-organization", otherLocation);
+
+        assertEquals(otherOrganization, inventoryObjectRepository.findOrganizationOf("other-loc-id"));
+        assertEquals(1, inventoryObjectRepository.findAllContentHashes(ORGANIZATION_ID).size());
+        assertEquals(2, inventoryObjectRepository.findAllContentHashes("other-organization").size());
     }
 
     @Test
-    void findLocationById_whenOrganizationExist_thenReturnsOrganization() {
+    void findOrganizationOf_whenNoOrganizationExist_thenReturnsNull() {
         Location location = new Location();
         location.setId("loc-id");
 
-        inventoryObjectRepository.insertOrUpdate(location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
-        assertEquals(location, inventoryObjectRepository.findLocationById("loc-id"));
+        assertNull(inventoryObjectRepository.findOrganizationOf("loc-id"));
+        assertNull(inventoryObjectRepository.findOrganizationOf("does_not_exist"));
     }
 
     @Test
-    void findLocationById_whenLocationDoesNotExist_thenReturnsNull() {
-        assertNull(inventoryObjectRepository.findLocationById("non-existing-id"));
+    void findByIds_thenOnlyReturnsObjectsOfTheOrganization() {
+
+        Device device_a = new Device();
+        device_a.setId("device_a");
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_a);
+
+        Device device_b = new Device();
+        device_b.setId("device_b");
+        inventoryObjectRepository.insertOrUpdate("organization_b", device_b);
+
+        List<InventoryObject> inventoryObjects =
+                inventoryObjectRepository.findByIds(ORGANIZATION_ID, List.of("device_a", "device_b", "does_not_exist"));
+
+        assertEquals(List.of(device_a), inventoryObjects);
     }
 
     @Test
@@ -165,16 +248,16 @@ class InventoryObjectRepositoryTest {
 
         Organization organization = new Organization();
         organization.setId(organizationId);
-        inventoryObjectRepository.insertOrUpdate(organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
 
         Location location = new Location();
         location.setId("Location-ID");
-        inventoryObjectRepository.insertOrUpdate(location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
         Device device = new Device();
         device.setId("Device-ID");
         device.setGatewayIds(Collections.singletonList("Gateway-ID"));
-        inventoryObjectRepository.insertOrUpdate(device);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device);
 
         List<InventoryObject> inventoryObjects = inventoryObjectRepository.findAll();
 
@@ -189,15 +272,15 @@ class InventoryObjectRepositoryTest {
 
         Organization organization = new Organization();
         organization.setId("Organization-ID");
-        inventoryObjectRepository.insertOrUpdate(organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
 
         Location location = new Location();
         location.setId("Location-ID");
-        inventoryObjectRepository.insertOrUpdate(location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
         Device device = new Device();
         device.setId("Device-ID");
-        inventoryObjectRepository.insertOrUpdate(device);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device);
 
         List<Map<String, Object>> inventoryObjects =
                 inventoryObjectRepository.findAllAsListOfMapsOrderedByDiscriminatorDesc();
@@ -211,46 +294,6 @@ class InventoryObjectRepositoryTest {
         assertEquals("Device-ID", inventoryObjects.get(2).get("id"));
     }
 
-    @Test
-    void findAllIds() {
-
-        Organization organization = new Organization();
-        organization.setId("2dbdd0a8-7565-4da4-98fd-0879b381e02f");
-        organization.setLabel("Flamingo Inc.");
-
-        Location location = new Location();
-        location.setId("ddb94d37-b2c0-4e4f-8500-1c598a5494ee");
-        location.setLabel("Kolding");
-        location.setType("SITE");
-
-        Device device = new Device();
-        device.setId("43bf47cf-48ce-413a-80ea-339890a830a0");
-        device.setLabel("UPS 12");
-
-        inventoryObjectRepository.insertOrUpdate(organization);
-        inventoryObjectRepository.insertOrUpdate(location);
-        inventoryObjectRepository.insertOrUpdate(device);
-
-        Set<String> allIds = inventoryObjectRepository.findAllIds();
-
-        assertEquals(3, allIds.size());
-        assertTrue(allIds.contains(organization.getId()));
-        assertTrue(allIds.contains(location.getId()));
-        assertTrue(allIds.contains(device.getId()));
-    }
-
-    @Test
-    void findParentDevice() {
-
-        testData.insertTestDataIntoDatabase();
-
-        Device device_d = (Device) inventoryObjectRepository.findById("device_d");
-        Device device_h = (Device) inventoryObjectRepository.findById("device_h");
-
-        assertNull(inventoryObjectRepository.findParentDevice(device_d));
-        assertEquals(device_d, inventoryObjectRepository.findParentDevice(device_h));
-    }
-
     @Test
     void findRootDevice() {
 
@@ -281,26 +324,105 @@ class InventoryObjectRepositoryTest {
     }
 
     @Test
-    void findAllChildDevices() {
+    void findRootDevice_thenUsesOneStatement() {
 
         testData.insertTestDataIntoDatabase();
+        Device device_i = (Device) inventoryObjectRepository.findById("device_i");
+
+        statementCounter.reset();
+        Device rootDevice = inventoryObjectRepository.findRootDevice(device_i);
+
+        assertEquals("device_d", rootDevice.getId());
+        assertEquals(1, statementCounter.getCount());
+    }
+
+    @Test
+    void findRootDevice_whenDeviceParentsFormCycle_thenThrows() {
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_a", "device_c"));
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_b", "device_a"));
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_c", "device_b"));
+
+        Device device_a = (Device) inventoryObjectRepository.findById("device_a");
+
+        assertThrows(RuntimeException.class, () -> inventoryObjectRepository.findRootDevice(device_a));
+    }
+
+    @Test
+    void findRootDevice_whenDeviceParentDoesNotExist_thenReturnsTopMostExistingDevice() {
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_b", "device_a"));
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_c", "device_b"));
 
+        Device device_c = (Device) inventoryObjectRepository.findById("device_c");
+
+        assertEquals("device_b", inventoryObjectRepository.findRootDevice(device_c).getId());
+    }
+
+    @Test
+    void findDeviceAndDescendants_thenReturnsSubtreeInOneStatement() {
+
+        testData.insertTestDataIntoDatabase();
         Device device_d = (Device) inventoryObjectRepository.findById("device_d");
-        Device device_g = (Device) inventoryObjectRepository.findById("device_g");
-        Device device_h = (Device) inventoryObjectRepository.findById("device_h");
-        Device device_i = (Device) inventoryObjectRepository.findById("device_i");
 
-        List<Device> childrenOfD = inventoryObjectRepository.findAllChildDevices(device_d);
-        assertEquals(2, childrenOfD.size());
-        assertTrue(childrenOfD.contains(device_g));
-        assertTrue(childrenOfD.contains(device_h));
+        statementCounter.reset();
+        List<Device> subtree = inventoryObjectRepository.findDeviceAndDescendants(device_d);
+
+        assertEquals(1, statementCounter.getCount());
+        List<String> subtreeIds = subtree.stream().map(Device::getId).toList();
+        assertEquals(
+                Set.of("device_d", "device_g", "device_h", "device_i"), new HashSet<>(subtreeIds), "Got " + subtreeIds);
+        assertEquals("device_d", subtreeIds.getFirst());
+        assertTrue(subtreeIds.indexOf("device_h") < subtreeIds.indexOf("device_i"));
+    }
+
+    @Test
+    void findDeviceAndDescendants_whenDeviceParentsFormCycle_thenReturnsEachDeviceOnce() {
+
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_a", "device_b"));
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, createDevice("device_b", "device_a"));
 
-        List<Device> childrenOfH = inventoryObjectRepository.findAllChildDevices(device_h);
-        assertEquals(1, childrenOfH.size());
-        assertTrue(childrenOfH.contains(device_i));
+        Device device_a = (Device) inventoryObjectRepository.findById("device_a");
 
-        List<Device> childrenOfI = inventoryObjectRepository.findAllChildDevices(device_i);
-        assertEquals(0, childrenOfI.size());
+        List<String> subtreeIds = inventoryObjectRepository.findDeviceAndDescendants(device_a).stream()
+                .map(Device::getId)
+                .toList();
+        assertEquals(List.of("device_a", "device_b"), subtreeIds);
+    }
+
+    @Test
+    void findLocationAndAncestors_thenReturnsLocationsInOneStatement() {
+
+        testData.insertTestDataIntoDatabase();
+
+        statementCounter.reset();
+        List<Location> locations = inventoryObjectRepository.findLocationAndAncestors("location_c");
+
+        assertEquals(1, statementCounter.getCount());
+        assertEquals(
+                List.of("location_c", "location_b"),
+                locations.stream().map(Location::getId).toList());
+        assertEquals(List.of(), inventoryObjectRepository.findLocationAndAncestors("device_d"));
+        assertEquals(List.of(), inventoryObjectRepository.findLocationAndAncestors("does_not_exist"));
+    }
+
+    @Test
+    void findLocationAndAncestors_whenLocationParentsFormCycle_thenReturnsEachLocationOnce() {
+
+        Location location_a = new Location();
+        location_a.setId("location_a");
+        location_a.setParentId("location_b");
+        Location location_b = new Location();
+        location_b.setId("location_b");
+        location_b.setParentId("location_a");
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location_a);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location_b);
+
+        assertEquals(
+                List.of("location_a", "location_b"),
+                inventoryObjectRepository.findLocationAndAncestors("location_a").stream()
+                        .map(Location::getId)
+                        .toList());
     }
 
     @Test
@@ -317,10 +439,10 @@ class InventoryObjectRepositoryTest {
         location.setLabel("Kolding");
         location.setType("SITE");
 
-        inventoryObjectRepository.insertOrUpdate(organization);
-        inventoryObjectRepository.insertOrUpdate(location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
 
-        inventoryObjectRepository.deleteById(locationId);
+        inventoryObjectRepository.deleteById(ORGANIZATION_ID, locationId);
 
         List<InventoryObject> allInventoryObjects = inventoryObjectRepository.findAll();
 
@@ -331,7 +453,24 @@ class InventoryObjectRepositoryTest {
     @Test
     void deleteById_whenIdDoesNotExist_thenSilentlyIgnores() {
 
-        inventoryObjectRepository.deleteById("non_existing_id");
+        inventoryObjectRepository.deleteById(ORGANIZATION_ID, "non_existing_id");
+    }
+
+    @Test
+    void deleteById_whenObjectBelongsToAnotherOrganization_thenKeepsIt() {
+
+        Device device = new Device();
+        device.setId("18707764-063e-4e7c-a5d9-37d76566c8dc");
+        device.setLabel("UPS 12");
+
+        inventoryObjectRepository.insertOrUpdate("organization_b", device);
+
+        inventoryObjectRepository.deleteById(ORGANIZATION_ID, device.getId());
+
+        List<InventoryObject> allInventoryObjects = inventoryObjectRepository.findAll();
+
+        assertEquals(1, allInventoryObjects.size());
+        assertEquals("UPS 12", allInventoryObjects.getFirst().getLabel());
     }
 
     @Test
@@ -351,15 +490,15 @@ class InventoryObjectRepositoryTest {
         device.setId("18707764-063e-4e7c-a5d9-37d76566c8dc");
         device.setLabel("UPS 12");
 
-        inventoryObjectRepository.insertOrUpdate(organization);
-        inventoryObjectRepository.insertOrUpdate(location);
-        inventoryObjectRepository.insertOrUpdate(device);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device);
 
         Set<String> idsToDelete = new HashSet<>();
         idsToDelete.add(organization.getId());
         idsToDelete.add(device.getId());
 
-        inventoryObjectRepository.deleteByIds(idsToDelete);
+        inventoryObjectRepository.deleteByIds(ORGANIZATION_ID, idsToDelete);
 
         List<InventoryObject> allInventoryObjects = inventoryObjectRepository.findAll();
 
@@ -372,7 +511,7 @@ class InventoryObjectRepositoryTest {
 
         Device donNotDeleteMe = new Device();
         donNotDeleteMe.setId("18707764-063e-4e7c-a5d9-37d76566c8dc");
-        inventoryObjectRepository.insertOrUpdate(donNotDeleteMe);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, donNotDeleteMe);
 
         int entriesToKeep = 1;
         int entriesToDelete = 120;
@@ -384,14 +523,14 @@ class InventoryObjectRepositoryTest {
             idsToDelete.add(id);
             Device deviceToDelete = new Device();
             deviceToDelete.setId(id);
-            inventoryObjectRepository.insertOrUpdate(deviceToDelete);
+            inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, deviceToDelete);
         }
 
         assertEquals(
                 entriesToDelete + entriesToKeep,
                 inventoryObjectRepository.findAll().size());
 
-        inventoryObjectRepository.deleteByIds(idsToDelete);
+        inventoryObjectRepository.deleteByIds(ORGANIZATION_ID, idsToDelete);
 
         assertEquals(entriesToKeep, inventoryObjectRepository.findAll().size());
     }
@@ -404,12 +543,71 @@ class InventoryObjectRepositoryTest {
         organization.setId(organizationId);
         organization.setLabel("Flamingo Inc.");
 
-        inventoryObjectRepository.insertOrUpdate(organization);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization);
 
         Set<String> idsToDelete = new HashSet<>();
         idsToDelete.add(organization.getId());
         idsToDelete.add("non_existing_id");
 
-        inventoryObjectRepository.deleteByIds(idsToDelete);
+        inventoryObjectRepository.deleteByIds(ORGANIZATION_ID, idsToDelete);
+    }
+
+    private static Device createDevice(String id, String parentId) {
+        Device device = new Device();
+        device.setId(id);
+        device.setLabel("Label of " + id);
+        device.setParentId(parentId);
+        return device;
+    }
+
+    /**
+     * Compares upserting devices one statement at a time with upserting them in batches of {@code upsertBatchSize}, all in one transaction.
+     */
+    @Disabled("Only for manual use")
+    @Test
+    void measureUpsertTimeOneStatementAtATimeAndBatched() {
+
+        int deviceCount = 200_000;
+
+        // Warm up before measuring.
+        upsertOneStatementAtATime(createDevices("warm-up-one-", deviceCount / 10));
+        inventoryObjectRepository.batchInsertOrUpdate(ORGANIZATION_ID, createDevices("warm-up-batched-", deviceCount / 10));
+
+        List<Device> devices = createDevices("one-", deviceCount);
+        long startedAtNanos = System.nanoTime();
+        upsertOneStatementAtATime(devices);
+        long oneStatementAtATimeInMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+
+        devices = createDevices("batched-", deviceCount);
+        startedAtNanos = System.nanoTime();
+        inventoryObjectRepository.batchInsertOrUpdate(ORGANIZATION_ID, devices);
+        long batchedInMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+
+        LOGGER.info(
+                "Upserted {} devices in {} ms one statement at a time, and in {} ms in batches of {}",
+                deviceCount,
+                oneStatementAtATimeInMilliseconds,
+                batchedInMilliseconds,
+                configuration.getUpsertBatchSize());
+    }
+
+    private void upsertOneStatementAtATime(List<Device> devices) {
+
+        for (Device device : devices) {
+            inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device);
+        }
+    }
+
+    private static List<Device> createDevices(String idPrefix, int count) {
+
+        List<Device> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Device device = new Device();
+            device.setId(idPrefix + i);
+            device.setLabel("Device " + i);
+            device.setParentId(i % 10 == 0 ? null : idPrefix + (i - i % 10));
+            devices.add(device);
+        }
+        return devices;
     }
 }
@@ -1,6 +1,7 @@
 /* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
 package com.ecostruxureit.api.sample;
 
+import static com.ecostruxureit.api.sample.TestData.ORGANIZATION_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.jupiter.api.Test;
@@ -26,7 +27,7 @@ class LastApiPollRepositoryTest {
     @Test
     void initialLastApiPollForAlarm() {
 
-        LastApiPoll initialLastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll initialLastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
 
         assertEquals("alarm", initialLastApiPollForAlarm.getResourceName());
         assertEquals(0L, initialLastApiPollForAlarm.getCurrentOffset());
@@ -37,7 +38,7 @@ class LastApiPollRepositoryTest {
     @Test
     void initialLastApiPollForInventoryObject() {
 
-        LastApiPoll initialLastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll initialLastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
 
         assertEquals("inventory_object", initialLastApiPollForInventoryObject.getResourceName());
         assertEquals(0L, initialLastApiPollForInventoryObject.getCurrentOffset());
@@ -48,7 +49,7 @@ class LastApiPollRepositoryTest {
     @Test
     void updateLastApiPollForAlarm() {
 
-        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
 
         long updatedLastChangesPollTime = 1568200461360L;
         long updatedCurrentOffset = 34;
@@ -60,7 +61,7 @@ class LastApiPollRepositoryTest {
 
         lastApiPollRepository.updateLastApiPoll(lastApiPollForAlarm);
 
-        LastApiPoll lastApiPollForAlarmFromRepository = lastApiPollRepository.findLastApiPollForAlarm();
+        LastApiPoll lastApiPollForAlarmFromRepository = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
         assertEquals("alarm", lastApiPollForAlarmFromRepository.getResourceName());
         assertEquals(updatedCurrentOffset, lastApiPollForAlarmFromRepository.getCurrentOffset());
         assertEquals(updatedLastChangesPollTime, lastApiPollForAlarmFromRepository.getLastChangesPollTime());
@@ -70,7 +71,7 @@ class LastApiPollRepositoryTest {
     @Test
     void updateLastApiPollForInventoryObject() {
 
-        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject();
+        LastApiPoll lastApiPollForInventoryObject = lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
 
         long updatedLastPollTime = 1568200478598L;
         long updatedCurrentOffset = 2345;
@@ -83,10 +84,29 @@ class LastApiPollRepositoryTest {
         lastApiPollRepository.updateLastApiPoll(lastApiPollForInventoryObject);
 
         LastApiPoll lastApiPollForInventoryObjectFromRepository =
-                lastApiPollRepository.findLastApiPollForInventoryObject();
+                lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID);
         assertEquals("inventory_object", lastApiPollForInventoryObjectFromRepository.getResourceName());
         assertEquals(updatedCurrentOffset, lastApiPollForInventoryObjectFromRepository.getCurrentOffset());
         assertEquals(updatedLastPollTime, lastApiPollForInventoryObjectFromRepository.getLastChangesPollTime());
         assertEquals(updatedLastFullReadTime, lastApiPollForInventoryObjectFromRepository.getLastFullReadTime());
     }
+
+    @Test
+    void updateLastApiPoll_whenSeveralOrganizations_thenOnlyUpdatesGivenOrganization() {
+
+        LastApiPoll lastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID);
+        lastApiPollForAlarm.setCurrentOffset(34);
+        lastApiPollRepository.updateLastApiPoll(lastApiPollForAlarm);
+
+        LastApiPoll otherLastApiPollForAlarm = lastApiPollRepository.findLastApiPollForAlarm("other-organization");
+        otherLastApiPollForAlarm.setCurrentOffset(56);
+        lastApiPollRepository.updateLastApiPoll(otherLastApiPollForAlarm);
+
+        assertEquals(34L, lastApiPollRepository.findLastApiPollForAlarm(ORGANIZATION_ID).getCurrentOffset());
+        assertEquals(56L, lastApiPollRepository.findLastApiPollForAlarm("other-organization").getCurrentOffset());
+        assertEquals(
+                "other-organization",
+                lastApiPollRepository.findLastApiPollForAlarm("other-organization").getOrganizationId());
+        assertEquals(0L, lastApiPollRepository.findLastApiPollForInventoryObject(ORGANIZATION_ID).getCurrentOffset());
+    }
 }
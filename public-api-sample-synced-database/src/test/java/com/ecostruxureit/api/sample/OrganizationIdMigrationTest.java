@@ -0,0 +1,80 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests that {@code V1.4__add_organization_id.sql} keeps the rows written before it, when exactly one organization is configured.
+ */
+class OrganizationIdMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate("1.3", "");
+
+        jdbcTemplate.update("INSERT INTO inventory_object (id, discriminator, label) VALUES ('deviceId', 'Device', 'Device')");
+        jdbcTemplate.update("INSERT INTO alarm (id, device_id, label) VALUES ('alarmId', 'deviceId', 'Alarm')");
+        jdbcTemplate.update("UPDATE last_api_poll SET current_offset = 42, last_changes_poll_time = 1, last_full_read_time = 2");
+    }
+
+    @Test
+    void givenOneOrganization_whenMigrating_thenExistingRowsAndPollingStateBelongToIt() {
+
+        // When
+
+        migrate("latest", FlywayPlaceholders.getSingleOrganizationId(List.of("organization_a")));
+
+        // Then
+
+        assertThat(jdbcTemplate.queryForList("SELECT id, organization_id FROM inventory_object"))
+                .containsExactly(Map.of("ID", "deviceId", "ORGANIZATION_ID", "organization_a"));
+        assertThat(jdbcTemplate.queryForList("SELECT id, organization_id FROM alarm"))
+                .containsExactly(Map.of("ID", "alarmId", "ORGANIZATION_ID", "organization_a"));
+        assertThat(jdbcTemplate.queryForList(
+                        "SELECT organization_id, resource_name, current_offset FROM last_api_poll ORDER BY resource_name"))
+                .containsExactly(
+                        Map.of("ORGANIZATION_ID", "organization_a", "RESOURCE_NAME", "alarm", "CURRENT_OFFSET", 42L),
+                        Map.of("ORGANIZATION_ID", "organization_a", "RESOURCE_NAME", "inventory_object", "CURRENT_OFFSET", 42L));
+    }
+
+    @Test
+    void givenSeveralOrganizations_whenMigrating_thenExistingRowsAndPollingStateAreDeleted() {
+
+        // When
+
+        migrate("latest", FlywayPlaceholders.getSingleOrganizationId(List.of("organization_a", "organization_b")));
+
+        // Then
+
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM inventory_object")).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM alarm")).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM last_api_poll")).isEmpty();
+    }
+
+    private void migrate(String target, String singleOrganizationId) {
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .target(target)
+                .placeholders(Map.of(FlywayPlaceholders.SINGLE_ORGANIZATION_ID, singleOrganizationId))
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the methods in {@link PollingSchedule}.
+ */
+class PollingScheduleTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    @Test
+    void onPollCompleted_givenNoChanges_thenBacksOffUntilMaxPollInterval() {
+
+        PollingSchedule pollingSchedule = new PollingSchedule(Duration.ofSeconds(10), Duration.ofSeconds(60), 30, NOW);
+
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+        assertEquals(20_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+        assertEquals(40_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+        assertEquals(60_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+        assertEquals(60_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+
+        // Receiving changes resets the poll interval
+        assertEquals(0L, pollingSchedule.onPollCompleted(NOW, true, NOW));
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+    }
+
+    @Test
+    void onPollCompleted_givenChanges_thenPollsRightAwayUntilBudgetIsUsed() {
+
+        PollingSchedule pollingSchedule = new PollingSchedule(Duration.ofSeconds(10), Duration.ofSeconds(60), 3, NOW);
+
+        assertEquals(0L, pollingSchedule.onPollCompleted(NOW, true, NOW));
+        assertEquals(0L, pollingSchedule.onPollCompleted(NOW, true, NOW));
+        assertEquals(0L, pollingSchedule.onPollCompleted(NOW, true, NOW));
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, true, NOW), "Budget is used");
+
+        // One immediate poll is allowed every 20 seconds
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, true, NOW + 10_000L));
+        assertEquals(0L, pollingSchedule.onPollCompleted(NOW, true, NOW + 20_000L));
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, true, NOW + 20_000L));
+    }
+
+    @Test
+    void onPollFailed_thenBacksOffUntilMaxPollInterval() {
+
+        PollingSchedule pollingSchedule = new PollingSchedule(Duration.ofSeconds(10), Duration.ofSeconds(60), 30, NOW);
+        pollingSchedule.onPollCompleted(NOW, false, NOW);
+        pollingSchedule.onPollCompleted(NOW, false, NOW);
+
+        assertEquals(10_000L, pollingSchedule.onPollFailed());
+        assertEquals(20_000L, pollingSchedule.onPollFailed());
+        assertEquals(40_000L, pollingSchedule.onPollFailed());
+        assertEquals(60_000L, pollingSchedule.onPollFailed());
+
+        // A successful poll resets both the poll interval and the delay after failures
+        assertEquals(10_000L, pollingSchedule.onPollCompleted(NOW, false, NOW));
+        assertEquals(10_000L, pollingSchedule.onPollFailed());
+    }
+
+    @Test
+    void getBehindByMillis_thenReturnsTimeSinceLastSuccessfulPoll() {
+
+        PollingSchedule pollingSchedule = new PollingSchedule(Duration.ofSeconds(10), Duration.ofSeconds(60), 30, NOW);
+        assertEquals(5_000L, pollingSchedule.getBehindByMillis(NOW + 5_000L));
+
+        pollingSchedule.onPollCompleted(NOW + 10_000L, false, NOW + 11_000L);
+        assertEquals(2_000L, pollingSchedule.getBehindByMillis(NOW + 12_000L));
+
+        // Failing doesn't mean that the database has caught up
+        pollingSchedule.onPollFailed();
+        assertEquals(15_000L, pollingSchedule.getBehindByMillis(NOW + 25_000L));
+    }
+
+    @Test
+    void getBehindByMillis_givenEveryPollReturnsChanges_thenDoesNotGrow() {
+
+        PollingSchedule pollingSchedule = new PollingSchedule(Duration.ofSeconds(10), Duration.ofSeconds(60), 30, NOW);
+
+        for (long pollStartTime = NOW; pollStartTime < NOW + 600_000L; pollStartTime += 10_000L) {
+            pollingSchedule.onPollCompleted(pollStartTime, true, pollStartTime + 1_000L);
+            assertEquals(2_000L, pollingSchedule.getBehindByMillis(pollStartTime + 2_000L));
+        }
+    }
+}
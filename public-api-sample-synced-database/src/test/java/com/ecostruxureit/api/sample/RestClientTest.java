@@ -2,14 +2,13 @@
 package com.ecostruxureit.api.sample;
 
 import generated.dto.AlarmChangesResponse;
-import generated.dto.AlarmsResponse;
 import generated.dto.InventoryChangesResponse;
-import generated.dto.InventoryResponse;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -44,6 +43,8 @@ class RestClientTest {
     @MockBean
     private Configuration configuration;
 
+    private String organizationId;
+
     @BeforeEach
     void mockConfiguration() {
         String pathToPropertiesFileInHomeDir = System.getProperty("user.home") + "/RestClientTest.properties";
@@ -58,21 +59,23 @@ class RestClientTest {
             throw new RuntimeException(e);
         }
 
+        organizationId = properties.getProperty("organizationId");
         Mockito.when(configuration.getApiKey()).thenReturn(properties.getProperty("apiKey"));
         Mockito.when(configuration.getApiUrl()).thenReturn(properties.getProperty("apiUrl"));
-        Mockito.when(configuration.getOrganizationId()).thenReturn(properties.getProperty("organizationId"));
+        Mockito.when(configuration.getUpsertBatchSize()).thenReturn(1000);
     }
 
     @Test
-    void listInventory() {
-        InventoryResponse response = restClient.listInventory();
+    void streamInventory() {
+        AtomicInteger numberOfInventoryObjects = new AtomicInteger();
+        long offset = restClient.streamInventory(
+                organizationId,
+                inventoryObjects -> numberOfInventoryObjects.addAndGet(inventoryObjects.size()));
 
         System.out.println("======================================");
-        System.out.println("Called RestClient.listInventory()");
-        System.out.println("Response.getOffset(): " + response.getOffset());
-        System.out.println("Response.getInventoryObjects().size(): "
-                + response.getInventoryObjects().size());
-        // System.out.println("Full response: " + response);
+        System.out.println("Called RestClient.streamInventory()");
+        System.out.println("Offset: " + offset);
+        System.out.println("Number of inventory objects: " + numberOfInventoryObjects);
         System.out.println("======================================");
     }
 
@@ -87,7 +90,7 @@ class RestClientTest {
 
             callNumber++;
 
-            InventoryChangesResponse response = restClient.getInventoryChangesAfterOffset(currentOffset);
+            InventoryChangesResponse response = restClient.getInventoryChangesAfterOffset(organizationId, currentOffset);
 
             System.out.println("======================================");
             System.out.println("Made call number " + callNumber + " to RestClient.getInventoryChangesAfterOffset("
@@ -106,15 +109,14 @@ class RestClientTest {
     }
 
     @Test
-    void listAlarms() {
-        AlarmsResponse response = restClient.listAlarms();
+    void streamAlarms() {
+        AtomicInteger numberOfAlarms = new AtomicInteger();
+        long offset = restClient.streamAlarms(organizationId, alarms -> numberOfAlarms.addAndGet(alarms.size()));
 
         System.out.println("======================================");
-        System.out.println("Called RestClient.listAlarms()");
-        System.out.println("Response.getOffset(): " + response.getOffset());
-        System.out.println(
-                "Response.getAlarms().size(): " + response.getAlarms().size());
-        // System.out.println("Full response: " + response);
+        System.out.println("Called RestClient.streamAlarms()");
+        System.out.println("Offset: " + offset);
+        System.out.println("Number of alarms: " + numberOfAlarms);
         System.out.println("======================================");
     }
 
@@ -129,7 +131,7 @@ class RestClientTest {
 
             callNumber++;
 
-            AlarmChangesResponse response = restClient.getAlarmChangesAfterOffset(currentOffset);
+            AlarmChangesResponse response = restClient.getAlarmChangesAfterOffset(organizationId, currentOffset);
 
             System.out.println("======================================");
             System.out.println("Made call number " + callNumber + " to RestClient.getAlarmChangesAfterOffset("
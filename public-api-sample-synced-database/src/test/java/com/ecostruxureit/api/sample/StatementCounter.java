@@ -0,0 +1,80 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements created on connections from the application's {@link DataSource} - used by tests to verify how many
+ * statements it takes to e.g. render a page.
+ * <p>
+ * Counts across all threads, so it also counts the statements created while handling an HTTP request.
+ */
+@Component
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_CREATING_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Starts counting from 0 again.
+     */
+    public void reset() {
+        count.set(0);
+    }
+
+    /**
+     * @return the number of statements created since the last call to {@link #reset()}.
+     */
+    public int getCount() {
+        return count.get();
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countStatementsOf(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countStatementsOf(super.getConnection(username, password));
+        }
+
+        private Connection countStatementsOf(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, arguments) -> {
+                        if (STATEMENT_CREATING_METHODS.contains(method.getName())) {
+                            count.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, arguments);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
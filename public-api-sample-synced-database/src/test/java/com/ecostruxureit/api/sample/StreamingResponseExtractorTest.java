@@ -0,0 +1,83 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import generated.dto.Alarm;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Tests the methods in {@link StreamingResponseExtractor}.
+ */
+class StreamingResponseExtractorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void extractData_whenMoreObjectsThanChunkSize_thenPassesObjectsInChunks() throws IOException {
+
+        String json = """
+                {
+                  "someOtherField": {"alarms": [{"id": "not-an-alarm"}]},
+                  "alarms": [
+                    {"id": "1", "label": "alarm-1"},
+                    {"id": "2", "label": "alarm-2"},
+                    {"id": "3", "label": "alarm-3"}
+                  ],
+                  "offset": 42
+                }
+                """;
+
+        List<List<Alarm>> chunks = new ArrayList<>();
+        StreamingResponseExtractor<Alarm> extractor =
+                new StreamingResponseExtractor<>(objectMapper, "alarms", Alarm.class, 2, chunks::add);
+
+        long offset = extractor.extractData(createResponse(json));
+
+        assertEquals(42L, offset);
+        assertEquals(2, chunks.size());
+        assertEquals(List.of("1", "2"), chunks.get(0).stream().map(Alarm::getId).toList());
+        assertEquals(List.of("3"), chunks.get(1).stream().map(Alarm::getId).toList());
+        assertEquals("alarm-3", chunks.get(1).getFirst().getLabel());
+    }
+
+    @Test
+    void extractData_whenOffsetIsBeforeArray_thenStillReturnsOffset() throws IOException {
+
+        String json = """
+                {"offset": 7, "alarms": []}
+                """;
+
+        List<List<Alarm>> chunks = new ArrayList<>();
+        StreamingResponseExtractor<Alarm> extractor =
+                new StreamingResponseExtractor<>(objectMapper, "alarms", Alarm.class, 2, chunks::add);
+
+        assertEquals(7L, extractor.extractData(createResponse(json)));
+        assertEquals(0, chunks.size());
+    }
+
+    @Test
+    void extractData_whenArrayIsMissing_thenThrows() {
+
+        String json = """
+                {"offset": 7}
+                """;
+
+        StreamingResponseExtractor<Alarm> extractor =
+                new StreamingResponseExtractor<>(objectMapper, "alarms", Alarm.class, 2, chunk -> {});
+
+        assertThrows(IOException.class, () -> extractor.extractData(createResponse(json)));
+    }
+
+    private static MockClientHttpResponse createResponse(String json) {
+        return new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+    }
+}
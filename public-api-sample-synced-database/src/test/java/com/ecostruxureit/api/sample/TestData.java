@@ -9,6 +9,10 @@ import generated.dto.Organization;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -22,16 +26,24 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(propagation = Propagation.REQUIRED)
 public class TestData {
 
+    /**
+     * The ID of the organization the test data belongs to - which is also the organizationId used in application-test.properties.
+     */
+    public static final String ORGANIZATION_ID = "organization_a";
+
     private final AlarmRepository alarmRepository;
+    private final InventoryIndex inventoryIndex;
     private final InventoryObjectRepository inventoryObjectRepository;
     private final JdbcTemplate jdbcTemplate;
 
     public TestData(
             AlarmRepository alarmRepository,
+            InventoryIndex inventoryIndex,
             InventoryObjectRepository inventoryObjectRepository,
             JdbcTemplate jdbcTemplate) {
 
         this.alarmRepository = Objects.requireNonNull(alarmRepository);
+        this.inventoryIndex = Objects.requireNonNull(inventoryIndex);
         this.inventoryObjectRepository = Objects.requireNonNull(inventoryObjectRepository);
         this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
     }
@@ -73,20 +85,20 @@ public class TestData {
         Organization organization_a = new Organization();
         organization_a.setId("organization_a");
         organization_a.setLabel("Organization a");
-        inventoryObjectRepository.insertOrUpdate(organization_a);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, organization_a);
 
         Location location_b = new Location();
         location_b.setId("location_b");
         location_b.setType("BUILDING");
         location_b.setLabel("Location b");
-        inventoryObjectRepository.insertOrUpdate(location_b);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location_b);
 
         Location location_c = new Location();
         location_c.setId("location_c");
         location_c.setType("RACK");
         location_c.setLabel("Location c");
         location_c.setParentId(location_b.getId());
-        inventoryObjectRepository.insertOrUpdate(location_c);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, location_c);
 
         Device device_d = new Device();
         device_d.setId("device_d");
@@ -98,7 +110,7 @@ public class TestData {
         device_d.setServiceDueDate(LocalDate.parse("2025-03-31"));
         device_d.setLastServiceDate(LocalDate.parse("2025-03-31"));
         device_d.deviceNote("Device note D");
-        inventoryObjectRepository.insertOrUpdate(device_d);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_d);
 
         Device device_e = new Device();
         device_e.setId("device_e");
@@ -106,14 +118,14 @@ public class TestData {
         device_e.setLabel("Device e");
         device_e.setLocationId(location_b.getId());
         device_e.setWarrantyExpirationDate(LocalDate.parse("2025-03-31"));
-        inventoryObjectRepository.insertOrUpdate(device_e);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_e);
 
         Device device_f = new Device();
         device_f.setId("device_f");
         device_f.setType("RPDU");
         device_f.setLabel("Device f");
         device_f.setServiceDueDate(LocalDate.parse("2025-03-31"));
-        inventoryObjectRepository.insertOrUpdate(device_f);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_f);
 
         Device device_g = new Device();
         device_g.setId("device_g");
@@ -122,7 +134,7 @@ public class TestData {
         device_g.setLabel("Device g");
         device_g.setLocationId(location_c.getId());
         device_g.setLastServiceDate(LocalDate.parse("2025-03-31"));
-        inventoryObjectRepository.insertOrUpdate(device_g);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_g);
 
         Device device_h = new Device();
         device_h.setId("device_h");
@@ -131,7 +143,7 @@ public class TestData {
         device_h.setLabel("Device h");
         device_h.setLocationId(location_c.getId());
         device_d.setDeviceNote("Device note 1");
-        inventoryObjectRepository.insertOrUpdate(device_h);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_h);
 
         Device device_i = new Device();
         device_i.setId("device_i");
@@ -139,7 +151,21 @@ public class TestData {
         device_i.setType("OUTLET_GROUP");
         device_i.setLabel("Device i");
         device_i.setLocationId(location_c.getId());
-        inventoryObjectRepository.insertOrUpdate(device_i);
+        inventoryObjectRepository.insertOrUpdate(ORGANIZATION_ID, device_i);
+
+        // Like the FetchEngine does, when it writes inventory objects to the database
+        inventoryIndex.putAll(
+                ORGANIZATION_ID,
+                List.of(
+                        organization_a,
+                        location_b,
+                        location_c,
+                        device_d,
+                        device_e,
+                        device_f,
+                        device_g,
+                        device_h,
+                        device_i));
 
         Alarm alarm_d1 = new Alarm();
         alarm_d1.deviceId(device_d.getId());
@@ -149,7 +175,7 @@ public class TestData {
         alarm_d1.setSeverity(SeverityEnum.WARNING);
         alarm_d1.setActivatedTime(OffsetDateTime.of(2019, 8, 20, 11, 27, 0, 0, ZoneOffset.UTC));
         alarm_d1.setAlarmReactivationCount(10);
-        alarmRepository.insertOrUpdate(alarm_d1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm_d1);
 
         Alarm alarm_h1 = new Alarm();
         alarm_h1.deviceId(device_h.getId());
@@ -159,7 +185,7 @@ public class TestData {
         alarm_h1.setSeverity(SeverityEnum.ERROR);
         alarm_h1.setActivatedTime(OffsetDateTime.of(2019, 7, 10, 8, 54, 0, 0, ZoneOffset.UTC));
         alarm_h1.setClearedTime(OffsetDateTime.of(2019, 7, 10, 9, 12, 0, 0, ZoneOffset.UTC));
-        alarmRepository.insertOrUpdate(alarm_h1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm_h1);
 
         Alarm alarm_i1 = new Alarm();
         alarm_i1.deviceId(device_i.getId());
@@ -168,7 +194,7 @@ public class TestData {
         alarm_i1.setMessage("i1-message");
         alarm_i1.setSeverity(SeverityEnum.ERROR);
         alarm_i1.setActivatedTime(OffsetDateTime.of(2019, 7, 19, 20, 3, 0, 0, ZoneOffset.UTC));
-        alarmRepository.insertOrUpdate(alarm_i1);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm_i1);
 
         Alarm alarm_i2 = new Alarm();
         alarm_i2.deviceId(device_i.getId());
@@ -177,20 +203,26 @@ public class TestData {
         alarm_i2.setMessage("i2-message");
         alarm_i2.setSeverity(SeverityEnum.WARNING);
         alarm_i2.setActivatedTime(OffsetDateTime.of(2019, 8, 3, 2, 23, 0, 0, ZoneOffset.UTC));
-        alarmRepository.insertOrUpdate(alarm_i2);
+        alarmRepository.insertOrUpdate(ORGANIZATION_ID, alarm_i2);
     }
 
     /**
-     * Empties inventory_object and alarm, and resets the last_api_poll.
+     * Empties inventory_object and alarm, and resets the last_api_poll. Also empties the inventory index.
      */
     public void resetDatabase() {
 
+        Map<String, List<String>> idsByOrganizationId = new HashMap<>();
+        jdbcTemplate.query("SELECT organization_id, id FROM inventory_object", resultSet -> {
+            idsByOrganizationId
+                    .computeIfAbsent(resultSet.getString("organization_id"), organizationId -> new ArrayList<>())
+                    .add(resultSet.getString("id"));
+        });
+        idsByOrganizationId.forEach(inventoryIndex::removeAll);
+
         jdbcTemplate.execute("TRUNCATE TABLE alarm");
 
         jdbcTemplate.execute("TRUNCATE TABLE inventory_object");
 
-        jdbcTemplate.execute("UPDATE last_api_poll "
-                + "SET current_offset = 0, last_changes_poll_time = 0, last_full_read_time = 0 "
-                + "WHERE resource_name IN ('alarm', 'inventory_object')");
+        jdbcTemplate.execute("TRUNCATE TABLE last_api_poll");
     }
 }
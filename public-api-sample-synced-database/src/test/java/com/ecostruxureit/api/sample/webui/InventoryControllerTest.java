@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.ecostruxureit.api.sample.Profiles;
 import com.ecostruxureit.api.sample.PublicApiSampleClientApplication;
+import com.ecostruxureit.api.sample.StatementCounter;
 import com.ecostruxureit.api.sample.TestData;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,9 @@ class InventoryControllerTest {
     @Autowired
     private TestRestTemplate httpClient;
 
+    @Autowired
+    private StatementCounter statementCounter;
+
     @Autowired
     private TestData testData;
 
@@ -101,6 +105,20 @@ class InventoryControllerTest {
         assertContentInFirstPreElement(html, expectedLineStarts);
     }
 
+    @Test
+    void inventoryObject_whenRequestingDevice_thenOnlyAlarmsAreReadFromDatabase() {
+
+        testData.insertTestDataIntoDatabase();
+
+        statementCounter.reset();
+        String path = InventoryObjectController.INVENTORY_OBJECTS_PATH + "/device_h";
+        ResponseEntity<String> htmlResponse = httpClient.getForEntity(path, String.class);
+        assertEquals(HttpStatus.OK, htmlResponse.getStatusCode());
+
+        // The tree is found in the inventory index, so only the alarms of the devices in the tree are read
+        assertEquals(1, statementCounter.getCount());
+    }
+
     @Test
     void inventoryObject_whenRequestingStandaloneDeviceWithLocation() {
 
@@ -0,0 +1,85 @@
+/* Copyright (c) 2025 Schneider Electric. All Rights Reserved. */
+package com.ecostruxureit.api.sample.webui;
+
+import static com.ecostruxureit.api.sample.webui.ControllerAssertions.assertContentInFirstPreElement;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ecostruxureit.api.sample.Profiles;
+import com.ecostruxureit.api.sample.PublicApiSampleClientApplication;
+import com.ecostruxureit.api.sample.StatementCounter;
+import com.ecostruxureit.api.sample.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests the inventory object details page, when the inventory index is disabled, and the tree is found by the recursive queries of the
+ * InventoryObjectRepository instead.
+ */
+@SpringBootTest(
+        classes = PublicApiSampleClientApplication.class,
+        webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = "inventoryIndexEnabled=false")
+@ActiveProfiles(Profiles.TEST)
+class InventoryControllerWithoutInventoryIndexTest {
+
+    // Meant for testing REST endpoints - but works fine for retrieving HTML pages as well
+    @Autowired
+    private TestRestTemplate httpClient;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private TestData testData;
+
+    /**
+     * In this test we cannot use @Transactional, as the data inserted in a transaction won't be visible when accessing the data via the
+     * controller (as it will run in its own separate transaction).
+     */
+    @AfterEach
+    void cleanupDatabase() {
+        testData.resetDatabase();
+    }
+
+    // Should give the same result no matter which one of the devices in "composite" device we request
+    @ParameterizedTest
+    @ValueSource(strings = {"device_g", "device_h", "device_i"})
+    void inventoryObject_whenRequestingDeviceWhichIsPartOfCompositeDevice_thenTreeIsFoundWithOneStatementPerLevel(
+            String deviceId) {
+
+        testData.insertTestDataIntoDatabase();
+
+        statementCounter.reset();
+        String path = InventoryObjectController.INVENTORY_OBJECTS_PATH + "/" + deviceId;
+        ResponseEntity<String> htmlResponse = httpClient.getForEntity(path, String.class);
+        assertEquals(HttpStatus.OK, htmlResponse.getStatusCode());
+        String html = htmlResponse.getBody();
+
+        String expectedLineStarts = ""
+                + "Organization\n"
+                + "   Location\n"
+                + "      Location\n"
+                + "         Device\n"
+                + "            * Alarm\n"
+                + "            Device\n"
+                + "            Device\n"
+                + "               * Alarm\n"
+                + "               Device\n"
+                + "                  * Alarm\n"
+                + "                  * Alarm";
+
+        assertContentInFirstPreElement(html, expectedLineStarts);
+
+        // 1 statement each for the requested device, its root device, the devices below the root, the locations, the organization, and
+        // the alarms of all the devices
+        assertEquals(6, statementCounter.getCount());
+    }
+}